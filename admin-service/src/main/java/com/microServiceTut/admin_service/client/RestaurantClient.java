@@ -1,5 +1,6 @@
 package com.microServiceTut.admin_service.client;
 
+import com.microServiceTut.admin_service.dto.RestaurantPageResponse;
 import com.microServiceTut.admin_service.dto.RestaurantResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,12 @@ public interface RestaurantClient {
     @GetMapping("/api/restaurants/admin/pending")
     List<RestaurantResponse> getPendingRestaurants();
 
+    @GetMapping("/api/restaurants/admin/page")
+    RestaurantPageResponse getRestaurantsPage(@RequestParam(required = false) String status,
+                                              @RequestParam(required = false) String cuisine,
+                                              @RequestParam(required = false) UUID after,
+                                              @RequestParam int limit);
+
     @PatchMapping("/api/restaurants/admin/{restaurantId}/approve")
     RestaurantResponse approveRestaurant(@PathVariable UUID restaurantId);
 
@@ -1,5 +1,6 @@
 package com.microServiceTut.admin_service.client;
 
+import com.microServiceTut.admin_service.dto.UserPageResponse;
 import com.microServiceTut.admin_service.dto.UserResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
@@ -12,6 +13,14 @@ public interface UserAuthClient {
     @GetMapping("/api/auth/admin/users")
     List<UserResponse> getAllUsers();
 
+    @GetMapping("/api/auth/admin/users/page")
+    UserPageResponse getUsersPage(@RequestParam(required = false) String role,
+                                  @RequestParam(required = false) UUID after,
+                                  @RequestParam int limit);
+
+    @PostMapping("/api/auth/internal/users:batchGet")
+    List<UserResponse> batchGetUsers(@RequestBody BatchGetUsersRequest request);
+
     @GetMapping("/api/auth/admin/users/{userId}")
     UserResponse getUserById(@PathVariable UUID userId);
 
@@ -27,6 +36,8 @@ public interface UserAuthClient {
     @GetMapping("/api/auth/admin/stats")
     UserStatsResponse getUserStats();
 
+    record BatchGetUsersRequest(List<UUID> ids) {}
+
     record UserStatsResponse(long totalUsers, long activeUsers, long blockedUsers,
                              long totalAdmins, long totalRiders) {}
 }
@@ -28,6 +28,17 @@ public class AdminController {
         return adminService.getUsersByRole(role);
     }
 
+    /**
+     * Keyset-paginated user listing; pass the previous page's nextCursor as "after".
+     */
+    @GetMapping("/users/page")
+    public UserPageResponse getUsersPage(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return adminService.getUsersPage(role, after, limit);
+    }
+
     @PatchMapping("/users/{userId}/block")
     public UserResponse blockUser(@PathVariable UUID userId) {
         return adminService.blockUser(userId);
@@ -50,6 +61,18 @@ public class AdminController {
         return adminService.getPendingRestaurants();
     }
 
+    /**
+     * Keyset-paginated restaurant listing; pass the previous page's nextCursor as "after".
+     */
+    @GetMapping("/restaurants/page")
+    public RestaurantPageResponse getRestaurantsPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cuisine,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return adminService.getRestaurantsPage(status, cuisine, after, limit);
+    }
+
     @PatchMapping("/restaurants/{restaurantId}/approve")
     public RestaurantResponse approveRestaurant(@PathVariable UUID restaurantId) {
         return adminService.approveRestaurant(restaurantId);
@@ -0,0 +1,14 @@
+package com.microServiceTut.admin_service.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestaurantPageResponse {
+    private List<RestaurantResponse> restaurants;
+    private UUID nextCursor;
+}
@@ -9,12 +9,14 @@ public interface AdminService {
     // User Management
     List<UserResponse> getAllUsers();
     List<UserResponse> getUsersByRole(String role);
+    UserPageResponse getUsersPage(String role, UUID after, int limit);
     UserResponse blockUser(UUID userId);
     UserResponse unblockUser(UUID userId);
 
     // Restaurant Approval
     List<RestaurantResponse> getAllRestaurants();
     List<RestaurantResponse> getPendingRestaurants();
+    RestaurantPageResponse getRestaurantsPage(String status, String cuisine, UUID after, int limit);
     RestaurantResponse approveRestaurant(UUID restaurantId);
     RestaurantResponse rejectRestaurant(UUID restaurantId);
 
@@ -33,6 +33,11 @@ public class AdminServiceImpl implements AdminService {
         return userAuthClient.getUsersByRole(role);
     }
 
+    @Override
+    public UserPageResponse getUsersPage(String role, UUID after, int limit) {
+        return userAuthClient.getUsersPage(role, after, limit);
+    }
+
     @Override
     public UserResponse blockUser(UUID userId) {
         return userAuthClient.blockUser(userId);
@@ -54,6 +59,11 @@ public class AdminServiceImpl implements AdminService {
         return restaurantClient.getPendingRestaurants();
     }
 
+    @Override
+    public RestaurantPageResponse getRestaurantsPage(String status, String cuisine, UUID after, int limit) {
+        return restaurantClient.getRestaurantsPage(status, cuisine, after, limit);
+    }
+
     @Override
     public RestaurantResponse approveRestaurant(UUID restaurantId) {
         return restaurantClient.approveRestaurant(restaurantId);
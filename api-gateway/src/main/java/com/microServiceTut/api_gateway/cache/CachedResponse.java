@@ -0,0 +1,16 @@
+package com.microServiceTut.api_gateway.cache;
+
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+
+/**
+ * A buffered upstream response body with the headers needed to replay it.
+ */
+public record CachedResponse(
+        byte[] body,
+        MediaType contentType,
+        String contentEncoding,
+        String etag,
+        Duration ttl
+) {}
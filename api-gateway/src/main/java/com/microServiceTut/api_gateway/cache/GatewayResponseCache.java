@@ -0,0 +1,152 @@
+package com.microServiceTut.api_gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microServiceTut.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory store of whole response bodies for the configured read routes.
+ *
+ * Entries are weighed by body size and expire after their route's TTL.
+ * An invalidation bumps a generation counter, so a response fetched before the
+ * invalidation is never stored after it.
+ */
+@Component
+public class GatewayResponseCache {
+
+    public static final String CACHE_NAME = "gateway.response.cache";
+
+    private final Cache<ResponseCacheKey, CachedResponse> cache;
+    private final List<CompiledRule> rules;
+    private final long maxEntrySize;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter notModified;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    public GatewayResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.maxEntrySize = properties.getMaxEntrySize().toBytes();
+        this.rules = properties.getRoutes().stream()
+                .map(rule -> new CompiledRule(PathPatternParser.defaultInstance.parse(rule.getPath()), rule.getTtl()))
+                .toList();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((ResponseCacheKey key, CachedResponse value) -> value.body().length)
+                .expireAfter(new TtlExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.hits = Counter.builder(CACHE_NAME + ".requests").tag("result", "hit").register(meterRegistry);
+        this.notModified = Counter.builder(CACHE_NAME + ".requests").tag("result", "not_modified").register(meterRegistry);
+        this.misses = Counter.builder(CACHE_NAME + ".requests").tag("result", "miss").register(meterRegistry);
+        this.bytesSaved = Counter.builder(CACHE_NAME + ".bytes.saved")
+                .description("Response bytes served without calling the upstream service")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * TTL of the first rule matching the path, or null if the path is not cacheable.
+     */
+    public Duration ttlFor(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (CompiledRule rule : rules) {
+            if (rule.pattern().matches(container)) {
+                return rule.ttl();
+            }
+        }
+        return null;
+    }
+
+    public CachedResponse get(ResponseCacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Store a response fetched while the cache was at the given generation.
+     */
+    public CachedResponse put(ResponseCacheKey key, byte[] body, CachedResponse template, long fetchedAtGeneration) {
+        if (body.length > maxEntrySize || fetchedAtGeneration != generation.get()) {
+            return null;
+        }
+        CachedResponse entry = new CachedResponse(body, template.contentType(), template.contentEncoding(),
+                etag(body), template.ttl());
+        cache.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Drop every entry whose path starts with the given prefix.
+     */
+    public void invalidate(String pathPrefix) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.path().startsWith(pathPrefix));
+    }
+
+    public void recordHit(CachedResponse entry) {
+        hits.increment();
+        bytesSaved.increment(entry.body().length);
+    }
+
+    public void recordNotModified(CachedResponse entry) {
+        notModified.increment();
+        bytesSaved.increment(entry.body().length);
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CompiledRule(PathPattern pattern, Duration ttl) {}
+
+    private static final class TtlExpiry implements Expiry<ResponseCacheKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(ResponseCacheKey key, CachedResponse value, long currentTime) {
+            return value.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(ResponseCacheKey key, CachedResponse value, long currentTime,
+                                      long currentDuration) {
+            return value.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(ResponseCacheKey key, CachedResponse value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
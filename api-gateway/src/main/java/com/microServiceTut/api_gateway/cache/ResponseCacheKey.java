@@ -0,0 +1,6 @@
+package com.microServiceTut.api_gateway.cache;
+
+public record ResponseCacheKey(
+        String path,
+        String query
+) {}
@@ -0,0 +1,60 @@
+package com.microServiceTut.api_gateway.client;
+
+import com.microServiceTut.api_gateway.client.dto.RevokedTokenResponse;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Client for the internal revocation and key endpoints of USER-AUTH-SERVICE.
+ */
+@Component
+public class UserAuthClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<RevokedTokenResponse>> REVOKED_EVENT =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+
+    public UserAuthClient(WebClient.Builder builder) {
+        this.webClient = builder
+                .baseUrl("http://USER-AUTH-SERVICE")
+                .build();
+    }
+
+    public Mono<List<RevokedTokenResponse>> getRevokedTokens() {
+        return webClient.get()
+                .uri("/api/auth/internal/revocations")
+                .retrieve()
+                .bodyToFlux(RevokedTokenResponse.class)
+                .collectList();
+    }
+
+    public Flux<RevokedTokenResponse> streamRevocations() {
+        return webClient.get()
+                .uri("/api/auth/internal/revocations/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(REVOKED_EVENT)
+                .map(ServerSentEvent::data)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Raw JWK Set JSON, parsed by JwksKeyCache.
+     */
+    public Mono<String> getJwks() {
+        return webClient.get()
+                .uri("/api/auth/.well-known/jwks.json")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
@@ -0,0 +1,6 @@
+package com.microServiceTut.api_gateway.client.dto;
+
+public record RevokedTokenResponse(
+        String tokenId,
+        long expiresAt
+) {}
@@ -0,0 +1,111 @@
+package com.microServiceTut.api_gateway.compression;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Incremental gzip encoder: each input buffer is deflated as it arrives, so a response
+ * is never held in memory as a whole. Not thread-safe; instances come from GzipEncoderPool.
+ */
+public final class GzipEncoder {
+
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, // magic
+            Deflater.DEFLATED,
+            0,                 // flags
+            0, 0, 0, 0,        // mtime
+            0,                 // extra flags
+            (byte) 0xff        // OS unknown
+    };
+    private static final int TRAILER_SIZE = 8;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[8192];
+    private boolean headerWritten;
+
+    GzipEncoder(int level) {
+        // Raw deflate; the gzip header and trailer are written here
+        this.deflater = new Deflater(level, true);
+    }
+
+    /**
+     * Compress one chunk. Releases the input; the result may be empty while deflate buffers.
+     */
+    public DataBuffer encode(DataBuffer input, DataBufferFactory bufferFactory) {
+        DataBuffer output = bufferFactory.allocateBuffer(Math.max(64, input.readableByteCount() / 2));
+        try {
+            writeHeader(output);
+            try (DataBuffer.ByteBufferIterator buffers = input.readableByteBuffers()) {
+                while (buffers.hasNext()) {
+                    ByteBuffer chunk = buffers.next();
+                    crc.update(chunk.duplicate());
+                    deflater.setInput(chunk);
+                    while (!deflater.needsInput()) {
+                        drain(output, Deflater.NO_FLUSH);
+                    }
+                }
+            }
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            DataBufferUtils.release(input);
+        }
+    }
+
+    /**
+     * Flush the remaining compressed data and the gzip trailer.
+     */
+    public DataBuffer finish(DataBufferFactory bufferFactory) {
+        DataBuffer output = bufferFactory.allocateBuffer(256);
+        writeHeader(output);
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain(output, Deflater.NO_FLUSH);
+        }
+        byte[] trailer = new byte[TRAILER_SIZE];
+        writeIntLE(trailer, 0, (int) crc.getValue());
+        writeIntLE(trailer, 4, (int) deflater.getBytesRead());
+        output.write(trailer);
+        return output;
+    }
+
+    void reset() {
+        deflater.reset();
+        crc.reset();
+        headerWritten = false;
+    }
+
+    void end() {
+        deflater.end();
+    }
+
+    private void writeHeader(DataBuffer output) {
+        if (!headerWritten) {
+            output.write(HEADER);
+            headerWritten = true;
+        }
+    }
+
+    private void drain(DataBuffer output, int flush) {
+        int length = deflater.deflate(scratch, 0, scratch.length, flush);
+        if (length > 0) {
+            output.ensureWritable(length);
+            output.write(scratch, 0, length);
+        }
+    }
+
+    private static void writeIntLE(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+        target[offset + 2] = (byte) (value >>> 16);
+        target[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,39 @@
+package com.microServiceTut.api_gateway.compression;
+
+import com.microServiceTut.api_gateway.config.CompressionProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reuses gzip encoders across responses. A Deflater holds ~256KB of native memory,
+ * so creating one per response is costly; encoders beyond the pool size are ended on release.
+ */
+@Component
+public class GzipEncoderPool {
+
+    private final int level;
+    private final BlockingQueue<GzipEncoder> idle;
+
+    public GzipEncoderPool(CompressionProperties properties) {
+        this.level = properties.getLevel();
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, properties.getPoolSize()));
+    }
+
+    public GzipEncoder borrow() {
+        GzipEncoder encoder = idle.poll();
+        return encoder != null ? encoder : new GzipEncoder(level);
+    }
+
+    public void release(GzipEncoder encoder) {
+        encoder.reset();
+        if (!idle.offer(encoder)) {
+            encoder.end();
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,143 @@
+package com.microServiceTut.api_gateway.concurrency;
+
+import com.microServiceTut.api_gateway.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-route in-flight limits for the downstream services.
+ *
+ * Each route learns its limit from upstream latency (see GradientLimit). A request is
+ * admitted while the route's in-flight count is below the share of the limit its role
+ * may use, so lower-priority roles are shed first as a service approaches saturation.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    public static final String METRIC_PREFIX = "gateway.concurrency";
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteLimit> routes = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Admit a request, or return null if it should be shed.
+     */
+    public Permit tryAcquire(String routeId, String role) {
+        RouteLimit route = routes.computeIfAbsent(routeId, this::createRoute);
+        int allowed = Math.max(1, (int) (route.limit.getLimit() * properties.shareFor(role)));
+
+        int current;
+        do {
+            current = route.inFlight.get();
+            if (current >= allowed) {
+                route.shedCounter(role).increment();
+                return null;
+            }
+        } while (!route.inFlight.compareAndSet(current, current + 1));
+
+        return new Permit(route, current, System.nanoTime());
+    }
+
+    public int getLimit(String routeId) {
+        RouteLimit route = routes.get(routeId);
+        return route != null ? route.limit.getLimit() : properties.forRoute(routeId).getInitialLimit();
+    }
+
+    public int getInFlight(String routeId) {
+        RouteLimit route = routes.get(routeId);
+        return route != null ? route.inFlight.get() : 0;
+    }
+
+    private RouteLimit createRoute(String routeId) {
+        RouteLimit route = new RouteLimit(routeId, new GradientLimit(properties.forRoute(routeId)));
+        Gauge.builder(METRIC_PREFIX + ".limit", route.limit, GradientLimit::getLimit)
+                .description("Learned in-flight limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", route.inFlight, AtomicInteger::get)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return route;
+    }
+
+    private final class RouteLimit {
+
+        private final String routeId;
+        private final GradientLimit limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+        RouteLimit(String routeId, GradientLimit limit) {
+            this.routeId = routeId;
+            this.limit = limit;
+        }
+
+        Counter shedCounter(String role) {
+            return shedCounters.computeIfAbsent(role, r -> Counter.builder(METRIC_PREFIX + ".shed")
+                    .description("Requests rejected with 503 by the concurrency limit")
+                    .tag("route", routeId)
+                    .tag("role", r)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * An admitted request. Exactly one of release or cancel takes effect; the latency is
+     * sampled at most once, by sample or else by release.
+     */
+    public static final class Permit {
+
+        private final RouteLimit route;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(RouteLimit route, int inFlightAtStart, long startNanos) {
+            this.route = route;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * The upstream's response has started; the time until now feeds the limit.
+         */
+        public void sample(boolean dropped) {
+            if (!done.get() && sampled.compareAndSet(false, true)) {
+                route.limit.onSample(System.nanoTime() - startNanos, inFlightAtStart + 1, dropped);
+            }
+        }
+
+        /**
+         * The exchange is over; frees the slot, sampling the latency if no response started.
+         */
+        public void release(boolean dropped) {
+            sample(dropped);
+            if (done.compareAndSet(false, true)) {
+                route.inFlight.decrementAndGet();
+            }
+        }
+
+        /**
+         * The client went away; the request says nothing about upstream latency.
+         */
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                route.inFlight.decrementAndGet();
+            }
+        }
+    }
+}
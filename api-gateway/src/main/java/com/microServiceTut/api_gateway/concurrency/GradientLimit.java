@@ -0,0 +1,81 @@
+package com.microServiceTut.api_gateway.concurrency;
+
+import com.microServiceTut.api_gateway.config.ConcurrencyLimitProperties;
+
+/**
+ * Concurrency limit learned from observed latency (gradient algorithm).
+ *
+ * The gradient is minRtt * tolerance / sampleRtt, clamped to [0.5, 1]. The new limit is
+ * limit * gradient + sqrt(limit), so it grows while latency stays near the minimum and
+ * shrinks once requests start queueing. Failed or overloaded responses back off by 10%.
+ *
+ * Under sustained load every sample includes queueing delay, so the minimum RTT is
+ * relearned periodically: the limit is halved and the next samples, taken at lower
+ * concurrency, set the new minimum.
+ */
+final class GradientLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final ConcurrencyLimitProperties.Limit config;
+
+    private double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    // Read without locking on every request
+    private volatile int estimatedLimit;
+
+    GradientLimit(ConcurrencyLimitProperties.Limit config) {
+        this.config = config;
+        this.limit = clamp(config.getInitialLimit());
+        this.estimatedLimit = (int) limit;
+    }
+
+    int getLimit() {
+        return estimatedLimit;
+    }
+
+    /**
+     * Record one completed request.
+     *
+     * @param rttNanos time the request spent upstream
+     * @param inFlight requests in flight when it started
+     * @param dropped  the upstream failed or reported overload
+     */
+    synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            update(limit * BACKOFF_RATIO);
+            return;
+        }
+
+        if (++samplesSinceProbe >= config.getProbeInterval()) {
+            samplesSinceProbe = 0;
+            minRttNanos = Long.MAX_VALUE;
+            update(limit / 2);
+            return;
+        }
+
+        minRttNanos = Math.min(minRttNanos, Math.max(1, rttNanos));
+        double gradient = Math.max(MIN_GRADIENT,
+                Math.min(1.0, config.getRttTolerance() * minRttNanos / Math.max(1, rttNanos)));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        // Traffic is not using the limit, so latency says nothing about raising it
+        if (inFlight < limit / 2) {
+            newLimit = Math.min(newLimit, limit);
+        }
+
+        update(limit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing());
+    }
+
+    private void update(double newLimit) {
+        limit = clamp(newLimit);
+        estimatedLimit = (int) limit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), value));
+    }
+}
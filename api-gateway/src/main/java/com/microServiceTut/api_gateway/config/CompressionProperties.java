@@ -0,0 +1,41 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gzip compression of responses for clients that accept it.
+ * Loaded from the "compression" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "compression")
+@Data
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    // Responses with a smaller Content-Length are sent as is; unknown lengths are compressed
+    private DataSize minResponseSize = DataSize.ofKilobytes(1);
+
+    // 1 (fastest) to 9 (smallest)
+    private int level = 5;
+
+    // Idle compressors kept for reuse
+    private int poolSize = 64;
+
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json",
+            "application/problem+json",
+            "application/xml",
+            "application/javascript",
+            "text/html",
+            "text/plain",
+            "text/css",
+            "text/xml"
+    ));
+}
@@ -0,0 +1,63 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive in-flight limits per downstream route, with load shedding by role.
+ * Loaded from the "concurrency-limit" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    // Role used for requests on public endpoints, where X-USER-ROLE is not trusted
+    public static final String ANONYMOUS_ROLE = "ANONYMOUS";
+
+    private boolean enabled = true;
+
+    // Applies to routes without an entry in "routes"
+    private Limit defaults = new Limit();
+
+    // Route id -> limit override
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    // Role -> share of a route's limit its requests may occupy; unlisted roles get the whole limit,
+    // so ADMIN and RIDER requests are still admitted after USER requests start being shed
+    private Map<String, Double> roleShares = new LinkedHashMap<>(Map.of(
+            "USER", 0.8,
+            ANONYMOUS_ROLE, 0.6
+    ));
+
+    public Limit forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    public double shareFor(String role) {
+        return roleShares.getOrDefault(role, 1.0);
+    }
+
+    @Data
+    public static class Limit {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 500;
+
+        // Latency may grow to this multiple of the minimum RTT before the limit shrinks
+        private double rttTolerance = 1.5;
+
+        // Weight of each new estimate, lower is steadier
+        private double smoothing = 0.2;
+
+        // Samples between probes, which halve the limit and relearn the minimum RTT
+        private int probeInterval = 1000;
+    }
+}
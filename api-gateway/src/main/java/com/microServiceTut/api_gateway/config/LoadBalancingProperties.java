@@ -0,0 +1,68 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instance selection and request hedging for lb:// routes.
+ * Loaded from the "load-balancing" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "load-balancing")
+@Data
+public class LoadBalancingProperties {
+
+    // How quickly an instance's latency estimate forgets old samples
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    // Applies to routes without an entry in "routes"
+    private RouteSettings defaults = new RouteSettings();
+
+    // Route id -> settings override
+    private Map<String, RouteSettings> routes = new LinkedHashMap<>();
+
+    public RouteSettings forRoute(String routeId) {
+        return routeId != null ? routes.getOrDefault(routeId, defaults) : defaults;
+    }
+
+    public enum Strategy {
+        // Power of two choices by latency and in-flight requests
+        LATENCY,
+        ROUND_ROBIN
+    }
+
+    @Data
+    public static class RouteSettings {
+
+        private Strategy strategy = Strategy.LATENCY;
+
+        private Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class Hedge {
+
+        // Only ever applied to GET requests
+        private boolean enabled = false;
+
+        // A second instance is tried once the first has taken longer than this latency percentile
+        private double percentile = 0.95;
+
+        private Duration minDelay = Duration.ofMillis(20);
+
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        // Path patterns that may be hedged: small idempotent reads only, never listings or exports
+        private List<String> paths = new ArrayList<>();
+
+        // Each copy of a hedged request gives up if no response (or body data) arrives within this
+        private Duration responseTimeout = Duration.ofSeconds(5);
+    }
+}
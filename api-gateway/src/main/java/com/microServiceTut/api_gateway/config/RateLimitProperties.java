@@ -0,0 +1,52 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limits per route and user.
+ * Loaded from the "rate-limit" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Tokens taken from Redis per round trip and served locally until used or expired
+    private int leaseSize = 5;
+
+    private Duration leaseTtl = Duration.ofSeconds(1);
+
+    // Per-call bound on the Redis round trip; past it the request is allowed (fail open)
+    private Duration storeTimeout = Duration.ofMillis(100);
+
+    // After a store failure, requests are allowed without trying Redis for this long
+    private Duration storeRetryInterval = Duration.ofSeconds(1);
+
+    // Applies to routes without an entry in "routes"
+    private Limit defaults = new Limit();
+
+    // Route id -> limit override
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    public Limit forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    @Data
+    public static class Limit {
+
+        // Tokens added per second
+        private double replenishRate = 10;
+
+        // Maximum bucket size, i.e. the allowed burst
+        private int burstCapacity = 20;
+    }
+}
@@ -0,0 +1,39 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-flight merging of identical in-flight GET requests.
+ * Loaded from the "request-coalescing" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "request-coalescing")
+@Data
+public class RequestCoalescingProperties {
+
+    private boolean enabled = true;
+
+    // Route ids whose GETs are merged
+    private List<String> routes = new ArrayList<>(List.of("menu-service", "restaurant-service"));
+
+    // Path patterns of catalog reads, merged across callers of the same role; other paths are never merged
+    private List<String> paths = new ArrayList<>();
+
+    // Path patterns whose response depends on the caller, merged only among one user's duplicates
+    private List<String> perUserPaths = new ArrayList<>();
+
+    // Request headers that change the response and so are part of the merge key (caller role always is)
+    private List<String> varyHeaders = new ArrayList<>(List.of("Accept", "Accept-Encoding", "Accept-Language"));
+
+    // Larger responses are passed through to the leader and waiters fetch on their own
+    private DataSize maxResponseSize = DataSize.ofMegabytes(1);
+
+    // Followers beyond this per key go upstream on their own
+    private int maxWaiters = 1000;
+}
@@ -0,0 +1,50 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gateway response cache for public catalog reads.
+ * Loaded from the "response-cache" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "response-cache")
+@Data
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Total size of cached bodies
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    // Larger responses are passed through uncached
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    private List<Rule> routes = new ArrayList<>(List.of(
+            new Rule("/api/restaurants", Duration.ofSeconds(30)),
+            new Rule("/api/menus/restaurant/{restaurantId}", Duration.ofSeconds(60))
+    ));
+
+    @Data
+    public static class Rule {
+
+        // Spring path pattern, matched against GET requests
+        private String path;
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Rule() {
+        }
+
+        public Rule(String path, Duration ttl) {
+            this.path = path;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route access rules for the gateway.
+ * Loaded from the "route-access" section of config-repo/api-gateway.yml,
+ * defaults mirror the rules that used to be hardcoded in RouteValidator.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "route-access")
+@Data
+public class RouteAccessProperties {
+
+    // Public endpoints - no authentication required
+    private List<String> publicEndpoints = new ArrayList<>(List.of(
+            "/api/auth/register",
+            "/api/auth/login",
+            "/api/auth/validate",
+            "/api/auth/.well-known/jwks.json",
+            "/auth/register",
+            "/auth/login",
+            "/auth/validate",
+            "/actuator/health"
+    ));
+
+    // Role -> path prefixes the role may access
+    private Map<String, List<String>> roles = new LinkedHashMap<>(Map.of(
+            "USER", List.of(
+                    "/auth/profile",
+                    "/api/cart",
+                    "/api/orders",
+                    "/api/payments",
+                    "/api/menus",
+                    "/api/restaurants"
+            ),
+            "ADMIN", List.of(
+                    "/auth/profile",
+                    "/auth/admin",
+                    "/api/admin",
+                    "/api/restaurants",
+                    "/api/menus",
+                    "/api/orders",
+                    "/api/payments",
+                    "/api/delivery"
+            ),
+            "RIDER", List.of(
+                    "/auth/profile",
+                    "/api/delivery",
+                    "/api/orders"
+            )
+    ));
+
+    // Role -> path prefixes where the role can only read (GET)
+    private Map<String, List<String>> readOnly = new LinkedHashMap<>(Map.of(
+            "USER", List.of(
+                    "/api/restaurants",
+                    "/api/menus"
+            )
+    ));
+}
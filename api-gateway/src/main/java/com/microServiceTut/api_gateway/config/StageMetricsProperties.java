@@ -0,0 +1,30 @@
+package com.microServiceTut.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-stage timing of requests through AuthenticationFilter.
+ * Loaded from the "stage-metrics" section of config-repo/api-gateway.yml.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "stage-metrics")
+@Data
+public class StageMetricsProperties {
+
+    private boolean enabled = true;
+
+    // Client-side percentiles published for every stage timer
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.95, 0.99));
+
+    // Requests slower than this end to end are candidates for the slow-request log
+    private Duration slowRequestThreshold = Duration.ofSeconds(1);
+
+    // Fraction of slow requests that are logged with their stage breakdown
+    private double slowRequestLogRate = 0.1;
+}
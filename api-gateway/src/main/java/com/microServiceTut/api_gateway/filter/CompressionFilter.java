@@ -0,0 +1,161 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.compression.GzipEncoderPool;
+import com.microServiceTut.api_gateway.config.CompressionProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Gzip-compresses responses for clients that send Accept-Encoding: gzip.
+ *
+ * 1. Only compressible content types above the size threshold are compressed
+ * 2. Responses that already carry a Content-Encoding are passed through untouched
+ * 3. The body is compressed chunk by chunk as it streams from upstream
+ */
+@Component
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    private static final String GZIP = "gzip";
+
+    private final GzipEncoderPool encoderPool;
+    private final CompressionProperties properties;
+    private final List<MediaType> compressibleTypes;
+
+    public CompressionFilter(GzipEncoderPool encoderPool, CompressionProperties properties) {
+        this.encoderPool = encoderPool;
+        this.properties = properties;
+        this.compressibleTypes = properties.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() == HttpMethod.HEAD || !acceptsGzip(request)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse decorated = new CompressingResponseDecorator(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Outside the response cache, so cached bodies stay uncompressed and cache hits get compressed too
+        return FilterOrder.COMPRESSION;
+    }
+
+    static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String header : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (!GZIP.equalsIgnoreCase(name) && !"*".equals(name)) {
+                    continue;
+                }
+                // gzip;q=0 means "not acceptable"
+                boolean refused = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            refused = Double.parseDouble(param.substring(2)) == 0;
+                        } catch (NumberFormatException e) {
+                            refused = true;
+                        }
+                    }
+                }
+                if (!refused) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private class CompressingResponseDecorator extends ServerHttpResponseDecorator {
+
+        CompressingResponseDecorator(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shouldCompress()) {
+                return super.writeWith(body);
+            }
+
+            HttpHeaders headers = getHeaders();
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                // Same content, different bytes: the validator can only stay weak
+                headers.setETag("W/" + etag);
+            }
+
+            Flux<DataBuffer> compressed = Flux.using(
+                    encoderPool::borrow,
+                    encoder -> Flux.from(body)
+                            .map(buffer -> encoder.encode(buffer, bufferFactory()))
+                            .concatWith(Mono.fromCallable(() -> encoder.finish(bufferFactory())))
+                            .filter(this::nonEmpty),
+                    encoderPool::release);
+            return super.writeWith(compressed.doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+        }
+
+        private boolean nonEmpty(DataBuffer buffer) {
+            if (buffer.readableByteCount() > 0) {
+                return true;
+            }
+            DataBufferUtils.release(buffer);
+            return false;
+        }
+
+        private boolean shouldCompress() {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            if (status != null && (status.value() == HttpStatus.NO_CONTENT.value()
+                    || status.value() == HttpStatus.NOT_MODIFIED.value())) {
+                return false;
+            }
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return false;
+            }
+            long length = headers.getContentLength();
+            if (length >= 0 && length < properties.getMinResponseSize().toBytes()) {
+                return false;
+            }
+            if (headers.getCacheControl() != null && headers.getCacheControl().contains("no-transform")) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            for (MediaType compressible : compressibleTypes) {
+                if (compressible.includes(contentType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.microServiceTut.api_gateway.config.ConcurrencyLimitProperties;
+import com.microServiceTut.api_gateway.security.RouteValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+
+/**
+ * Global load shedding filter for API Gateway.
+ *
+ * Caps the requests in flight to each downstream route at a limit learned from its latency,
+ * so a slow service sheds excess load with 503 instead of queueing it in the gateway.
+ * USER and anonymous requests are shed before ADMIN and RIDER requests.
+ *
+ * The latency sample is taken when the response commits, so the time spent streaming the
+ * body to the client is not counted as upstream latency. A streaming response (SSE, NDJSON)
+ * also gives up its slot at that point, since its length says nothing about upstream load.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES =
+            List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+    private final RouteValidator routeValidator;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        String role = role(exchange.getRequest());
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(route.getId(), role);
+        if (permit == null) {
+            log.warn("Shedding {} request to route {} (limit {})", role, route.getId(), limiter.getLimit(route.getId()));
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return GatewayRejection.OVERLOADED.write(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            boolean dropped = isOverloaded(response.getStatusCode());
+            if (isStream(response.getHeaders().getContentType())) {
+                permit.release(dropped);
+            } else {
+                permit.sample(dropped);
+            }
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        permit.cancel();
+                    } else {
+                        permit.release(signal == SignalType.ON_ERROR || isOverloaded(response.getStatusCode()));
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // After the cache and coalescing filters, so only requests that reach upstream take a slot
+        return FilterOrder.CONCURRENCY_LIMIT;
+    }
+
+    private String role(ServerHttpRequest request) {
+        // X-USER-ROLE is only trusted on secured endpoints, where AuthenticationFilter sets it
+        String role = request.getHeaders().getFirst("X-USER-ROLE");
+        if (role == null || routeValidator.isPublic(request.getURI().getPath())) {
+            return ConcurrencyLimitProperties.ANONYMOUS_ROLE;
+        }
+        return role;
+    }
+
+    private static boolean isStream(MediaType contentType) {
+        return contentType != null
+                && STREAMING_MEDIA_TYPES.stream().anyMatch(streaming -> streaming.equalsTypeAndSubtype(contentType));
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status.value() == HttpStatus.BAD_GATEWAY.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+}
@@ -0,0 +1,29 @@
+package com.microServiceTut.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+
+/**
+ * Order of the gateway's global filters.
+ * Filters that decorate the response must run before NettyWriteResponseFilter,
+ * otherwise the upstream body is written to the undecorated response.
+ */
+public final class FilterOrder {
+
+    private FilterOrder() {
+    }
+
+    public static final int AUTHENTICATION = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 40;
+    public static final int RATE_LIMIT = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 30;
+    public static final int COMPRESSION = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 25;
+    public static final int RESPONSE_CACHE = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 20;
+    public static final int REQUEST_COALESCING = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 15;
+    public static final int CONCURRENCY_LIMIT = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+
+    // Needs the instance chosen by the load balancer filter
+    public static final int LOAD_BALANCER_LATENCY = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    // Routes hedged requests itself, so must run before the Netty routing filter
+    public static final int HEDGED_ROUTING = NettyRoutingFilter.ORDER - 1;
+}
@@ -0,0 +1,62 @@
+package com.microServiceTut.api_gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Error responses written by the gateway's own filters.
+ *
+ * Each JSON body is encoded once at class load and shared as a read-only buffer,
+ * so a rejection only wraps existing bytes instead of formatting and encoding a new string.
+ * Rejections dominate traffic during credential-stuffing bursts.
+ */
+public enum GatewayRejection {
+
+    MISSING_TOKEN(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header"),
+    INVALID_TOKEN(HttpStatus.UNAUTHORIZED, "Invalid or expired token"),
+    REVOKED_TOKEN(HttpStatus.UNAUTHORIZED, "Token has been revoked"),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN, "Access denied. Insufficient permissions."),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded. Please retry later."),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Service is overloaded. Please retry later.");
+
+    private final HttpStatus status;
+    private final String message;
+    private final ByteBuffer body;
+    private final int contentLength;
+
+    GatewayRejection(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+        byte[] bytes = String.format(
+                "{\"status\":%d,\"error\":\"%s\",\"message\":\"%s\"}",
+                status.value(), status.getReasonPhrase(), message
+        ).getBytes(StandardCharsets.UTF_8);
+        this.body = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        this.contentLength = bytes.length;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(contentLength);
+        // duplicate() shares the bytes, only the position/limit are per response
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.duplicate())));
+    }
+}
@@ -0,0 +1,331 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.config.LoadBalancingProperties;
+import com.microServiceTut.api_gateway.loadbalancer.InstanceLatencyTracker;
+import com.microServiceTut.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hedged GETs for routes with load-balancing.routes.<id>.hedge.enabled, limited to the
+ * route's hedge.paths allow-list of small idempotent reads.
+ *
+ * The request goes to the instance chosen by the load balancer. If it has not answered
+ * after the route's latency percentile, the same request is sent to a second instance;
+ * the first response to arrive wins, the other request is cancelled, and the winner's body
+ * is streamed through. Requests asking for a streaming media type are never hedged.
+ * Both requests go through the gateway's own HttpClient (pool, SSL, proxy settings).
+ */
+@Component
+@Slf4j
+public class HedgedRequestFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Set on exchanges routed by this filter.
+     */
+    public static final String HEDGED_ATTR = HedgedRequestFilter.class.getName() + ".hedged";
+
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    // Long-lived bodies: a second copy of the request would only double the stream
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(
+            MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final LoadBalancingProperties properties;
+    private final InstanceLatencyTracker tracker;
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient;
+    private final Map<String, List<PathPattern>> pathPatterns = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> sentCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> winCounters = new ConcurrentHashMap<>();
+
+    public HedgedRequestFilter(LoadBalancingProperties properties, InstanceLatencyTracker tracker,
+                               ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers,
+                               ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                               HttpClient httpClient,
+                               MeterRegistry meterRegistry) {
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.properties = properties;
+        this.tracker = tracker;
+        this.loadBalancers = loadBalancers;
+        this.headersFilters = headersFilters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (route == null || url == null || chosen == null || !chosen.hasServer()
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || !("http".equals(url.getScheme()) || "https".equals(url.getScheme()))) {
+            return chain.filter(exchange);
+        }
+        LoadBalancingProperties.Hedge hedge = properties.forRoute(route.getId()).getHedge();
+        if (!hedge.isEnabled() || !isHedgedPath(route.getId(), hedge, exchange) || acceptsStream(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        exchange.getAttributes().put(HEDGED_ATTR, Boolean.TRUE);
+
+        ServiceInstance primary = chosen.getServer();
+        HttpHeaders headers = requestHeaders(exchange);
+        Duration delay = hedgeDelay(primary.getServiceId(), hedge);
+
+        Race race = new Race();
+        Mono<Boolean> first = send(exchange, primary, url, headers, hedge, false, race);
+        Mono<Boolean> second = Mono.delay(delay)
+                // The primary already answered, its body may still be streaming
+                .filter(tick -> !race.decided())
+                .flatMap(tick -> chooseOther(exchange, primary))
+                .flatMap(instance -> {
+                    sentCounter(route.getId()).increment();
+                    log.debug("Hedging {} to {}:{} after {}", url.getPath(), instance.getHost(), instance.getPort(), delay);
+                    return send(exchange, instance, withInstance(url, instance), headers, hedge, true, race);
+                });
+
+        return Mono.firstWithValue(first, second)
+                .doOnNext(hedgeWon -> {
+                    if (hedgeWon) {
+                        winCounter(route.getId()).increment();
+                    }
+                })
+                .then(chain.filter(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        return FilterOrder.HEDGED_ROUTING;
+    }
+
+    private Duration hedgeDelay(String serviceId, LoadBalancingProperties.Hedge hedge) {
+        long percentile = tracker.percentileNanos(serviceId, hedge.getPercentile());
+        if (percentile < 0) {
+            // Not enough samples yet to tell what slow means
+            return hedge.getMaxDelay();
+        }
+        Duration delay = Duration.ofNanos(percentile);
+        if (delay.compareTo(hedge.getMinDelay()) < 0) {
+            return hedge.getMinDelay();
+        }
+        return delay.compareTo(hedge.getMaxDelay()) > 0 ? hedge.getMaxDelay() : delay;
+    }
+
+    private boolean isHedgedPath(String routeId, LoadBalancingProperties.Hedge hedge, ServerWebExchange exchange) {
+        List<PathPattern> patterns = pathPatterns.computeIfAbsent(routeId, id -> hedge.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList());
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsStream(ServerWebExchange exchange) {
+        for (MediaType accepted : exchange.getRequest().getHeaders().getAccept()) {
+            for (MediaType streaming : STREAMING_MEDIA_TYPES) {
+                if (streaming.equalsTypeAndSubtype(accepted)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Mono<ServiceInstance> chooseOther(ServerWebExchange exchange, ServiceInstance primary) {
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = loadBalancers.getInstance(primary.getServiceId());
+        if (loadBalancer == null) {
+            return Mono.empty();
+        }
+        Map<String, Object> attributes = new HashMap<>(exchange.getAttributes());
+        attributes.put(LatencyAwareLoadBalancer.EXCLUDED_INSTANCE_ATTR, primary);
+        RequestDataContext context = new RequestDataContext(new RequestData(exchange.getRequest(), attributes));
+        return Mono.from(loadBalancer.choose(new DefaultRequest<>(context)))
+                .filter(Response::hasServer)
+                .map(Response::getServer)
+                // Only one instance available, hedging to it would just add load
+                .filter(instance -> !instance.getHost().equals(primary.getHost()) || instance.getPort() != primary.getPort());
+    }
+
+    /**
+     * Sends one copy of the request. The first copy to receive response headers claims the
+     * exchange and streams its body through; it emits whether it was the hedge. A copy that
+     * loses is cancelled (or, if its headers were already in, its body is discarded).
+     */
+    private Mono<Boolean> send(ServerWebExchange exchange, ServiceInstance instance, URI url, HttpHeaders headers,
+                               LoadBalancingProperties.Hedge hedge, boolean isHedge, Race race) {
+        Mono<Boolean> attempt = Mono.defer(() -> {
+            // The primary's in-flight count is held by LoadBalancerLatencyFilter
+            long start = isHedge ? tracker.start(instance) : System.nanoTime();
+            AtomicBoolean measured = new AtomicBoolean();
+            return webClient.get()
+                    .uri(url)
+                    .headers(h -> h.addAll(headers))
+                    .httpRequest(request -> {
+                        HttpClientRequest nativeRequest = request.getNativeRequest();
+                        nativeRequest.responseTimeout(hedge.getResponseTimeout());
+                    })
+                    .exchangeToMono(response -> {
+                        if (measured.compareAndSet(false, true)) {
+                            finish(instance, start, isHedge, !response.statusCode().is5xxServerError());
+                        }
+                        if (!race.claim(isHedge)) {
+                            return response.releaseBody().then(Mono.<Boolean>empty());
+                        }
+                        return write(exchange, response).thenReturn(isHedge);
+                    })
+                    .doOnError(e -> {
+                        if (measured.compareAndSet(false, true)) {
+                            finish(instance, start, isHedge, false);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (!measured.compareAndSet(false, true)) {
+                            return;
+                        }
+                        if (isHedge) {
+                            tracker.abandon(instance);
+                        } else {
+                            // Lost to the hedge, so it took at least this long
+                            tracker.record(instance, System.nanoTime() - start, true);
+                        }
+                    });
+        });
+        // Cancelled as soon as the other copy claims the exchange
+        return Mono.firstWithSignal(attempt, race.lostBy(isHedge));
+    }
+
+    private void finish(ServiceInstance instance, long start, boolean hedge, boolean success) {
+        if (hedge) {
+            tracker.complete(instance, start, success);
+        } else {
+            tracker.record(instance, System.nanoTime() - start, success);
+        }
+    }
+
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(filtered);
+        if (!Boolean.TRUE.equals(exchange.getAttribute(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ClientResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.statusCode());
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+                upstream.headers().asHttpHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE);
+        filtered.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        return response.writeWith(upstream.bodyToFlux(DataBuffer.class));
+    }
+
+    private static URI withInstance(URI url, ServiceInstance instance) {
+        return UriComponentsBuilder.fromUri(url)
+                .scheme(instance.isSecure() ? "https" : "http")
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+    }
+
+    private Counter sentCounter(String routeId) {
+        return sentCounters.computeIfAbsent(routeId, id -> Counter.builder("gateway.hedge.sent")
+                .description("Second requests sent because the first was slow")
+                .tag("route", id)
+                .register(meterRegistry));
+    }
+
+    private Counter winCounter(String routeId) {
+        return winCounters.computeIfAbsent(routeId, id -> Counter.builder("gateway.hedge.wins")
+                .description("Hedged requests answered first by the second instance")
+                .tag("route", id)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Which copy of a hedged request answered first.
+     */
+    private static final class Race {
+
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private final Sinks.One<Boolean> winner = Sinks.one();
+
+        boolean claim(boolean isHedge) {
+            if (!decided.compareAndSet(false, true)) {
+                return false;
+            }
+            winner.tryEmitValue(isHedge);
+            return true;
+        }
+
+        boolean decided() {
+            return decided.get();
+        }
+
+        /**
+         * Completes empty once the other copy has won; never signals otherwise.
+         */
+        Mono<Boolean> lostBy(boolean isHedge) {
+            return winner.asMono().flatMap(hedgeWon -> hedgeWon != isHedge ? Mono.<Boolean>empty() : Mono.never());
+        }
+    }
+}
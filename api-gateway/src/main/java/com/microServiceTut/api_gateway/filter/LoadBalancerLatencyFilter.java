@@ -0,0 +1,54 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.loadbalancer.InstanceLatencyTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Feeds the latency and in-flight count of the instance each lb:// request went to
+ * into InstanceLatencyTracker, which the latency-aware load balancer reads.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoadBalancerLatencyFilter implements GlobalFilter, Ordered {
+
+    private final InstanceLatencyTracker tracker;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = chosen.getServer();
+        long start = tracker.start(instance);
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (exchange.getAttribute(HedgedRequestFilter.HEDGED_ATTR) != null
+                            || signal == SignalType.CANCEL) {
+                        // Hedged requests record each attempt themselves
+                        tracker.abandon(instance);
+                    } else {
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        tracker.complete(instance, start,
+                                signal == SignalType.ON_COMPLETE && (status == null || !status.is5xxServerError()));
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return FilterOrder.LOAD_BALANCER_LATENCY;
+    }
+}
@@ -0,0 +1,77 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.config.RateLimitProperties;
+import com.microServiceTut.api_gateway.ratelimit.DistributedRateLimiter;
+import com.microServiceTut.api_gateway.security.RouteValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Global rate limiting filter for API Gateway.
+ *
+ * Runs after AuthenticationFilter and limits each user per route (X-USER-ID),
+ * or each client address on public endpoints. Rejections get 429 with Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private final DistributedRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final RouteValidator routeValidator;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "default";
+        String key = routeId + ":" + clientKey(exchange.getRequest());
+
+        return rateLimiter.tryAcquire(key, properties.forRoute(routeId))
+                .flatMap(decision -> {
+                    if (decision.allowed()) {
+                        return chain.filter(exchange);
+                    }
+                    log.warn("Rate limit exceeded for {} on route {}", key, routeId);
+                    return onRateLimited(exchange, decision.retryAfterMillis());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after AuthenticationFilter so X-USER-ID is set
+        return FilterOrder.RATE_LIMIT;
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        // X-USER-ID is only trusted on secured endpoints, where AuthenticationFilter sets it
+        String userId = request.getHeaders().getFirst("X-USER-ID");
+        if (userId != null && !routeValidator.isPublic(request.getURI().getPath())) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return "ip:" + (remote != null ? remote.getHostString() : "unknown");
+    }
+
+    private Mono<Void> onRateLimited(ServerWebExchange exchange, long retryAfterMillis) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        return GatewayRejection.RATE_LIMITED.write(exchange);
+    }
+}
@@ -0,0 +1,249 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.config.RequestCoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges concurrent identical GETs onto one upstream exchange (single-flight).
+ *
+ * The first request for a key (the leader) goes upstream; its response is buffered and
+ * replayed to every request that arrived for the same key while it was in flight.
+ * If the leader fails or is cancelled, waiting requests go upstream on their own.
+ * Only allow-listed paths are merged. Catalog reads are keyed by the caller's role, so every
+ * user of one role shares a flight; per-user paths also key on the caller id set by
+ * AuthenticationFilter, so one user's response is never replayed to another.
+ * Streams and responses over the size cap are written straight through and not shared.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH);
+
+    private static final String USER_ID_HEADER = "X-USER-ID";
+    private static final String ROLE_HEADER = "X-USER-ROLE";
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES =
+            List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final RequestCoalescingProperties properties;
+    private final Map<CoalescingKey, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, PathPattern> pathPatterns = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter overflow;
+
+    public RequestCoalescingFilter(RequestCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.leaders = Counter.builder("gateway.coalescing.requests").tag("role", "leader").register(meterRegistry);
+        this.followers = Counter.builder("gateway.coalescing.requests").tag("role", "follower").register(meterRegistry);
+        this.overflow = Counter.builder("gateway.coalescing.requests").tag("role", "overflow").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        if (routeId == null || !properties.getRoutes().contains(routeId)) {
+            return chain.filter(exchange);
+        }
+
+        PathContainer path = request.getPath().pathWithinApplication();
+        boolean perUser = matches(properties.getPerUserPaths(), path);
+        if ((!perUser && !matches(properties.getPaths(), path)) || acceptsStream(request)) {
+            return chain.filter(exchange);
+        }
+
+        CoalescingKey key = keyFor(routeId, request, perUser);
+        InFlight fresh = new InFlight();
+        InFlight existing = inFlight.putIfAbsent(key, fresh);
+
+        if (existing != null) {
+            if (existing.waiters.incrementAndGet() > properties.getMaxWaiters()) {
+                existing.waiters.decrementAndGet();
+                overflow.increment();
+                return chain.filter(exchange);
+            }
+            followers.increment();
+            return existing.result.asMono()
+                    .flatMap(response -> replay(exchange, response).thenReturn(Boolean.TRUE))
+                    // Leader failed or was cancelled - fetch independently
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.TRUE)))
+                    .then();
+        }
+
+        leaders.increment();
+        ServerHttpResponse decorated = new RecordingResponseDecorator(exchange.getResponse(), key, fresh);
+        return chain.filter(exchange.mutate().response(decorated).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, fresh);
+                    fresh.result.tryEmitEmpty();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // After the response cache, so only cache misses are merged
+        return FilterOrder.REQUEST_COALESCING;
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private boolean matches(List<String> patterns, PathContainer path) {
+        for (String pattern : patterns) {
+            if (pathPatterns.computeIfAbsent(pattern, PathPatternParser.defaultInstance::parse).matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsStream(ServerHttpRequest request) {
+        return request.getHeaders().getAccept().stream().anyMatch(RequestCoalescingFilter::isStream);
+    }
+
+    private static boolean isStream(MediaType mediaType) {
+        return STREAMING_MEDIA_TYPES.stream().anyMatch(streaming -> streaming.equalsTypeAndSubtype(mediaType));
+    }
+
+    private CoalescingKey keyFor(String routeId, ServerHttpRequest request, boolean perUser) {
+        List<String> headerValues = new ArrayList<>(2 + properties.getVaryHeaders().size());
+        // Not configurable: dropping these from the key would leak responses across roles or users
+        headerValues.add(String.valueOf(request.getHeaders().get(ROLE_HEADER)));
+        if (perUser) {
+            headerValues.add(String.valueOf(request.getHeaders().get(USER_ID_HEADER)));
+        }
+        for (String header : properties.getVaryHeaders()) {
+            headerValues.add(String.valueOf(request.getHeaders().get(header)));
+        }
+        return new CoalescingKey(routeId, request.getURI().getRawPath(), request.getURI().getRawQuery(), headerValues);
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, BufferedResponse buffered) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(buffered.status());
+        buffered.headers().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        response.getHeaders().setContentLength(buffered.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(buffered.body())));
+    }
+
+    private record CoalescingKey(String routeId, String path, String query, List<String> headerValues) {}
+
+    private record BufferedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {}
+
+    private static final class InFlight {
+        private final Sinks.One<BufferedResponse> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    /**
+     * Buffers the leader's response, hands it to the waiters, then writes it through.
+     * A stream or a body over the size cap releases the waiters and is written through unbuffered.
+     */
+    private class RecordingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final CoalescingKey key;
+        private final InFlight flight;
+
+        RecordingResponseDecorator(ServerHttpResponse delegate, CoalescingKey key, InFlight flight) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long max = properties.getMaxResponseSize().toBytes();
+            MediaType contentType = getHeaders().getContentType();
+            if ((contentType != null && isStream(contentType)) || getHeaders().getContentLength() > max) {
+                release();
+                return super.writeWith(body);
+            }
+
+            AtomicLong received = new AtomicLong();
+            return Flux.<DataBuffer>from(body)
+                    .bufferUntil(buffer -> received.addAndGet(buffer.readableByteCount()) > max)
+                    .switchOnFirst((first, chunks) -> {
+                        if (first.hasValue() && received.get() <= max) {
+                            return chunks.next().flatMap(this::shareAndWrite);
+                        }
+                        if (first.isOnComplete()) {
+                            return shareAndWrite(List.of());
+                        }
+                        release();
+                        return super.writeWith(chunks.concatMapIterable(chunk -> chunk));
+                    })
+                    .then();
+        }
+
+        private Mono<Void> shareAndWrite(List<DataBuffer> chunk) {
+            byte[] bytes = new byte[chunk.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+            int offset = 0;
+            for (DataBuffer buffer : chunk) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+
+            // New requests from now on start their own flight
+            inFlight.remove(key, flight);
+            HttpStatusCode status = getStatusCode();
+            if (status != null) {
+                HttpHeaders snapshot = new HttpHeaders();
+                snapshot.addAll(getHeaders());
+                flight.result.tryEmitValue(new BufferedResponse(status, snapshot, bytes));
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        // Waiters fetch on their own; the leader's body is not held in memory
+        private void release() {
+            inFlight.remove(key, flight);
+            flight.result.tryEmitEmpty();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.cache.CachedResponse;
+import com.microServiceTut.api_gateway.cache.GatewayResponseCache;
+import com.microServiceTut.api_gateway.cache.ResponseCacheKey;
+import com.microServiceTut.api_gateway.config.ResponseCacheProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Response cache for public catalog reads (GET /api/restaurants, GET /api/menus/restaurant/{id}).
+ *
+ * 1. Serves cached bodies without calling the upstream service
+ * 2. Answers If-None-Match with 304 when the ETag still matches
+ * 3. Buffers and stores 200 responses on a miss, up to max-entry-size; larger bodies stream through uncached
+ * 4. Drops entries when any upstream response carries X-Cache-Invalidate (comma-separated path prefixes)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final GatewayResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        registerInvalidationHook(exchange.getResponse());
+
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String path = request.getURI().getRawPath();
+        Duration ttl = responseCache.ttlFor(path);
+        if (ttl == null) {
+            return chain.filter(exchange);
+        }
+
+        ResponseCacheKey key = new ResponseCacheKey(path, request.getURI().getRawQuery());
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+
+        responseCache.recordMiss();
+        long generation = responseCache.generation();
+        ServerHttpResponse decorated = new CachingResponseDecorator(exchange, key, ttl, generation);
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // After authentication and rate limiting, before the response is written
+        return FilterOrder.RESPONSE_CACHE;
+    }
+
+    private void registerInvalidationHook(ServerHttpResponse response) {
+        response.beforeCommit(() -> {
+            List<String> prefixes = response.getHeaders().get(INVALIDATE_HEADER);
+            if (prefixes != null) {
+                for (String header : prefixes) {
+                    for (String prefix : header.split(",")) {
+                        if (!prefix.isBlank()) {
+                            responseCache.invalidate(prefix.trim());
+                            log.debug("Response cache invalidated for prefix: {}", prefix.trim());
+                        }
+                    }
+                }
+                // Internal signal, not meant for clients
+                response.getHeaders().remove(INVALIDATE_HEADER);
+            }
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        if (matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            responseCache.recordNotModified(cached);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        responseCache.recordHit(cached);
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        if (cached.contentEncoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, cached.contentEncoding());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(candidate) || etag.equals(candidate) || ("W/" + etag).equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Buffers a cacheable upstream body, stores it, and forwards it with an ETag.
+     * Holds back at most max-entry-size bytes: a declared Content-Length over the limit skips
+     * buffering, and a body that grows past it is forwarded as it arrives without being stored.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final ResponseCacheKey key;
+        private final Duration ttl;
+        private final long generation;
+
+        CachingResponseDecorator(ServerWebExchange exchange, ResponseCacheKey key, Duration ttl, long generation) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.ttl = ttl;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() != HttpStatus.OK || headers.getCacheControl() != null
+                    && headers.getCacheControl().contains("no-store")) {
+                return super.writeWith(body);
+            }
+
+            long maxEntrySize = properties.getMaxEntrySize().toBytes();
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            if (headers.getContentLength() > maxEntrySize) {
+                // Too large to store: stream it through untouched
+                return super.writeWith(body);
+            }
+
+            AtomicLong received = new AtomicLong();
+            return Flux.<DataBuffer>from(body)
+                    // The whole body as one chunk if it fits, else the part up to the limit and then buffer by buffer
+                    .bufferUntil(buffer -> received.addAndGet(buffer.readableByteCount()) > maxEntrySize)
+                    .switchOnFirst((first, chunks) -> {
+                        if (first.hasValue() && received.get() <= maxEntrySize) {
+                            return chunks.next().flatMap(this::storeAndWrite);
+                        }
+                        // Over the limit (or empty): forward what was held back and stream the rest
+                        return super.writeWith(chunks.concatMapIterable(chunk -> chunk));
+                    })
+                    .then();
+        }
+
+        private Mono<Void> storeAndWrite(List<DataBuffer> chunk) {
+            int length = 0;
+            for (DataBuffer buffer : chunk) {
+                length += buffer.readableByteCount();
+            }
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            for (DataBuffer buffer : chunk) {
+                int count = buffer.readableByteCount();
+                buffer.read(bytes, offset, count);
+                offset += count;
+                DataBufferUtils.release(buffer);
+            }
+
+            HttpHeaders headers = getHeaders();
+            CachedResponse template = new CachedResponse(null, headers.getContentType(),
+                    headers.getFirst(HttpHeaders.CONTENT_ENCODING), null, ttl);
+            CachedResponse stored = responseCache.put(key, bytes, template, generation);
+            if (stored != null) {
+                headers.setETag(stored.etag());
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.microServiceTut.api_gateway.loadbalancer;
+
+import com.microServiceTut.api_gateway.config.LoadBalancingProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency and in-flight counts of downstream instances, as seen by this gateway.
+ *
+ * Each instance keeps a peak-sensitive EWMA: a slower sample replaces the estimate at once,
+ * faster samples pull it down gradually. The estimate also decays while an instance gets no
+ * traffic, so an instance that was avoided after a GC pause is eventually tried again.
+ * Each service also keeps a window of recent latencies for hedging delays.
+ */
+@Component
+public class InstanceLatencyTracker {
+
+    private static final int WINDOW_SIZE = 256;
+
+    private final long decayNanos;
+    private final Map<String, InstanceStats> instances = new ConcurrentHashMap<>();
+    private final Map<String, LatencyWindow> services = new ConcurrentHashMap<>();
+
+    public InstanceLatencyTracker(LoadBalancingProperties properties) {
+        this.decayNanos = Math.max(1, properties.getDecayTime().toNanos());
+    }
+
+    /**
+     * A request to the instance started; returns the start time to pass to complete.
+     */
+    public long start(ServiceInstance instance) {
+        stats(instance).inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void complete(ServiceInstance instance, long startNanos, boolean success) {
+        stats(instance).inFlight.decrementAndGet();
+        record(instance, System.nanoTime() - startNanos, success);
+    }
+
+    /**
+     * The request was handed off (e.g. to the hedging filter) and is recorded there.
+     */
+    public void abandon(ServiceInstance instance) {
+        stats(instance).inFlight.decrementAndGet();
+    }
+
+    /**
+     * Record a latency sample without touching the in-flight count.
+     */
+    public void record(ServiceInstance instance, long latencyNanos, boolean success) {
+        stats(instance).observe(latencyNanos, System.nanoTime(), decayNanos);
+        // Failures are often fast and would drag the hedging delay down
+        if (success) {
+            services.computeIfAbsent(instance.getServiceId(), id -> new LatencyWindow()).add(latencyNanos);
+        }
+    }
+
+    /**
+     * Load estimate used to compare instances; lower is better, unmeasured instances score 0.
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceStats stats = stats(instance);
+        // The trailing in-flight term orders instances that have no latency yet
+        return stats.estimate(System.nanoTime(), decayNanos) * (stats.inFlight.get() + 1) + stats.inFlight.get();
+    }
+
+    public int inFlight(ServiceInstance instance) {
+        return stats(instance).inFlight.get();
+    }
+
+    /**
+     * Latency percentile of recent successful requests to the service, or -1 if too few samples.
+     */
+    public long percentileNanos(String serviceId, double percentile) {
+        LatencyWindow window = services.get(serviceId);
+        return window != null ? window.percentile(percentile) : -1;
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long lastUpdateNanos;
+
+        synchronized void observe(long latencyNanos, long now, long decayNanos) {
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastUpdateNanos = now;
+        }
+
+        synchronized double estimate(long now, long decayNanos) {
+            return ewmaNanos * Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+        }
+    }
+
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+        }
+
+        synchronized long percentile(double percentile) {
+            if (count < 20) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
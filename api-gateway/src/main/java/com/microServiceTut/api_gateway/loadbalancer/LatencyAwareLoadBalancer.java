@@ -0,0 +1,113 @@
+package com.microServiceTut.api_gateway.loadbalancer;
+
+import com.microServiceTut.api_gateway.config.LoadBalancingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the less loaded of two random instances (power of two choices).
+ *
+ * Load is the instance's latency estimate times its in-flight requests + 1, so an instance
+ * that is pausing or queueing stops receiving traffic without any health check.
+ * Routes configured with the ROUND_ROBIN strategy keep the default behaviour.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    /**
+     * Request attribute naming an instance to avoid, used to pick a different instance for a hedge.
+     */
+    public static final String EXCLUDED_INSTANCE_ATTR = LatencyAwareLoadBalancer.class.getName() + ".excludedInstance";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final String serviceId;
+    private final InstanceLatencyTracker tracker;
+    private final LoadBalancingProperties properties;
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, String serviceId,
+                                    InstanceLatencyTracker tracker, LoadBalancingProperties properties) {
+        this.suppliers = suppliers;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+        this.properties = properties;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        Map<String, Object> attributes = attributes(request);
+        return supplier.get(request).next()
+                .map(instances -> select(instances, attributes));
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances, Map<String, Object> attributes) {
+        List<ServiceInstance> candidates = instances;
+        Object excluded = attributes.get(EXCLUDED_INSTANCE_ATTR);
+        if (excluded instanceof ServiceInstance avoid && instances.size() > 1) {
+            candidates = new ArrayList<>(instances.size());
+            for (ServiceInstance instance : instances) {
+                if (!sameInstance(instance, avoid)) {
+                    candidates.add(instance);
+                }
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        Route route = (Route) attributes.get(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        LoadBalancingProperties.Strategy strategy = properties.forRoute(route != null ? route.getId() : null).getStrategy();
+        if (strategy == LoadBalancingProperties.Strategy.ROUND_ROBIN) {
+            int next = position.incrementAndGet() & Integer.MAX_VALUE;
+            return new DefaultResponse(candidates.get(next % candidates.size()));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(tracker.cost(a) <= tracker.cost(b) ? a : b);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private static Map<String, Object> attributes(Request<?> request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null && context.getClientRequest().getAttributes() != null) {
+            return context.getClientRequest().getAttributes();
+        }
+        return Map.of();
+    }
+}
@@ -0,0 +1,107 @@
+package com.microServiceTut.api_gateway.metrics;
+
+import com.microServiceTut.api_gateway.config.StageMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records StageTimings as gateway.request.stage timers tagged by stage, route and status class,
+ * and logs a sample of slow requests with their stage breakdown.
+ *
+ * Timers are resolved once per route/stage/status and kept in arrays, so recording a
+ * request does no registry lookups or tag allocation.
+ */
+@Component
+@Slf4j
+public class RequestStageMetrics {
+
+    public static final String METRIC_NAME = "gateway.request.stage";
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx", "UNKNOWN"};
+    private static final int UNKNOWN_STATUS = STATUS_CLASSES.length - 1;
+
+    private final StageMetricsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+    private final long slowThresholdNanos;
+    private final Map<String, Timer[][]> routeTimers = new ConcurrentHashMap<>();
+
+    public RequestStageMetrics(StageMetricsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        this.slowThresholdNanos = properties.getSlowRequestThreshold().toNanos();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void record(ServerWebExchange exchange, StageTimings timings) {
+        long totalNanos = timings.complete();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        int statusClass = statusClass(exchange.getResponse().getStatusCode());
+
+        Timer[][] timers = routeTimers.computeIfAbsent(routeId,
+                id -> new Timer[StageTimings.Stage.values().length][STATUS_CLASSES.length]);
+        for (StageTimings.Stage stage : StageTimings.Stage.values()) {
+            if (timings.isSet(stage)) {
+                timer(timers, routeId, stage, statusClass).record(timings.get(stage), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (totalNanos >= slowThresholdNanos
+                && ThreadLocalRandom.current().nextDouble() < properties.getSlowRequestLogRate()) {
+            log.warn("Slow request {} {} route={} status={} total={}ms jwt_verify={}ms route_access={}ms "
+                            + "header_mutation={}ms upstream={}ms",
+                    exchange.getRequest().getMethod(), exchange.getRequest().getURI().getPath(), routeId,
+                    STATUS_CLASSES[statusClass], millis(totalNanos),
+                    millis(timings, StageTimings.Stage.JWT_VERIFY), millis(timings, StageTimings.Stage.ROUTE_ACCESS),
+                    millis(timings, StageTimings.Stage.HEADER_MUTATION), millis(timings, StageTimings.Stage.UPSTREAM));
+        }
+    }
+
+    private Timer timer(Timer[][] timers, String routeId, StageTimings.Stage stage, int statusClass) {
+        Timer timer = timers[stage.ordinal()][statusClass];
+        if (timer == null) {
+            // Registration is idempotent, so a race here only costs a duplicate lookup
+            timer = Timer.builder(METRIC_NAME)
+                    .description("Time spent per stage of a request through the gateway")
+                    .tag("stage", stage.tag())
+                    .tag("route", routeId)
+                    .tag("status", STATUS_CLASSES[statusClass])
+                    .publishPercentiles(percentiles)
+                    .register(meterRegistry);
+            timers[stage.ordinal()][statusClass] = timer;
+        }
+        return timer;
+    }
+
+    private static int statusClass(HttpStatusCode status) {
+        if (status == null) {
+            return UNKNOWN_STATUS;
+        }
+        int series = status.value() / 100;
+        return series >= 1 && series <= 5 ? series - 1 : UNKNOWN_STATUS;
+    }
+
+    private static String millis(StageTimings timings, StageTimings.Stage stage) {
+        return timings.isSet(stage) ? millis(timings.get(stage)) : "-";
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.microServiceTut.api_gateway.metrics;
+
+/**
+ * Time spent in each stage of one request. Stages that did not run stay unset.
+ */
+public final class StageTimings {
+
+    public enum Stage {
+        JWT_VERIFY("jwt_verify"),
+        ROUTE_ACCESS("route_access"),
+        HEADER_MUTATION("header_mutation"),
+        UPSTREAM("upstream");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final long UNSET = -1;
+
+    private final long startNanos = System.nanoTime();
+    private final long[] stageNanos = {UNSET, UNSET, UNSET, UNSET};
+    private long upstreamStartNanos = UNSET;
+
+    /**
+     * Record a stage that started at the given time and ends now; returns now for the next stage.
+     */
+    public long end(Stage stage, long stageStartNanos) {
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] = now - stageStartNanos;
+        return now;
+    }
+
+    public void startUpstream() {
+        upstreamStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Close the upstream stage, if it was started, and return the total request time.
+     */
+    long complete() {
+        long now = System.nanoTime();
+        if (upstreamStartNanos != UNSET) {
+            stageNanos[Stage.UPSTREAM.ordinal()] = now - upstreamStartNanos;
+        }
+        return now - startNanos;
+    }
+
+    long get(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    boolean isSet(Stage stage) {
+        return stageNanos[stage.ordinal()] != UNSET;
+    }
+}
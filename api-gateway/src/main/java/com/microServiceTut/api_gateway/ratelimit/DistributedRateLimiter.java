@@ -0,0 +1,75 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microServiceTut.api_gateway.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limiter shared across gateway instances.
+ *
+ * Each instance leases a few tokens at a time from the Redis bucket and serves requests
+ * from that local lease, so most requests never touch Redis. A Redis denial is also kept
+ * locally until its retry time. If Redis is unavailable the limiter fails open: each call
+ * is cut off after a short store timeout, and after a failure Redis is skipped entirely for
+ * a moment so requests are not each left waiting on the timeout.
+ */
+@Component
+@Slf4j
+public class DistributedRateLimiter {
+
+    private final TokenBucketStore store;
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenLease> leases = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(5))
+            .build();
+    private volatile long storeSkippedUntil;
+
+    public DistributedRateLimiter(TokenBucketStore store, RateLimitProperties properties) {
+        this.store = store;
+        this.properties = properties;
+    }
+
+    public Mono<RateLimitDecision> tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long now = System.currentTimeMillis();
+        TokenLease lease = leases.get(key, k -> new TokenLease());
+
+        // Local pre-check: served from the lease or still blocked by an earlier denial
+        if (lease.tryConsume(now)) {
+            return Mono.just(RateLimitDecision.ALLOWED);
+        }
+        long blockedFor = lease.blockedFor(now);
+        if (blockedFor > 0) {
+            return Mono.just(RateLimitDecision.denied(blockedFor));
+        }
+
+        if (now < storeSkippedUntil) {
+            return Mono.just(RateLimitDecision.ALLOWED);
+        }
+
+        int leaseSize = Math.max(1, Math.min(properties.getLeaseSize(), limit.getBurstCapacity()));
+        return store.acquire(key, limit, leaseSize)
+                .timeout(properties.getStoreTimeout())
+                .map(grant -> {
+                    if (grant.granted() > 0) {
+                        // Keep one token for this request, the rest serve the next requests
+                        lease.refill(grant.granted() - 1, now, now + properties.getLeaseTtl().toMillis());
+                        return RateLimitDecision.ALLOWED;
+                    }
+                    lease.block(now + grant.retryAfterMillis());
+                    return RateLimitDecision.denied(grant.retryAfterMillis());
+                })
+                .defaultIfEmpty(RateLimitDecision.ALLOWED)
+                .onErrorResume(e -> {
+                    log.warn("Rate limiter store unavailable, allowing requests for {}: {}",
+                            properties.getStoreRetryInterval(), e.toString());
+                    storeSkippedUntil = System.currentTimeMillis() + properties.getStoreRetryInterval().toMillis();
+                    return Mono.just(RateLimitDecision.ALLOWED);
+                });
+    }
+}
@@ -0,0 +1,13 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+public record RateLimitDecision(
+        boolean allowed,
+        long retryAfterMillis
+) {
+
+    static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    static RateLimitDecision denied(long retryAfterMillis) {
+        return new RateLimitDecision(false, retryAfterMillis);
+    }
+}
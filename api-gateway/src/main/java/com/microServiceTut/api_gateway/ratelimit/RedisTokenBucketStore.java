@@ -0,0 +1,41 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+import com.microServiceTut.api_gateway.config.RateLimitProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Token buckets kept in Redis and updated by scripts/token_bucket.lua in one atomic call.
+ */
+@Component
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> TOKEN_BUCKET_SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Grant> acquire(String key, RateLimitProperties.Limit limit, int requested) {
+        List<String> args = List.of(
+                Double.toString(limit.getReplenishRate()),
+                Integer.toString(limit.getBurstCapacity()),
+                Integer.toString(requested));
+
+        return redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(KEY_PREFIX + key), args)
+                .next()
+                .map(result -> new Grant(result.get(0).intValue(), result.get(1)));
+    }
+}
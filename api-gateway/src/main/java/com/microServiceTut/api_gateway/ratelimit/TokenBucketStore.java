@@ -0,0 +1,19 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+import com.microServiceTut.api_gateway.config.RateLimitProperties;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared token buckets, the source of truth across gateway instances.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Atomically take up to requested tokens from the bucket. Refills are timed by the
+     * store's own clock, so gateway instances with skewed clocks still share one rate.
+     * @return tokens granted, and when none were granted the millis until the next token
+     */
+    Mono<Grant> acquire(String key, RateLimitProperties.Limit limit, int requested);
+
+    record Grant(int granted, long retryAfterMillis) {}
+}
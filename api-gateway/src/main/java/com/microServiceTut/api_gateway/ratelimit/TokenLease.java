@@ -0,0 +1,47 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tokens leased from the shared Redis bucket and held by this gateway instance.
+ * Also remembers a Redis denial so repeated requests are rejected locally until retry time.
+ *
+ * Count and expiry change together, so grants from concurrent misses add up instead of
+ * one overwriting the other.
+ */
+final class TokenLease {
+
+    private record Tokens(int count, long expiresAt) {
+    }
+
+    private final AtomicReference<Tokens> tokens = new AtomicReference<>(new Tokens(0, 0));
+    private volatile long blockedUntil;
+
+    boolean tryConsume(long now) {
+        Tokens current;
+        do {
+            current = tokens.get();
+            if (now >= current.expiresAt() || current.count() <= 0) return false;
+        } while (!tokens.compareAndSet(current, new Tokens(current.count() - 1, current.expiresAt())));
+        return true;
+    }
+
+    void refill(int granted, long now, long expiresAt) {
+        Tokens current;
+        Tokens next;
+        do {
+            current = tokens.get();
+            // Left-overs of an expired lease are not carried into the new one
+            int kept = now < current.expiresAt() ? current.count() : 0;
+            next = new Tokens(kept + granted, Math.max(expiresAt, current.expiresAt()));
+        } while (!tokens.compareAndSet(current, next));
+    }
+
+    void block(long until) {
+        this.blockedUntil = until;
+    }
+
+    long blockedFor(long now) {
+        return Math.max(0, blockedUntil - now);
+    }
+}
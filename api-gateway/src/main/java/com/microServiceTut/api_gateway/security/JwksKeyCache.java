@@ -0,0 +1,134 @@
+package com.microServiceTut.api_gateway.security;
+
+import com.microServiceTut.api_gateway.client.UserAuthClient;
+import io.jsonwebtoken.io.Parser;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the USER-AUTH-SERVICE signing keys (JWKS), so JwtUtil verifies
+ * ES256/EdDSA tokens without a network call.
+ *
+ * 1. Background refresh: fetches the key set on a fixed interval; user-auth publishes
+ *    the next key before it signs anything, so rotation never reaches an unknown kid
+ * 2. On-demand refresh: an unknown kid (e.g. a rotation made before the next fetch)
+ *    triggers a fetch, at most once per min-refresh-interval; that token is rejected
+ * 3. Keys are dropped once they have been missing from the set for key-retention
+ */
+@Component
+@Slf4j
+public class JwksKeyCache {
+
+    private final UserAuthClient userAuthClient;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalNanos;
+    private final long keyRetentionMillis;
+    private final Parser<JwkSet> parser = Jwks.setParser().build();
+    private final Map<String, CachedKey> keys = new ConcurrentHashMap<>();
+    private final AtomicLong lastOnDemandRefresh = new AtomicLong();
+
+    private Disposable refreshSubscription;
+
+    public JwksKeyCache(UserAuthClient userAuthClient,
+                        @Value("${jwt.jwks.enabled:true}") boolean enabled,
+                        @Value("${jwt.jwks.refresh-interval:PT5M}") Duration refreshInterval,
+                        @Value("${jwt.jwks.min-refresh-interval:PT10S}") Duration minRefreshInterval,
+                        @Value("${jwt.jwks.key-retention:PT25H}") Duration keyRetention) {
+        this.userAuthClient = userAuthClient;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.keyRetentionMillis = keyRetention.toMillis();
+        this.lastOnDemandRefresh.set(System.nanoTime() - minRefreshIntervalNanos);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("JWKS key cache disabled, only HMAC tokens are accepted");
+            return;
+        }
+
+        refreshSubscription = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> fetch())
+                .subscribe(this::apply);
+
+        log.info("JWKS key cache started (refresh every {})", refreshInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshSubscription != null) refreshSubscription.dispose();
+    }
+
+    /**
+     * Verification key for a kid, or null (and an on-demand refresh) if it is unknown.
+     */
+    public Key find(String kid) {
+        CachedKey cached = keys.get(kid);
+        if (cached != null) {
+            return cached.key();
+        }
+        requestRefresh();
+        return null;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Merge a fetched key set: add or touch every signing key, drop long-absent ones.
+     */
+    void apply(JwkSet jwkSet) {
+        long now = System.currentTimeMillis();
+        for (Jwk<?> jwk : jwkSet) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null
+                    && (publicJwk.getPublicKeyUse() == null || "sig".equals(publicJwk.getPublicKeyUse()))) {
+                keys.put(jwk.getId(), new CachedKey(publicJwk.toKey(), now));
+            }
+        }
+        keys.values().removeIf(cached -> now - cached.lastSeen() > keyRetentionMillis);
+        log.debug("JWKS refreshed ({} keys cached)", keys.size());
+    }
+
+    private void requestRefresh() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastOnDemandRefresh.get();
+        if (now - last < minRefreshIntervalNanos || !lastOnDemandRefresh.compareAndSet(last, now)) {
+            return;
+        }
+        fetch().subscribe(this::apply);
+    }
+
+    private Mono<JwkSet> fetch() {
+        return userAuthClient.getJwks()
+                .map(parser::parse)
+                .onErrorResume(e -> {
+                    log.warn("JWKS refresh failed: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private record CachedKey(Key key, long lastSeen) {}
+}
@@ -1,26 +1,87 @@
 package com.microServiceTut.api_gateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT utility for API Gateway.
  * Validates tokens and extracts claims for authorization.
+ *
+ * Tokens with a kid header (ES256/EdDSA) are verified against the public keys in
+ * JwksKeyCache; tokens without one against the shared HMAC secret.
+ *
+ * Verified claims are cached by token digest until the token's exp (capped by max-ttl),
+ * so a client replaying the same bearer token skips the signature check - ES256 and
+ * EdDSA verification cost over ten times an HMAC one (see JwtUtilTest's benchmark).
+ * Each uncached verification is timed in gateway.jwt.verify, tagged by algorithm.
  */
 @Component
 public class JwtUtil {
 
-    private final SecretKey secretKey;
+    public static final String CACHE_NAME = "gateway.jwt.claims";
+    public static final String VERIFY_METRIC_NAME = "gateway.jwt.verify";
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtParser parser;
+    private final Cache<String, Claims> claimsCache;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> verifyTimers = new ConcurrentHashMap<>();
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   JwksKeyCache keyCache,
+                   @Value("${jwt.cache.max-size:10000}") long maxSize,
+                   @Value("${jwt.cache.max-ttl:PT15M}") Duration maxTtl,
+                   MeterRegistry meterRegistry) {
+        SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        return kid == null ? secretKey : keyCache.find(kid);
+                    }
+                })
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ClaimsExpiry(maxTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, CACHE_NAME);
     }
 
     /**
@@ -28,12 +89,23 @@ public class JwtUtil {
      * Returns null if token is invalid.
      */
     public Claims validateToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String key = digest(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            return Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            long start = System.nanoTime();
+            Jws<Claims> jws = parser.parseSignedClaims(token);
+            verifyTimer(jws.getHeader().getAlgorithm()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Claims claims = jws.getPayload();
+            claimsCache.put(key, claims);
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
@@ -50,4 +122,52 @@ public class JwtUtil {
     public String getEmail(Claims claims) {
         return claims.get("email", String.class);
     }
+
+    Cache<String, Claims> claimsCache() {
+        return claimsCache;
+    }
+
+    private Timer verifyTimer(String algorithm) {
+        return verifyTimers.computeIfAbsent(algorithm, alg -> Timer.builder(VERIFY_METRIC_NAME)
+                .description("Uncached JWT signature verification")
+                .tag("alg", alg)
+                .register(meterRegistry));
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * Expire each entry at the token's exp, never later than maxTtl.
+     */
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        private ClaimsExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(maxTtlNanos, Duration.ofMillis(remainingMillis).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package com.microServiceTut.api_gateway.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix trie over request paths, compiled once from the route access rules.
+ *
+ * Every rule is a path prefix (same semantics as String.startsWith), so a lookup walks
+ * the path once and ORs together the role bits of every rule node it passes.
+ * Roles are mapped to bit positions, which keeps a lookup allocation free.
+ */
+final class RouteAccessTrie {
+
+    private static final int MAX_ROLES = Long.SIZE;
+
+    private final Node root = new Node();
+    private final Map<String, Integer> roleBits = new HashMap<>();
+
+    /**
+     * Register a role and return its bit. Roles must be registered before their rules.
+     */
+    long role(String role) {
+        Integer bit = roleBits.get(role);
+        if (bit == null) {
+            if (roleBits.size() == MAX_ROLES) {
+                throw new IllegalStateException("At most " + MAX_ROLES + " roles are supported");
+            }
+            bit = roleBits.size();
+            roleBits.put(role, bit);
+        }
+        return 1L << bit;
+    }
+
+    void addPublic(Collection<String> prefixes) {
+        for (String prefix : prefixes) {
+            insert(prefix).publicEndpoint = true;
+        }
+    }
+
+    void addAccess(String role, Collection<String> prefixes) {
+        long bit = role(role);
+        for (String prefix : prefixes) {
+            insert(prefix).accessMask |= bit;
+        }
+    }
+
+    void addReadOnly(String role, Collection<String> prefixes) {
+        long bit = role(role);
+        for (String prefix : prefixes) {
+            insert(prefix).readOnlyMask |= bit;
+        }
+    }
+
+    /**
+     * Check if any public prefix matches the path.
+     */
+    boolean isPublic(String path) {
+        Node node = root;
+        if (node.publicEndpoint) return true;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) return false;
+            if (node.publicEndpoint) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if the role may call the path; read-only prefixes only allow GET.
+     */
+    boolean hasAccess(String role, String path, boolean readRequest) {
+        Integer bit = roleBits.get(role);
+        if (bit == null) return false;
+        long mask = 1L << bit;
+
+        long access = 0;
+        long readOnly = 0;
+        Node node = root;
+        for (int i = 0; ; i++) {
+            access |= node.accessMask;
+            readOnly |= node.readOnlyMask;
+            if (i == path.length()) break;
+            node = node.child(path.charAt(i));
+            if (node == null) break;
+        }
+
+        if ((access & mask) == 0) return false;
+        return (readOnly & mask) == 0 || readRequest;
+    }
+
+    private Node insert(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.childOrCreate(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Sorted keys, children[i] belongs to keys[i]
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+
+        private boolean publicEndpoint;
+        private long accessMask;
+        private long readOnlyMask;
+
+        Node child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            if (idx >= 0) return children[idx];
+
+            int insertAt = -idx - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+            Node created = new Node();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = created;
+            keys = newKeys;
+            children = newChildren;
+            return created;
+        }
+    }
+}
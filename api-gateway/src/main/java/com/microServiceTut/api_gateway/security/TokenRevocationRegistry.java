@@ -0,0 +1,95 @@
+package com.microServiceTut.api_gateway.security;
+
+import com.microServiceTut.api_gateway.client.dto.RevokedTokenResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local replica of the token blacklist kept by USER-AUTH-SERVICE.
+ *
+ * Lookups are a Bloom filter probe followed, only on a possible hit, by a map lookup,
+ * so the common "not revoked" case never touches shared mutable state.
+ * Writes are rare (logouts) and synchronized so a filter rebuild cannot lose a revocation.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final boolean bloomEnabled;
+    private final int bloomExpectedInsertions;
+    private final double bloomFalsePositiveRate;
+
+    private volatile JtiBloomFilter bloomFilter;
+
+    public TokenRevocationRegistry(
+            @Value("${revocation.bloom.enabled:true}") boolean bloomEnabled,
+            @Value("${revocation.bloom.expected-insertions:100000}") int bloomExpectedInsertions,
+            @Value("${revocation.bloom.false-positive-rate:0.01}") double bloomFalsePositiveRate) {
+        this.bloomEnabled = bloomEnabled;
+        this.bloomExpectedInsertions = bloomExpectedInsertions;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.bloomFilter = bloomEnabled ? newBloomFilter(0) : null;
+    }
+
+    /**
+     * Check if the token id has been revoked and is not yet expired.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) return false;
+
+        JtiBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(tokenId)) {
+            return false;
+        }
+
+        Long expiresAt = revokedTokens.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public synchronized void revoke(String tokenId, long expiresAt) {
+        if (tokenId == null || expiresAt <= System.currentTimeMillis()) return;
+
+        revokedTokens.merge(tokenId, expiresAt, Math::max);
+        if (bloomFilter != null) {
+            bloomFilter.put(tokenId);
+        }
+    }
+
+    /**
+     * Merge a catch-up snapshot, purge expired entries and rebuild the Bloom filter.
+     */
+    public synchronized void reconcile(Collection<RevokedTokenResponse> snapshot) {
+        int before = revokedTokens.size();
+        for (RevokedTokenResponse token : snapshot) {
+            if (token.tokenId() != null) {
+                revokedTokens.merge(token.tokenId(), token.expiresAt(), Math::max);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+
+        if (bloomEnabled) {
+            JtiBloomFilter rebuilt = newBloomFilter(revokedTokens.size());
+            revokedTokens.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+        }
+
+        log.debug("Revocation replica reconciled: {} -> {} tokens", before, revokedTokens.size());
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    private JtiBloomFilter newBloomFilter(int currentSize) {
+        // Leave headroom so pushes between two reconciles keep the false-positive rate near target
+        return new JtiBloomFilter(Math.max(bloomExpectedInsertions, currentSize * 2), bloomFalsePositiveRate);
+    }
+}
@@ -0,0 +1,82 @@
+package com.microServiceTut.api_gateway.security;
+
+import com.microServiceTut.api_gateway.client.UserAuthClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Keeps the TokenRevocationRegistry in sync with USER-AUTH-SERVICE.
+ *
+ * 1. Push: holds an SSE stream open and applies each revocation as it arrives
+ * 2. Catch-up: periodically merges the full blacklist snapshot, which covers revocations
+ *    made on other user-auth instances and anything missed while the stream was down
+ */
+@Component
+@Slf4j
+public class TokenRevocationSync {
+
+    private final UserAuthClient userAuthClient;
+    private final TokenRevocationRegistry registry;
+    private final boolean enabled;
+    private final Duration catchUpInterval;
+    private final Duration reconnectDelay;
+
+    private Disposable streamSubscription;
+    private Disposable catchUpSubscription;
+
+    public TokenRevocationSync(UserAuthClient userAuthClient,
+                               TokenRevocationRegistry registry,
+                               @Value("${revocation.sync.enabled:true}") boolean enabled,
+                               @Value("${revocation.sync.catch-up-interval:PT30S}") Duration catchUpInterval,
+                               @Value("${revocation.sync.reconnect-delay:PT2S}") Duration reconnectDelay) {
+        this.userAuthClient = userAuthClient;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.catchUpInterval = catchUpInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Token revocation sync disabled");
+            return;
+        }
+
+        streamSubscription = Flux.defer(userAuthClient::streamRevocations)
+                .doOnSubscribe(s -> log.debug("Connecting to revocation stream"))
+                // Server closed the stream cleanly - reconnect after a short pause
+                .repeatWhen(completed -> completed.delayElements(reconnectDelay))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, reconnectDelay)
+                        .maxBackoff(catchUpInterval)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Revocation stream failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe(token -> registry.revoke(token.tokenId(), token.expiresAt()));
+
+        catchUpSubscription = Flux.interval(Duration.ZERO, catchUpInterval)
+                .concatMap(tick -> userAuthClient.getRevokedTokens()
+                        .onErrorResume(e -> {
+                            log.warn("Revocation catch-up failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe(registry::reconcile);
+
+        log.info("Token revocation sync started (catch-up every {})", catchUpInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (streamSubscription != null) streamSubscription.dispose();
+        if (catchUpSubscription != null) catchUpSubscription.dispose();
+    }
+}
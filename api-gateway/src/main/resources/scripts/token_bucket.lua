@@ -0,0 +1,36 @@
+-- Token bucket that hands out leases of up to ARGV[4] tokens in one atomic call.
+-- KEYS[1]: bucket hash (tokens, ts)
+-- ARGV: replenish rate (tokens/s), burst capacity, requested tokens
+-- Returns {granted, retryAfterMs}
+-- Time comes from the Redis server, so refills do not depend on gateway clocks agreeing.
+
+local key = KEYS[1]
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+  tokens = capacity
+  ts = now
+end
+
+local elapsed = math.max(0, now - ts)
+tokens = math.min(capacity, tokens + elapsed * rate / 1000)
+
+local granted = math.min(requested, math.floor(tokens))
+tokens = tokens - granted
+
+local retryAfter = 0
+if granted == 0 then
+  retryAfter = math.ceil((1 - tokens) * 1000 / rate)
+end
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+redis.call('PEXPIRE', key, math.ceil(capacity * 1000 / rate) * 2)
+
+return {granted, retryAfter}
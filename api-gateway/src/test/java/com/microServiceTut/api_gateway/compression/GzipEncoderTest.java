@@ -0,0 +1,137 @@
+package com.microServiceTut.api_gateway.compression;
+
+import com.microServiceTut.api_gateway.config.CompressionProperties;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipEncoderTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GzipEncoderTest.class);
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void encode_ChunkedBody_DecodesToOriginal() throws IOException {
+        // Given
+        GzipEncoderPool pool = new GzipEncoderPool(new CompressionProperties());
+        byte[] menu = menuJson(300);
+
+        // When
+        byte[] compressed = compress(pool, menu, 4096);
+
+        // Then
+        assertThat(gunzip(compressed)).isEqualTo(menu);
+        assertThat(compressed.length).isLessThan(menu.length / 4);
+    }
+
+    @Test
+    void release_EncoderReusedForNextResponse() throws IOException {
+        GzipEncoderPool pool = new GzipEncoderPool(new CompressionProperties());
+        byte[] first = menuJson(10);
+        byte[] second = menuJson(20);
+
+        byte[] compressedFirst = compress(pool, first, 1024);
+        byte[] compressedSecond = compress(pool, second, 1024);
+
+        assertThat(pool.idleCount()).isEqualTo(1);
+        assertThat(gunzip(compressedFirst)).isEqualTo(first);
+        assertThat(gunzip(compressedSecond)).isEqualTo(second);
+    }
+
+    /**
+     * CPU spent per MB of typical menu JSON against bytes saved, at the configured level.
+     */
+    @Test
+    void benchmark_MenuPayload_CpuPerMegabyte() throws IOException {
+        GzipEncoderPool pool = new GzipEncoderPool(new CompressionProperties());
+        byte[] menu = menuJson(200);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // Warm up
+        for (int i = 0; i < 200; i++) {
+            compress(pool, menu, 8192);
+        }
+
+        int iterations = 500;
+        long compressedBytes = 0;
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            compressedBytes += compress(pool, menu, 8192).length;
+        }
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpuBefore;
+
+        double megabytes = (double) menu.length * iterations / (1024 * 1024);
+        double cpuMsPerMb = cpuNanos / 1_000_000.0 / megabytes;
+        double saved = 1 - (double) compressedBytes / ((long) menu.length * iterations);
+        log.info("gzip level {}: {} KB menu, {} ms CPU per MB, {}% bytes saved",
+                new CompressionProperties().getLevel(), menu.length / 1024,
+                String.format("%.1f", cpuMsPerMb), String.format("%.1f", saved * 100));
+
+        assertThat(saved).isGreaterThan(0.75);
+        assertThat(cpuMsPerMb).isLessThan(100);
+    }
+
+    private byte[] compress(GzipEncoderPool pool, byte[] body, int chunkSize) {
+        GzipEncoder encoder = pool.borrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (int offset = 0; offset < body.length; offset += chunkSize) {
+                int length = Math.min(chunkSize, body.length - offset);
+                DataBuffer chunk = bufferFactory.allocateBuffer(length).write(body, offset, length);
+                drain(encoder.encode(chunk, bufferFactory), out);
+            }
+            drain(encoder.finish(bufferFactory), out);
+        } finally {
+            pool.release(encoder);
+        }
+        return out.toByteArray();
+    }
+
+    private static void drain(DataBuffer buffer, ByteArrayOutputStream out) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        out.writeBytes(bytes);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    static byte[] menuJson(int items) {
+        String[] names = {"Paneer Tikka", "Veg Biryani", "Butter Naan", "Dal Makhani", "Masala Dosa", "Gulab Jamun"};
+        String[] categories = {"STARTER", "MAIN_COURSE", "BREAD", "DESSERT"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(String.format("%08x-4b1c-4e6f-9a2d-%012d", i * 7919, i)).append('"')
+                    .append(",\"restaurantId\":\"3f9c2a1e-7b4d-4c8e-a6f5-1d2e3c4b5a69\"")
+                    .append(",\"name\":\"").append(names[i % names.length]).append(' ').append(i).append('"')
+                    .append(",\"description\":\"Freshly prepared ").append(names[i % names.length].toLowerCase())
+                    .append(" with house spices\"")
+                    .append(",\"price\":").append(99 + (i * 37) % 400).append(".0")
+                    .append(",\"category\":\"").append(categories[i % categories.length]).append('"')
+                    .append(",\"isVeg\":").append(i % 3 != 0)
+                    .append(",\"isAvailable\":true}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
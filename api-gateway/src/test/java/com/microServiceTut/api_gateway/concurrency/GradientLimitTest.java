@@ -0,0 +1,76 @@
+package com.microServiceTut.api_gateway.concurrency;
+
+import com.microServiceTut.api_gateway.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    // Stub upstream: 20 requests at 10ms each, anything beyond that queues
+    private static final int CAPACITY = 20;
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void onSample_SlowUpstreamUnderSurge_ConvergesNearCapacity() {
+        // Given - 200 clients hammering a service that can serve 20 at a time
+        GradientLimit limit = new GradientLimit(new ConcurrencyLimitProperties.Limit());
+        int clients = 200;
+
+        // When
+        int minSeen = Integer.MAX_VALUE;
+        int maxSeen = 0;
+        long worstRtt = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int inFlight = Math.min(clients, limit.getLimit());
+            long rtt = upstreamRtt(inFlight);
+            limit.onSample(rtt, inFlight, false);
+            if (i >= 5_000) {
+                minSeen = Math.min(minSeen, limit.getLimit());
+                maxSeen = Math.max(maxSeen, limit.getLimit());
+                worstRtt = Math.max(worstRtt, rtt);
+            }
+        }
+
+        // Then - the gateway holds back the surge instead of forwarding all 200
+        assertThat(maxSeen).isBetween(CAPACITY, (int) (CAPACITY * 2.5));
+        assertThat(minSeen).isGreaterThanOrEqualTo(CAPACITY / 2);
+        assertThat(worstRtt).isLessThan(BASE_RTT * 3);
+    }
+
+    @Test
+    void onSample_LatencyFlat_GrowsUntilTrafficStopsUsingIt() {
+        GradientLimit limit = new GradientLimit(new ConcurrencyLimitProperties.Limit());
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(BASE_RTT, 5, false);
+        }
+
+        assertThat(grown).isGreaterThan(100);
+        assertThat(limit.getLimit()).isEqualTo(grown);
+    }
+
+    @Test
+    void onSample_Dropped_BacksOffToMinimum() {
+        ConcurrencyLimitProperties.Limit config = new ConcurrencyLimitProperties.Limit();
+        GradientLimit limit = new GradientLimit(config);
+
+        limit.onSample(BASE_RTT, 20, true);
+        assertThat(limit.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASE_RTT, 20, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(config.getMinLimit());
+    }
+
+    private static long upstreamRtt(int inFlight) {
+        return inFlight <= CAPACITY ? BASE_RTT : BASE_RTT * inFlight / CAPACITY;
+    }
+}
@@ -0,0 +1,314 @@
+package com.microServiceTut.api_gateway.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.microServiceTut.api_gateway.config.RouteAccessProperties;
+import com.microServiceTut.api_gateway.config.StageMetricsProperties;
+import com.microServiceTut.api_gateway.metrics.RequestStageMetrics;
+import com.microServiceTut.api_gateway.security.JwksKeyCache;
+import com.microServiceTut.api_gateway.security.JwtUtil;
+import com.microServiceTut.api_gateway.security.RouteValidator;
+import com.microServiceTut.api_gateway.security.TokenRevocationRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationFilterTest {
+
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(AuthenticationFilterTest.class);
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationWhichShouldBeAtLeast256BitsLong";
+    private static final int ITERATIONS = 20_000;
+
+    // Measured ~3.5 KB and ~2.6 KB, mostly the mock response and Reactor assembly;
+    // a regression such as re-parsing the JWT or re-encoding bodies blows well past these
+    private static final long REJECTION_BYTES_BUDGET = 6_144;
+    private static final long ACCEPTED_BYTES_BUDGET = 5_120;
+
+    // Stage timing adds ~2 µs to an accepted request, mostly the client-side percentile histograms
+    private static final long STAGE_METRICS_NANOS_BUDGET = 5_000;
+
+    private final Logger filterLogger = (Logger) LoggerFactory.getLogger(AuthenticationFilter.class);
+    private Level previousLevel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthenticationFilter filter;
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = filter(new StageMetricsProperties());
+        upstream = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+
+        // Keep log formatting out of the allocation figures
+        previousLevel = filterLogger.getLevel();
+        filterLogger.setLevel(Level.OFF);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.setLevel(previousLevel);
+    }
+
+    @Test
+    void filter_MissingToken_WritesPreEncodedRejection() {
+        // Given
+        MockServerWebExchange exchange = exchange("/api/orders", null);
+
+        // When
+        filter.filter(exchange, upstream).block();
+
+        // Then
+        String expected = "{\"status\":401,\"error\":\"Unauthorized\",\"message\":\"Missing or invalid Authorization header\"}";
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(expected.length());
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(expected);
+    }
+
+    @Test
+    void filter_RepeatedRejections_ShareBodyWithoutCorruption() {
+        MockServerWebExchange first = exchange("/api/admin/users", token("USER"));
+        MockServerWebExchange second = exchange("/api/admin/users", token("USER"));
+
+        filter.filter(first, upstream).block();
+        filter.filter(second, upstream).block();
+
+        String expected = "{\"status\":403,\"error\":\"Forbidden\",\"message\":\"Access denied. Insufficient permissions.\"}";
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(expected);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(expected);
+    }
+
+    @Test
+    void filter_ValidToken_ForwardsUserHeaders() {
+        MockServerWebExchange exchange = exchange("/api/orders", token("RIDER"));
+
+        filter.filter(exchange, forwarded -> {
+            HttpHeaders headers = forwarded.getRequest().getHeaders();
+            assertThat(headers.getFirst("X-USER-ID")).isEqualTo("user-1");
+            assertThat(headers.getFirst("X-USER-ROLE")).isEqualTo("RIDER");
+            assertThat(headers.getFirst("X-USER-EMAIL")).isEqualTo("user-1@example.com");
+            return Mono.empty();
+        }).block();
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void filter_ValidToken_RecordsStageTimersByRouteAndStatus() {
+        // Given
+        MockServerWebExchange accepted = exchange("/api/orders", token("USER"));
+        MockServerWebExchange denied = exchange("/api/admin/users", token("USER"));
+
+        // When
+        filter.filter(accepted, upstream).block();
+        filter.filter(denied, upstream).block();
+
+        // Then
+        for (String stage : new String[]{"jwt_verify", "route_access", "header_mutation", "upstream"}) {
+            assertThat(meterRegistry.get(RequestStageMetrics.METRIC_NAME)
+                    .tags("stage", stage, "route", "order-service", "status", "2xx").timer().count())
+                    .isEqualTo(1);
+        }
+        assertThat(meterRegistry.get(RequestStageMetrics.METRIC_NAME)
+                .tags("stage", "route_access", "route", "admin-service", "status", "4xx").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find(RequestStageMetrics.METRIC_NAME)
+                .tags("stage", "upstream", "status", "4xx").timer()).isNull();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_StageMetrics_OverheadAgainstBudget() {
+        // Given
+        StageMetricsProperties disabled = new StageMetricsProperties();
+        disabled.setEnabled(false);
+        AuthenticationFilter plain = filter(disabled);
+        AuthenticationFilter instrumented = filter(new StageMetricsProperties());
+        String token = token("USER");
+
+        // When - best of several rounds, to keep scheduler noise out
+        long plainNanos = Long.MAX_VALUE;
+        long instrumentedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            plainNanos = Math.min(plainNanos, nanosPerRequest(plain, token));
+            instrumentedNanos = Math.min(instrumentedNanos, nanosPerRequest(instrumented, token));
+        }
+
+        log.info("Stage metrics overhead: {} ns per accepted request, budget {} ns ({} ns uninstrumented)",
+                instrumentedNanos - plainNanos, STAGE_METRICS_NANOS_BUDGET, plainNanos);
+    }
+
+    @Test
+    void filter_RejectionPath_StaysWithinAllocationBudget() {
+        long perRequest = allocatedBytesPerRequest(() -> exchange("/api/orders", null));
+
+        assertThat(perRequest).isLessThan(REJECTION_BYTES_BUDGET);
+    }
+
+    @Test
+    void filter_AcceptedPath_StaysWithinAllocationBudget() {
+        // Claims come from the verified-token cache after the first request
+        String token = token("USER");
+        long perRequest = allocatedBytesPerRequest(() -> exchange("/api/orders", token));
+
+        assertThat(perRequest).isLessThan(ACCEPTED_BYTES_BUDGET);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_RepeatedTokens_FilterStepP99CachedVersusFullVerify() {
+        // Given - 500 signed-in users, each replaying their bearer token on every request
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tokens.add(token("USER"));
+        }
+        AuthenticationFilter cached = filter(new JwtUtil(SECRET, keyCache(), 10_000, Duration.ofMinutes(15),
+                new SimpleMeterRegistry()), new StageMetricsProperties());
+        // A zero-size cache keeps nothing, so every request is a full parse and signature check
+        AuthenticationFilter uncached = filter(new JwtUtil(SECRET, keyCache(), 0, Duration.ofMinutes(15),
+                new SimpleMeterRegistry()), new StageMetricsProperties());
+
+        // When - warm both, then time each filter step
+        filterStepNanos(uncached, tokens, 2_000);
+        filterStepNanos(cached, tokens, ITERATIONS);
+        long[] uncachedNanos = filterStepNanos(uncached, tokens, 5_000);
+        long[] cachedNanos = filterStepNanos(cached, tokens, ITERATIONS);
+
+        log.info("Filter step over {} replayed tokens: full verify p50 {} µs / p99 {} µs, cached p50 {} µs / p99 {} µs",
+                tokens.size(), percentile(uncachedNanos, 0.50) / 1_000.0, percentile(uncachedNanos, 0.99) / 1_000.0,
+                percentile(cachedNanos, 0.50) / 1_000.0, percentile(cachedNanos, 0.99) / 1_000.0);
+    }
+
+    private AuthenticationFilter filter(StageMetricsProperties stageMetricsProperties) {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, keyCache(), 100, Duration.ofMinutes(15), new SimpleMeterRegistry());
+        return filter(jwtUtil, stageMetricsProperties);
+    }
+
+    private AuthenticationFilter filter(JwtUtil jwtUtil, StageMetricsProperties stageMetricsProperties) {
+        return new AuthenticationFilter(jwtUtil, new RouteValidator(new RouteAccessProperties()),
+                new TokenRevocationRegistry(true, 1_000, 0.01),
+                new RequestStageMetrics(stageMetricsProperties, meterRegistry));
+    }
+
+    private static JwksKeyCache keyCache() {
+        return new JwksKeyCache(null, false, Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofHours(25));
+    }
+
+    /**
+     * Wall-clock nanos of each filter step, tokens taken round-robin, sorted ascending.
+     */
+    private long[] filterStepNanos(AuthenticationFilter target, List<String> tokens, int requests) {
+        MockServerWebExchange[] prepared = new MockServerWebExchange[requests];
+        for (int i = 0; i < requests; i++) {
+            prepared[i] = exchange("/api/orders", tokens.get(i % tokens.size()));
+        }
+        long[] nanos = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            target.filter(prepared[i], upstream).block();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[Math.min(sortedNanos.length - 1, (int) (sortedNanos.length * percentile))];
+    }
+
+    private long nanosPerRequest(AuthenticationFilter target, String token) {
+        MockServerWebExchange[] prepared = new MockServerWebExchange[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            prepared[i] = exchange("/api/orders", token);
+        }
+        long start = System.nanoTime();
+        for (MockServerWebExchange exchange : prepared) {
+            target.filter(exchange, upstream).block();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    /**
+     * Bytes allocated by the filter per request, excluding building the exchanges.
+     */
+    private long allocatedBytesPerRequest(Supplier<MockServerWebExchange> exchanges) {
+        MockServerWebExchange[] prepared = new MockServerWebExchange[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            prepared[i] = exchanges.get();
+        }
+        // Warm up class loading, JIT and the claims cache
+        for (int i = 0; i < ITERATIONS / 2; i++) {
+            filter.filter(prepared[i], upstream).block();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = ITERATIONS / 2; i < ITERATIONS; i++) {
+            filter.filter(prepared[i], upstream).block();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        return allocated / (ITERATIONS - ITERATIONS / 2);
+    }
+
+    private static MockServerWebExchange exchange(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async()
+                .id(path.startsWith("/api/admin") ? "admin-service" : "order-service")
+                .uri(URI.create("lb://UPSTREAM"))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private static String token(String role) {
+        Date now = new Date();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject("user-1")
+                .claim("role", role)
+                .claim("email", "user-1@example.com")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + Duration.ofHours(1).toMillis()))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
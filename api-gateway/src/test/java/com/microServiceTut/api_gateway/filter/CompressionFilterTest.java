@@ -0,0 +1,132 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.compression.GzipEncoderPool;
+import com.microServiceTut.api_gateway.config.CompressionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionFilterTest {
+
+    private static final String ITEM = "{\"name\":\"Veg Biryani\",\"price\":199.0,\"category\":\"MAIN_COURSE\"}";
+
+    private CompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CompressionProperties properties = new CompressionProperties();
+        filter = new CompressionFilter(new GzipEncoderPool(properties), properties);
+    }
+
+    @Test
+    void largeJson_StreamedUpstream_CompressedForGzipClient() throws IOException {
+        // Given - a menu sent upstream in several chunks, without Content-Length
+        String menu = menu(200);
+        MockServerWebExchange exchange = exchange("gzip, deflate, br");
+
+        // When
+        filter.filter(exchange, upstream(menu, MediaType.APPLICATION_JSON, null, 4)).block();
+
+        // Then
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(headers.getETag()).isEqualTo("W/\"abc\"");
+        byte[] body = body(exchange);
+        assertThat(body.length).isLessThan(menu.length() / 4);
+        assertThat(gunzip(body)).isEqualTo(menu);
+    }
+
+    @Test
+    void alreadyEncodedUpstream_PassedThroughUntouched() {
+        String payload = menu(200);
+        MockServerWebExchange exchange = exchange("gzip");
+
+        filter.filter(exchange, upstream(payload, MediaType.APPLICATION_JSON, "br", 1)).block();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(new String(body(exchange), StandardCharsets.UTF_8)).isEqualTo(payload);
+    }
+
+    @Test
+    void smallOrNonCompressibleOrRefused_SentAsIs() {
+        MockServerWebExchange small = exchange("gzip");
+        filter.filter(small, upstream(ITEM, MediaType.APPLICATION_JSON, null, 1)).block();
+
+        MockServerWebExchange image = exchange("gzip");
+        filter.filter(image, upstream(menu(200), MediaType.IMAGE_PNG, null, 1)).block();
+
+        MockServerWebExchange refused = exchange("gzip;q=0, identity");
+        filter.filter(refused, upstream(menu(200), MediaType.APPLICATION_JSON, null, 1)).block();
+
+        assertThat(small.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(image.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(refused.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(new String(body(small), StandardCharsets.UTF_8)).isEqualTo(ITEM);
+    }
+
+    /**
+     * Upstream that writes the body in the given number of chunks; sets Content-Length only for one chunk.
+     */
+    private static GatewayFilterChain upstream(String body, MediaType contentType, String encoding, int chunks) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(contentType);
+            response.getHeaders().setETag("\"abc\"");
+            if (encoding != null) {
+                response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (chunks == 1) {
+                response.getHeaders().setContentLength(bytes.length);
+            }
+            int chunkSize = (bytes.length + chunks - 1) / chunks;
+            return response.writeWith(Flux.range(0, chunks).map(i -> {
+                int offset = i * chunkSize;
+                int length = Math.min(chunkSize, bytes.length - offset);
+                return response.bufferFactory().allocateBuffer(length).write(bytes, offset, length);
+            }));
+        };
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/menus/restaurant/7")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        DataBuffer joined = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String menu(int items) {
+        return "[" + String.join(",", Collections.nCopies(items, ITEM)) + "]";
+    }
+}
@@ -0,0 +1,162 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.microServiceTut.api_gateway.config.ConcurrencyLimitProperties;
+import com.microServiceTut.api_gateway.config.RouteAccessProperties;
+import com.microServiceTut.api_gateway.security.RouteValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final String ROUTE = "order-service";
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+    private List<Sinks.Empty<Void>> pending;
+    private GatewayFilterChain slowUpstream;
+
+    @BeforeEach
+    void setUp() {
+        // Pin the limit at 10 so USER (0.8 share) is shed from 8 in flight
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.getDefaults().setInitialLimit(10);
+        properties.getDefaults().setMinLimit(10);
+        properties.getDefaults().setMaxLimit(10);
+
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        filter = new ConcurrencyLimitFilter(limiter, properties, new RouteValidator(new RouteAccessProperties()));
+
+        // Upstream that only answers when the test completes its sink
+        pending = new ArrayList<>();
+        slowUpstream = exchange -> {
+            Sinks.Empty<Void> response = Sinks.empty();
+            pending.add(response);
+            return response.asMono();
+        };
+    }
+
+    @Test
+    void userSurge_ShedsUsersButAdmitsAdminAndRider() {
+        // Given - USER requests fill their share of the limit
+        List<Disposable> inFlight = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            inFlight.add(filter.filter(exchange("USER"), slowUpstream).subscribe());
+        }
+
+        // When
+        MockServerWebExchange user = exchange("USER");
+        filter.filter(user, slowUpstream).block();
+        MockServerWebExchange admin = exchange("ADMIN");
+        inFlight.add(filter.filter(admin, slowUpstream).subscribe());
+        MockServerWebExchange rider = exchange("RIDER");
+        inFlight.add(filter.filter(rider, slowUpstream).subscribe());
+        MockServerWebExchange secondAdmin = exchange("ADMIN");
+        filter.filter(secondAdmin, slowUpstream).block();
+
+        // Then
+        assertThat(user.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(user.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(admin.getResponse().getStatusCode()).isNull();
+        assertThat(rider.getResponse().getStatusCode()).isNull();
+        assertThat(secondAdmin.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(limiter.getInFlight(ROUTE)).isEqualTo(10);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.METRIC_PREFIX + ".shed")
+                .tag("route", ROUTE).tag("role", "USER").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.METRIC_PREFIX + ".limit")
+                .tag("route", ROUTE).gauge().value()).isEqualTo(10);
+        inFlight.forEach(Disposable::dispose);
+    }
+
+    @Test
+    void upstreamCompletes_ReleasesSlot() {
+        for (int i = 0; i < 8; i++) {
+            filter.filter(exchange("USER"), slowUpstream).subscribe();
+        }
+
+        pending.get(0).tryEmitEmpty();
+        MockServerWebExchange user = exchange("USER");
+        filter.filter(user, slowUpstream).subscribe();
+
+        assertThat(user.getResponse().getStatusCode()).isNull();
+        assertThat(pending).hasSize(9);
+        assertThat(limiter.getInFlight(ROUTE)).isEqualTo(8);
+    }
+
+    @Test
+    void clientCancels_ReleasesSlot() {
+        Disposable request = filter.filter(exchange("USER"), slowUpstream).subscribe();
+        assertThat(limiter.getInFlight(ROUTE)).isEqualTo(1);
+
+        request.dispose();
+
+        assertThat(limiter.getInFlight(ROUTE)).isZero();
+    }
+
+    @Test
+    void streamingResponse_ReleasesSlotOnceCommitted() {
+        Sinks.Many<DataBuffer> ndjsonBody = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<DataBuffer> jsonBody = Sinks.many().unicast().onBackpressureBuffer();
+        MockServerWebExchange ndjson = exchange("USER");
+        MockServerWebExchange json = exchange("USER");
+
+        Disposable streaming = filter.filter(ndjson, exchange -> write(exchange, MediaType.APPLICATION_NDJSON, ndjsonBody))
+                .subscribe();
+        Disposable buffered = filter.filter(json, exchange -> write(exchange, MediaType.APPLICATION_JSON, jsonBody))
+                .subscribe();
+        ndjsonBody.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap("{}\n".getBytes(StandardCharsets.UTF_8)));
+        jsonBody.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap("[".getBytes(StandardCharsets.UTF_8)));
+
+        // Both bodies still open: only the JSON response holds its slot
+        assertThat(ndjson.getResponse().isCommitted()).isTrue();
+        assertThat(json.getResponse().isCommitted()).isTrue();
+        assertThat(limiter.getInFlight(ROUTE)).isEqualTo(1);
+
+        jsonBody.tryEmitComplete();
+        assertThat(limiter.getInFlight(ROUTE)).isZero();
+        streaming.dispose();
+        buffered.dispose();
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, MediaType contentType, Sinks.Many<DataBuffer> body) {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(contentType);
+        return exchange.getResponse().writeWith(body.asFlux());
+    }
+
+    private static MockServerWebExchange exchange(String role) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders")
+                .header("X-USER-ROLE", role));
+        Route route = Route.async()
+                .id(ROUTE)
+                .uri(URI.create("lb://ORDER-SERVICE"))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,241 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.config.LoadBalancingProperties;
+import com.microServiceTut.api_gateway.loadbalancer.InstanceLatencyTracker;
+import com.microServiceTut.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgedRequestFilterTest {
+
+    private static final String SERVICE = "MENU-SERVICE";
+
+    private DisposableServer slowServer;
+    private DisposableServer fastServer;
+    private ServiceInstance slow;
+    private ServiceInstance fast;
+
+    private LoadBalancingProperties properties;
+    private InstanceLatencyTracker tracker;
+    private SimpleMeterRegistry meterRegistry;
+    private HedgedRequestFilter filter;
+    private final GatewayFilterChain routingDone = exchange -> Mono.empty();
+
+    @BeforeEach
+    void setUp() {
+        // Stub instances: one stalled for 600ms, one answering in 10ms
+        slowServer = stubInstance("slow", Duration.ofMillis(600));
+        fastServer = stubInstance("fast", Duration.ofMillis(10));
+        slow = new DefaultServiceInstance("slow", SERVICE, "localhost", slowServer.port(), false);
+        fast = new DefaultServiceInstance("fast", SERVICE, "127.0.0.1", fastServer.port(), false);
+
+        properties = new LoadBalancingProperties();
+        LoadBalancingProperties.RouteSettings menu = new LoadBalancingProperties.RouteSettings();
+        menu.getHedge().setEnabled(true);
+        menu.getHedge().setMinDelay(Duration.ofMillis(20));
+        menu.getHedge().setMaxDelay(Duration.ofMillis(50));
+        menu.getHedge().setResponseTimeout(Duration.ofSeconds(1));
+        menu.getHedge().setPaths(List.of("/api/menus/restaurant/{restaurantId}"));
+        properties.getRoutes().put("menu-service", menu);
+
+        tracker = new InstanceLatencyTracker(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new HedgedRequestFilter(properties, tracker, loadBalancers(slow, fast),
+                new SimpleObjectProvider<>(List.of()), HttpClient.create(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowServer.disposeNow();
+        fastServer.disposeNow();
+    }
+
+    @Test
+    void slowPrimary_HedgeToOtherInstanceWins() {
+        // Given - the load balancer sent the request to the stalled instance
+        MockServerWebExchange exchange = exchange("menu-service", slow);
+
+        // When
+        long start = System.nanoTime();
+        filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("fast");
+        assertThat(elapsedMs).isLessThan(400);
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isTrue();
+        assertThat(meterRegistry.get("gateway.hedge.sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.hedge.wins").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fastPrimary_NoHedgeSent() {
+        // Given - connections and codecs warmed up, the first call can outlast the hedge delay
+        filter.filter(exchange("menu-service", fast), routingDone).block(Duration.ofSeconds(5));
+        double sentBefore = hedgesSent();
+        MockServerWebExchange exchange = exchange("menu-service", fast);
+
+        // When
+        filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("fast");
+        assertThat(hedgesSent()).isEqualTo(sentBefore);
+    }
+
+    @Test
+    void routeWithoutHedging_LeftToNettyRouting() {
+        MockServerWebExchange exchange = exchange("order-service", slow);
+
+        filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void pathNotInAllowList_LeftToNettyRouting() {
+        MockServerWebExchange exchange = exchange("menu-service", slow, MockServerHttpRequest.get("/api/menus/42"));
+
+        filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isFalse();
+    }
+
+    @Test
+    void idPatternConstrained_ListingPathNotHedged() {
+        LoadBalancingProperties.RouteSettings restaurant = properties.getRoutes().get("menu-service");
+        restaurant.getHedge().setPaths(List.of("/api/restaurants/{restaurantId:[0-9a-fA-F-]{36}}"));
+        properties.getRoutes().put("restaurant-service", restaurant);
+        MockServerWebExchange page = exchange("restaurant-service", slow, MockServerHttpRequest.get("/api/restaurants/page"));
+        MockServerWebExchange byId = exchange("restaurant-service", slow,
+                MockServerHttpRequest.get("/api/restaurants/" + UUID.randomUUID()));
+
+        filter.filter(page, routingDone).block(Duration.ofSeconds(5));
+        filter.filter(byId, routingDone).block(Duration.ofSeconds(5));
+
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(page)).isFalse();
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(byId)).isTrue();
+    }
+
+    @Test
+    void streamingAccept_LeftToNettyRouting() {
+        MockServerWebExchange exchange = exchange("menu-service", slow, MockServerHttpRequest
+                .get("/api/menus/restaurant/7")
+                .accept(MediaType.APPLICATION_NDJSON));
+
+        filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isFalse();
+    }
+
+    @Test
+    void largeBody_StreamedPastCodecLimit() {
+        // Over the 256 KB default codec buffer limit
+        String large = "x".repeat(1024 * 1024);
+        DisposableServer largeServer = stubInstance(large, Duration.ZERO);
+        try {
+            ServiceInstance instance = new DefaultServiceInstance("large", SERVICE, "127.0.0.1", largeServer.port(), false);
+            MockServerWebExchange exchange = exchange("menu-service", instance);
+
+            filter.filter(exchange, routingDone).block(Duration.ofSeconds(5));
+
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(exchange.getResponse().getBodyAsString().block()).hasSize(large.length());
+        } finally {
+            largeServer.disposeNow();
+        }
+    }
+
+    @Test
+    void bothInstancesStalled_FailsAfterResponseTimeout() {
+        DisposableServer stalledServer = stubInstance("late", Duration.ofSeconds(10));
+        try {
+            ServiceInstance stalled = new DefaultServiceInstance("stalled", SERVICE, "127.0.0.1",
+                    stalledServer.port(), false);
+            properties.forRoute("menu-service").getHedge().setResponseTimeout(Duration.ofMillis(300));
+            filter = new HedgedRequestFilter(properties, tracker, loadBalancers(stalled, slow),
+                    new SimpleObjectProvider<>(List.of()), HttpClient.create(), meterRegistry);
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> filter.filter(exchange("menu-service", stalled), routingDone)
+                    .block(Duration.ofSeconds(5)))
+                    .isNotNull();
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(2_000);
+        } finally {
+            stalledServer.disposeNow();
+        }
+    }
+
+    private ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers(ServiceInstance... instances) {
+        @SuppressWarnings("unchecked")
+        ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers = mock(ReactiveLoadBalancer.Factory.class);
+        when(loadBalancers.getInstance(SERVICE)).thenReturn(new LatencyAwareLoadBalancer(
+                ServiceInstanceListSuppliers.toProvider(SERVICE, instances), SERVICE, tracker, properties));
+        return loadBalancers;
+    }
+
+    private double hedgesSent() {
+        return meterRegistry.find("gateway.hedge.sent").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static MockServerWebExchange exchange(String routeId, ServiceInstance chosen) {
+        return exchange(routeId, chosen, MockServerHttpRequest.get("/api/menus/restaurant/7"));
+    }
+
+    private static MockServerWebExchange exchange(String routeId, ServiceInstance chosen,
+                                                  MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        String path = exchange.getRequest().getURI().getRawPath();
+        Route route = Route.async()
+                .id(routeId)
+                .uri(URI.create("lb://" + SERVICE))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://" + chosen.getHost() + ":" + chosen.getPort() + path));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen));
+        return exchange;
+    }
+
+    private static DisposableServer stubInstance(String body, Duration latency) {
+        return HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> Mono.delay(latency)
+                        .then(response.sendString(Mono.just(body)).then()))
+                .bindNow();
+    }
+}
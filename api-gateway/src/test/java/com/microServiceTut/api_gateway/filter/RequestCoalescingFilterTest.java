@@ -0,0 +1,222 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.config.RequestCoalescingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingFilterTest {
+
+    private static final String MENU_JSON = "[{\"name\":\"Veg Biryani\",\"price\":199.0}]";
+    private static final String RESTAURANT_ID = "3f2b8c1e-6a4d-4e0b-9c7a-1d2e3f4a5b6c";
+
+    private RequestCoalescingProperties properties;
+    private RequestCoalescingFilter filter;
+    private AtomicInteger upstreamCalls;
+    private GatewayFilterChain slowUpstream;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestCoalescingProperties();
+        properties.setPaths(List.of(
+                "/api/menus/restaurant/{restaurantId}",
+                "/api/restaurants/{restaurantId:[0-9a-fA-F-]{36}}"));
+        properties.setPerUserPaths(List.of("/api/restaurants/admin/all"));
+        filter = new RequestCoalescingFilter(properties, new SimpleMeterRegistry());
+        upstreamCalls = new AtomicInteger();
+        slowUpstream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(response.bufferFactory()
+                        .wrap(MENU_JSON.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+
+    @Test
+    void concurrentIdenticalGets_OneUpstreamCall() {
+        // Given
+        List<MockServerWebExchange> exchanges = Flux.range(0, 100)
+                .map(i -> exchange("/api/menus/restaurant/7", "menu-service"))
+                .collectList().block();
+
+        // When
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, slowUpstream), 100)
+                .blockLast(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(exchanges).allSatisfy(exchange -> {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(MENU_JSON);
+        });
+        assertThat(filter.inFlightCount()).isZero();
+    }
+
+    @Test
+    void differentPaths_NotMerged() {
+        Flux.just("/api/menus/restaurant/1", "/api/menus/restaurant/2", "/api/menus/restaurant/1?page=2")
+                .flatMap(path -> filter.filter(exchange(path, "menu-service"), slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void catalogRead_SameRoleDifferentUsers_Merged() {
+        Flux.just("user-1", "user-2", "user-3")
+                .map(userId -> caller("/api/restaurants/" + RESTAURANT_ID, userId, "USER"))
+                .concatWithValues(caller("/api/restaurants/" + RESTAURANT_ID, "user-1", "ADMIN"))
+                .flatMap(exchange -> filter.filter(exchange, slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        // All USERs share a flight, the ADMIN gets its own
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void perUserPath_DifferentCallers_NotMerged() {
+        Flux.just(caller("/api/restaurants/admin/all", "user-1", "USER"),
+                        caller("/api/restaurants/admin/all", "user-2", "USER"),
+                        caller("/api/restaurants/admin/all", "user-1", "ADMIN"),
+                        caller("/api/restaurants/admin/all", "user-1", "USER"))
+                .flatMap(exchange -> filter.filter(exchange, slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        // Only the repeated user-1/USER request shares a flight
+        assertThat(upstreamCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void pathNotAllowListed_NotMerged() {
+        Flux.range(0, 5)
+                .flatMap(i -> filter.filter(exchange("/api/restaurants/page", "restaurant-service"), slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void streamingRequest_NotMerged() {
+        Flux.range(0, 5)
+                .map(i -> exchange(MockServerHttpRequest.get("/api/menus/restaurant/7")
+                        .accept(MediaType.APPLICATION_NDJSON), "menu-service"))
+                .flatMap(exchange -> filter.filter(exchange, slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void responseOverSizeCap_PassedThroughAndWaitersFetchIndependently() {
+        properties.setMaxResponseSize(DataSize.ofBytes(16));
+        GatewayFilterChain chunkedUpstream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(200)).then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                byte[] bytes = MENU_JSON.getBytes(StandardCharsets.UTF_8);
+                return response.writeWith(Flux.range(0, bytes.length / 8 + 1)
+                        .map(i -> response.bufferFactory().wrap(
+                                Arrays.copyOfRange(bytes, i * 8, Math.min(bytes.length, i * 8 + 8)))));
+            }));
+        };
+
+        List<MockServerWebExchange> exchanges = Flux.range(0, 5)
+                .map(i -> exchange("/api/menus/restaurant/7", "menu-service"))
+                .collectList().block();
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, chunkedUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+        assertThat(exchanges).allSatisfy(exchange ->
+                assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(MENU_JSON));
+        assertThat(filter.inFlightCount()).isZero();
+    }
+
+    @Test
+    void routeNotConfigured_NotMerged() {
+        Flux.range(0, 5)
+                .flatMap(i -> filter.filter(exchange("/api/orders/1", "order-service"), slowUpstream))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void waiterCap_OverflowGoesUpstream() {
+        properties.setMaxWaiters(4);
+
+        Flux.range(0, 10)
+                .flatMap(i -> filter.filter(exchange("/api/menus/restaurant/7", "menu-service"), slowUpstream), 10)
+                .blockLast(Duration.ofSeconds(5));
+
+        // 1 leader + 4 waiters share one call, the other 5 go upstream
+        assertThat(upstreamCalls.get()).isEqualTo(6);
+    }
+
+    @Test
+    void leaderFails_WaitersFetchIndependently() {
+        AtomicInteger calls = new AtomicInteger();
+        GatewayFilterChain failingFirst = exchange -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("upstream reset")))
+                : slowUpstream.filter(exchange);
+
+        MockServerWebExchange leader = exchange("/api/menus/restaurant/7", "menu-service");
+        MockServerWebExchange follower = exchange("/api/menus/restaurant/7", "menu-service");
+        Flux.merge(
+                        filter.filter(leader, failingFirst).onErrorResume(e -> Mono.empty()),
+                        filter.filter(follower, failingFirst))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(MENU_JSON);
+    }
+
+    private static MockServerWebExchange caller(String path, String userId, String role) {
+        return exchange(MockServerHttpRequest.get(path)
+                .header("X-USER-ID", userId)
+                .header("X-USER-ROLE", role), "restaurant-service");
+    }
+
+    private static MockServerWebExchange exchange(String path, String routeId) {
+        return exchange(MockServerHttpRequest.get(path), routeId);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async()
+                .id(routeId)
+                .uri(URI.create("lb://" + routeId.toUpperCase()))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,177 @@
+package com.microServiceTut.api_gateway.filter;
+
+import com.microServiceTut.api_gateway.cache.GatewayResponseCache;
+import com.microServiceTut.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final String MENU_JSON = "[{\"name\":\"Paneer Tikka\",\"price\":249.0}]";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        filter = new ResponseCacheFilter(new GatewayResponseCache(properties, meterRegistry), properties);
+
+        upstreamCalls = new AtomicInteger();
+        upstream = exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if ("POST".equals(exchange.getRequest().getMethod().name())) {
+                response.getHeaders().add(ResponseCacheFilter.INVALIDATE_HEADER, "/api/menus/restaurant");
+            }
+            return response.writeWith(Mono.just(response.bufferFactory()
+                    .wrap(MENU_JSON.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    @Test
+    void get_SecondRequestServedFromCache() {
+        // Given
+        MockServerWebExchange first = get("/api/menus/restaurant/42", null);
+        MockServerWebExchange second = get("/api/menus/restaurant/42", null);
+
+        // When
+        filter.filter(first, upstream).block();
+        filter.filter(second, upstream).block();
+
+        // Then
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(MENU_JSON);
+        assertThat(second.getResponse().getHeaders().getETag())
+                .isEqualTo(first.getResponse().getHeaders().getETag());
+        assertThat(meterRegistry.get(GatewayResponseCache.CACHE_NAME + ".bytes.saved").counter().count())
+                .isEqualTo(MENU_JSON.length());
+    }
+
+    @Test
+    void get_MatchingIfNoneMatch_Returns304WithoutUpstream() {
+        MockServerWebExchange first = get("/api/restaurants", null);
+        filter.filter(first, upstream).block();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange conditional = get("/api/restaurants", etag);
+        filter.filter(conditional, upstream).block();
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditional.getResponse().getBodyAsString().block()).isEmpty();
+    }
+
+    @Test
+    void get_UncachedRouteAlwaysForwarded() {
+        filter.filter(get("/api/orders", null), upstream).block();
+        filter.filter(get("/api/orders", null), upstream).block();
+        filter.filter(get("/api/restaurants/42", null), upstream).block();
+
+        assertThat(upstreamCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateHeader_DropsMatchingEntries() {
+        // Given
+        filter.filter(get("/api/menus/restaurant/42", null), upstream).block();
+        filter.filter(get("/api/restaurants", null), upstream).block();
+
+        // When - an upstream write response asks for invalidation
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/menus"));
+        filter.filter(write, upstream).block();
+        filter.filter(get("/api/menus/restaurant/42", null), upstream).block();
+        filter.filter(get("/api/restaurants", null), upstream).block();
+
+        // Then - menus refetched, restaurants still cached, header not leaked
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+        assertThat(write.getResponse().getHeaders().containsKey(ResponseCacheFilter.INVALIDATE_HEADER)).isFalse();
+    }
+
+    @Test
+    void get_BodyGrowsPastMaxEntrySize_StreamedWithoutCaching() {
+        // Given - upstream without Content-Length, still sending
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntrySize(DataSize.ofBytes(64));
+        ResponseCacheFilter smallFilter = new ResponseCacheFilter(
+                new GatewayResponseCache(properties, meterRegistry), properties);
+        Sinks.Many<DataBuffer> chunks = Sinks.many().unicast().onBackpressureBuffer();
+        GatewayFilterChain streaming = exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().writeWith(chunks.asFlux());
+        };
+        MockServerWebExchange exchange = get("/api/restaurants", null);
+        AtomicInteger forwarded = new AtomicInteger();
+        exchange.getResponse().setWriteHandler(body -> Flux.from(body)
+                .doOnNext(buffer -> forwarded.addAndGet(buffer.readableByteCount()))
+                .then());
+
+        // When
+        Mono<Void> result = smallFilter.filter(exchange, streaming).cache();
+        result.subscribe();
+        for (int i = 0; i < 3; i++) {
+            chunks.tryEmitNext(exchange.getResponse().bufferFactory().wrap(new byte[40]));
+        }
+
+        // Then - forwarded before upstream finished, and not stored
+        assertThat(forwarded.get()).isEqualTo(120);
+        chunks.tryEmitComplete();
+        result.block();
+        smallFilter.filter(get("/api/restaurants", null), upstream).block();
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_ContentLengthOverMaxEntrySize_NotCached() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntrySize(DataSize.ofBytes(8));
+        ResponseCacheFilter smallFilter = new ResponseCacheFilter(
+                new GatewayResponseCache(properties, meterRegistry), properties);
+        GatewayFilterChain declared = exchange -> {
+            exchange.getResponse().getHeaders().setContentLength(MENU_JSON.length());
+            return upstream.filter(exchange);
+        };
+
+        MockServerWebExchange first = get("/api/restaurants", null);
+        smallFilter.filter(first, declared).block();
+        smallFilter.filter(get("/api/restaurants", null), declared).block();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(MENU_JSON);
+        assertThat(first.getResponse().getHeaders().getETag()).isNull();
+    }
+
+    private static MockServerWebExchange get(String path, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,97 @@
+package com.microServiceTut.api_gateway.loadbalancer;
+
+import com.microServiceTut.api_gateway.config.LoadBalancingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE = "ORDER-SERVICE";
+
+    // Two healthy stub instances and one stuck in GC pauses
+    private final ServiceInstance fast = instance("10.0.0.1", 10);
+    private final ServiceInstance steady = instance("10.0.0.2", 15);
+    private final ServiceInstance pausing = instance("10.0.0.3", 250);
+
+    @Test
+    void choose_InstanceInGcPause_TailLatencyBelowRoundRobin() {
+        // Given
+        long[] roundRobin = simulate(LoadBalancingProperties.Strategy.ROUND_ROBIN, 3_000);
+        long[] latencyAware = simulate(LoadBalancingProperties.Strategy.LATENCY, 3_000);
+
+        // Then - round robin sends a third of requests into the pause, P2C almost none
+        assertThat(percentile(roundRobin, 0.99)).isEqualTo(250);
+        assertThat(percentile(latencyAware, 0.99)).isLessThanOrEqualTo(15);
+        assertThat(Arrays.stream(latencyAware).filter(ms -> ms == 250).count()).isLessThan(30);
+    }
+
+    @Test
+    void choose_ExcludedInstance_NeverReturned() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(new LoadBalancingProperties(),
+                new InstanceLatencyTracker(new LoadBalancingProperties()));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(LatencyAwareLoadBalancer.EXCLUDED_INSTANCE_ATTR, fast);
+
+        for (int i = 0; i < 100; i++) {
+            ServiceInstance chosen = choose(loadBalancer, attributes);
+            assertThat(LatencyAwareLoadBalancer.sameInstance(chosen, fast)).isFalse();
+        }
+    }
+
+    /**
+     * Send requests through the balancer and return the latency (ms) each one saw.
+     */
+    private long[] simulate(LoadBalancingProperties.Strategy strategy, int requests) {
+        LoadBalancingProperties properties = new LoadBalancingProperties();
+        properties.getDefaults().setStrategy(strategy);
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(properties);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(properties, tracker);
+
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            ServiceInstance chosen = choose(loadBalancer, Map.of());
+            long latencyMs = Long.parseLong(chosen.getMetadata().get("latencyMs"));
+            tracker.record(chosen, TimeUnit.MILLISECONDS.toNanos(latencyMs), true);
+            latencies[i] = latencyMs;
+        }
+        return latencies;
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(LoadBalancingProperties properties, InstanceLatencyTracker tracker) {
+        return new LatencyAwareLoadBalancer(ServiceInstanceListSuppliers.toProvider(SERVICE, fast, steady, pausing),
+                SERVICE, tracker, properties);
+    }
+
+    private static ServiceInstance choose(LatencyAwareLoadBalancer loadBalancer, Map<String, Object> attributes) {
+        RequestData data = new RequestData(MockServerHttpRequest.get("/api/orders").build(), attributes);
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(data))).block();
+        assertThat(response).isNotNull();
+        assertThat(response.hasServer()).isTrue();
+        return response.getServer();
+    }
+
+    private static long percentile(long[] values, double percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+
+    private static ServiceInstance instance(String host, long latencyMs) {
+        return new DefaultServiceInstance(host, SERVICE, host, 8080, false,
+                Map.of("latencyMs", Long.toString(latencyMs)));
+    }
+}
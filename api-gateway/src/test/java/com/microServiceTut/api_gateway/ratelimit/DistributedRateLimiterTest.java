@@ -0,0 +1,221 @@
+package com.microServiceTut.api_gateway.ratelimit;
+
+import com.microServiceTut.api_gateway.config.RateLimitProperties;
+import com.microServiceTut.api_gateway.config.RouteAccessProperties;
+import com.microServiceTut.api_gateway.filter.RateLimitFilter;
+import com.microServiceTut.api_gateway.security.RouteValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributedRateLimiterTest {
+
+    private InMemoryTokenBucketStore store;
+    private RateLimitProperties properties;
+    private DistributedRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryTokenBucketStore();
+        properties = new RateLimitProperties();
+        properties.setLeaseSize(5);
+        rateLimiter = new DistributedRateLimiter(store, properties);
+    }
+
+    @Test
+    void tryAcquire_BurstAllowedThenDenied() {
+        // Given
+        RateLimitProperties.Limit limit = limit(1, 20);
+
+        // When
+        int allowed = 0;
+        RateLimitDecision last = null;
+        for (int i = 0; i < 30; i++) {
+            last = rateLimiter.tryAcquire("orders:user:1", limit).block();
+            if (last.allowed()) allowed++;
+        }
+
+        // Then
+        assertThat(allowed).isEqualTo(20);
+        assertThat(last.allowed()).isFalse();
+        assertThat(last.retryAfterMillis()).isPositive();
+    }
+
+    @Test
+    void tryAcquire_MostRequestsServedFromLocalLease() {
+        RateLimitProperties.Limit limit = limit(1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.tryAcquire("menus:user:1", limit).block().allowed()).isTrue();
+        }
+
+        // One Redis round trip per lease of 5 tokens
+        assertThat(store.calls.get()).isEqualTo(20);
+    }
+
+    @Test
+    void tryAcquire_DenialCachedLocallyUntilRetry() {
+        RateLimitProperties.Limit limit = limit(0.01, 1);
+        rateLimiter.tryAcquire("orders:user:2", limit).block();
+        assertThat(rateLimiter.tryAcquire("orders:user:2", limit).block().allowed()).isFalse();
+        int callsAfterDenial = store.calls.get();
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(rateLimiter.tryAcquire("orders:user:2", limit).block().allowed()).isFalse();
+        }
+
+        assertThat(store.calls.get()).isEqualTo(callsAfterDenial);
+    }
+
+    @Test
+    void tryAcquire_KeysAreIndependent() {
+        RateLimitProperties.Limit limit = limit(0.01, 1);
+
+        assertThat(rateLimiter.tryAcquire("orders:user:1", limit).block().allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("orders:user:1", limit).block().allowed()).isFalse();
+        assertThat(rateLimiter.tryAcquire("orders:user:2", limit).block().allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("payments:user:1", limit).block().allowed()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_StoreDown_FailsOpen() {
+        DistributedRateLimiter limiter = new DistributedRateLimiter(
+                (key, limit, requested) -> Mono.error(new IllegalStateException("redis down")), properties);
+
+        assertThat(limiter.tryAcquire("orders:user:1", limit(1, 1)).block().allowed()).isTrue();
+    }
+
+    @Test
+    void tryAcquire_StoreHangs_FailsOpenWithinTimeoutThenSkipsStore() {
+        properties.setStoreTimeout(Duration.ofMillis(50));
+        AtomicInteger calls = new AtomicInteger();
+        DistributedRateLimiter limiter = new DistributedRateLimiter((key, limit, requested) -> {
+            calls.incrementAndGet();
+            return Mono.never();
+        }, properties);
+
+        long start = System.nanoTime();
+        assertThat(limiter.tryAcquire("orders:user:1", limit(1, 1)).block(Duration.ofSeconds(1)).allowed()).isTrue();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(limiter.tryAcquire("orders:user:2", limit(1, 1)).block(Duration.ofMillis(10)).allowed()).isTrue();
+
+        assertThat(elapsedMillis).isLessThan(500);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refill_ConcurrentGrants_AddUp() throws Exception {
+        TokenLease lease = new TokenLease();
+        long now = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                lease.refill(4, now, now + 60_000);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        int consumed = 0;
+        while (lease.tryConsume(now)) consumed++;
+
+        assertThat(consumed).isEqualTo(32);
+    }
+
+    @Test
+    void refill_AfterExpiry_DropsLeftovers() {
+        TokenLease lease = new TokenLease();
+        lease.refill(4, 0, 1_000);
+
+        lease.refill(2, 2_000, 3_000);
+
+        assertThat(lease.tryConsume(2_000)).isTrue();
+        assertThat(lease.tryConsume(2_000)).isTrue();
+        assertThat(lease.tryConsume(2_000)).isFalse();
+    }
+
+    @Test
+    void filter_RateLimited_Returns429WithRetryAfter() {
+        // Given
+        properties.setDefaults(limit(0.5, 1));
+        RateLimitFilter filter = new RateLimitFilter(
+                rateLimiter, properties, new RouteValidator(new RouteAccessProperties()));
+        AtomicInteger forwarded = new AtomicInteger();
+        GatewayFilterChain chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+
+        // When
+        MockServerWebExchange first = exchange();
+        MockServerWebExchange second = exchange();
+        filter.filter(first, chain).block();
+        filter.filter(second, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isEqualTo(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/orders")
+                .header("X-USER-ID", "user-1"));
+    }
+
+    private static RateLimitProperties.Limit limit(double replenishRate, int burstCapacity) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setReplenishRate(replenishRate);
+        limit.setBurstCapacity(burstCapacity);
+        return limit;
+    }
+
+    /**
+     * Same bucket arithmetic as scripts/token_bucket.lua, kept in-process with its own clock.
+     */
+    private static final class InMemoryTokenBucketStore implements TokenBucketStore {
+
+        private final Map<String, double[]> buckets = new HashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public synchronized Mono<Grant> acquire(String key, RateLimitProperties.Limit limit, int requested) {
+            calls.incrementAndGet();
+            long nowMillis = System.currentTimeMillis();
+            double[] bucket = buckets.computeIfAbsent(key, k -> new double[]{limit.getBurstCapacity(), nowMillis});
+            double elapsed = Math.max(0, nowMillis - bucket[1]);
+            double tokens = Math.min(limit.getBurstCapacity(), bucket[0] + elapsed * limit.getReplenishRate() / 1000);
+
+            int granted = (int) Math.min(requested, Math.floor(tokens));
+            tokens -= granted;
+            long retryAfter = granted == 0 ? (long) Math.ceil((1 - tokens) * 1000 / limit.getReplenishRate()) : 0;
+
+            bucket[0] = tokens;
+            bucket[1] = nowMillis;
+            return Mono.just(new Grant(granted, retryAfter));
+        }
+    }
+}
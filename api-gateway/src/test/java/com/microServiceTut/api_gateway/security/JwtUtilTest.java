@@ -0,0 +1,205 @@
+package com.microServiceTut.api_gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtilTest.class);
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationWhichShouldBeAtLeast256BitsLong";
+    private static final int ITERATIONS = 300;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwksKeyCache keyCache;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        keyCache = new JwksKeyCache(null, false, Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofHours(25));
+        jwtUtil = new JwtUtil(SECRET, keyCache, 2, Duration.ofMinutes(15), meterRegistry);
+    }
+
+    @Test
+    void validateToken_SecondCallServedFromCache() {
+        // Given
+        String token = token("user-1", Duration.ofHours(1));
+
+        // When
+        Claims first = jwtUtil.validateToken(token);
+        Claims second = jwtUtil.validateToken(token);
+
+        // Then
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.getUserId(second)).isEqualTo("user-1");
+        assertThat(jwtUtil.getRole(second)).isEqualTo("USER");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JwtUtil.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", JwtUtil.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void validateToken_InvalidTokens_NotCached() {
+        String expired = token("user-1", Duration.ofMinutes(-1));
+        String tampered = token("user-2", Duration.ofHours(1)) + "x";
+        String foreign = Jwts.builder()
+                .subject("user-3")
+                .signWith(Keys.hmacShaKeyFor(("other" + SECRET).getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(jwtUtil.validateToken(expired)).isNull();
+        assertThat(jwtUtil.validateToken(tampered)).isNull();
+        assertThat(jwtUtil.validateToken(foreign)).isNull();
+        assertThat(jwtUtil.validateToken("")).isNull();
+        assertThat(jwtUtil.claimsCache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void validateToken_SizeCapEvictsEntries() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(jwtUtil.validateToken(token("user-" + i, Duration.ofHours(1)))).isNotNull();
+        }
+
+        jwtUtil.claimsCache().cleanUp();
+
+        assertThat(jwtUtil.claimsCache().estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(jwtUtil.claimsCache().stats().evictionCount()).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    void validateToken_Es256WithPublishedKid_VerifiedLocally() {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = publish(keyPair.getPublic());
+
+        Claims claims = jwtUtil.validateToken(signedToken(keyPair, kid, Jwts.SIG.ES256));
+
+        assertThat(claims).isNotNull();
+        assertThat(jwtUtil.getUserId(claims)).isEqualTo("user-1");
+        assertThat(meterRegistry.get(JwtUtil.VERIFY_METRIC_NAME).tag("alg", "ES256").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void validateToken_UnknownKidOrWrongKey_Rejected() {
+        KeyPair published = Jwts.SIG.ES256.keyPair().build();
+        KeyPair other = Jwts.SIG.ES256.keyPair().build();
+        String kid = publish(published.getPublic());
+
+        assertThat(jwtUtil.validateToken(signedToken(published, "unknown", Jwts.SIG.ES256))).isNull();
+        assertThat(jwtUtil.validateToken(signedToken(other, kid, Jwts.SIG.ES256))).isNull();
+        assertThat(keyCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_SignatureVerification_HmacVsEcdsaVsCached() {
+        // Given
+        KeyPair es256 = Jwts.SIG.ES256.keyPair().build();
+        KeyPair ed25519 = Jwks.CRV.Ed25519.keyPair().build();
+        JwtParser hmacParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        JwtParser es256Parser = Jwts.parser().verifyWith(es256.getPublic()).build();
+        JwtParser eddsaParser = Jwts.parser().verifyWith(ed25519.getPublic()).build();
+        String hmacToken = token("user-1", Duration.ofHours(1));
+        String es256Token = signedToken(es256, "es", Jwts.SIG.ES256);
+        String eddsaToken = signedToken(ed25519, "ed", Jwts.SIG.EdDSA);
+        jwtUtil.validateToken(hmacToken);
+
+        // When - best of several rounds, to keep JIT warm-up and scheduler noise out
+        long hmacNanos = Long.MAX_VALUE;
+        long es256Nanos = Long.MAX_VALUE;
+        long eddsaNanos = Long.MAX_VALUE;
+        long cachedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            hmacNanos = Math.min(hmacNanos, nanosPerCall(() -> hmacParser.parseSignedClaims(hmacToken)));
+            es256Nanos = Math.min(es256Nanos, nanosPerCall(() -> es256Parser.parseSignedClaims(es256Token)));
+            eddsaNanos = Math.min(eddsaNanos, nanosPerCall(() -> eddsaParser.parseSignedClaims(eddsaToken)));
+            cachedNanos = Math.min(cachedNanos, nanosPerCall(() -> jwtUtil.validateToken(hmacToken)));
+        }
+        log.info("JWT verification per token: HS256 {} µs, ES256 {} µs, EdDSA {} µs, cached {} µs",
+                hmacNanos / 1_000.0, es256Nanos / 1_000.0, eddsaNanos / 1_000.0, cachedNanos / 1_000.0);
+    }
+
+    @Test
+    void validateToken_ReplayedTokens_ServedFromCache() {
+        // 50 signed-in users, each replaying their bearer token on every request
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = publish(keyPair.getPublic());
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(signedToken(keyPair, kid, Jwts.SIG.ES256));
+        }
+        JwtUtil cached = new JwtUtil(SECRET, keyCache, 1_000, Duration.ofMinutes(15), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(cached.validateToken(tokens.get(i % tokens.size()))).isNotNull();
+        }
+
+        // Only each token's first request is verified
+        assertThat(cached.claimsCache().stats().missCount()).isEqualTo(tokens.size());
+        assertThat(cached.claimsCache().stats().hitRate()).isGreaterThanOrEqualTo(0.95);
+    }
+
+    private String publish(PublicKey publicKey) {
+        PublicJwk<PublicKey> jwk = Jwks.builder().key(publicKey).idFromThumbprint().build();
+        keyCache.apply(Jwks.set().add(jwk).build());
+        return jwk.getId();
+    }
+
+    private static long nanosPerCall(Runnable call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private static String signedToken(KeyPair keyPair, String kid, SignatureAlgorithm algorithm) {
+        Date now = new Date();
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .id(UUID.randomUUID().toString())
+                .subject("user-1")
+                .claim("role", "USER")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + Duration.ofHours(1).toMillis()))
+                .signWith(keyPair.getPrivate(), algorithm)
+                .compact();
+    }
+
+    private static String token(String userId, Duration ttl) {
+        Date now = new Date();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(userId)
+                .claim("role", "USER")
+                .claim("email", userId + "@example.com")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + ttl.toMillis()))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,210 @@
+package com.microServiceTut.api_gateway.security;
+
+import com.microServiceTut.api_gateway.config.RouteAccessProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteValidatorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteValidatorTest.class);
+
+    private static final List<HttpMethod> METHODS = List.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE);
+
+    private RouteValidator routeValidator;
+
+    @BeforeEach
+    void setUp() {
+        routeValidator = new RouteValidator(new RouteAccessProperties());
+    }
+
+    @Test
+    void publicEndpoints_NotSecured() {
+        assertThat(routeValidator.isPublic("/api/auth/login")).isTrue();
+        assertThat(routeValidator.isPublic("/actuator/health/liveness")).isTrue();
+        assertThat(routeValidator.isPublic("/api/auth/profile")).isFalse();
+        assertThat(routeValidator.isPublic("/")).isFalse();
+    }
+
+    @Test
+    void hasAccess_UserReadOnlyOnCatalog() {
+        assertThat(routeValidator.hasAccess("USER", "/api/menus/restaurant/1", HttpMethod.GET)).isTrue();
+        assertThat(routeValidator.hasAccess("USER", "/api/menus/restaurant/1", HttpMethod.POST)).isFalse();
+        assertThat(routeValidator.hasAccess("USER", "/api/orders", HttpMethod.POST)).isTrue();
+        assertThat(routeValidator.hasAccess("ADMIN", "/api/menus", HttpMethod.POST)).isTrue();
+    }
+
+    @Test
+    void hasAccess_UnknownOrMissingRole_Denied() {
+        assertThat(routeValidator.hasAccess(null, "/api/orders", HttpMethod.GET)).isFalse();
+        assertThat(routeValidator.hasAccess("GUEST", "/api/orders", HttpMethod.GET)).isFalse();
+        assertThat(routeValidator.hasAccess("RIDER", "/api/admin/stats", HttpMethod.GET)).isFalse();
+    }
+
+    @Test
+    void defaultRules_MatchStreamScan() {
+        RouteAccessProperties properties = new RouteAccessProperties();
+        List<String> paths = samplePaths(properties, new Random(42), 2_000);
+
+        assertMatchesStreamScan(properties, paths);
+    }
+
+    @Test
+    void generatedRules_MatchStreamScan() {
+        Random random = new Random(7);
+        for (int ruleCount : new int[]{10, 100, 1000}) {
+            RouteAccessProperties properties = generatedRules(random, ruleCount);
+            List<String> paths = samplePaths(properties, random, 5_000);
+
+            assertMatchesStreamScan(properties, paths);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_TrieVersusStreamScan() {
+        Random random = new Random(11);
+        for (int ruleCount : new int[]{10, 100, 1000}) {
+            // Given - both checks a request can need: public, and the caller's role
+            RouteAccessProperties properties = generatedRules(random, ruleCount);
+            RouteValidator validator = new RouteValidator(properties);
+            String[] paths = samplePaths(properties, random, 10_000).toArray(String[]::new);
+            int lookups = 500_000;
+
+            // When - warm both, then time
+            for (int round = 0; round < 2; round++) {
+                runTrie(validator, paths, lookups);
+                runStream(properties, paths, lookups);
+            }
+            long start = System.nanoTime();
+            long trieMatches = runTrie(validator, paths, lookups);
+            long trieNanos = (System.nanoTime() - start) / lookups;
+            start = System.nanoTime();
+            long streamMatches = runStream(properties, paths, lookups);
+            long streamNanos = (System.nanoTime() - start) / lookups;
+
+            log.info("{} rules: trie {} ns/request, stream scan {} ns/request ({} matches)",
+                    ruleCount, trieNanos, streamNanos, trieMatches);
+            assertThat(trieMatches).isEqualTo(streamMatches);
+        }
+    }
+
+    private static long runTrie(RouteValidator validator, String[] paths, int lookups) {
+        long matches = 0;
+        for (int i = 0; i < lookups; i++) {
+            String path = paths[i % paths.length];
+            if (validator.isPublic(path)) matches++;
+            if (validator.hasAccess("USER", path, HttpMethod.GET)) matches++;
+        }
+        return matches;
+    }
+
+    private static long runStream(RouteAccessProperties properties, String[] paths, int lookups) {
+        long matches = 0;
+        for (int i = 0; i < lookups; i++) {
+            String path = paths[i % paths.length];
+            if (streamIsPublic(properties, path)) matches++;
+            if (streamHasAccess(properties, "USER", path, HttpMethod.GET)) matches++;
+        }
+        return matches;
+    }
+
+    private void assertMatchesStreamScan(RouteAccessProperties properties, List<String> paths) {
+        RouteValidator validator = new RouteValidator(properties);
+        List<String> roles = new ArrayList<>(properties.getRoles().keySet());
+        roles.add("UNKNOWN");
+
+        for (String path : paths) {
+            assertThat(validator.isPublic(path))
+                    .as("public %s", path)
+                    .isEqualTo(streamIsPublic(properties, path));
+            for (String role : roles) {
+                for (HttpMethod method : METHODS) {
+                    assertThat(validator.hasAccess(role, path, method))
+                            .as("%s %s %s", role, method, path)
+                            .isEqualTo(streamHasAccess(properties, role, path, method));
+                }
+            }
+        }
+    }
+
+    // The pre-trie implementation, kept as the reference for rule semantics
+    private static boolean streamIsPublic(RouteAccessProperties properties, String path) {
+        return properties.getPublicEndpoints().stream().anyMatch(path::startsWith);
+    }
+
+    private static boolean streamHasAccess(RouteAccessProperties properties, String role, String path,
+                                           HttpMethod method) {
+        List<String> allowedPaths = properties.getRoles().get(role);
+        if (allowedPaths == null) return false;
+        if (allowedPaths.stream().noneMatch(path::startsWith)) return false;
+
+        List<String> readOnly = properties.getReadOnly().getOrDefault(role, List.of());
+        if (readOnly.stream().anyMatch(path::startsWith)) {
+            return method == HttpMethod.GET;
+        }
+        return true;
+    }
+
+    private static RouteAccessProperties generatedRules(Random random, int ruleCount) {
+        RouteAccessProperties properties = new RouteAccessProperties();
+        List<String> roles = List.of("USER", "ADMIN", "RIDER", "OWNER");
+        Map<String, List<String>> access = new HashMap<>();
+        Map<String, List<String>> readOnly = new HashMap<>();
+        List<String> publicEndpoints = new ArrayList<>();
+
+        for (int i = 0; i < ruleCount; i++) {
+            String prefix = randomPath(random);
+            String role = roles.get(random.nextInt(roles.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> publicEndpoints.add(prefix);
+                case 1 -> readOnly.computeIfAbsent(role, r -> new ArrayList<>()).add(prefix);
+                default -> access.computeIfAbsent(role, r -> new ArrayList<>()).add(prefix);
+            }
+        }
+
+        properties.setPublicEndpoints(publicEndpoints);
+        properties.setRoles(access);
+        properties.setReadOnly(readOnly);
+        return properties;
+    }
+
+    private static List<String> samplePaths(RouteAccessProperties properties, Random random, int count) {
+        List<String> rules = new ArrayList<>(properties.getPublicEndpoints());
+        properties.getRoles().values().forEach(rules::addAll);
+        properties.getReadOnly().values().forEach(rules::addAll);
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String base = rules.get(random.nextInt(rules.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> paths.add(base);
+                case 1 -> paths.add(base + "/" + random.nextInt(100));
+                case 2 -> paths.add(base.substring(0, random.nextInt(base.length() + 1)));
+                default -> paths.add(randomPath(random));
+            }
+        }
+        return paths;
+    }
+
+    private static String randomPath(Random random) {
+        String[] segments = {"api", "auth", "orders", "menus", "cart", "admin", "delivery", "v1", "items"};
+        StringBuilder path = new StringBuilder();
+        int depth = 1 + random.nextInt(3);
+        for (int i = 0; i < depth; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.microServiceTut.api_gateway.security;
+
+import com.microServiceTut.api_gateway.client.UserAuthClient;
+import com.microServiceTut.api_gateway.client.dto.RevokedTokenResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenRevocationRegistry(true, 1_000, 0.01);
+    }
+
+    @Test
+    void revoke_TokenReportedUntilExpiry() {
+        // Given
+        long now = System.currentTimeMillis();
+        registry.revoke("jti-live", now + 60_000);
+        registry.revoke("jti-expired", now - 1);
+
+        // Then
+        assertThat(registry.isRevoked("jti-live")).isTrue();
+        assertThat(registry.isRevoked("jti-expired")).isFalse();
+        assertThat(registry.isRevoked("jti-unknown")).isFalse();
+        assertThat(registry.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void reconcile_MergesSnapshotAndPurgesExpired() {
+        // Given
+        long now = System.currentTimeMillis();
+        registry.revoke("jti-pushed", now + 60_000);
+
+        // When
+        registry.reconcile(List.of(
+                new RevokedTokenResponse("jti-snapshot", now + 60_000),
+                new RevokedTokenResponse("jti-old", now - 1_000)));
+
+        // Then
+        assertThat(registry.isRevoked("jti-pushed")).isTrue();
+        assertThat(registry.isRevoked("jti-snapshot")).isTrue();
+        assertThat(registry.isRevoked("jti-old")).isFalse();
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void bloomFilter_NoFalseNegatives() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            revoked.add(jti);
+            registry.revoke(jti, expiresAt);
+        }
+        registry.reconcile(List.of());
+
+        assertThat(revoked).allMatch(registry::isRevoked);
+    }
+
+    @Test
+    void isRevoked_LookupCostPerRequest() {
+        // Given - a replica with 10k revoked tokens and a stream of unrevoked lookups
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 10_000; i++) {
+            registry.revoke(UUID.randomUUID().toString(), expiresAt);
+        }
+        registry.reconcile(List.of());
+        String[] lookups = new String[100_000];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = UUID.randomUUID().toString();
+        }
+
+        // When - warm up, then measure
+        int hits = 0;
+        for (String jti : lookups) {
+            if (registry.isRevoked(jti)) hits++;
+        }
+        long start = System.nanoTime();
+        for (String jti : lookups) {
+            if (registry.isRevoked(jti)) hits++;
+        }
+        long nanosPerLookup = (System.nanoTime() - start) / lookups.length;
+
+        // Then - generous bound, a lookup is a handful of hash probes
+        assertThat(hits).isZero();
+        assertThat(nanosPerLookup).isLessThan(5_000);
+    }
+
+    @Test
+    void sync_PushedRevocationReachesReplica() throws InterruptedException {
+        // Given
+        Sinks.Many<RevokedTokenResponse> stream = Sinks.many().multicast().onBackpressureBuffer();
+        UserAuthClient client = mock(UserAuthClient.class);
+        when(client.streamRevocations()).thenReturn(stream.asFlux());
+        when(client.getRevokedTokens()).thenReturn(Mono.just(List.of()));
+
+        TokenRevocationSync sync = new TokenRevocationSync(
+                client, registry, true, Duration.ofMinutes(1), Duration.ofMillis(100));
+        sync.start();
+
+        try {
+            // When
+            long start = System.nanoTime();
+            stream.tryEmitNext(new RevokedTokenResponse("jti-logout", System.currentTimeMillis() + 60_000));
+            while (!registry.isRevoked("jti-logout")
+                    && System.nanoTime() - start < Duration.ofSeconds(5).toNanos()) {
+                Thread.sleep(1);
+            }
+            Duration propagation = Duration.ofNanos(System.nanoTime() - start);
+
+            // Then
+            assertThat(registry.isRevoked("jti-logout")).isTrue();
+            assertThat(propagation).isLessThan(Duration.ofSeconds(1));
+        } finally {
+            sync.stop();
+        }
+    }
+}
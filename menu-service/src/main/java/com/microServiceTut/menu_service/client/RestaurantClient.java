@@ -1,27 +1,164 @@
 package com.microServiceTut.menu_service.client;
 
+import com.microServiceTut.menu_service.client.dto.BatchGetRestaurantsRequest;
 import com.microServiceTut.menu_service.client.dto.RestaurantInternalResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Client for restaurant-service's internal lookups.
+ *
+ * Single lookups are micro-batched: the first one opens a batch-window, lookups from other
+ * threads join it, and the window closes early at max-batch-size. Each batch is one
+ * POST /internal:batch, so N concurrent lookups cost one round trip instead of N.
+ * A batch-window of zero sends every lookup on its own.
+ */
 @Component
+@Slf4j
 public class RestaurantClient {
 
+    // restaurant-service's cap per batch request
+    static final int MAX_BATCH_IDS = 500;
+    private static final ParameterizedTypeReference<List<RestaurantInternalResponse>> RESPONSE_LIST =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient webClient;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "restaurant-client-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Lookups waiting for the current window to close; guarded by this
+    private Map<UUID, CompletableFuture<RestaurantInternalResponse>> pending = new LinkedHashMap<>();
 
-    public RestaurantClient(WebClient.Builder builder) {
+    public RestaurantClient(WebClient.Builder builder,
+                            @Value("${restaurant-client.base-url:http://RESTAURANT-SERVICE}") String baseUrl,
+                            @Value("${restaurant-client.batch-window:PT0.005S}") Duration batchWindow,
+                            @Value("${restaurant-client.max-batch-size:200}") int maxBatchSize) {
+        if (maxBatchSize < 1 || maxBatchSize > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("restaurant-client.max-batch-size must be in [1, " + MAX_BATCH_IDS + "]");
+        }
         this.webClient = builder
-                .baseUrl("http://RESTAURANT-SERVICE")
+                .baseUrl(baseUrl)
                 .build();
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
     }
 
+    /**
+     * The restaurant's internal view, or null if restaurant-service does not know it.
+     */
     public RestaurantInternalResponse getRestaurantInternal(UUID restaurantId) {
-        return webClient.get()
-                .uri("/api/restaurants/internal/{restaurantId}", restaurantId)
+        if (batchWindow.isZero()) {
+            try {
+                return webClient.get()
+                        .uri("/api/restaurants/internal/{restaurantId}", restaurantId)
+                        .retrieve()
+                        .bodyToMono(RestaurantInternalResponse.class)
+                        .block();
+            } catch (WebClientResponseException.NotFound e) {
+                return null;
+            }
+        }
+        try {
+            return enqueue(restaurantId).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Internal views keyed by restaurant id, in as few requests as the batch cap allows;
+     * unknown ids are left out.
+     */
+    public Map<UUID, RestaurantInternalResponse> getRestaurantsInternal(Collection<UUID> restaurantIds) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(restaurantIds));
+        Map<UUID, RestaurantInternalResponse> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_IDS) {
+            List<RestaurantInternalResponse> batch = fetchBatch(ids.subList(from, Math.min(ids.size(), from + MAX_BATCH_IDS)))
+                    .block();
+            if (batch != null) {
+                batch.forEach(restaurant -> found.put(restaurant.restaurantId(), restaurant));
+            }
+        }
+        return found;
+    }
+
+    private synchronized CompletableFuture<RestaurantInternalResponse> enqueue(UUID restaurantId) {
+        CompletableFuture<RestaurantInternalResponse> existing = pending.get(restaurantId);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<RestaurantInternalResponse> future = new CompletableFuture<>();
+        pending.put(restaurantId, future);
+        if (pending.size() >= maxBatchSize) {
+            flush();
+        } else if (pending.size() == 1) {
+            scheduler.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Send whatever is pending; a window that was already closed by a full batch finds nothing.
+     */
+    private void flush() {
+        Map<UUID, CompletableFuture<RestaurantInternalResponse>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        fetchBatch(new ArrayList<>(batch.keySet())).subscribe(
+                restaurants -> {
+                    restaurants.forEach(restaurant -> {
+                        CompletableFuture<RestaurantInternalResponse> future = batch.get(restaurant.restaurantId());
+                        if (future != null) future.complete(restaurant);
+                    });
+                    // Ids restaurant-service did not return are unknown
+                    batch.values().forEach(future -> future.complete(null));
+                },
+                error -> {
+                    log.warn("Restaurant batch lookup of {} ids failed: {}", batch.size(), error.getMessage());
+                    batch.values().forEach(future -> future.completeExceptionally(error));
+                },
+                () -> batch.values().forEach(future -> future.complete(null)));
+    }
+
+    private Mono<List<RestaurantInternalResponse>> fetchBatch(List<UUID> ids) {
+        return webClient.post()
+                .uri("/api/restaurants/internal:batch")
+                .bodyValue(new BatchGetRestaurantsRequest(ids))
                 .retrieve()
-                .bodyToMono(RestaurantInternalResponse.class)
-                .block();
+                .bodyToMono(RESPONSE_LIST);
     }
 }
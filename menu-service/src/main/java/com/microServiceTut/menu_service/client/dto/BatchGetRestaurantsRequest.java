@@ -0,0 +1,8 @@
+package com.microServiceTut.menu_service.client.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BatchGetRestaurantsRequest(
+        List<UUID> ids
+) {}
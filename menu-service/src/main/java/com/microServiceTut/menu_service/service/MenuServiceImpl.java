@@ -22,7 +22,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.util.List;
 import java.util.UUID;
@@ -128,14 +127,13 @@ public class MenuServiceImpl implements MenuService {
     }
 
     private void validateRestaurant(UUID restaurantId) {
-        try {
-            RestaurantInternalResponse restaurant = restaurantClient.getRestaurantInternal(restaurantId);
-            if (!restaurant.active()) {
-                throw new RestaurantNotActiveException(restaurantId);
-            }
-        } catch (WebClientResponseException.NotFound e) {
+        RestaurantInternalResponse restaurant = restaurantClient.getRestaurantInternal(restaurantId);
+        if (restaurant == null) {
             throw new RestaurantNotFoundException(restaurantId);
         }
+        if (!restaurant.active()) {
+            throw new RestaurantNotActiveException(restaurantId);
+        }
     }
 
     private MenuItem findMenuItemOrThrow(UUID menuItemId) {
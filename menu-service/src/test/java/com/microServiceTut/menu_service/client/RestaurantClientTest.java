@@ -0,0 +1,234 @@
+package com.microServiceTut.menu_service.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microServiceTut.menu_service.client.dto.RestaurantInternalResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestaurantClientTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantClientTest.class);
+
+    // Per-request cost of the stand-in restaurant-service: network plus lookup
+    private static final long SERVER_DELAY_MILLIS = 2;
+    private static final int LOOKUPS = 500;
+    private static final int CALLER_THREADS = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<UUID, RestaurantInternalResponse> restaurants = new ConcurrentHashMap<>();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private volatile boolean failing;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Headers and body go out as separate writes; without this Nagle adds ~40 ms to each response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/restaurants/", this::handle);
+        serverThreads = Executors.newFixedThreadPool(CALLER_THREADS);
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void getRestaurantInternal_ConcurrentLookups_SharedBatch() throws Exception {
+        // Given
+        List<UUID> ids = seedRestaurants(20);
+        UUID unknown = UUID.randomUUID();
+        RestaurantClient client = client(Duration.ofMillis(20));
+
+        // When
+        ExecutorService callers = Executors.newFixedThreadPool(21);
+        List<Future<RestaurantInternalResponse>> lookups = new ArrayList<>();
+        for (UUID id : ids) {
+            lookups.add(callers.submit(() -> client.getRestaurantInternal(id)));
+        }
+        Future<RestaurantInternalResponse> missing = callers.submit(() -> client.getRestaurantInternal(unknown));
+        callers.shutdown();
+
+        // Then
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(lookups.get(i).get().restaurantId()).isEqualTo(ids.get(i));
+        }
+        assertThat(missing.get()).isNull();
+        assertThat(roundTrips.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getRestaurantInternal_Unbatched_UnknownIsNull() {
+        UUID id = seedRestaurants(1).get(0);
+        RestaurantClient client = client(Duration.ZERO);
+
+        assertThat(client.getRestaurantInternal(id).active()).isTrue();
+        assertThat(client.getRestaurantInternal(UUID.randomUUID())).isNull();
+        assertThat(roundTrips.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getRestaurantInternal_BatchFails_ErrorReachesCaller() {
+        UUID id = seedRestaurants(1).get(0);
+        failing = true;
+
+        assertThatThrownBy(() -> client(Duration.ofMillis(1)).getRestaurantInternal(id))
+                .isInstanceOf(WebClientResponseException.InternalServerError.class);
+    }
+
+    @Test
+    void getRestaurantsInternal_SplitsAtBatchCap() {
+        List<UUID> ids = seedRestaurants(1_200);
+
+        Map<UUID, RestaurantInternalResponse> found = client(Duration.ZERO).getRestaurantsInternal(ids);
+
+        assertThat(found).hasSize(1_200);
+        assertThat(roundTrips.get()).isEqualTo(3);
+    }
+
+    @Test
+    void benchmark_FiveHundredLookups_RoundTripsAndLatency() throws Exception {
+        // Given
+        List<UUID> ids = seedRestaurants(LOOKUPS);
+        RestaurantClient unbatched = client(Duration.ZERO);
+        RestaurantClient batching = client(Duration.ofMillis(5));
+        unbatched.getRestaurantInternal(ids.get(0));
+        batching.getRestaurantInternal(ids.get(0));
+
+        // When - the current client, one blocking call after another (a bulk import)
+        roundTrips.set(0);
+        long start = System.nanoTime();
+        for (UUID id : ids) {
+            assertThat(unbatched.getRestaurantInternal(id)).isNotNull();
+        }
+        long sequentialNanos = System.nanoTime() - start;
+        int sequentialTrips = roundTrips.getAndSet(0);
+
+        // The current client from 50 request threads at once
+        start = System.nanoTime();
+        lookUpConcurrently(unbatched, ids);
+        long concurrentNanos = System.nanoTime() - start;
+        int concurrentTrips = roundTrips.getAndSet(0);
+
+        // The same 50 threads through the micro-batching client
+        start = System.nanoTime();
+        lookUpConcurrently(batching, ids);
+        long batchedNanos = System.nanoTime() - start;
+        int batchedTrips = roundTrips.getAndSet(0);
+
+        // One explicit bulk call
+        start = System.nanoTime();
+        assertThat(batching.getRestaurantsInternal(ids)).hasSize(LOOKUPS);
+        long bulkNanos = System.nanoTime() - start;
+        int bulkTrips = roundTrips.getAndSet(0);
+
+        log.info("{} lookups, {} ms per request: sequential {} round trips in {} ms, concurrent {} in {} ms, "
+                        + "micro-batched {} in {} ms, bulk {} in {} ms",
+                LOOKUPS, SERVER_DELAY_MILLIS, sequentialTrips, sequentialNanos / 1_000_000,
+                concurrentTrips, concurrentNanos / 1_000_000, batchedTrips, batchedNanos / 1_000_000,
+                bulkTrips, bulkNanos / 1_000_000);
+
+        // Then
+        assertThat(sequentialTrips).isEqualTo(LOOKUPS);
+        assertThat(concurrentTrips).isEqualTo(LOOKUPS);
+        assertThat(batchedTrips * 10).isLessThan(LOOKUPS);
+        assertThat(bulkTrips).isEqualTo(1);
+        assertThat(bulkNanos * 10).isLessThan(sequentialNanos);
+    }
+
+    private void lookUpConcurrently(RestaurantClient client, List<UUID> ids) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        List<Future<RestaurantInternalResponse>> lookups = new ArrayList<>();
+        for (UUID id : ids) {
+            lookups.add(callers.submit(() -> client.getRestaurantInternal(id)));
+        }
+        callers.shutdown();
+        for (Future<RestaurantInternalResponse> lookup : lookups) {
+            assertThat(lookup.get()).isNotNull();
+        }
+    }
+
+    private RestaurantClient client(Duration batchWindow) {
+        return new RestaurantClient(WebClient.builder(), baseUrl, batchWindow, 200);
+    }
+
+    private List<UUID> seedRestaurants(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            restaurants.put(id, new RestaurantInternalResponse(id, true, "INDIAN"));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Stand-in for restaurant-service's GET /internal/{id} and POST /internal:batch.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        roundTrips.incrementAndGet();
+        try {
+            Thread.sleep(SERVER_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String path = exchange.getRequestURI().getPath();
+        Object body;
+        int status = 200;
+        if (failing) {
+            status = 500;
+            body = Map.of("message", "boom");
+        } else if (path.endsWith("/internal:batch")) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            List<RestaurantInternalResponse> found = new ArrayList<>();
+            request.get("ids").forEach(id -> {
+                RestaurantInternalResponse restaurant = restaurants.get(UUID.fromString(id.asText()));
+                if (restaurant != null) found.add(restaurant);
+            });
+            body = found;
+        } else {
+            body = restaurants.get(UUID.fromString(path.substring(path.lastIndexOf('/') + 1)));
+            if (body == null) {
+                status = 404;
+                body = Map.of("message", "Restaurant not found");
+            }
+        }
+        byte[] json = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        exchange.getResponseBody().write(json);
+        exchange.close();
+    }
+}
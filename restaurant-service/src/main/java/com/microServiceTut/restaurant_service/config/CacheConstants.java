@@ -5,6 +5,7 @@ public final class CacheConstants {
     private CacheConstants() {
     }
 
+    // Versioned snapshots of the active list plus a pointer to the current one
     public static final String RESTAURANTS_ACTIVE_LIST = "restaurants:active:list";
     public static final String RESTAURANT_BY_ID = "restaurants:id";
 }
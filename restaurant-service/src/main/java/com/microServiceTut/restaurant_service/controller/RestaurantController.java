@@ -1,15 +1,31 @@
 package com.microServiceTut.restaurant_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microServiceTut.restaurant_service.dto.request.BatchGetRestaurantsRequest;
 import com.microServiceTut.restaurant_service.dto.request.CreateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.request.KitchenLoadRequest;
+import com.microServiceTut.restaurant_service.dto.request.UpdateAvailabilityRequest;
 import com.microServiceTut.restaurant_service.dto.request.UpdateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.response.NearbyRestaurantResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantAvailabilityResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantInternalResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantPageResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.model.RestaurantStatus;
 import com.microServiceTut.restaurant_service.service.RestaurantService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +35,7 @@ import java.util.UUID;
 public class RestaurantController {
 
     private final RestaurantService restaurantService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -36,6 +53,30 @@ public class RestaurantController {
         return restaurantService.getAllActiveRestaurants();
     }
 
+    /**
+     * Active restaurants, keyset-paginated: pass the previous page's nextCursor as "after".
+     */
+    @GetMapping("/page")
+    public RestaurantPageResponse getActiveRestaurantsPage(
+            @RequestParam(required = false) CuisineType cuisine,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return restaurantService.getRestaurantsPage(RestaurantStatus.ACTIVE, cuisine, after, limit);
+    }
+
+    /**
+     * Active restaurants within radiusKm of a point, nearest first
+     */
+    @GetMapping("/nearby")
+    public List<NearbyRestaurantResponse> findNearbyRestaurants(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) CuisineType cuisine,
+            @RequestParam(defaultValue = "20") int limit) {
+        return restaurantService.findNearbyRestaurants(lat, lon, radiusKm, cuisine, limit);
+    }
+
     @PatchMapping("/{restaurantId}")
     public RestaurantResponse updateRestaurant(
             @PathVariable UUID restaurantId,
@@ -57,12 +98,46 @@ public class RestaurantController {
         return restaurantService.toggleRestaurantStatus(restaurantId);
     }
 
+    /**
+     * Opening hours, kitchen capacity and load, and whether orders are being accepted now
+     */
+    @GetMapping("/{restaurantId}/availability")
+    public RestaurantAvailabilityResponse getAvailability(@PathVariable UUID restaurantId) {
+        return restaurantService.getAvailability(restaurantId);
+    }
+
+    @PutMapping("/{restaurantId}/availability")
+    public RestaurantAvailabilityResponse updateAvailability(
+            @PathVariable UUID restaurantId,
+            @Valid @RequestBody UpdateAvailabilityRequest request) {
+        return restaurantService.updateAvailability(restaurantId, request);
+    }
+
     // Internal API for Menu Service
     @GetMapping("/internal/{restaurantId}")
     public RestaurantInternalResponse getRestaurantInternal(@PathVariable UUID restaurantId) {
         return restaurantService.getRestaurantInternal(restaurantId);
     }
 
+    /**
+     * Internal view of up to 500 restaurants in one call, for services that would otherwise
+     * fetch them one by one. Unknown ids are left out of the result.
+     */
+    @PostMapping("/internal:batch")
+    public List<RestaurantInternalResponse> getRestaurantsInternal(@Valid @RequestBody BatchGetRestaurantsRequest request) {
+        return restaurantService.getRestaurantsInternal(request.getIds());
+    }
+
+    /**
+     * Kitchen load reported by the order flow: +1 when an order is accepted, -1 when it leaves the kitchen
+     */
+    @PostMapping("/internal/{restaurantId}/load")
+    public RestaurantAvailabilityResponse addKitchenLoad(
+            @PathVariable UUID restaurantId,
+            @Valid @RequestBody KitchenLoadRequest request) {
+        return restaurantService.addKitchenLoad(restaurantId, request.getDelta());
+    }
+
     // ==================== ADMIN ENDPOINTS ====================
 
     @GetMapping("/admin/all")
@@ -75,6 +150,50 @@ public class RestaurantController {
         return restaurantService.getPendingRestaurants();
     }
 
+    /**
+     * Keyset-paginated listing of all restaurants: pass the previous page's nextCursor as "after".
+     */
+    @GetMapping("/admin/page")
+    public RestaurantPageResponse getRestaurantsPage(
+            @RequestParam(required = false) RestaurantStatus status,
+            @RequestParam(required = false) CuisineType cuisine,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return restaurantService.getRestaurantsPage(status, cuisine, after, limit);
+    }
+
+    /**
+     * Every matching restaurant as newline-delimited JSON, written page by page so memory does
+     * not grow with the number of restaurants and the first rows go out before the last are read.
+     */
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportRestaurants(
+            @RequestParam(required = false) RestaurantStatus status,
+            @RequestParam(required = false) CuisineType cuisine) {
+        return outputStream -> writeRestaurantsNdjson(status, cuisine, outputStream);
+    }
+
+    void writeRestaurantsNdjson(RestaurantStatus status, CuisineType cuisine, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(RestaurantResponse.class);
+        OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+        try {
+            restaurantService.forEachRestaurantPage(status, cuisine, page -> {
+                try {
+                    for (RestaurantResponse restaurant : page) {
+                        out.write(writer.writeValueAsBytes(restaurant));
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
     @PatchMapping("/admin/{restaurantId}/approve")
     public RestaurantResponse approveRestaurant(@PathVariable UUID restaurantId) {
         return restaurantService.approveRestaurant(restaurantId);
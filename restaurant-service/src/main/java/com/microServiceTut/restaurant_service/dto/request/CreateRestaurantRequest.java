@@ -3,6 +3,8 @@ package com.microServiceTut.restaurant_service.dto.request;
 import com.microServiceTut.restaurant_service.model.CuisineType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
@@ -23,6 +25,14 @@ public class CreateRestaurantRequest {
     @Size(max = 20, message = "Phone must not exceed 20 characters")
     private String phone;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     @NotNull(message = "Cuisine type is required")
     private CuisineType cuisineType;
 }
@@ -0,0 +1,18 @@
+package com.microServiceTut.restaurant_service.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Change in a kitchen's orders in progress: +1 when an order is accepted, -1 when it is
+ * handed over or cancelled.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KitchenLoadRequest {
+
+    @NotNull(message = "delta is required")
+    private Integer delta;
+}
@@ -0,0 +1,29 @@
+package com.microServiceTut.restaurant_service.dto.request;
+
+import com.microServiceTut.restaurant_service.model.OpeningWindow;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Replaces a restaurant's opening hours and kitchen capacity. Leaving openingHours empty
+ * means open whenever active; leaving kitchenCapacity out means no limit.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UpdateAvailabilityRequest {
+
+    @Size(max = 40, message = "Time zone must not exceed 40 characters")
+    private String timeZone;
+
+    @Size(max = 28, message = "At most 28 opening windows")
+    private List<@Valid OpeningWindow> openingHours;
+
+    @Positive(message = "Kitchen capacity must be positive")
+    private Integer kitchenCapacity;
+}
@@ -0,0 +1,6 @@
+package com.microServiceTut.restaurant_service.dto.response;
+
+public record NearbyRestaurantResponse(
+        RestaurantResponse restaurant,
+        double distanceKm
+) {}
@@ -0,0 +1,15 @@
+package com.microServiceTut.restaurant_service.dto.response;
+
+import com.microServiceTut.restaurant_service.model.OpeningWindow;
+
+import java.util.List;
+import java.util.UUID;
+
+public record RestaurantAvailabilityResponse(
+        UUID restaurantId,
+        String timeZone,
+        List<OpeningWindow> openingHours,
+        Integer kitchenCapacity,
+        int kitchenLoad,
+        boolean acceptingOrders
+) {}
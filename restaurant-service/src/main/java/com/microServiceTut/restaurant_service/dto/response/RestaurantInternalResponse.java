@@ -7,5 +7,7 @@ import java.util.UUID;
 public record RestaurantInternalResponse(
         UUID restaurantId,
         boolean active,
-        CuisineType cuisineType
+        CuisineType cuisineType,
+        // Active, within opening hours and below kitchen capacity right now
+        boolean acceptingOrders
 ) {}
@@ -0,0 +1,19 @@
+package com.microServiceTut.restaurant_service.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One keyset page of restaurants. Pass nextCursor as "after" to get the next page;
+ * it is null on the last page.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestaurantPageResponse {
+    private List<RestaurantResponse> restaurants;
+    private UUID nextCursor;
+}
@@ -18,6 +18,8 @@ public class RestaurantResponse {
     private String name;
     private String address;
     private String phone;
+    private Double latitude;
+    private Double longitude;
     private CuisineType cuisineType;
     private RestaurantStatus status;
     private boolean active;
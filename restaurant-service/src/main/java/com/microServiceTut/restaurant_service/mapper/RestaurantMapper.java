@@ -2,10 +2,15 @@ package com.microServiceTut.restaurant_service.mapper;
 
 import com.microServiceTut.restaurant_service.dto.request.CreateRestaurantRequest;
 import com.microServiceTut.restaurant_service.dto.request.UpdateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantAvailabilityResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantInternalResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
 import com.microServiceTut.restaurant_service.model.Restaurant;
 import com.microServiceTut.restaurant_service.model.RestaurantStatus;
+import com.microServiceTut.restaurant_service.model.WeeklySchedule;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantAvailability;
+
+import java.util.List;
 
 public final class RestaurantMapper {
 
@@ -16,6 +21,8 @@ public final class RestaurantMapper {
                 .name(request.getName())
                 .address(request.getAddress())
                 .phone(request.getPhone())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
                 .cuisineType(request.getCuisineType())
                 .status(RestaurantStatus.ACTIVE)
                 .active(true)
@@ -32,6 +39,12 @@ public final class RestaurantMapper {
         if (request.getPhone() != null) {
             restaurant.setPhone(request.getPhone());
         }
+        if (request.getLatitude() != null) {
+            restaurant.setLatitude(request.getLatitude());
+        }
+        if (request.getLongitude() != null) {
+            restaurant.setLongitude(request.getLongitude());
+        }
         if (request.getCuisineType() != null) {
             restaurant.setCuisineType(request.getCuisineType());
         }
@@ -47,6 +60,8 @@ public final class RestaurantMapper {
                 .name(restaurant.getName())
                 .address(restaurant.getAddress())
                 .phone(restaurant.getPhone())
+                .latitude(restaurant.getLatitude())
+                .longitude(restaurant.getLongitude())
                 .cuisineType(restaurant.getCuisineType())
                 .status(restaurant.getStatus())
                 .active(restaurant.isActive())
@@ -55,11 +70,34 @@ public final class RestaurantMapper {
                 .build();
     }
 
-    public static RestaurantInternalResponse toInternalResponse(Restaurant restaurant) {
+    public static RestaurantInternalResponse toInternalResponse(Restaurant restaurant, boolean acceptingOrders) {
+        return new RestaurantInternalResponse(
+                restaurant.getId(),
+                restaurant.isActive(),
+                restaurant.getCuisineType(),
+                acceptingOrders
+        );
+    }
+
+    public static RestaurantInternalResponse toInternalResponse(RestaurantResponse restaurant, boolean acceptingOrders) {
         return new RestaurantInternalResponse(
                 restaurant.getId(),
                 restaurant.isActive(),
-                restaurant.getCuisineType()
+                restaurant.getCuisineType(),
+                acceptingOrders
+        );
+    }
+
+    public static RestaurantAvailabilityResponse toAvailabilityResponse(RestaurantAvailability availability,
+                                                                        boolean acceptingOrders) {
+        WeeklySchedule openingHours = availability.getOpeningHours();
+        return new RestaurantAvailabilityResponse(
+                availability.getId(),
+                availability.getTimeZone(),
+                openingHours != null ? openingHours.windows() : List.of(),
+                availability.getKitchenCapacity(),
+                availability.getKitchenLoad(),
+                acceptingOrders
         );
     }
 }
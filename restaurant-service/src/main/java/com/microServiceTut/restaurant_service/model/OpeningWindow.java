@@ -0,0 +1,21 @@
+package com.microServiceTut.restaurant_service.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Open from opens until closes on day, in the restaurant's local time. A window whose closes
+ * is not after opens runs past midnight into the next day, so opens == closes is 24 hours.
+ */
+public record OpeningWindow(
+        @NotNull(message = "day is required") DayOfWeek day,
+        @NotNull(message = "opens is required") LocalTime opens,
+        @NotNull(message = "closes is required") LocalTime closes
+) {
+
+    boolean crossesMidnight() {
+        return !closes.isAfter(opens);
+    }
+}
@@ -9,7 +9,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "restaurants")
+@Table(name = "restaurants", indexes = {
+        // Geo index sync reads rows changed since its last pass
+        @Index(name = "idx_restaurants_updated_at", columnList = "updatedAt"),
+        // Keyset pages: each filter combination walks its own index in id order
+        @Index(name = "idx_restaurants_status_id", columnList = "status, id"),
+        @Index(name = "idx_restaurants_cuisine_id", columnList = "cuisineType, id"),
+        @Index(name = "idx_restaurants_status_cuisine_id", columnList = "status, cuisineType, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,6 +37,11 @@ public class Restaurant {
     @Column(length = 20)
     private String phone;
 
+    // WGS84 degrees; restaurants without coordinates are left out of nearby search
+    private Double latitude;
+
+    private Double longitude;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CuisineType cuisineType;
@@ -41,6 +53,28 @@ public class Restaurant {
     @Column(nullable = false)
     private boolean active;
 
+    // IANA zone the opening hours are in; null means restaurant.availability.default-time-zone
+    @Column(length = 40)
+    private String timeZone;
+
+    // Null means no hours set: open whenever active
+    @Convert(converter = WeeklyScheduleConverter.class)
+    @Column(length = 512)
+    private WeeklySchedule openingHours;
+
+    // Most orders the kitchen takes on at once; null means no limit
+    private Integer kitchenCapacity;
+
+    // Orders in progress, moved only by atomic increments (RestaurantRepository.addKitchenLoad),
+    // so saving a stale entity never overwrites it
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "integer default 0")
+    private int kitchenLoad;
+
+    // Bumped on every update; cached copies of a restaurant are only ever replaced by a newer one
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
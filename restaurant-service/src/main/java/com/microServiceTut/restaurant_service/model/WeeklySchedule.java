@@ -0,0 +1,106 @@
+package com.microServiceTut.restaurant_service.model;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A restaurant's weekly opening hours: open whenever any window is. Stored in one column
+ * as e.g. "MON 09:00-22:00,FRI 18:00-02:00".
+ */
+public record WeeklySchedule(List<OpeningWindow> windows) {
+
+    public WeeklySchedule {
+        windows = List.copyOf(windows);
+    }
+
+    /**
+     * Whether a window covers the given wall-clock time. Clocks going back repeat an hour,
+     * so a window closing inside that hour is open again for its second pass.
+     */
+    public boolean isOpenAt(LocalDateTime local) {
+        DayOfWeek day = local.getDayOfWeek();
+        LocalTime time = local.toLocalTime();
+        for (OpeningWindow window : windows) {
+            if (window.day() == day && !time.isBefore(window.opens())
+                    && (window.crossesMidnight() || time.isBefore(window.closes()))) {
+                return true;
+            }
+            if (window.crossesMidnight() && window.day().plus(1) == day && time.isBefore(window.closes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The first opening or closing time strictly after now, or null without windows.
+     * Open/close could only change then, though it need not (overlapping windows).
+     */
+    public Instant nextChangeAfter(Instant now, ZoneId zone) {
+        LocalDate today = LocalDateTime.ofInstant(now, zone).toLocalDate();
+        Instant next = null;
+        for (OpeningWindow window : windows) {
+            // From yesterday, whose window may close today, to the same weekday next week
+            for (int offset = -1; offset <= 7; offset++) {
+                LocalDate date = today.plusDays(offset);
+                if (date.getDayOfWeek() != window.day()) continue;
+                LocalDate closingDate = window.crossesMidnight() ? date.plusDays(1) : date;
+                for (LocalDateTime edge : new LocalDateTime[]{date.atTime(window.opens()), closingDate.atTime(window.closes())}) {
+                    Instant at = toInstant(edge, zone);
+                    if (at.isAfter(now) && (next == null || at.isBefore(next))) {
+                        next = at;
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    public String format() {
+        return windows.stream()
+                .map(w -> w.day().name().substring(0, 3) + " " + w.opens() + "-" + w.closes())
+                .collect(Collectors.joining(","));
+    }
+
+    public static WeeklySchedule parse(String value) {
+        List<OpeningWindow> windows = new ArrayList<>();
+        if (value.isBlank()) {
+            return new WeeklySchedule(windows);
+        }
+        for (String part : value.split(",")) {
+            String[] dayAndHours = part.trim().split(" ");
+            String[] hours = dayAndHours[1].split("-");
+            windows.add(new OpeningWindow(dayOf(dayAndHours[0]), LocalTime.parse(hours[0]), LocalTime.parse(hours[1])));
+        }
+        return new WeeklySchedule(windows);
+    }
+
+    private static DayOfWeek dayOf(String abbreviation) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(abbreviation)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day in opening hours: " + abbreviation);
+    }
+
+    /**
+     * A time skipped by clocks going forward is reached the moment the gap ends.
+     */
+    private static Instant toInstant(LocalDateTime local, ZoneId zone) {
+        ZoneOffsetTransition gap = zone.getRules().getTransition(local);
+        if (gap != null && gap.isGap()) {
+            return gap.getInstant();
+        }
+        return ZonedDateTime.of(local, zone).toInstant();
+    }
+}
@@ -0,0 +1,18 @@
+package com.microServiceTut.restaurant_service.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class WeeklyScheduleConverter implements AttributeConverter<WeeklySchedule, String> {
+
+    @Override
+    public String convertToDatabaseColumn(WeeklySchedule schedule) {
+        return schedule != null ? schedule.format() : null;
+    }
+
+    @Override
+    public WeeklySchedule convertToEntityAttribute(String value) {
+        return value != null ? WeeklySchedule.parse(value) : null;
+    }
+}
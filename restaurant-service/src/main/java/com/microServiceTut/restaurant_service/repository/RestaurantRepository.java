@@ -1,14 +1,28 @@
 package com.microServiceTut.restaurant_service.repository;
 
+import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.model.CuisineType;
 import com.microServiceTut.restaurant_service.model.Restaurant;
 import com.microServiceTut.restaurant_service.model.RestaurantStatus;
+import com.microServiceTut.restaurant_service.model.WeeklySchedule;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, UUID> {
 
+    // Constructor projection: reads the response columns only, no Restaurant entities in the persistence context
+    String RESPONSE_PROJECTION = "select new com.microServiceTut.restaurant_service.dto.response.RestaurantResponse("
+            + "r.id, r.name, r.address, r.phone, r.latitude, r.longitude, r.cuisineType, r.status, r.active, "
+            + "r.createdAt, r.updatedAt) from Restaurant r";
+
     List<Restaurant> findByActiveTrue();
 
     List<Restaurant> findByStatus(RestaurantStatus status);
@@ -16,4 +30,104 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, UUID> {
     long countByStatus(RestaurantStatus status);
 
     long countByActiveTrue();
+
+    @Query(RESPONSE_PROJECTION + " where r.id > :after order by r.id")
+    List<RestaurantResponse> findResponsesAfter(UUID after, Limit limit);
+
+    @Query(RESPONSE_PROJECTION + " where r.status = :status and r.id > :after order by r.id")
+    List<RestaurantResponse> findResponsesByStatusAfter(RestaurantStatus status, UUID after, Limit limit);
+
+    @Query(RESPONSE_PROJECTION + " where r.cuisineType = :cuisineType and r.id > :after order by r.id")
+    List<RestaurantResponse> findResponsesByCuisineTypeAfter(CuisineType cuisineType, UUID after, Limit limit);
+
+    @Query(RESPONSE_PROJECTION + " where r.status = :status and r.cuisineType = :cuisineType and r.id > :after order by r.id")
+    List<RestaurantResponse> findResponsesByStatusAndCuisineTypeAfter(RestaurantStatus status, CuisineType cuisineType,
+                                                                      UUID after, Limit limit);
+
+    /**
+     * Keyset page of active restaurants with coordinates, for loading the geo index without entities.
+     */
+    @Query("""
+            select r.id as id, r.latitude as latitude, r.longitude as longitude,
+                   r.cuisineType as cuisineType, r.active as active
+            from Restaurant r
+            where r.id > :after and r.active = true
+              and r.latitude is not null and r.longitude is not null
+            order by r.id""")
+    List<RestaurantLocation> findLocationsAfter(UUID after, Limit limit);
+
+    /**
+     * Every restaurant changed since the given time, including deactivated ones so the index drops them.
+     */
+    @Query("""
+            select r.id as id, r.latitude as latitude, r.longitude as longitude,
+                   r.cuisineType as cuisineType, r.active as active
+            from Restaurant r
+            where r.updatedAt > :since""")
+    List<RestaurantLocation> findLocationsUpdatedAfter(LocalDateTime since);
+
+    /**
+     * Keyset page of every restaurant's availability inputs, for loading the availability index.
+     */
+    @Query("""
+            select r.id as id, r.active as active, r.timeZone as timeZone, r.openingHours as openingHours,
+                   r.kitchenCapacity as kitchenCapacity, r.kitchenLoad as kitchenLoad, r.updatedAt as updatedAt
+            from Restaurant r
+            where r.id > :after
+            order by r.id""")
+    List<RestaurantAvailability> findAvailabilityAfter(UUID after, Limit limit);
+
+    @Query("""
+            select r.id as id, r.active as active, r.timeZone as timeZone, r.openingHours as openingHours,
+                   r.kitchenCapacity as kitchenCapacity, r.kitchenLoad as kitchenLoad, r.updatedAt as updatedAt
+            from Restaurant r
+            where r.updatedAt > :since""")
+    List<RestaurantAvailability> findAvailabilityUpdatedAfter(LocalDateTime since);
+
+    @Query("""
+            select r.id as id, r.active as active, r.timeZone as timeZone, r.openingHours as openingHours,
+                   r.kitchenCapacity as kitchenCapacity, r.kitchenLoad as kitchenLoad, r.updatedAt as updatedAt
+            from Restaurant r
+            where r.id = :restaurantId""")
+    Optional<RestaurantAvailability> findAvailabilityById(UUID restaurantId);
+
+    @Query("""
+            select r.id as id, r.active as active, r.timeZone as timeZone, r.openingHours as openingHours,
+                   r.kitchenCapacity as kitchenCapacity, r.kitchenLoad as kitchenLoad, r.updatedAt as updatedAt
+            from Restaurant r
+            where r.id in :restaurantIds""")
+    List<RestaurantAvailability> findAvailabilityByIdIn(Collection<UUID> restaurantIds);
+
+    /**
+     * Atomic change to a kitchen's load, never below zero. Touches updatedAt so other
+     * instances' availability indexes pick it up, never moving it backwards, so a later load
+     * always carries a timestamp at least as new; the version is left alone so owner edits
+     * in flight do not fail.
+     * @return rows updated, 0 for an unknown restaurant
+     */
+    @Modifying
+    @Query("""
+            update Restaurant r
+            set r.kitchenLoad = case when r.kitchenLoad + :delta < 0 then 0 else r.kitchenLoad + :delta end,
+                r.updatedAt = case when r.updatedAt > :now then r.updatedAt else :now end
+            where r.id = :restaurantId""")
+    int addKitchenLoad(UUID restaurantId, int delta, LocalDateTime now);
+
+    interface RestaurantLocation {
+        UUID getId();
+        Double getLatitude();
+        Double getLongitude();
+        CuisineType getCuisineType();
+        boolean isActive();
+    }
+
+    interface RestaurantAvailability {
+        UUID getId();
+        boolean isActive();
+        String getTimeZone();
+        WeeklySchedule getOpeningHours();
+        Integer getKitchenCapacity();
+        int getKitchenLoad();
+        LocalDateTime getUpdatedAt();
+    }
 }
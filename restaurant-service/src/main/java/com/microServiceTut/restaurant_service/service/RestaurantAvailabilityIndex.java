@@ -0,0 +1,389 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.model.Restaurant;
+import com.microServiceTut.restaurant_service.model.WeeklySchedule;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantAvailability;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory "accepting orders now" bit per restaurant, so order and cart flows check it in O(1)
+ * instead of evaluating opening hours and kitchen load on every call.
+ *
+ * 1. Accepting = active, inside an opening window in the restaurant's time zone, and with
+ *    kitchen load below capacity
+ * 2. Each restaurant's next opening or closing time sits in a queue; the scheduler wakes at the
+ *    earliest one and recomputes only the restaurants due then
+ * 3. Load and schedule changes recompute that restaurant at once, after commit on this instance
+ *    and by polling updated_at every sync-interval for changes made on other instances. A load
+ *    is only taken from a row at least as new as the one the index has it from, so commit
+ *    callbacks running out of order cannot leave an older load behind
+ * 4. Readers never lock: the bits are an AtomicLongArray, swapped for a larger copy when full
+ */
+@Component
+@Slf4j
+public class RestaurantAvailabilityIndex {
+
+    private static final int SCAN_PAGE_SIZE = 5_000;
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    // Re-read a margin of changes on every poll, for commits that landed after their updated_at
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+    private static final int INITIAL_SLOTS = 1_024;
+
+    private final RestaurantRepository restaurantRepository;
+    private final ZoneId defaultZone;
+    private final Duration syncInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Slot per restaurant, assigned on first sight and never reused
+    private final Map<UUID, Integer> slots = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray accepting = new AtomicLongArray(INITIAL_SLOTS / 64);
+    private volatile boolean ready;
+
+    // Guarded by this
+    private State[] states = new State[INITIAL_SLOTS];
+    private final PriorityQueue<Boundary> boundaries = new PriorityQueue<>(Comparator.comparingLong(Boundary::atMillis));
+    private boolean started;
+    private ScheduledFuture<?> wake;
+    private long wakeAtMillis = Long.MAX_VALUE;
+    private LocalDateTime syncedUpTo;
+
+    public RestaurantAvailabilityIndex(RestaurantRepository restaurantRepository,
+                                       @Value("${restaurant.availability.default-time-zone:Asia/Kolkata}") String defaultZone,
+                                       @Value("${restaurant.availability.sync-interval:PT10S}") Duration syncInterval) {
+        this.restaurantRepository = restaurantRepository;
+        this.defaultZone = ZoneId.of(defaultZone);
+        this.syncInterval = syncInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        synchronized (this) {
+            started = true;
+        }
+        scheduler.execute(this::rebuildQuietly);
+        long intervalMillis = syncInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Whether the restaurant takes orders right now, or null if the index has not seen it yet.
+     */
+    public Boolean isAcceptingOrders(UUID restaurantId) {
+        Integer slot = slots.get(restaurantId);
+        if (slot == null) {
+            return null;
+        }
+        return (accepting.get(slot >>> 6) & 1L << slot) != 0;
+    }
+
+    /**
+     * Apply a saved restaurant once its transaction commits (immediately outside one). Its
+     * kitchen load is left as the index has it, since the entity may have been read before
+     * the latest increment.
+     */
+    public void update(Restaurant restaurant) {
+        UUID id = restaurant.getId();
+        boolean active = restaurant.isActive();
+        String timeZone = restaurant.getTimeZone();
+        WeeklySchedule openingHours = restaurant.getOpeningHours();
+        Integer capacity = restaurant.getKitchenCapacity();
+        int load = restaurant.getKitchenLoad();
+        afterCommit(() -> apply(id, active, timeZone, openingHours, capacity, load, null, Instant.now()));
+    }
+
+    /**
+     * Apply a freshly read availability row, load included, once its transaction commits.
+     */
+    public void update(RestaurantAvailability availability) {
+        afterCommit(() -> apply(availability, Instant.now()));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Accepting-orders for a row the index has not seen, evaluated directly.
+     */
+    public boolean evaluate(RestaurantAvailability availability, Instant now) {
+        return accepts(availability.isActive(), availability.getOpeningHours(), zoneOf(availability.getTimeZone()),
+                availability.getKitchenCapacity(), availability.getKitchenLoad(), now);
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    synchronized int queuedBoundaries() {
+        return boundaries.size();
+    }
+
+    /**
+     * Load every restaurant's availability inputs.
+     */
+    void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        UUID after = FIRST_ID;
+        List<RestaurantAvailability> page;
+        int loaded = 0;
+        do {
+            page = restaurantRepository.findAvailabilityAfter(after, Limit.of(SCAN_PAGE_SIZE));
+            Instant now = Instant.now();
+            for (RestaurantAvailability availability : page) {
+                apply(availability, now);
+            }
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == SCAN_PAGE_SIZE);
+
+        synchronized (this) {
+            syncedUpTo = startedAt;
+        }
+        ready = true;
+        log.info("Availability index loaded {} restaurants", loaded);
+    }
+
+    /**
+     * Apply rows changed since the last sync, from this or any other instance.
+     */
+    void sync() {
+        LocalDateTime since;
+        synchronized (this) {
+            if (syncedUpTo == null) return;
+            since = syncedUpTo;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        Instant now = Instant.now();
+        for (RestaurantAvailability availability : restaurantRepository.findAvailabilityUpdatedAfter(since.minus(SYNC_OVERLAP))) {
+            apply(availability, now);
+        }
+        synchronized (this) {
+            syncedUpTo = startedAt;
+        }
+    }
+
+    void apply(RestaurantAvailability availability, Instant now) {
+        apply(availability.getId(), availability.isActive(), availability.getTimeZone(), availability.getOpeningHours(),
+                availability.getKitchenCapacity(), availability.getKitchenLoad(), availability.getUpdatedAt(), now);
+    }
+
+    /**
+     * @param loadUpdatedAt updated_at of the row load was read from, or null if load may be stale
+     *                      and should not replace the index's own count
+     */
+    synchronized void apply(UUID id, boolean active, String timeZone, WeeklySchedule openingHours,
+                            Integer capacity, int load, LocalDateTime loadUpdatedAt, Instant now) {
+        Integer slot = slots.get(id);
+        State state;
+        if (slot == null) {
+            slot = slots.size();
+            ensureCapacity(slot + 1);
+            state = new State();
+            state.load = load;
+            state.loadUpdatedAt = loadUpdatedAt;
+            states[slot] = state;
+        } else {
+            state = states[slot];
+            if (loadUpdatedAt != null
+                    && (state.loadUpdatedAt == null || !loadUpdatedAt.isBefore(state.loadUpdatedAt))) {
+                state.load = load;
+                state.loadUpdatedAt = loadUpdatedAt;
+            }
+        }
+        state.active = active;
+        state.zone = zoneOf(timeZone);
+        state.schedule = openingHours;
+        state.capacity = capacity;
+        // Schedule may have changed; compute the next boundary again, re-queuing only if it moved
+        long queued = state.nextChangeMillis;
+        state.nextChangeMillis = Long.MAX_VALUE;
+        recompute(slot, state, now, queued);
+        if (queued != Long.MAX_VALUE && state.nextChangeMillis != queued) {
+            boundaries.remove(new Boundary(queued, slot));
+        }
+        // Published last, so readers never see a slot before its bit
+        slots.putIfAbsent(id, slot);
+        scheduleWake();
+    }
+
+    /**
+     * Recompute every restaurant whose opening or closing time has come.
+     * @return how many were recomputed
+     */
+    synchronized int recomputeDue(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        int recomputed = 0;
+        Boundary due;
+        while ((due = boundaries.peek()) != null && due.atMillis() <= nowMillis) {
+            boundaries.poll();
+            State state = states[due.slot()];
+            // Superseded by a schedule change since it was queued
+            if (state.nextChangeMillis != due.atMillis()) continue;
+            state.nextChangeMillis = Long.MAX_VALUE;
+            recompute(due.slot(), state, now);
+            recomputed++;
+        }
+        scheduleWake();
+        return recomputed;
+    }
+
+    private void recompute(int slot, State state, Instant now) {
+        recompute(slot, state, now, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param queuedMillis boundary already in the queue for this slot, which is kept rather than
+     *                     added again if it is still the next change
+     */
+    private void recompute(int slot, State state, Instant now, long queuedMillis) {
+        setBit(slot, accepts(state.active, state.schedule, state.zone, state.capacity, state.load, now));
+        if (state.active && state.schedule != null && state.nextChangeMillis == Long.MAX_VALUE) {
+            Instant next = state.schedule.nextChangeAfter(now, state.zone);
+            if (next != null) {
+                state.nextChangeMillis = next.toEpochMilli();
+                if (state.nextChangeMillis != queuedMillis) {
+                    boundaries.add(new Boundary(state.nextChangeMillis, slot));
+                }
+            }
+        }
+    }
+
+    private static boolean accepts(boolean active, WeeklySchedule openingHours, ZoneId zone,
+                                   Integer capacity, int load, Instant now) {
+        return active
+                && (openingHours == null || openingHours.isOpenAt(LocalDateTime.ofInstant(now, zone)))
+                && (capacity == null || load < capacity);
+    }
+
+    private void setBit(int slot, boolean value) {
+        int word = slot >>> 6;
+        long mask = 1L << slot;
+        long bits = accepting.get(word);
+        // Writers hold the lock, so a plain set cannot lose another writer's bit
+        accepting.set(word, value ? bits | mask : bits & ~mask);
+    }
+
+    private void ensureCapacity(int slotCount) {
+        if (slotCount <= states.length) return;
+        int grown = Math.max(slotCount, states.length * 2);
+        states = Arrays.copyOf(states, grown);
+        AtomicLongArray bits = new AtomicLongArray((grown + 63) / 64);
+        for (int i = 0; i < accepting.length(); i++) {
+            bits.set(i, accepting.get(i));
+        }
+        accepting = bits;
+    }
+
+    private void scheduleWake() {
+        Boundary next = boundaries.peek();
+        if (!started || next == null || next.atMillis() >= wakeAtMillis) return;
+        if (wake != null) {
+            wake.cancel(false);
+        }
+        wakeAtMillis = next.atMillis();
+        wake = scheduler.schedule(this::onWake, Math.max(0, wakeAtMillis - System.currentTimeMillis()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void onWake() {
+        synchronized (this) {
+            wake = null;
+            wakeAtMillis = Long.MAX_VALUE;
+        }
+        try {
+            recomputeDue(Instant.now());
+        } catch (Exception e) {
+            log.warn("Availability recompute failed: {}", e.getMessage());
+        }
+    }
+
+    private ZoneId zoneOf(String timeZone) {
+        if (timeZone == null) {
+            return defaultZone;
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            log.warn("Unknown time zone {}, using {}", timeZone, defaultZone);
+            return defaultZone;
+        }
+    }
+
+    private static void afterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Availability index load failed, retrying on the next sync: {}", e.getMessage());
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            if (!ready) {
+                rebuild();
+            } else {
+                sync();
+            }
+        } catch (Exception e) {
+            log.warn("Availability index sync failed: {}", e.getMessage());
+        }
+    }
+
+    private record Boundary(long atMillis, int slot) {}
+
+    private static final class State {
+        private boolean active;
+        private ZoneId zone;
+        private WeeklySchedule schedule;
+        private Integer capacity;
+        private int load;
+        private LocalDateTime loadUpdatedAt;
+        private long nextChangeMillis = Long.MAX_VALUE;
+    }
+}
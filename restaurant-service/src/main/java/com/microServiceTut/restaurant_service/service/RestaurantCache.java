@@ -0,0 +1,393 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.config.CacheConstants;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.exception.RestaurantNotFoundException;
+import com.microServiceTut.restaurant_service.mapper.RestaurantMapper;
+import com.microServiceTut.restaurant_service.model.Restaurant;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Restaurant entries cached one per restaurant, and the active list kept as versioned
+ * snapshots that writes patch instead of evicting.
+ *
+ * 1. restaurants:id holds {id} -> (version, restaurant); writes after commit and loads both
+ *    store it only if it is newer than what is cached. On Redis the compare and the write are
+ *    one script (scripts/put_if_newer.lua, with the version under {id}:version), so an older
+ *    version never lands last; other caches do the same under a lock on the cache
+ * 2. restaurants:active:list holds immutable snapshots at v{n} plus a "current" pointer.
+ *    A write copies the current snapshot with its one restaurant changed and claims v{n+1}
+ *    with putIfAbsent; losing the race to another instance means rebasing on the winner's
+ *    snapshot, so no write is lost and readers only ever see a complete snapshot. Claiming
+ *    v{n+1} replaces v{n-1} with a small Superseded marker, so a chain keeps only its two
+ *    newest full copies while old versions stay claimed against writers on a stale base
+ * 3. Readers follow the pointer (and any markers onwards), then step past it to any later
+ *    snapshot already written, which costs one extra lookup when the pointer is up to date
+ * 4. The list is rebuilt from the table only when no snapshot is cached (startup, TTL expiry)
+ *
+ * Without a CacheManager (spring.cache.type=simple) every read goes to the database.
+ */
+@Component
+@Slf4j
+public class RestaurantCache {
+
+    public static final String REBUILD_METRIC = "restaurant.cache.list.rebuilds";
+    static final String CURRENT_KEY = "current";
+    static final String VERSION_SUFFIX = ":version";
+
+    private static final RedisScript<Long> PUT_IF_NEWER_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/put_if_newer.lua"), Long.class);
+
+    private final RestaurantRepository restaurantRepository;
+    private final Cache byId;
+    private final Cache activeList;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Counter listRebuilds;
+
+    public RestaurantCache(RestaurantRepository restaurantRepository,
+                           ObjectProvider<CacheManager> cacheManager,
+                           ObjectProvider<RedisTemplate<String, Object>> redisTemplate,
+                           MeterRegistry meterRegistry) {
+        this.restaurantRepository = restaurantRepository;
+        CacheManager manager = cacheManager.getIfAvailable();
+        this.byId = manager != null ? immediate(manager.getCache(CacheConstants.RESTAURANT_BY_ID)) : null;
+        this.activeList = manager != null ? immediate(manager.getCache(CacheConstants.RESTAURANTS_ACTIVE_LIST)) : null;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.listRebuilds = Counter.builder(REBUILD_METRIC)
+                .description("Active restaurant list rebuilt from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A restaurant's cached entry, with its version, as stored in both caches.
+     */
+    record Entry(long version, RestaurantResponse restaurant) {}
+
+    /**
+     * Left at a version two behind the newest, in place of its snapshot: the key stays taken,
+     * and says where to look instead.
+     */
+    record Superseded(long by) {}
+
+    /**
+     * A snapshot and the version it is stored at.
+     */
+    private record Head(long version, ActiveSnapshot snapshot) {}
+
+    /**
+     * One immutable version of the active list. Restaurants deactivated since the last rebuild
+     * stay in it as inactive entries, so a late write of an older version cannot bring them back.
+     */
+    record ActiveSnapshot(List<Entry> entries) {
+
+        /**
+         * This snapshot with one restaurant added or replaced; itself if the snapshot
+         * already has that version or a newer one.
+         */
+        ActiveSnapshot with(Entry entry) {
+            UUID id = entry.restaurant().getId();
+            int index = -1;
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i).restaurant().getId().equals(id)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index >= 0 && entries.get(index).version() >= entry.version()) return this;
+
+            List<Entry> patched = new ArrayList<>(entries);
+            if (index >= 0) {
+                patched.set(index, entry);
+            } else {
+                patched.add(entry);
+            }
+            return new ActiveSnapshot(patched);
+        }
+
+        List<RestaurantResponse> restaurants() {
+            return entries.stream()
+                    .map(Entry::restaurant)
+                    .filter(RestaurantResponse::isActive)
+                    .toList();
+        }
+    }
+
+    public RestaurantResponse get(UUID restaurantId) {
+        if (byId == null) {
+            return RestaurantMapper.toResponse(load(restaurantId));
+        }
+        Entry cached = byId.get(restaurantId.toString(), Entry.class);
+        if (cached != null) {
+            return cached.restaurant();
+        }
+        Restaurant restaurant = load(restaurantId);
+        Entry loaded = new Entry(restaurant.getVersion(), RestaurantMapper.toResponse(restaurant));
+        // A write that committed while we were loading has already put a newer entry
+        putIfNewer(restaurantId.toString(), loaded);
+        return loaded.restaurant();
+    }
+
+    /**
+     * Restaurants for a set of ids, in request order; unknown ids are left out. Cache lookups are
+     * all issued before any is awaited, so Redis answers them together, and the misses are
+     * loaded with one findAllById.
+     */
+    public List<RestaurantResponse> getAll(Collection<UUID> restaurantIds) {
+        Set<UUID> ids = new LinkedHashSet<>(restaurantIds);
+        Map<UUID, RestaurantResponse> found = new HashMap<>();
+        if (byId != null) {
+            Map<UUID, CompletableFuture<?>> lookups = new HashMap<>();
+            for (UUID id : ids) {
+                lookups.put(id, retrieve(id));
+            }
+            lookups.forEach((id, lookup) -> {
+                Entry cached = lookup != null ? awaitEntry(id, lookup) : null;
+                if (cached != null) {
+                    found.put(id, cached.restaurant());
+                }
+            });
+        }
+
+        List<UUID> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            for (Restaurant restaurant : restaurantRepository.findAllById(missing)) {
+                Entry loaded = new Entry(restaurant.getVersion(), RestaurantMapper.toResponse(restaurant));
+                found.put(restaurant.getId(), loaded.restaurant());
+                if (byId != null) {
+                    putIfNewer(restaurant.getId().toString(), loaded);
+                }
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<RestaurantResponse> getActive() {
+        if (activeList == null) {
+            return rebuild().restaurants();
+        }
+        Long current = activeList.get(CURRENT_KEY, Long.class);
+        Head head = current != null ? resolve(current) : null;
+        if (head == null) {
+            return publish(rebuild()).restaurants();
+        }
+        // The pointer can trail the newest snapshot when two writers advance it at once
+        Head newer;
+        while ((newer = resolve(head.version() + 1)) != null) {
+            head = newer;
+        }
+        if (head.version() != current) {
+            advanceCurrent(head.version());
+        }
+        return head.snapshot().restaurants();
+    }
+
+    /**
+     * Apply a saved restaurant to both caches once its transaction commits (immediately
+     * outside one), when its version and timestamps have been flushed.
+     */
+    public void update(Restaurant restaurant) {
+        if (byId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(restaurant);
+                }
+            });
+        } else {
+            apply(restaurant);
+        }
+    }
+
+    void apply(Restaurant restaurant) {
+        Entry entry = new Entry(restaurant.getVersion(), RestaurantMapper.toResponse(restaurant));
+        try {
+            putIfNewer(restaurant.getId().toString(), entry);
+            patchActiveList(entry);
+        } catch (RuntimeException e) {
+            // Drop rather than risk serving the old version until the TTL
+            log.warn("Restaurant cache update failed for {}, evicting: {}", restaurant.getId(), e.getMessage());
+            try {
+                byId.evict(restaurant.getId().toString());
+                activeList.evict(CURRENT_KEY);
+            } catch (RuntimeException evictFailure) {
+                log.warn("Restaurant cache eviction failed for {}: {}", restaurant.getId(), evictFailure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Store the entry unless the cache already has a newer version of the restaurant.
+     */
+    private void putIfNewer(String key, Entry entry) {
+        if (byId instanceof RedisCache redisCache && redisTemplate != null) {
+            RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+            String cacheKey = config.getKeyPrefixFor(redisCache.getName()) + key;
+            byte[] value = ByteUtils.getBytes(config.getValueSerializationPair().write(entry));
+            long ttlMillis = Math.max(0, config.getTtlFunction().getTimeToLive(key, entry).toMillis());
+            redisTemplate.execute(PUT_IF_NEWER_SCRIPT, RedisSerializer.byteArray(),
+                    new GenericToStringSerializer<>(Long.class), List.of(cacheKey, cacheKey + VERSION_SUFFIX),
+                    Long.toString(entry.version()).getBytes(StandardCharsets.UTF_8), value,
+                    Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        // In-process cache: every instance sharing it shares the lock as well
+        synchronized (byId) {
+            Entry cached = byId.get(key, Entry.class);
+            if (cached == null || cached.version() < entry.version()) {
+                byId.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * The snapshot at a version, following Superseded markers on to a newer one;
+     * null if nothing is stored there (not written yet, or expired).
+     */
+    private Head resolve(long version) {
+        // Every marker points further on, so this ends at a snapshot or an empty version
+        while (true) {
+            Cache.ValueWrapper stored = activeList.get(snapshotKey(version));
+            Object value = stored != null ? stored.get() : null;
+            if (value instanceof ActiveSnapshot snapshot) {
+                return new Head(version, snapshot);
+            }
+            if (!(value instanceof Superseded superseded)) {
+                return null;
+            }
+            // The pointer is usually further on than the marker
+            Long current = activeList.get(CURRENT_KEY, Long.class);
+            version = current != null ? Math.max(superseded.by(), current) : superseded.by();
+        }
+    }
+
+    private void patchActiveList(Entry entry) {
+        Long current = activeList.get(CURRENT_KEY, Long.class);
+        Head head = current != null ? resolve(current) : null;
+        if (head == null) {
+            // Nothing cached; the next read rebuilds from the table
+            return;
+        }
+        // Each lost claim means another write went in, so this always finishes
+        long version = head.version();
+        ActiveSnapshot base = head.snapshot();
+        while (true) {
+            ActiveSnapshot patched = base.with(entry);
+            if (patched == base) return;
+
+            Cache.ValueWrapper winner = activeList.putIfAbsent(snapshotKey(version + 1), patched);
+            if (winner == null) {
+                advanceCurrent(version + 1);
+                // Readers still on v{n} can finish; the full copy at v{n-1} is no longer needed
+                activeList.put(snapshotKey(version - 1), new Superseded(version + 1));
+                return;
+            }
+            // Another write claimed this version first (and maybe more after it); apply ours on top
+            Head latest = resolve(version + 1);
+            if (latest == null) {
+                log.warn("Active restaurant list expired while patching {}, dropping it", entry.restaurant().getId());
+                activeList.evict(CURRENT_KEY);
+                return;
+            }
+            base = latest.snapshot();
+            version = latest.version();
+        }
+    }
+
+    private ActiveSnapshot publish(ActiveSnapshot snapshot) {
+        // A new chain starts above any version an older chain can still reach
+        long version = System.currentTimeMillis() * 1_000;
+        activeList.put(snapshotKey(version), snapshot);
+        advanceCurrent(version);
+        return snapshot;
+    }
+
+    private void advanceCurrent(long version) {
+        Long current = activeList.get(CURRENT_KEY, Long.class);
+        if (current == null || current < version) {
+            activeList.put(CURRENT_KEY, version);
+        }
+    }
+
+    private ActiveSnapshot rebuild() {
+        listRebuilds.increment();
+        log.info("Fetching active restaurants from DATABASE (cache miss)");
+        List<Entry> entries = new ArrayList<>();
+        for (Restaurant restaurant : restaurantRepository.findByActiveTrue()) {
+            entries.add(new Entry(restaurant.getVersion(), RestaurantMapper.toResponse(restaurant)));
+        }
+        return new ActiveSnapshot(entries);
+    }
+
+    private Restaurant load(UUID restaurantId) {
+        return restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
+    }
+
+    private CompletableFuture<?> retrieve(UUID restaurantId) {
+        try {
+            return byId.retrieve(restaurantId.toString());
+        } catch (UnsupportedOperationException e) {
+            // Cache without async lookups
+            return CompletableFuture.completedFuture(byId.get(restaurantId.toString()));
+        }
+    }
+
+    private Entry awaitEntry(UUID restaurantId, CompletableFuture<?> lookup) {
+        try {
+            Object value = lookup.join();
+            if (value instanceof Cache.ValueWrapper wrapper) {
+                value = wrapper.get();
+            }
+            return value instanceof Entry entry ? entry : null;
+        } catch (RuntimeException e) {
+            // Treated as a miss; the row comes from the database instead
+            log.warn("Restaurant cache lookup failed for {}: {}", restaurantId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String snapshotKey(long version) {
+        return "v" + version;
+    }
+
+    /**
+     * Writes here already run after commit, so skip the transaction-aware decorator
+     * (it would defer them to a commit that has already happened).
+     */
+    private static Cache immediate(Cache cache) {
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+}
@@ -0,0 +1,395 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.model.Restaurant;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantLocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory grid of active restaurant locations for "nearby" queries.
+ *
+ * 1. The world is cut into cells of cell-size-degrees; a query walks rings of cells outwards
+ *    from the caller's cell and stops once no unvisited cell can be closer than the current
+ *    k-th hit, so it reads a handful of cells instead of every restaurant. The walk never leaves
+ *    the radius's bounding box; once that box spans the globe (near a pole) its rows are read
+ *    whole, through a bitmap of occupied cells per row
+ * 2. Loaded with a keyset scan at startup; local writes are applied after commit, and rows
+ *    changed on other instances are picked up by polling updated_at every sync-interval
+ * 3. Cells are copy-on-write arrays, so queries never lock
+ */
+@Component
+@Slf4j
+public class RestaurantGeoIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int SCAN_PAGE_SIZE = 5_000;
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    // Re-read a margin of changes on every poll, for commits that landed after their updated_at
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RestaurantRepository restaurantRepository;
+    private final double cellDegrees;
+    private final int lonCells;
+    private final Duration syncInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile Grid grid = new Grid();
+    // Grid being loaded; writes during a rebuild go into both
+    private volatile Grid building;
+    private volatile boolean ready;
+    private LocalDateTime syncedUpTo;
+
+    public RestaurantGeoIndex(RestaurantRepository restaurantRepository,
+                              @Value("${restaurant.geo.cell-size-degrees:0.02}") double cellDegrees,
+                              @Value("${restaurant.geo.sync-interval:PT10S}") Duration syncInterval) {
+        if (cellDegrees <= 0 || cellDegrees > 10) {
+            throw new IllegalArgumentException("restaurant.geo.cell-size-degrees must be in (0, 10]");
+        }
+        this.restaurantRepository = restaurantRepository;
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+        this.syncInterval = syncInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.execute(this::rebuildQuietly);
+        long intervalMillis = syncInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public record Hit(UUID restaurantId, double distanceKm) {}
+
+    /**
+     * Up to limit active restaurants within radiusKm of the point, nearest first.
+     * @param cuisine only this cuisine, or any when null
+     */
+    public List<Hit> findNearest(double latitude, double longitude, double radiusKm, CuisineType cuisine, int limit) {
+        Grid current = grid;
+        PriorityQueue<Hit> nearest = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Hit::distanceKm).reversed());
+
+        // Longitude cells narrow towards the poles; size the ring bound for the worst latitude in range
+        double radiusDegrees = radiusKm / KM_PER_DEGREE;
+        double farthestLatitude = Math.min(90, Math.abs(latitude) + radiusDegrees);
+        double ringKm = cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(farthestLatitude)), 1e-6);
+
+        // Cells of the radius's bounding box either side of the caller's
+        int latSpan = (int) Math.ceil(radiusDegrees / cellDegrees) + 1;
+        int lonSpan = lonSpanCells(latitude, radiusDegrees);
+        int maxRing = Math.max(latSpan, lonSpan);
+
+        int centerLat = latIndex(latitude);
+        int centerLon = lonIndex(longitude);
+        if (2 * lonSpan + 1 >= lonCells) {
+            for (int lat = Math.max(0, centerLat - latSpan); lat <= centerLat + latSpan; lat++) {
+                if (lat * cellDegrees > 180) break;
+                collectRow(current, lat, latitude, longitude, radiusKm, cuisine, limit, nearest);
+            }
+            maxRing = -1;
+        }
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Nothing in this ring or beyond is closer than (ring - 1) whole cells
+            double ringMinKm = (ring - 1) * ringKm;
+            if (ringMinKm > radiusKm) break;
+            if (nearest.size() == limit && ringMinKm > nearest.peek().distanceKm()) break;
+
+            int latReach = Math.min(ring, latSpan);
+            for (int dLat = -latReach; dLat <= latReach; dLat++) {
+                int lat = centerLat + dLat;
+                if (lat < 0 || lat * cellDegrees > 180) continue;
+                if (Math.abs(dLat) == ring) {
+                    // Top or bottom edge of the ring, cut to the box
+                    for (int dLon = -Math.min(ring, lonSpan); dLon <= Math.min(ring, lonSpan); dLon++) {
+                        collect(current, lat, centerLon + dLon, latitude, longitude, radiusKm, cuisine, limit, nearest);
+                    }
+                } else {
+                    // Left and right edges, where still inside the box
+                    if (ring <= lonSpan) {
+                        collect(current, lat, centerLon - ring, latitude, longitude, radiusKm, cuisine, limit, nearest);
+                        collect(current, lat, centerLon + ring, latitude, longitude, radiusKm, cuisine, limit, nearest);
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(nearest);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    private void collect(Grid current, int lat, int lon, double latitude, double longitude, double radiusKm,
+                         CuisineType cuisine, int limit, PriorityQueue<Hit> nearest) {
+        Entry[] cell = current.cells.get(cellKey(lat, Math.floorMod(lon, lonCells)));
+        if (cell == null) return;
+        for (Entry entry : cell) {
+            if (cuisine != null && entry.cuisineType != cuisine) continue;
+            double distance = distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance > radiusKm) continue;
+            if (nearest.size() < limit) {
+                nearest.add(new Hit(entry.id, distance));
+            } else if (distance < nearest.peek().distanceKm()) {
+                nearest.poll();
+                nearest.add(new Hit(entry.id, distance));
+            }
+        }
+    }
+
+    /**
+     * Every occupied cell of a latitude row.
+     */
+    private void collectRow(Grid current, int lat, double latitude, double longitude, double radiusKm,
+                            CuisineType cuisine, int limit, PriorityQueue<Hit> nearest) {
+        AtomicLongArray occupied = current.occupied.get(lat);
+        if (occupied == null) return;
+        for (int word = 0; word < occupied.length(); word++) {
+            long bits = occupied.get(word);
+            while (bits != 0) {
+                int lon = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                collect(current, lat, lon, latitude, longitude, radiusKm, cuisine, limit, nearest);
+            }
+        }
+    }
+
+    /**
+     * Longitude cells either side of the caller's that a circle of radiusDegrees can reach;
+     * all of them once the circle takes in a pole.
+     */
+    private int lonSpanCells(double latitude, double radiusDegrees) {
+        if (Math.abs(latitude) + radiusDegrees >= 90) {
+            return lonCells;
+        }
+        double halfWidth = Math.toDegrees(Math.asin(Math.min(1,
+                Math.sin(Math.toRadians(radiusDegrees)) / Math.cos(Math.toRadians(latitude)))));
+        return (int) Math.min(lonCells, Math.ceil(halfWidth / cellDegrees) + 1);
+    }
+
+    /**
+     * Apply a saved restaurant once its transaction commits (immediately outside one).
+     */
+    public void update(Restaurant restaurant) {
+        UUID id = restaurant.getId();
+        Double latitude = restaurant.getLatitude();
+        Double longitude = restaurant.getLongitude();
+        CuisineType cuisineType = restaurant.getCuisineType();
+        boolean active = restaurant.isActive();
+        Runnable apply = () -> apply(id, latitude, longitude, cuisineType, active);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    int size() {
+        return grid.byId.size();
+    }
+
+    /**
+     * Reload every active restaurant with coordinates into a fresh grid and swap it in.
+     */
+    void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Grid loading = new Grid();
+        synchronized (this) {
+            building = loading;
+        }
+        try {
+            UUID after = FIRST_ID;
+            List<RestaurantLocation> page;
+            do {
+                page = restaurantRepository.findLocationsAfter(after, Limit.of(SCAN_PAGE_SIZE));
+                synchronized (this) {
+                    for (RestaurantLocation location : page) {
+                        loading.put(location.getId(), location.getLatitude(), location.getLongitude(),
+                                location.getCuisineType());
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == SCAN_PAGE_SIZE);
+
+            synchronized (this) {
+                grid = loading;
+                syncedUpTo = startedAt;
+                ready = true;
+            }
+            log.info("Geo index loaded {} restaurants", loading.byId.size());
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    /**
+     * Apply rows changed since the last sync, from this or any other instance.
+     */
+    void sync() {
+        LocalDateTime since;
+        synchronized (this) {
+            if (syncedUpTo == null) return;
+            since = syncedUpTo;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<RestaurantLocation> changed = restaurantRepository.findLocationsUpdatedAfter(since.minus(SYNC_OVERLAP));
+        for (RestaurantLocation location : changed) {
+            apply(location.getId(), location.getLatitude(), location.getLongitude(),
+                    location.getCuisineType(), location.isActive());
+        }
+        synchronized (this) {
+            syncedUpTo = startedAt;
+        }
+    }
+
+    synchronized void apply(UUID id, Double latitude, Double longitude, CuisineType cuisineType, boolean active) {
+        boolean indexed = active && latitude != null && longitude != null;
+        for (Grid target : new Grid[]{grid, building}) {
+            if (target == null) continue;
+            if (indexed) {
+                target.put(id, latitude, longitude, cuisineType);
+            } else {
+                target.remove(id);
+            }
+        }
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Geo index load failed, retrying on the next sync: {}", e.getMessage());
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            if (!ready) {
+                rebuild();
+            } else {
+                sync();
+            }
+        } catch (Exception e) {
+            log.warn("Geo index sync failed: {}", e.getMessage());
+        }
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return (long) latIndex << 32 | lonIndex;
+    }
+
+    private static int latOf(long cellKey) {
+        return (int) (cellKey >>> 32);
+    }
+
+    private static int lonOf(long cellKey) {
+        return (int) cellKey;
+    }
+
+    private record Entry(UUID id, double latitude, double longitude, CuisineType cuisineType) {}
+
+    /**
+     * Cells keyed by (lat index, lon index); writers hold the index lock.
+     */
+    private final class Grid {
+
+        private final Map<Long, Entry[]> cells = new ConcurrentHashMap<>();
+        private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+        // Occupied longitude cells per latitude row; a bit is set before its cell fills and cleared after it empties
+        private final Map<Integer, AtomicLongArray> occupied = new ConcurrentHashMap<>();
+
+        void put(UUID id, double latitude, double longitude, CuisineType cuisineType) {
+            remove(id);
+            Entry entry = new Entry(id, latitude, longitude, cuisineType);
+            byId.put(id, entry);
+            long key = cellKey(entry);
+            occupied.computeIfAbsent(latOf(key), row -> new AtomicLongArray((lonCells + 63) / 64))
+                    .getAndUpdate(lonOf(key) >> 6, word -> word | 1L << lonOf(key));
+            cells.merge(key, new Entry[]{entry}, (cell, added) -> {
+                Entry[] grown = new Entry[cell.length + 1];
+                System.arraycopy(cell, 0, grown, 0, cell.length);
+                grown[cell.length] = entry;
+                return grown;
+            });
+        }
+
+        void remove(UUID id) {
+            Entry entry = byId.remove(id);
+            if (entry == null) return;
+            long key = cellKey(entry);
+            Entry[] remaining = cells.computeIfPresent(key, (k, cell) -> {
+                if (cell.length == 1) return null;
+                Entry[] shrunk = new Entry[cell.length - 1];
+                int i = 0;
+                for (Entry other : cell) {
+                    if (other != entry) shrunk[i++] = other;
+                }
+                return shrunk;
+            });
+            if (remaining == null) {
+                occupied.get(latOf(key)).getAndUpdate(lonOf(key) >> 6, word -> word & ~(1L << lonOf(key)));
+            }
+        }
+
+        private long cellKey(Entry entry) {
+            return RestaurantGeoIndex.cellKey(latIndex(entry.latitude), lonIndex(entry.longitude));
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.microServiceTut.restaurant_service.service;
 
 import com.microServiceTut.restaurant_service.dto.request.CreateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.request.UpdateAvailabilityRequest;
 import com.microServiceTut.restaurant_service.dto.request.UpdateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.response.NearbyRestaurantResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantAvailabilityResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantInternalResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantPageResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.model.RestaurantStatus;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface RestaurantService {
 
@@ -16,14 +24,31 @@ public interface RestaurantService {
 
     List<RestaurantResponse> getAllActiveRestaurants();
 
+    List<NearbyRestaurantResponse> findNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                         CuisineType cuisineType, int limit);
+
     RestaurantResponse updateRestaurant(UUID restaurantId, UpdateRestaurantRequest request);
 
     void softDeleteRestaurant(UUID restaurantId);
 
     RestaurantResponse toggleRestaurantStatus(UUID restaurantId);
 
+    RestaurantAvailabilityResponse getAvailability(UUID restaurantId);
+
+    RestaurantAvailabilityResponse updateAvailability(UUID restaurantId, UpdateAvailabilityRequest request);
+
+    /**
+     * Move a kitchen's orders-in-progress count by delta (never below zero).
+     */
+    RestaurantAvailabilityResponse addKitchenLoad(UUID restaurantId, int delta);
+
     RestaurantInternalResponse getRestaurantInternal(UUID restaurantId);
 
+    /**
+     * Internal view of several restaurants in request order; unknown ids are left out.
+     */
+    List<RestaurantInternalResponse> getRestaurantsInternal(Collection<UUID> restaurantIds);
+
     // Admin endpoints
     List<RestaurantResponse> getAllRestaurants();
 
@@ -35,6 +60,18 @@ public interface RestaurantService {
 
     RestaurantStatsResponse getRestaurantStats();
 
+    /**
+     * Keyset page of restaurants in id order, optionally filtered by status and cuisine.
+     * @param after cursor from the previous page, null for the first page
+     */
+    RestaurantPageResponse getRestaurantsPage(RestaurantStatus status, CuisineType cuisineType, UUID after, int limit);
+
+    /**
+     * Walk every matching restaurant page by page, for streaming exports.
+     */
+    void forEachRestaurantPage(RestaurantStatus status, CuisineType cuisineType,
+                               Consumer<List<RestaurantResponse>> pageConsumer);
+
     record RestaurantStatsResponse(long totalRestaurants, long activeRestaurants,
                                    long pendingRestaurants, long rejectedRestaurants) {}
 }
@@ -1,24 +1,42 @@
 package com.microServiceTut.restaurant_service.service;
 
-import com.microServiceTut.restaurant_service.config.CacheConstants;
 import com.microServiceTut.restaurant_service.dto.request.CreateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.request.UpdateAvailabilityRequest;
 import com.microServiceTut.restaurant_service.dto.request.UpdateRestaurantRequest;
+import com.microServiceTut.restaurant_service.dto.response.NearbyRestaurantResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantAvailabilityResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantInternalResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantPageResponse;
 import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
 import com.microServiceTut.restaurant_service.exception.RestaurantNotFoundException;
 import com.microServiceTut.restaurant_service.mapper.RestaurantMapper;
+import com.microServiceTut.restaurant_service.model.CuisineType;
 import com.microServiceTut.restaurant_service.model.Restaurant;
 import com.microServiceTut.restaurant_service.model.RestaurantStatus;
+import com.microServiceTut.restaurant_service.model.WeeklySchedule;
 import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantAvailability;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,62 +44,104 @@ import java.util.UUID;
 @Slf4j
 public class RestaurantServiceImpl implements RestaurantService {
 
+    static final double MAX_NEARBY_RADIUS_KM = 50;
+    static final int MAX_NEARBY_LIMIT = 100;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    // Lowest uuid in PostgreSQL ordering, the cursor before the first page
+    private static final UUID FIRST_CURSOR = new UUID(0L, 0L);
+
     private final RestaurantRepository restaurantRepository;
+    private final RestaurantGeoIndex geoIndex;
+    private final RestaurantCache restaurantCache;
+    private final RestaurantAvailabilityIndex availabilityIndex;
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public RestaurantResponse createRestaurant(CreateRestaurantRequest request) {
         log.info("Creating restaurant: {}", request.getName());
         Restaurant restaurant = RestaurantMapper.toEntity(request);
         Restaurant saved = restaurantRepository.save(restaurant);
-        log.info("Restaurant created: {}, cache evicted", saved.getId());
+        onSaved(saved);
+        log.info("Restaurant created: {}, cache updated", saved.getId());
         return RestaurantMapper.toResponse(saved);
     }
 
     @Override
     public RestaurantResponse getRestaurantById(UUID restaurantId) {
-        Restaurant restaurant = findRestaurantOrThrow(restaurantId);
-        return RestaurantMapper.toResponse(restaurant);
+        return restaurantCache.get(restaurantId);
     }
 
     @Override
-    @Cacheable(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, unless = "#result.isEmpty()")
     public List<RestaurantResponse> getAllActiveRestaurants() {
-        log.info("Fetching active restaurants from DATABASE (cache miss)");
-        return restaurantRepository.findByActiveTrue()
+        return restaurantCache.getActive();
+    }
+
+    @Override
+    public List<NearbyRestaurantResponse> findNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                                CuisineType cuisineType, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be between 0 and " + MAX_NEARBY_RADIUS_KM);
+        }
+        if (limit < 1 || limit > MAX_NEARBY_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_NEARBY_LIMIT);
+        }
+
+        if (!geoIndex.isReady()) {
+            // Still loading after startup; answer from the table rather than with partial results
+            log.info("Geo index not loaded yet, filtering active restaurants from DATABASE");
+            return restaurantRepository.findByActiveTrue().stream()
+                    .filter(r -> r.getLatitude() != null && r.getLongitude() != null)
+                    .filter(r -> cuisineType == null || r.getCuisineType() == cuisineType)
+                    .map(r -> new NearbyRestaurantResponse(RestaurantMapper.toResponse(r), RestaurantGeoIndex.distanceKm(
+                            latitude, longitude, r.getLatitude(), r.getLongitude())))
+                    .filter(nearby -> nearby.distanceKm() <= radiusKm)
+                    .sorted(Comparator.comparingDouble(NearbyRestaurantResponse::distanceKm))
+                    .limit(limit)
+                    .toList();
+        }
+
+        List<RestaurantGeoIndex.Hit> hits = geoIndex.findNearest(latitude, longitude, radiusKm, cuisineType, limit);
+        Map<UUID, Restaurant> restaurants = restaurantRepository.findAllById(
+                        hits.stream().map(RestaurantGeoIndex.Hit::restaurantId).toList())
                 .stream()
-                .map(RestaurantMapper::toResponse)
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        // Rows deactivated since the index last saw them are dropped rather than returned stale
+        return hits.stream()
+                .filter(hit -> restaurants.containsKey(hit.restaurantId()) && restaurants.get(hit.restaurantId()).isActive())
+                .map(hit -> new NearbyRestaurantResponse(
+                        RestaurantMapper.toResponse(restaurants.get(hit.restaurantId())), hit.distanceKm()))
                 .toList();
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public RestaurantResponse updateRestaurant(UUID restaurantId, UpdateRestaurantRequest request) {
         log.info("Updating restaurant: {}", restaurantId);
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
         RestaurantMapper.updateEntity(restaurant, request);
         Restaurant updated = restaurantRepository.save(restaurant);
-        log.info("Restaurant updated: {}, cache evicted", restaurantId);
+        onSaved(updated);
+        log.info("Restaurant updated: {}, cache updated", restaurantId);
         return RestaurantMapper.toResponse(updated);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public void softDeleteRestaurant(UUID restaurantId) {
         log.info("Soft deleting restaurant: {}", restaurantId);
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
         restaurant.setActive(false);
         restaurant.setStatus(RestaurantStatus.CLOSED);
-        restaurantRepository.save(restaurant);
-        log.info("Restaurant soft deleted: {}, cache evicted", restaurantId);
+        onSaved(restaurantRepository.save(restaurant));
+        log.info("Restaurant soft deleted: {}, cache updated", restaurantId);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public RestaurantResponse toggleRestaurantStatus(UUID restaurantId) {
         log.info("Toggling restaurant status: {}", restaurantId);
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
@@ -93,14 +153,66 @@ public class RestaurantServiceImpl implements RestaurantService {
             restaurant.setActive(true);
         }
         Restaurant updated = restaurantRepository.save(restaurant);
-        log.info("Restaurant status toggled: {}, cache evicted", restaurantId);
+        onSaved(updated);
+        log.info("Restaurant status toggled: {}, cache updated", restaurantId);
         return RestaurantMapper.toResponse(updated);
     }
 
     @Override
-    public RestaurantInternalResponse getRestaurantInternal(UUID restaurantId) {
+    public RestaurantAvailabilityResponse getAvailability(UUID restaurantId) {
+        RestaurantAvailability availability = findAvailabilityOrThrow(restaurantId);
+        return RestaurantMapper.toAvailabilityResponse(availability,
+                availabilityIndex.evaluate(availability, Instant.now()));
+    }
+
+    @Override
+    @Transactional
+    public RestaurantAvailabilityResponse updateAvailability(UUID restaurantId, UpdateAvailabilityRequest request) {
+        log.info("Updating availability for restaurant: {}", restaurantId);
+        if (request.getTimeZone() != null) {
+            try {
+                ZoneId.of(request.getTimeZone());
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Unknown time zone: " + request.getTimeZone());
+            }
+        }
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
-        return RestaurantMapper.toInternalResponse(restaurant);
+        restaurant.setTimeZone(request.getTimeZone());
+        restaurant.setOpeningHours(request.getOpeningHours() == null || request.getOpeningHours().isEmpty()
+                ? null : new WeeklySchedule(request.getOpeningHours()));
+        restaurant.setKitchenCapacity(request.getKitchenCapacity());
+        onSaved(restaurantRepository.save(restaurant));
+        // Read back through the projection for the current kitchen load
+        return getAvailability(restaurantId);
+    }
+
+    @Override
+    @Transactional
+    public RestaurantAvailabilityResponse addKitchenLoad(UUID restaurantId, int delta) {
+        if (restaurantRepository.addKitchenLoad(restaurantId, delta, LocalDateTime.now()) == 0) {
+            throw new RestaurantNotFoundException(restaurantId);
+        }
+        RestaurantAvailability availability = findAvailabilityOrThrow(restaurantId);
+        availabilityIndex.update(availability);
+        return RestaurantMapper.toAvailabilityResponse(availability,
+                availabilityIndex.evaluate(availability, Instant.now()));
+    }
+
+    @Override
+    public RestaurantInternalResponse getRestaurantInternal(UUID restaurantId) {
+        return RestaurantMapper.toInternalResponse(restaurantCache.get(restaurantId), isAcceptingOrders(restaurantId));
+    }
+
+    @Override
+    public List<RestaurantInternalResponse> getRestaurantsInternal(Collection<UUID> restaurantIds) {
+        if (restaurantIds.isEmpty()) {
+            return List.of();
+        }
+        List<RestaurantResponse> restaurants = restaurantCache.getAll(restaurantIds);
+        Map<UUID, Boolean> accepting = acceptingOrders(restaurants.stream().map(RestaurantResponse::getId).toList());
+        return restaurants.stream()
+                .map(restaurant -> RestaurantMapper.toInternalResponse(restaurant, accepting.get(restaurant.getId())))
+                .toList();
     }
 
     private Restaurant findRestaurantOrThrow(UUID restaurantId) {
@@ -108,6 +220,62 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
     }
 
+    private RestaurantAvailability findAvailabilityOrThrow(UUID restaurantId) {
+        return restaurantRepository.findAvailabilityById(restaurantId)
+                .orElseThrow(() -> new RestaurantNotFoundException(restaurantId));
+    }
+
+    /**
+     * From the availability index; a restaurant it has not seen yet (still loading, or created
+     * on another instance since the last sync) is read once and added to it.
+     */
+    private boolean isAcceptingOrders(UUID restaurantId) {
+        Boolean accepting = availabilityIndex.isAcceptingOrders(restaurantId);
+        if (accepting != null) {
+            return accepting;
+        }
+        return restaurantRepository.findAvailabilityById(restaurantId)
+                .map(availability -> {
+                    availabilityIndex.update(availability);
+                    return availabilityIndex.evaluate(availability, Instant.now());
+                })
+                .orElse(false);
+    }
+
+    /**
+     * isAcceptingOrders for a batch: the ids the index has not seen are read with one query.
+     */
+    private Map<UUID, Boolean> acceptingOrders(List<UUID> restaurantIds) {
+        Map<UUID, Boolean> accepting = new HashMap<>(restaurantIds.size() * 2);
+        List<UUID> missed = new ArrayList<>();
+        for (UUID restaurantId : restaurantIds) {
+            Boolean indexed = availabilityIndex.isAcceptingOrders(restaurantId);
+            if (indexed != null) {
+                accepting.put(restaurantId, indexed);
+            } else {
+                missed.add(restaurantId);
+                accepting.put(restaurantId, false);
+            }
+        }
+        if (!missed.isEmpty()) {
+            Instant now = Instant.now();
+            for (RestaurantAvailability availability : restaurantRepository.findAvailabilityByIdIn(missed)) {
+                availabilityIndex.update(availability);
+                accepting.put(availability.getId(), availabilityIndex.evaluate(availability, now));
+            }
+        }
+        return accepting;
+    }
+
+    /**
+     * Bring the caches and the geo and availability indexes up to date once the write commits.
+     */
+    private void onSaved(Restaurant restaurant) {
+        geoIndex.update(restaurant);
+        restaurantCache.update(restaurant);
+        availabilityIndex.update(restaurant);
+    }
+
     @Override
     public List<RestaurantResponse> getAllRestaurants() {
         return restaurantRepository.findAll().stream()
@@ -124,26 +292,28 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public RestaurantResponse approveRestaurant(UUID restaurantId) {
         log.info("Approving restaurant: {}", restaurantId);
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
         restaurant.setStatus(RestaurantStatus.ACTIVE);
         restaurant.setActive(true);
-        log.info("Restaurant approved: {}, cache evicted", restaurantId);
-        return RestaurantMapper.toResponse(restaurantRepository.save(restaurant));
+        Restaurant approved = restaurantRepository.save(restaurant);
+        onSaved(approved);
+        log.info("Restaurant approved: {}, cache updated", restaurantId);
+        return RestaurantMapper.toResponse(approved);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConstants.RESTAURANTS_ACTIVE_LIST, allEntries = true)
     public RestaurantResponse rejectRestaurant(UUID restaurantId) {
         log.info("Rejecting restaurant: {}", restaurantId);
         Restaurant restaurant = findRestaurantOrThrow(restaurantId);
         restaurant.setStatus(RestaurantStatus.REJECTED);
         restaurant.setActive(false);
-        log.info("Restaurant rejected: {}, cache evicted", restaurantId);
-        return RestaurantMapper.toResponse(restaurantRepository.save(restaurant));
+        Restaurant rejected = restaurantRepository.save(restaurant);
+        onSaved(rejected);
+        log.info("Restaurant rejected: {}, cache updated", restaurantId);
+        return RestaurantMapper.toResponse(rejected);
     }
 
     @Override
@@ -154,4 +324,45 @@ public class RestaurantServiceImpl implements RestaurantService {
         long rejected = restaurantRepository.countByStatus(RestaurantStatus.REJECTED);
         return new RestaurantStatsResponse(total, active, pending, rejected);
     }
+
+    @Override
+    public RestaurantPageResponse getRestaurantsPage(RestaurantStatus status, CuisineType cuisineType,
+                                                     UUID after, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        List<RestaurantResponse> restaurants = findPage(status, cuisineType,
+                after != null ? after : FIRST_CURSOR, pageSize);
+        UUID nextCursor = restaurants.size() == pageSize ? restaurants.get(restaurants.size() - 1).getId() : null;
+        return new RestaurantPageResponse(restaurants, nextCursor);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachRestaurantPage(RestaurantStatus status, CuisineType cuisineType,
+                                      Consumer<List<RestaurantResponse>> pageConsumer) {
+        // One short read per page rather than a cursor held open for the whole walk
+        UUID after = FIRST_CURSOR;
+        List<RestaurantResponse> page;
+        do {
+            page = findPage(status, cuisineType, after, MAX_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            pageConsumer.accept(page);
+            after = page.get(page.size() - 1).getId();
+        } while (page.size() == MAX_PAGE_SIZE);
+    }
+
+    private List<RestaurantResponse> findPage(RestaurantStatus status, CuisineType cuisineType, UUID after, int pageSize) {
+        Limit limit = Limit.of(pageSize);
+        if (status != null && cuisineType != null) {
+            return restaurantRepository.findResponsesByStatusAndCuisineTypeAfter(status, cuisineType, after, limit);
+        }
+        if (status != null) {
+            return restaurantRepository.findResponsesByStatusAfter(status, after, limit);
+        }
+        if (cuisineType != null) {
+            return restaurantRepository.findResponsesByCuisineTypeAfter(cuisineType, after, limit);
+        }
+        return restaurantRepository.findResponsesAfter(after, limit);
+    }
 }
@@ -0,0 +1,25 @@
+-- Store a cached restaurant unless the cache already holds a newer version of it.
+-- KEYS[1]: cached entry, KEYS[2]: version of the cached entry
+-- ARGV: version, serialized entry, time to live in milliseconds (0 = none)
+-- Returns 1 if the entry was stored, 0 if a newer (or the same) version was already there
+
+local current = tonumber(redis.call('GET', KEYS[2]))
+local version = tonumber(ARGV[1])
+if current ~= nil then
+    if current > version then
+        return 0
+    end
+    -- The same version is only written again if the entry itself was evicted
+    if current == version and redis.call('EXISTS', KEYS[1]) == 1 then
+        return 0
+    end
+end
+
+if tonumber(ARGV[3]) > 0 then
+    redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+    redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])
+else
+    redis.call('SET', KEYS[1], ARGV[2])
+    redis.call('SET', KEYS[2], ARGV[1])
+end
+return 1
@@ -0,0 +1,226 @@
+package com.microServiceTut.restaurant_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantPageResponse;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.model.Restaurant;
+import com.microServiceTut.restaurant_service.model.RestaurantStatus;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.service.RestaurantAvailabilityIndex;
+import com.microServiceTut.restaurant_service.service.RestaurantCache;
+import com.microServiceTut.restaurant_service.service.RestaurantGeoIndex;
+import com.microServiceTut.restaurant_service.service.RestaurantServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantControllerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantControllerTest.class);
+
+    private static final int ONE_MILLION = 1_000_000;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private RestaurantRepository restaurantRepository;
+    private RestaurantController controller;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        restaurantRepository = mock(RestaurantRepository.class);
+        RestaurantServiceImpl restaurantService = new RestaurantServiceImpl(restaurantRepository,
+                mock(RestaurantGeoIndex.class), mock(RestaurantCache.class),
+                mock(RestaurantAvailabilityIndex.class));
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        controller = new RestaurantController(restaurantService, objectMapper);
+    }
+
+    @Test
+    void getRestaurantsPage_FollowsCursorToLastPage() {
+        // Given
+        seedRestaurants(250);
+
+        // When
+        RestaurantPageResponse first = controller.getRestaurantsPage(null, null, null, 100);
+        RestaurantPageResponse second = controller.getRestaurantsPage(null, null, first.getNextCursor(), 100);
+        RestaurantPageResponse last = controller.getRestaurantsPage(null, null, second.getNextCursor(), 100);
+
+        // Then
+        assertThat(first.getRestaurants()).hasSize(100);
+        assertThat(first.getRestaurants().get(0).getId()).isEqualTo(restaurantId(1));
+        assertThat(second.getRestaurants().get(0).getId()).isEqualTo(restaurantId(101));
+        assertThat(last.getRestaurants()).hasSize(50);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getActiveRestaurantsPage_UsesStatusAndCuisineQuery() {
+        RestaurantResponse italian = response(7);
+        when(restaurantRepository.findResponsesByStatusAndCuisineTypeAfter(eq(RestaurantStatus.ACTIVE),
+                eq(CuisineType.ITALIAN), eq(new UUID(0L, 0L)), any(Limit.class))).thenReturn(List.of(italian));
+
+        RestaurantPageResponse page = controller.getActiveRestaurantsPage(CuisineType.ITALIAN, null, 20);
+
+        assertThat(page.getRestaurants()).containsExactly(italian);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void writeRestaurantsNdjson_OneLinePerRestaurant() throws Exception {
+        seedRestaurants(2_345);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        controller.writeRestaurantsNdjson(null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2_345);
+        assertThat(lines[0]).contains("\"id\":\"" + restaurantId(1) + "\"");
+        assertThat(lines[2_344]).contains("\"name\":\"Restaurant 2345\"");
+    }
+
+    @Test
+    void benchmark_OneMillionRestaurants_ExportVersusFullList() throws Exception {
+        // Given - the same million restaurants behind findAll and behind keyset pages
+        seedRestaurants(ONE_MILLION);
+        when(restaurantRepository.findAll()).thenAnswer(invocation -> {
+            List<Restaurant> all = new ArrayList<>(ONE_MILLION);
+            for (long i = 1; i <= ONE_MILLION; i++) {
+                all.add(entity(i));
+            }
+            return all;
+        });
+
+        // When - GET /admin/all: load every entity, map, then serialise the whole list
+        MeasuringSink listSink = new MeasuringSink(-1);
+        long start = System.nanoTime();
+        List<RestaurantResponse> all = controller.getAllRestaurants();
+        listSink.measureRetained();
+        objectMapper.writeValue(listSink, all);
+        long listNanos = System.nanoTime() - start;
+        long listTtfbNanos = listSink.firstByteNanos - start;
+        all = null;
+
+        // GET /admin/export: one page of 1000 at a time
+        MeasuringSink exportSink = new MeasuringSink(ONE_MILLION / 2_000);
+        start = System.nanoTime();
+        controller.writeRestaurantsNdjson(null, null, exportSink);
+        long exportNanos = System.nanoTime() - start;
+        long exportTtfbNanos = exportSink.firstByteNanos - start;
+
+        log.info("1M restaurants, full list: {} MB in {} ms, first byte after {} ms, {} MB retained",
+                listSink.bytes >> 20, listNanos / 1_000_000, listTtfbNanos / 1_000_000, listSink.retained >> 20);
+        log.info("1M restaurants, NDJSON export: {} MB in {} ms, first byte after {} ms, {} MB retained mid-export",
+                exportSink.bytes >> 20, exportNanos / 1_000_000, exportTtfbNanos / 1_000_000, exportSink.retained >> 20);
+
+        // Then - the export is on the wire almost at once and holds one page, not the table
+        assertThat(exportSink.bytes).isGreaterThan(ONE_MILLION * 100L);
+        assertThat(exportTtfbNanos * 20).isLessThan(listTtfbNanos);
+        assertThat(exportSink.retained * 10).isLessThan(listSink.retained);
+    }
+
+    /**
+     * Counts bytes, records time-to-first-byte, and measures the live heap above the starting
+     * point once: explicitly, or at the given flush (one per page) for the streaming export.
+     */
+    private static final class MeasuringSink extends OutputStream {
+
+        private final long heapBefore;
+        private final int measureAtFlush;
+        private int flushes;
+        private long firstByteNanos;
+        private long bytes;
+        private long retained;
+
+        MeasuringSink(int measureAtFlush) {
+            this.measureAtFlush = measureAtFlush;
+            this.heapBefore = liveHeap();
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (bytes == 0) {
+                firstByteNanos = System.nanoTime();
+            }
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            if (++flushes == measureAtFlush) {
+                measureRetained();
+            }
+        }
+
+        void measureRetained() {
+            retained = Math.max(0, liveHeap() - heapBefore);
+        }
+
+        private static long liveHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    /**
+     * Restaurants with ids 1..count in id order, answering the keyset queries like the database would.
+     */
+    private void seedRestaurants(int count) {
+        when(restaurantRepository.findResponsesAfter(any(UUID.class), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0, UUID.class).getLeastSignificantBits();
+            int limit = invocation.getArgument(1, Limit.class).max();
+            List<RestaurantResponse> page = new ArrayList<>(limit);
+            for (long i = after + 1; i <= Math.min(count, after + limit); i++) {
+                page.add(response(i));
+            }
+            return page;
+        });
+    }
+
+    private static RestaurantResponse response(long n) {
+        return new RestaurantResponse(restaurantId(n), "Restaurant " + n, "MG Road, Bangalore", "9800000001",
+                12.9756, 77.6066, CuisineType.INDIAN, RestaurantStatus.ACTIVE, true, CREATED_AT, CREATED_AT);
+    }
+
+    private static Restaurant entity(long n) {
+        return Restaurant.builder()
+                .id(restaurantId(n))
+                .name("Restaurant " + n)
+                .address("MG Road, Bangalore")
+                .phone("9800000001")
+                .latitude(12.9756)
+                .longitude(77.6066)
+                .cuisineType(CuisineType.INDIAN)
+                .status(RestaurantStatus.ACTIVE)
+                .active(true)
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .build();
+    }
+
+    private static UUID restaurantId(long n) {
+        return new UUID(0L, n);
+    }
+}
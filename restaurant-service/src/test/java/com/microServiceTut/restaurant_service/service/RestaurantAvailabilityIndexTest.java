@@ -0,0 +1,316 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.model.OpeningWindow;
+import com.microServiceTut.restaurant_service.model.WeeklySchedule;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantAvailability;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantAvailabilityIndexTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantAvailabilityIndexTest.class);
+
+    private static final ZoneId KOLKATA = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    // A Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    private RestaurantRepository restaurantRepository;
+    private RestaurantAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        restaurantRepository = mock(RestaurantRepository.class);
+        index = new RestaurantAvailabilityIndex(restaurantRepository, "Asia/Kolkata", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void isOpenAt_WindowEdges_OpensInclusiveClosesExclusive() {
+        // Given
+        WeeklySchedule schedule = schedule("MON 09:00-22:00");
+
+        // When / Then
+        assertThat(schedule.isOpenAt(MONDAY.withHour(8).withMinute(59))).isFalse();
+        assertThat(schedule.isOpenAt(MONDAY.withHour(9))).isTrue();
+        assertThat(schedule.isOpenAt(MONDAY.withHour(21).withMinute(59))).isTrue();
+        assertThat(schedule.isOpenAt(MONDAY.withHour(22))).isFalse();
+        assertThat(schedule.isOpenAt(MONDAY.plusDays(1).withHour(12))).isFalse();
+    }
+
+    @Test
+    void isOpenAt_PastMidnight_RunsIntoNextDayAndWrapsTheWeek() {
+        WeeklySchedule lateNight = schedule("SAT 18:00-02:00,SUN 23:00-01:00");
+        LocalDateTime sunday = MONDAY.minusDays(1);
+
+        assertThat(lateNight.isOpenAt(sunday.withHour(1).withMinute(59))).isTrue();
+        assertThat(lateNight.isOpenAt(sunday.withHour(2))).isFalse();
+        // Sunday's window carries into Monday, the start of the next week
+        assertThat(lateNight.isOpenAt(MONDAY.withHour(0).withMinute(30))).isTrue();
+        assertThat(lateNight.isOpenAt(MONDAY.withHour(1))).isFalse();
+    }
+
+    @Test
+    void isOpenAt_OpensEqualsCloses_OpenForTwentyFourHours() {
+        WeeklySchedule allDay = schedule("TUE 00:00-00:00");
+        LocalDateTime tuesday = MONDAY.plusDays(1);
+
+        assertThat(allDay.isOpenAt(tuesday)).isTrue();
+        assertThat(allDay.isOpenAt(tuesday.withHour(23).withMinute(59))).isTrue();
+        assertThat(allDay.isOpenAt(tuesday.plusDays(1))).isFalse();
+        assertThat(allDay.isOpenAt(MONDAY.withHour(23).withMinute(59))).isFalse();
+    }
+
+    @Test
+    void nextChangeAfter_OpeningInsideSpringForwardGap_IsWhenTheGapEnds() {
+        // 2025-03-09 02:00 does not exist in New York; clocks jump from 02:00 EST to 03:00 EDT
+        WeeklySchedule schedule = schedule("SUN 02:30-05:00");
+        Instant oneAm = LocalDateTime.of(2025, 3, 9, 1, 0).atZone(NEW_YORK).toInstant();
+
+        Instant next = schedule.nextChangeAfter(oneAm, NEW_YORK);
+
+        assertThat(next).isEqualTo(Instant.parse("2025-03-09T07:00:00Z"));
+        assertThat(schedule.isOpenAt(LocalDateTime.ofInstant(next, NEW_YORK))).isTrue();
+    }
+
+    @Test
+    void format_RoundTripsThroughParse() {
+        WeeklySchedule schedule = new WeeklySchedule(List.of(
+                new OpeningWindow(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(22, 30)),
+                new OpeningWindow(DayOfWeek.SATURDAY, LocalTime.of(18, 0), LocalTime.of(2, 0))));
+
+        assertThat(schedule.format()).isEqualTo("MON 09:00-22:30,SAT 18:00-02:00");
+        assertThat(WeeklySchedule.parse(schedule.format())).isEqualTo(schedule);
+    }
+
+    @Test
+    void recomputeDue_FlipsAtOpeningAndClosingInRestaurantZone() {
+        UUID bangalore = UUID.randomUUID();
+        UUID newYork = UUID.randomUUID();
+        WeeklySchedule hours = schedule("MON 09:00-22:00");
+        Instant beforeOpening = MONDAY.withHour(8).atZone(KOLKATA).toInstant();
+        index.apply(new Row(bangalore, true, null, hours, null, 0), beforeOpening);
+        index.apply(new Row(newYork, true, "America/New_York", hours, null, 0), beforeOpening);
+
+        assertThat(index.isAcceptingOrders(bangalore)).isFalse();
+        assertThat(index.recomputeDue(MONDAY.withHour(9).atZone(KOLKATA).toInstant())).isEqualTo(1);
+        assertThat(index.isAcceptingOrders(bangalore)).isTrue();
+        assertThat(index.isAcceptingOrders(newYork)).isFalse();
+
+        // 09:00 in New York is 18:30 in Bangalore
+        index.recomputeDue(MONDAY.withHour(9).atZone(NEW_YORK).toInstant());
+        assertThat(index.isAcceptingOrders(newYork)).isTrue();
+        index.recomputeDue(MONDAY.withHour(22).atZone(KOLKATA).toInstant());
+        assertThat(index.isAcceptingOrders(bangalore)).isFalse();
+        assertThat(index.isAcceptingOrders(newYork)).isTrue();
+    }
+
+    @Test
+    void apply_LoadAtCapacityOrInactive_NotAccepting() {
+        UUID id = UUID.randomUUID();
+        Instant now = MONDAY.withHour(12).atZone(KOLKATA).toInstant();
+
+        assertThat(index.isAcceptingOrders(id)).isNull();
+        index.apply(new Row(id, true, null, null, 3, 2), now);
+        assertThat(index.isAcceptingOrders(id)).isTrue();
+
+        index.apply(new Row(id, true, null, null, 3, 3), now);
+        assertThat(index.isAcceptingOrders(id)).isFalse();
+
+        // An owner edit carries the load the entity was read with; the index keeps its own
+        index.apply(id, true, null, null, 5, 0, null, now);
+        assertThat(index.isAcceptingOrders(id)).isTrue();
+        index.apply(id, true, null, null, 3, 0, null, now);
+        assertThat(index.isAcceptingOrders(id)).isFalse();
+
+        index.apply(new Row(id, false, null, null, null, 0), now);
+        assertThat(index.isAcceptingOrders(id)).isFalse();
+    }
+
+    @Test
+    void apply_OlderLoadCommittedLast_Ignored() {
+        UUID id = UUID.randomUUID();
+        Instant now = MONDAY.withHour(12).atZone(KOLKATA).toInstant();
+        LocalDateTime first = MONDAY.withHour(11);
+        LocalDateTime second = first.plusNanos(1_000);
+
+        // Two orders' after-commit updates, the second one's running first
+        index.apply(new Row(id, true, null, null, 2, 2, second), now);
+        index.apply(new Row(id, true, null, null, 2, 1, first), now);
+
+        assertThat(index.isAcceptingOrders(id)).isFalse();
+        index.apply(new Row(id, true, null, null, 2, 1, second.plusNanos(1_000)), now);
+        assertThat(index.isAcceptingOrders(id)).isTrue();
+    }
+
+    @Test
+    void apply_RepeatedUpdates_BoundaryQueuedOnce() {
+        UUID id = UUID.randomUUID();
+        Instant eight = MONDAY.withHour(8).atZone(KOLKATA).toInstant();
+        WeeklySchedule hours = schedule("MON 09:00-22:00");
+
+        for (int load = 0; load < 1_000; load++) {
+            index.apply(new Row(id, true, null, hours, 50, load % 10), eight);
+        }
+        assertThat(index.queuedBoundaries()).isEqualTo(1);
+
+        index.apply(new Row(id, true, null, schedule("MON 10:00-22:00"), 50, 0), eight);
+        assertThat(index.queuedBoundaries()).isEqualTo(1);
+        assertThat(index.recomputeDue(MONDAY.withHour(10).atZone(KOLKATA).toInstant())).isEqualTo(1);
+        assertThat(index.isAcceptingOrders(id)).isTrue();
+    }
+
+    @Test
+    void recomputeDue_ScheduleChanged_OldBoundaryIgnored() {
+        UUID id = UUID.randomUUID();
+        Instant eight = MONDAY.withHour(8).atZone(KOLKATA).toInstant();
+        index.apply(new Row(id, true, null, schedule("MON 09:00-22:00"), null, 0), eight);
+        // Hours moved to open at 10:00 before 09:00 came round
+        index.apply(new Row(id, true, null, schedule("MON 10:00-22:00"), null, 0), eight);
+
+        assertThat(index.recomputeDue(MONDAY.withHour(9).atZone(KOLKATA).toInstant())).isZero();
+        assertThat(index.isAcceptingOrders(id)).isFalse();
+        assertThat(index.recomputeDue(MONDAY.withHour(10).atZone(KOLKATA).toInstant())).isEqualTo(1);
+        assertThat(index.isAcceptingOrders(id)).isTrue();
+    }
+
+    @Test
+    void rebuild_LoadsEveryPage() {
+        List<RestaurantAvailability> rows = new ArrayList<>();
+        for (int i = 1; i <= 12_000; i++) {
+            rows.add(new Row(new UUID(0, i), i % 2 == 0, null, null, null, 0));
+        }
+        when(restaurantRepository.findAvailabilityAfter(any(UUID.class), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0, UUID.class).getLeastSignificantBits();
+            int limit = invocation.getArgument(1, Limit.class).max();
+            return rows.subList((int) Math.min(after, rows.size()), (int) Math.min(after + limit, rows.size()));
+        });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(12_000);
+        assertThat(index.isAcceptingOrders(new UUID(0, 11_999))).isFalse();
+        assertThat(index.isAcceptingOrders(new UUID(0, 12_000))).isTrue();
+    }
+
+    @Test
+    void benchmark_HundredThousandRestaurants_RecomputeAndLookup() {
+        // Given - 100k restaurants, each open every day with its own hours, all opening at 09:00
+        int size = 100_000;
+        List<Row> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder week = new StringBuilder();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (!week.isEmpty()) week.append(',');
+                week.append(day.name(), 0, 3).append(" 09:00-").append(20 + i % 4).append(":00");
+            }
+            rows.add(new Row(new UUID(0, i), true, null, WeeklySchedule.parse(week.toString()), 40, i % 50));
+        }
+        Instant beforeOpening = MONDAY.withHour(8).atZone(KOLKATA).toInstant();
+        Instant opening = MONDAY.withHour(9).atZone(KOLKATA).toInstant();
+
+        // When - initial load, then the 09:00 boundary recomputing every restaurant at once
+        long start = System.nanoTime();
+        for (Row row : rows) {
+            index.apply(row, beforeOpening);
+        }
+        long loadNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int recomputed = index.recomputeDue(opening);
+        long recomputeNanos = System.nanoTime() - start;
+
+        // Order-flow checks: the bit, against evaluating hours and load on every call (which
+        // without the index would also mean reading the row first)
+        int checks = 1_000_000;
+        Instant lunch = MONDAY.withHour(13).atZone(KOLKATA).toInstant();
+        start = System.nanoTime();
+        int accepting = 0;
+        for (int i = 0; i < checks; i++) {
+            if (index.isAcceptingOrders(rows.get(i % size).id())) accepting++;
+        }
+        long lookupNanos = (System.nanoTime() - start) / checks;
+
+        start = System.nanoTime();
+        int evaluated = 0;
+        for (int i = 0; i < checks; i++) {
+            if (index.evaluate(rows.get(i % size), lunch)) evaluated++;
+        }
+        long evaluateNanos = (System.nanoTime() - start) / checks;
+
+        log.info("{} restaurants: load {} ms, 09:00 recompute of {} in {} ms; check {} ns via bit, {} ns evaluated",
+                size, loadNanos / 1_000_000, recomputed, recomputeNanos / 1_000_000, lookupNanos, evaluateNanos);
+
+        // Then
+        assertThat(recomputed).isEqualTo(size);
+        assertThat(accepting).isEqualTo(evaluated).isPositive();
+        assertThat(recomputeNanos).isLessThan(Duration.ofSeconds(5).toNanos());
+        assertThat(lookupNanos).isLessThan(1_000);
+    }
+
+    private static WeeklySchedule schedule(String hours) {
+        return WeeklySchedule.parse(hours);
+    }
+
+    private record Row(UUID id, boolean active, String timeZone, WeeklySchedule openingHours,
+                       Integer kitchenCapacity, int kitchenLoad, LocalDateTime updatedAt) implements RestaurantAvailability {
+
+        Row(UUID id, boolean active, String timeZone, WeeklySchedule openingHours, Integer kitchenCapacity, int kitchenLoad) {
+            this(id, active, timeZone, openingHours, kitchenCapacity, kitchenLoad, MONDAY);
+        }
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public String getTimeZone() {
+            return timeZone;
+        }
+
+        @Override
+        public WeeklySchedule getOpeningHours() {
+            return openingHours;
+        }
+
+        @Override
+        public Integer getKitchenCapacity() {
+            return kitchenCapacity;
+        }
+
+        @Override
+        public int getKitchenLoad() {
+            return kitchenLoad;
+        }
+
+        @Override
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.config.CacheConstants;
+import com.microServiceTut.restaurant_service.dto.response.RestaurantResponse;
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.model.Restaurant;
+import com.microServiceTut.restaurant_service.model.RestaurantStatus;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RestaurantCacheTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantCacheTest.class);
+
+    // Stand-in for the restaurants table
+    private final Map<UUID, Restaurant> table = new ConcurrentHashMap<>();
+    private RestaurantRepository restaurantRepository;
+    private CacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private RestaurantCache cache;
+
+    @BeforeEach
+    void setUp() {
+        restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<UUID>getArgument(0))).map(RestaurantCacheTest::copy));
+        when(restaurantRepository.findAllById(any()))
+                .thenAnswer(invocation -> {
+                    List<Restaurant> found = new ArrayList<>();
+                    for (UUID id : invocation.<Iterable<UUID>>getArgument(0)) {
+                        Optional.ofNullable(table.get(id)).map(RestaurantCacheTest::copy).ifPresent(found::add);
+                    }
+                    return found;
+                });
+        when(restaurantRepository.findByActiveTrue())
+                .thenAnswer(invocation -> table.values().stream().filter(Restaurant::isActive).map(RestaurantCacheTest::copy).toList());
+        cacheManager = new ConcurrentMapCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = newCache(meterRegistry);
+    }
+
+    @Test
+    void get_SecondLookup_ServedFromCache() {
+        // Given
+        Restaurant restaurant = save(UUID.randomUUID(), true);
+
+        // When
+        RestaurantResponse first = cache.get(restaurant.getId());
+        RestaurantResponse second = cache.get(restaurant.getId());
+
+        // Then
+        assertThat(first.getName()).isEqualTo(second.getName());
+        verify(restaurantRepository, times(1)).findById(restaurant.getId());
+    }
+
+    @Test
+    void getAll_MissesLoadedInOneQuery_RequestOrderKept() {
+        Restaurant cached = save(UUID.randomUUID(), true);
+        Restaurant first = save(UUID.randomUUID(), true);
+        Restaurant second = save(UUID.randomUUID(), false);
+        cache.get(cached.getId());
+
+        List<RestaurantResponse> found = cache.getAll(List.of(first.getId(), UUID.randomUUID(), cached.getId(),
+                second.getId(), first.getId()));
+
+        assertThat(found).extracting(RestaurantResponse::getId)
+                .containsExactly(first.getId(), cached.getId(), second.getId());
+        verify(restaurantRepository, times(1)).findAllById(any());
+        // The loaded ones are now cached too
+        assertThat(cache.getAll(List.of(first.getId(), second.getId()))).hasSize(2);
+        verify(restaurantRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void apply_Approval_PatchesListWithoutRebuild() {
+        Restaurant open = save(UUID.randomUUID(), true);
+        Restaurant pending = save(UUID.randomUUID(), false);
+        assertThat(cache.getActive()).extracting(RestaurantResponse::getId).containsExactly(open.getId());
+
+        cache.apply(approve(pending));
+
+        assertThat(cache.getActive()).extracting(RestaurantResponse::getId)
+                .containsExactlyInAnyOrder(open.getId(), pending.getId());
+        assertThat(cache.get(pending.getId()).isActive()).isTrue();
+        assertThat(rebuilds()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_OlderVersion_NeverReplacesNewer() {
+        Restaurant restaurant = save(UUID.randomUUID(), true);
+        cache.getActive();
+        Restaurant stale = copy(restaurant);
+        Restaurant closed = copy(restaurant);
+        closed.setActive(false);
+        closed.setVersion(restaurant.getVersion() + 1);
+
+        // Commit callbacks from two writes arriving out of order
+        cache.apply(closed);
+        cache.apply(stale);
+
+        assertThat(cache.getActive()).isEmpty();
+        assertThat(cache.get(restaurant.getId()).isActive()).isFalse();
+    }
+
+    @Test
+    void apply_ConcurrentVersions_NewestLandsLast() throws InterruptedException {
+        Restaurant restaurant = save(UUID.randomUUID(), true);
+        List<RestaurantCache> instances = List.of(cache, newCache(meterRegistry), newCache(meterRegistry), newCache(meterRegistry));
+        long newest = restaurant.getVersion() + 2_000;
+
+        // Every version of one restaurant applied from four instances in a different order each
+        ExecutorService executor = Executors.newFixedThreadPool(instances.size());
+        CountDownLatch start = new CountDownLatch(1);
+        for (RestaurantCache instance : instances) {
+            List<Long> versions = new ArrayList<>();
+            for (long version = restaurant.getVersion(); version <= newest; version++) {
+                versions.add(version);
+            }
+            Collections.shuffle(versions);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (long version : versions) {
+                    Restaurant saved = copy(restaurant);
+                    saved.setVersion(version);
+                    saved.setName("Version " + version);
+                    instance.apply(saved);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.get(restaurant.getId()).getName()).isEqualTo("Version " + newest);
+    }
+
+    @Test
+    void apply_ManyWrites_OnlyNewestSnapshotsKept() {
+        List<Restaurant> pending = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pending.add(save(UUID.randomUUID(), false));
+        }
+        cache.getActive();
+
+        pending.forEach(restaurant -> cache.apply(approve(restaurant)));
+
+        // Only the two newest full copies; older versions are left as markers
+        Map<?, ?> stored = ((ConcurrentMapCache) cacheManager.getCache(CacheConstants.RESTAURANTS_ACTIVE_LIST)).getNativeCache();
+        assertThat(stored.values()).filteredOn(RestaurantCache.ActiveSnapshot.class::isInstance).hasSize(2);
+        assertThat(cache.getActive()).hasSize(pending.size());
+        assertThat(rebuilds()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_ConcurrentInstances_NoLostWrites() throws InterruptedException {
+        List<Restaurant> pending = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            pending.add(save(UUID.randomUUID(), false));
+        }
+        // Four instances sharing one cache, all patching the same list
+        List<RestaurantCache> instances = List.of(cache, newCache(meterRegistry), newCache(meterRegistry), newCache(meterRegistry));
+        cache.getActive();
+
+        ExecutorService executor = Executors.newFixedThreadPool(instances.size());
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < instances.size(); t++) {
+            RestaurantCache instance = instances.get(t);
+            int first = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = first; i < pending.size(); i += instances.size()) {
+                    instance.apply(approve(pending.get(i)));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.getActive()).hasSize(pending.size());
+        assertThat(rebuilds()).isEqualTo(1);
+    }
+
+    @Test
+    void benchmark_ApprovalWorkflow_ListRebuilds() {
+        // Given - an admin works through a queue of pending restaurants while customers browse
+        int approvals = 500;
+        int readsPerApproval = 20;
+        List<Restaurant> pending = new ArrayList<>();
+        for (int i = 0; i < approvals; i++) {
+            save(UUID.randomUUID(), true);
+            pending.add(save(UUID.randomUUID(), false));
+        }
+
+        // When - allEntries eviction: every write drops the list and the next read rebuilds it
+        long start = System.nanoTime();
+        runWorkflow(pending, readsPerApproval, true);
+        long evictNanos = System.nanoTime() - start;
+        double evictRebuilds = rebuilds();
+
+        // Reset the table, then the same workflow with snapshots patched in place
+        pending.forEach(restaurant -> save(restaurant.getId(), false));
+        cacheManager = new ConcurrentMapCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = newCache(meterRegistry);
+        start = System.nanoTime();
+        runWorkflow(pending, readsPerApproval, false);
+        long patchNanos = System.nanoTime() - start;
+        double patchRebuilds = rebuilds();
+
+        log.info("{} approvals, {} reads each: allEntries eviction {} rebuilds in {} ms, patched snapshots {} rebuilds in {} ms",
+                approvals, readsPerApproval, (long) evictRebuilds, evictNanos / 1_000_000,
+                (long) patchRebuilds, patchNanos / 1_000_000);
+
+        // Then
+        assertThat(evictRebuilds).isEqualTo(approvals + 1);
+        assertThat(patchRebuilds).isEqualTo(1);
+        assertThat(cache.getActive()).hasSize(approvals * 2);
+    }
+
+    private void runWorkflow(List<Restaurant> pending, int readsPerApproval, boolean evictOnWrite) {
+        cache.getActive();
+        for (Restaurant restaurant : pending) {
+            Restaurant approved = approve(restaurant);
+            if (evictOnWrite) {
+                cacheManager.getCache(CacheConstants.RESTAURANTS_ACTIVE_LIST).clear();
+            } else {
+                cache.apply(approved);
+            }
+            for (int read = 0; read < readsPerApproval; read++) {
+                assertThat(cache.getActive()).isNotEmpty();
+            }
+        }
+    }
+
+    private RestaurantCache newCache(SimpleMeterRegistry registry) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<CacheManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(cacheManager);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedisTemplate<String, Object>> redisTemplate = mock(ObjectProvider.class);
+        return new RestaurantCache(restaurantRepository, provider, redisTemplate, registry);
+    }
+
+    private Restaurant save(UUID id, boolean active) {
+        Restaurant previous = table.get(id);
+        Restaurant restaurant = Restaurant.builder()
+                .id(id)
+                .name("Restaurant " + id)
+                .address("MG Road, Bangalore")
+                .cuisineType(CuisineType.INDIAN)
+                .status(active ? RestaurantStatus.ACTIVE : RestaurantStatus.PENDING)
+                .active(active)
+                .version(previous == null ? 0 : previous.getVersion() + 1)
+                .build();
+        table.put(id, restaurant);
+        return copy(restaurant);
+    }
+
+    private Restaurant approve(Restaurant restaurant) {
+        return save(restaurant.getId(), true);
+    }
+
+    private double rebuilds() {
+        return meterRegistry.get(RestaurantCache.REBUILD_METRIC).counter().count();
+    }
+
+    private static Restaurant copy(Restaurant restaurant) {
+        return Restaurant.builder()
+                .id(restaurant.getId())
+                .name(restaurant.getName())
+                .address(restaurant.getAddress())
+                .cuisineType(restaurant.getCuisineType())
+                .status(restaurant.getStatus())
+                .active(restaurant.isActive())
+                .version(restaurant.getVersion())
+                .build();
+    }
+}
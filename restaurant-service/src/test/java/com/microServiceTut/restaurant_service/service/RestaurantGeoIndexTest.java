@@ -0,0 +1,291 @@
+package com.microServiceTut.restaurant_service.service;
+
+import com.microServiceTut.restaurant_service.model.CuisineType;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository;
+import com.microServiceTut.restaurant_service.repository.RestaurantRepository.RestaurantLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RestaurantGeoIndexTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantGeoIndexTest.class);
+
+    private static final CuisineType[] CUISINES = CuisineType.values();
+
+    private RestaurantRepository restaurantRepository;
+    private RestaurantGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        restaurantRepository = mock(RestaurantRepository.class);
+        index = new RestaurantGeoIndex(restaurantRepository, 0.02, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void findNearest_ReturnsClosestWithinRadiusNearestFirst() {
+        // Given - MG Road, Koramangala, Whitefield and Mysore
+        UUID mgRoad = add(12.9756, 77.6066, CuisineType.INDIAN);
+        UUID koramangala = add(12.9352, 77.6245, CuisineType.INDIAN);
+        UUID whitefield = add(12.9698, 77.7500, CuisineType.FAST_FOOD);
+        add(12.2958, 76.6394, CuisineType.INDIAN);
+
+        // When
+        List<RestaurantGeoIndex.Hit> hits = index.findNearest(12.9716, 77.5946, 20, null, 10);
+
+        // Then
+        assertThat(hits).extracting(RestaurantGeoIndex.Hit::restaurantId)
+                .containsExactly(mgRoad, koramangala, whitefield);
+        assertThat(hits.get(0).distanceKm()).isCloseTo(1.36, org.assertj.core.data.Offset.offset(0.05));
+    }
+
+    @Test
+    void findNearest_CuisineFilterAndDeactivation() {
+        UUID indian = add(12.9756, 77.6066, CuisineType.INDIAN);
+        UUID chinese = add(12.9784, 77.6408, CuisineType.CHINESE);
+
+        assertThat(index.findNearest(12.9716, 77.5946, 10, CuisineType.CHINESE, 10))
+                .extracting(RestaurantGeoIndex.Hit::restaurantId).containsExactly(chinese);
+
+        index.apply(chinese, 12.9784, 77.6408, CuisineType.CHINESE, false);
+        index.apply(indian, null, null, CuisineType.INDIAN, true);
+
+        assertThat(index.findNearest(12.9716, 77.5946, 10, null, 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void findNearest_RandomPoints_MatchesFullScan() {
+        Random random = new Random(42);
+        List<double[]> points = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        // Two clusters, one straddling the antimeridian
+        for (int i = 0; i < 20_000; i++) {
+            boolean wrap = i % 2 == 0;
+            double lat = wrap ? -17 + random.nextDouble() : 12.5 + random.nextDouble();
+            double lon = wrap ? 179.5 + random.nextDouble() : 77 + random.nextDouble();
+            if (lon > 180) lon -= 360;
+            UUID id = new UUID(0, i);
+            index.apply(id, lat, lon, CUISINES[i % CUISINES.length], true);
+            points.add(new double[]{lat, lon});
+            ids.add(id);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            boolean wrap = q % 2 == 0;
+            double lat = wrap ? -17 + random.nextDouble() : 12.5 + random.nextDouble();
+            double lon = wrap ? 179.5 + random.nextDouble() : 77 + random.nextDouble();
+            if (lon > 180) lon -= 360;
+            double radiusKm = 1 + random.nextInt(15);
+
+            List<UUID> expected = fullScan(points, ids, lat, lon, radiusKm, 20);
+            List<UUID> actual = index.findNearest(lat, lon, radiusKm, null, 20).stream()
+                    .map(RestaurantGeoIndex.Hit::restaurantId).toList();
+
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void findNearest_NearPoleAndAntimeridian_MatchesFullScanWithinBudget() {
+        Random random = new Random(7);
+        List<double[]> points = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        // Around the north pole at every longitude, and along the antimeridian at high latitude
+        for (int i = 0; i < 20_000; i++) {
+            boolean polar = i % 2 == 0;
+            double lat = polar ? 89 + random.nextDouble() : 70 + random.nextDouble();
+            double lon = polar ? -180 + 360 * random.nextDouble() : 179 + 2 * random.nextDouble();
+            if (lon > 180) lon -= 360;
+            UUID id = new UUID(0, i);
+            index.apply(id, lat, lon, CUISINES[i % CUISINES.length], true);
+            points.add(new double[]{lat, lon});
+            ids.add(id);
+        }
+
+        long slowestNanos = 0;
+        for (int q = 0; q < 60; q++) {
+            boolean polar = q % 2 == 0;
+            double lat = polar ? 89.9 + 0.1 * random.nextDouble() : 70 + random.nextDouble();
+            double lon = polar ? -180 + 360 * random.nextDouble() : 179.9 + 0.2 * random.nextDouble();
+            if (lon > 180) lon -= 360;
+            double radiusKm = 1 + random.nextInt(50);
+
+            List<UUID> expected = fullScan(points, ids, lat, lon, radiusKm, 20);
+            long start = System.nanoTime();
+            List<UUID> actual = index.findNearest(lat, lon, radiusKm, null, 20).stream()
+                    .map(RestaurantGeoIndex.Hit::restaurantId).toList();
+            if (q >= 10) {
+                slowestNanos = Math.max(slowestNanos, System.nanoTime() - start);
+            }
+
+            assertThat(actual).isEqualTo(expected);
+        }
+        log.info("Slowest polar/antimeridian query: {} ms", slowestNanos / 1_000_000.0);
+        assertThat(slowestNanos).isLessThan(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void rebuildThenSync_LoadsPagesAndAppliesRemoteChanges() {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        when(restaurantRepository.findLocationsAfter(any(UUID.class), any(Limit.class)))
+                .thenReturn(List.of(new Row(first, 12.97, 77.60, CuisineType.INDIAN, true),
+                        new Row(second, 12.98, 77.61, CuisineType.ITALIAN, true)));
+        when(restaurantRepository.findLocationsUpdatedAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(new Row(second, 12.98, 77.61, CuisineType.ITALIAN, false)));
+
+        assertThat(index.isReady()).isFalse();
+        index.rebuild();
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+
+        index.sync();
+
+        assertThat(index.findNearest(12.97, 77.60, 5, null, 10))
+                .extracting(RestaurantGeoIndex.Hit::restaurantId).containsExactly(first);
+    }
+
+    @Test
+    void rebuild_WriteDuringLoad_KeptInNewGrid() {
+        UUID loaded = new UUID(0, 1);
+        UUID written = new UUID(0, 2);
+        when(restaurantRepository.findLocationsAfter(eq(new UUID(0, 0)), any(Limit.class))).thenAnswer(invocation -> {
+            // A restaurant created on this instance while the scan is running
+            index.apply(written, 12.98, 77.61, CuisineType.INDIAN, true);
+            return List.of(new Row(loaded, 12.97, 77.60, CuisineType.INDIAN, true));
+        });
+
+        index.rebuild();
+
+        assertThat(index.findNearest(12.97, 77.60, 5, null, 10))
+                .extracting(RestaurantGeoIndex.Hit::restaurantId).containsExactly(loaded, written);
+    }
+
+    @Test
+    void benchmark_NearbyQuery_IndexVersusFullScan() {
+        long indexNanosAtMillion = 0;
+        long scanNanosAtMillion = 0;
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            // Given - restaurants spread over a 20 x 20 degree region (roughly India's extent)
+            RestaurantGeoIndex sized = new RestaurantGeoIndex(restaurantRepository, 0.02, Duration.ofSeconds(10));
+            Random random = new Random(size);
+            double[] lats = new double[size];
+            double[] lons = new double[size];
+            for (int i = 0; i < size; i++) {
+                lats[i] = 8 + random.nextDouble() * 20;
+                lons[i] = 70 + random.nextDouble() * 20;
+                sized.apply(new UUID(0, i), lats[i], lons[i], CUISINES[i % CUISINES.length], true);
+            }
+            double[][] queries = new double[1_000][];
+            for (int q = 0; q < queries.length; q++) {
+                queries[q] = new double[]{8 + random.nextDouble() * 20, 70 + random.nextDouble() * 20};
+            }
+            int scanQueries = size >= 1_000_000 ? 20 : 200;
+
+            // When
+            long start = System.nanoTime();
+            long found = 0;
+            for (double[] query : queries) {
+                found += sized.findNearest(query[0], query[1], 25, null, 20).size();
+            }
+            long indexNanos = (System.nanoTime() - start) / queries.length;
+
+            start = System.nanoTime();
+            long scanned = 0;
+            for (int q = 0; q < scanQueries; q++) {
+                scanned += fullScan(lats, lons, queries[q][0], queries[q][1], 25, 20);
+            }
+            long scanNanos = (System.nanoTime() - start) / scanQueries;
+
+            log.info("{} restaurants: index {} µs/query ({} hits), full scan {} µs/query ({} hits)",
+                    size, indexNanos / 1_000, found, scanNanos / 1_000, scanned);
+            if (size == 1_000_000) {
+                indexNanosAtMillion = indexNanos;
+                scanNanosAtMillion = scanNanos;
+            }
+        }
+
+        // Then - the scan grows with the table, the index with the restaurants near the caller
+        assertThat(indexNanosAtMillion * 50).isLessThan(scanNanosAtMillion);
+    }
+
+    private UUID add(double latitude, double longitude, CuisineType cuisineType) {
+        UUID id = UUID.randomUUID();
+        index.apply(id, latitude, longitude, cuisineType, true);
+        return id;
+    }
+
+    private static List<UUID> fullScan(List<double[]> points, List<UUID> ids, double lat, double lon,
+                                       double radiusKm, int limit) {
+        List<Integer> matches = new ArrayList<>();
+        double[] distances = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            distances[i] = RestaurantGeoIndex.distanceKm(lat, lon, points.get(i)[0], points.get(i)[1]);
+            if (distances[i] <= radiusKm) matches.add(i);
+        }
+        matches.sort(Comparator.comparingDouble(i -> distances[i]));
+        return matches.stream().limit(limit).map(ids::get).toList();
+    }
+
+    /**
+     * What findNearbyRestaurants would do over a list of every active restaurant.
+     */
+    private static int fullScan(double[] lats, double[] lons, double lat, double lon, double radiusKm, int limit) {
+        double[] distances = new double[lats.length];
+        int matches = 0;
+        for (int i = 0; i < lats.length; i++) {
+            double distance = RestaurantGeoIndex.distanceKm(lat, lon, lats[i], lons[i]);
+            if (distance <= radiusKm) distances[matches++] = distance;
+        }
+        Arrays.sort(distances, 0, matches);
+        return Math.min(matches, limit);
+    }
+
+    private record Row(UUID id, Double latitude, Double longitude, CuisineType cuisineType, boolean active)
+            implements RestaurantLocation {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        @Override
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        @Override
+        public CuisineType getCuisineType() {
+            return cuisineType;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
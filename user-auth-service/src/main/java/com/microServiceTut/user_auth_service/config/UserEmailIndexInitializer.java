@@ -0,0 +1,31 @@
+package com.microServiceTut.user_auth_service.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Case-insensitive unique index on users.email. ddl-auto cannot create expression indexes,
+ * so it is created here; login and register look emails up by lower(email).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserEmailIndexInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users (lower(email))");
+        } catch (DataAccessException e) {
+            // Existing emails that differ only in case must be merged by hand first
+            log.error("Could not create the lower(email) unique index: {}", e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.microServiceTut.user_auth_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microServiceTut.user_auth_service.dto.request.BatchGetUsersRequest;
 import com.microServiceTut.user_auth_service.dto.request.LoginRequest;
 import com.microServiceTut.user_auth_service.dto.request.RegisterRequest;
 import com.microServiceTut.user_auth_service.dto.request.UpdateProfileRequest;
 import com.microServiceTut.user_auth_service.dto.response.AuthResponse;
+import com.microServiceTut.user_auth_service.dto.response.RevokedTokenResponse;
 import com.microServiceTut.user_auth_service.dto.response.TokenValidationResponse;
+import com.microServiceTut.user_auth_service.dto.response.UserPageResponse;
 import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.security.SigningKeyRing;
 import com.microServiceTut.user_auth_service.service.AuthService;
+import com.microServiceTut.user_auth_service.service.TokenRevocationFeed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.UUID;
 
 @RestController
@@ -20,6 +38,9 @@ import java.util.UUID;
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenRevocationFeed tokenRevocationFeed;
+    private final SigningKeyRing signingKeyRing;
+    private final ObjectMapper objectMapper;
 
     /**
      * Register a new user.
@@ -58,6 +79,17 @@ public class AuthController {
         return authService.validateToken(token);
     }
 
+    /**
+     * Public keys for verifying issued tokens locally (RFC 7517 JWK Set).
+     * The next signing key is published ahead of rotation, so a short cache is safe.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<java.util.Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeyRing.jwks());
+    }
+
     /**
      * Logout user by blacklisting their JWT token
      * Token will be rejected on subsequent requests
@@ -77,6 +109,33 @@ public class AuthController {
         return java.util.Map.of("message", "Logged out successfully");
     }
 
+    // ==================== INTERNAL ENDPOINTS (API Gateway) ====================
+
+    /**
+     * Snapshot of revoked tokens, used by the gateway for periodic catch-up.
+     */
+    @GetMapping("/internal/revocations")
+    public java.util.List<RevokedTokenResponse> getRevokedTokens() {
+        return authService.getRevokedTokens();
+    }
+
+    /**
+     * Push stream of revocations made on this instance (SSE).
+     */
+    @GetMapping(value = "/internal/revocations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRevocations() {
+        return tokenRevocationFeed.subscribe();
+    }
+
+    /**
+     * Profiles for up to 500 user ids in one call, for services that would otherwise
+     * fetch them one by one. Unknown ids are left out of the result.
+     */
+    @PostMapping("/internal/users:batchGet")
+    public java.util.List<UserProfileResponse> batchGetUsers(@Valid @RequestBody BatchGetUsersRequest request) {
+        return authService.getUsersByIds(request.getIds());
+    }
+
     /**
      * Get user profile by ID
      */
@@ -107,6 +166,51 @@ public class AuthController {
         return authService.getUsersByRole(role);
     }
 
+    /**
+     * Keyset-paginated listing: pass the previous page's nextCursor as "after".
+     */
+    @GetMapping("/admin/users/page")
+    public UserPageResponse getUsersPage(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return authService.getUsersPage(role, after, limit);
+    }
+
+    /**
+     * Every user as newline-delimited JSON, written page by page so memory does not
+     * grow with the number of users and the first rows go out before the last are read.
+     */
+    @GetMapping(value = "/admin/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportUsers(@RequestParam(required = false) String role) {
+        // Checked before streaming starts: once the body is committed the status can no longer become 400
+        if (role != null) {
+            Role.fromName(role);
+        }
+        return outputStream -> writeUsersNdjson(role, outputStream);
+    }
+
+    void writeUsersNdjson(String role, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserProfileResponse.class);
+        OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+        try {
+            authService.forEachUserPage(role, page -> {
+                try {
+                    for (UserProfileResponse user : page) {
+                        out.write(writer.writeValueAsBytes(user));
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
     @PatchMapping("/admin/users/{userId}/block")
     public UserProfileResponse blockUser(@PathVariable UUID userId) {
         return authService.blockUser(userId);
@@ -0,0 +1,21 @@
+package com.microServiceTut.user_auth_service.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchGetUsersRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotNull(message = "ids is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids per request")
+    private List<UUID> ids;
+}
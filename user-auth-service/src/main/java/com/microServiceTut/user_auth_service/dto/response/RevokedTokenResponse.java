@@ -0,0 +1,17 @@
+package com.microServiceTut.user_auth_service.dto.response;
+
+import lombok.*;
+
+/**
+ * A blacklisted token as seen by the API Gateway's revocation replica.
+ * expiresAt is epoch millis; the gateway drops the entry once it has passed.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedTokenResponse {
+
+    private String tokenId;
+    private long expiresAt;
+}
@@ -0,0 +1,19 @@
+package com.microServiceTut.user_auth_service.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One keyset page of users. Pass nextCursor as "after" to get the next page;
+ * it is null on the last page.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageResponse {
+    private List<UserProfileResponse> users;
+    private UUID nextCursor;
+}
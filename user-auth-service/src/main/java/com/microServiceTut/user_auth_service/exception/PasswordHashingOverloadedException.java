@@ -0,0 +1,8 @@
+package com.microServiceTut.user_auth_service.exception;
+
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    public PasswordHashingOverloadedException() {
+        super("Too many login requests, please retry shortly");
+    }
+}
@@ -7,14 +7,23 @@ import com.microServiceTut.user_auth_service.dto.response.UserResponse;
 import com.microServiceTut.user_auth_service.model.Role;
 import com.microServiceTut.user_auth_service.model.User;
 
+import java.util.Locale;
+
 public final class UserMapper {
 
     private UserMapper() {}
 
+    /**
+     * Emails are stored and compared trimmed and lower-cased.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public static User toEntity(RegisterRequest request, String encodedPassword) {
         return User.builder()
                 .name(request.getName())
-                .email(request.getEmail())
+                .email(normalizeEmail(request.getEmail()))
                 .password(encodedPassword)
                 .role(request.getRole() != null ? request.getRole() : Role.USER)
                 .active(true)
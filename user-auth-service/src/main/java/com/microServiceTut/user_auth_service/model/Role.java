@@ -9,5 +9,17 @@ package com.microServiceTut.user_auth_service.model;
 public enum Role {
     USER,
     ADMIN,
-    RIDER
+    RIDER;
+
+    /**
+     * Case-insensitive lookup for request parameters; unknown names are a client error.
+     */
+    public static Role fromName(String name) {
+        for (Role role : values()) {
+            if (role.name().equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        throw new IllegalArgumentException("Unknown role: " + name);
+    }
 }
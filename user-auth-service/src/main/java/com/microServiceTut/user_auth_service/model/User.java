@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Keyset pages of one role: where role = ? and id > ? order by id
+        @Index(name = "idx_users_role_id", columnList = "role, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,42 @@
+package com.microServiceTut.user_auth_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row table of user counters, updated in the same transaction as the user
+ * write that changes them, so the admin stats are one primary-key read.
+ */
+@Entity
+@Table(name = "user_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStats {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long totalUsers;
+
+    @Column(nullable = false)
+    private long activeUsers;
+
+    @Column(nullable = false)
+    private long blockedUsers;
+
+    @Column(nullable = false)
+    private long totalAdmins;
+
+    @Column(nullable = false)
+    private long totalRiders;
+
+    private LocalDateTime reconciledAt;
+}
@@ -1,24 +1,88 @@
 package com.microServiceTut.user_auth_service.repository;
 
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
 import com.microServiceTut.user_auth_service.model.Role;
 import com.microServiceTut.user_auth_service.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    // Constructor projection: reads the profile columns only, no User entities in the persistence context
+    String PROFILE_PROJECTION = "select new com.microServiceTut.user_auth_service.dto.response.UserProfileResponse("
+            + "u.id, u.name, u.email, u.phone, u.address, u.role, u.createdAt) from User u";
+
+    // Emails are matched lower-cased, backed by the unique index on lower(email)
+    @Query("select u from User u where lower(u.email) = :email")
     Optional<User> findByEmail(String email);
 
+    @Query("select count(u) > 0 from User u where lower(u.email) = :email")
     boolean existsByEmail(String email);
 
+    /**
+     * Keyset page of (id, email), for rebuilding the registered-email filter without loading users.
+     */
+    @Query("select u.id as id, u.email as email from User u where u.id > :after order by u.id")
+    List<UserEmail> findEmailsAfter(UUID after, Limit limit);
+
     List<User> findByRole(Role role);
 
-    long countByActiveTrue();
+    /**
+     * All user counters in one scan, for reconciling the user_stats row.
+     */
+    @Query("select count(u) as totalUsers, "
+            + "coalesce(sum(case when u.active = true then 1 else 0 end), 0) as activeUsers, "
+            + "coalesce(sum(case when u.active = false then 1 else 0 end), 0) as blockedUsers, "
+            + "coalesce(sum(case when u.role = com.microServiceTut.user_auth_service.model.Role.ADMIN then 1 else 0 end), 0) as totalAdmins, "
+            + "coalesce(sum(case when u.role = com.microServiceTut.user_auth_service.model.Role.RIDER then 1 else 0 end), 0) as totalRiders "
+            + "from User u")
+    UserCounts countAll();
+
+    /**
+     * Set the active flag only if it differs, so concurrent block/unblock calls agree on
+     * which one changed it.
+     * @return 1 if the flag changed, 0 if it already had that value or the user does not exist
+     */
+    @Modifying
+    @Query("update User u set u.active = :active, u.updatedAt = :now where u.id = :id and u.active <> :active")
+    int updateActive(UUID id, boolean active, LocalDateTime now);
+
+    /**
+     * Replace the password hash only if it is still the one the caller verified, so a rehash
+     * at login never overwrites a password changed in the meantime.
+     * @return 1 if the hash was replaced
+     */
+    @Modifying
+    @Query("update User u set u.password = :replacement, u.updatedAt = :now where u.id = :id and u.password = :expected")
+    int updatePasswordIfUnchanged(UUID id, String expected, String replacement, LocalDateTime now);
+
+    @Query(PROFILE_PROJECTION + " where u.id in :ids")
+    List<UserProfileResponse> findProfilesByIdIn(Collection<UUID> ids);
+
+    @Query(PROFILE_PROJECTION + " where u.id > :after order by u.id")
+    List<UserProfileResponse> findProfilesAfter(UUID after, Limit limit);
+
+    @Query(PROFILE_PROJECTION + " where u.role = :role and u.id > :after order by u.id")
+    List<UserProfileResponse> findProfilesByRoleAfter(Role role, UUID after, Limit limit);
 
-    long countByActiveFalse();
+    interface UserCounts {
+        long getTotalUsers();
+        long getActiveUsers();
+        long getBlockedUsers();
+        long getTotalAdmins();
+        long getTotalRiders();
+    }
 
-    long countByRole(Role role);
+    interface UserEmail {
+        UUID getId();
+        String getEmail();
+    }
 }
@@ -0,0 +1,23 @@
+package com.microServiceTut.user_auth_service.repository;
+
+import com.microServiceTut.user_auth_service.model.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, Integer> {
+
+    @Modifying
+    @Query("update UserStats s set s.totalUsers = s.totalUsers + :total, s.activeUsers = s.activeUsers + :active, "
+            + "s.blockedUsers = s.blockedUsers + :blocked, s.totalAdmins = s.totalAdmins + :admins, "
+            + "s.totalRiders = s.totalRiders + :riders where s.id = 1")
+    int applyDelta(long total, long active, long blocked, long admins, long riders);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserStats s where s.id = 1")
+    Optional<UserStats> findForUpdate();
+}
@@ -0,0 +1,29 @@
+package com.microServiceTut.user_auth_service.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signing key store for deployments without Redis (spring.cache.type=simple).
+ * Only suits a single instance, and keys do not survive a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "simple")
+public class InMemorySigningKeyStore implements SigningKeyStore {
+
+    private VersionedKeyRing stored = new VersionedKeyRing(0, null);
+
+    @Override
+    public synchronized VersionedKeyRing load() {
+        return stored;
+    }
+
+    @Override
+    public synchronized boolean compareAndSet(long expectedVersion, StoredKeyRing ring) {
+        if (stored.version() != expectedVersion) {
+            return false;
+        }
+        stored = new VersionedKeyRing(expectedVersion + 1, ring);
+        return true;
+    }
+}
@@ -9,21 +9,42 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.UUID;
 
+/**
+ * Issues and validates JWTs.
+ *
+ * Tokens are signed with the current key of the SigningKeyRing and carry its kid,
+ * so verifiers pick the public key from the JWKS. Tokens without a kid are checked
+ * against the shared HMAC secret (jwt.signing.algorithm=HS256, or issued before the switch).
+ */
 @Component
 public class JwtUtil {
 
     private final SecretKey secretKey;
     private final long expiration;
+    private final SigningKeyRing keyRing;
+    private final JwtParser parser;
 
-    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration) {
+    public JwtUtil(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration,
+                   SigningKeyRing keyRing) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expiration = expiration;
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        return kid == null ? secretKey : keyRing.find(kid);
+                    }
+                })
+                .build();
     }
 
     public long getExpirationTime() {
@@ -34,36 +55,63 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
         String jti = UUID.randomUUID().toString();
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .id(jti)
                 .subject(user.getId().toString())
                 .claim("email", user.getEmail())
                 .claim("role", user.getRole().name())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(secretKey)
-                .compact();
+                .expiration(expiryDate);
+        if (keyRing.isAsymmetric()) {
+            SigningKeyRing.SigningKey signingKey = keyRing.current();
+            builder.header().keyId(signingKey.kid()).and()
+                    .signWith(signingKey.privateKey(), keyRing.signatureAlgorithm());
+        } else {
+            builder.signWith(secretKey);
+        }
+        return builder.compact();
     }
 
-    public String getTokenId(String token) {
+    /**
+     * Verify the token once and extract everything the validate and logout flows need.
+     * Returns null if the token is invalid, expired or carries malformed claims.
+     */
+    public ParsedToken parse(String token) {
         Claims claims = validateToken(token);
-        if (claims != null && claims.getId() != null) {
-            return claims.getId();
+        if (claims == null || claims.getSubject() == null) {
+            return null;
         }
-        return hashToken(token);
+        try {
+            String roleStr = claims.get("role", String.class);
+            Date expiresAt = claims.getExpiration();
+            return new ParsedToken(
+                    claims.getId() != null ? claims.getId() : hashToken(token),
+                    UUID.fromString(claims.getSubject()),
+                    claims.get("email", String.class),
+                    roleStr != null ? Role.valueOf(roleStr) : null,
+                    expiresAt != null ? expiresAt.getTime() : System.currentTimeMillis() + expiration);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Blacklist key for a token: its jti, or a digest when it cannot be parsed.
+     */
+    public String getTokenId(String token) {
+        ParsedToken parsed = parse(token);
+        return parsed != null ? parsed.tokenId() : hashToken(token);
     }
 
     public long getRemainingExpirationTime(String token) {
-        Claims claims = validateToken(token);
-        if (claims != null && claims.getExpiration() != null) {
-            long expirationTime = claims.getExpiration().getTime();
-            long currentTime = System.currentTimeMillis();
-            return Math.max(0, expirationTime - currentTime);
-        }
-        return expiration;
+        ParsedToken parsed = parse(token);
+        return parsed != null ? parsed.remainingMillis() : expiration;
     }
 
-    private String hashToken(String token) {
+    /**
+     * Stand-in token id for tokens that cannot be parsed.
+     */
+    public String hashToken(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
@@ -75,33 +123,25 @@ public class JwtUtil {
 
     public Claims validateToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
 
     public UUID getUserIdFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims != null ? UUID.fromString(claims.getSubject()) : null;
+        ParsedToken parsed = parse(token);
+        return parsed != null ? parsed.userId() : null;
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims != null ? claims.get("email", String.class) : null;
+        ParsedToken parsed = parse(token);
+        return parsed != null ? parsed.email() : null;
     }
 
     public Role getRoleFromToken(String token) {
-        Claims claims = validateToken(token);
-        if (claims != null) {
-            String roleStr = claims.get("role", String.class);
-            return Role.valueOf(roleStr);
-        }
-        return null;
+        ParsedToken parsed = parse(token);
+        return parsed != null ? parsed.role() : null;
     }
 
     public boolean isTokenValid(String token) {
@@ -0,0 +1,25 @@
+package com.microServiceTut.user_auth_service.security;
+
+import com.microServiceTut.user_auth_service.model.Role;
+
+import java.util.UUID;
+
+/**
+ * Claims of a token whose signature and expiry have been verified once,
+ * carried through the validate and logout flows instead of re-parsing the token.
+ *
+ * @param tokenId   jti, or a digest of the token for tokens issued without one
+ * @param expiresAt expiry as epoch millis
+ */
+public record ParsedToken(
+        String tokenId,
+        UUID userId,
+        String email,
+        Role role,
+        long expiresAt
+) {
+
+    public long remainingMillis() {
+        return Math.max(0, expiresAt - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,171 @@
+package com.microServiceTut.user_auth_service.security;
+
+import com.microServiceTut.user_auth_service.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt password encoder that runs every hash on a small bounded worker pool.
+ *
+ * 1. Hashing never uses more than pool-size cores, so a login burst leaves CPU
+ *    for /validate and /profile on the other request threads
+ * 2. Once queue-capacity hashes are waiting, further requests fail fast with
+ *    PasswordHashingOverloadedException (503) instead of piling up
+ * 3. The BCrypt cost is tuned at startup to the largest strength that stays within
+ *    target-millis per hash; stored hashes with a lower cost report upgradeEncoding()
+ *    so login can rehash them
+ */
+@Component
+@Slf4j
+public class PasswordHasher implements PasswordEncoder {
+
+    public static final String QUEUE_WAIT_METRIC = "auth.password.hash.queue.wait";
+    public static final String HASH_TIME_METRIC = "auth.password.hash.duration";
+    public static final String REJECTED_METRIC = "auth.password.hash.rejected";
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeQueueWait;
+    private final Timer matchesQueueWait;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter rejected;
+
+    public PasswordHasher(@Value("${password.hashing.strength:0}") int configuredStrength,
+                          @Value("${password.hashing.target-millis:250}") long targetMillis,
+                          @Value("${password.hashing.pool-size:0}") int poolSize,
+                          @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.strength = configuredStrength > 0 ? configuredStrength : tuneStrength(targetMillis);
+        this.delegate = new BCryptPasswordEncoder(strength);
+
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeQueueWait = timer(QUEUE_WAIT_METRIC, "encode", meterRegistry);
+        this.matchesQueueWait = timer(QUEUE_WAIT_METRIC, "matches", meterRegistry);
+        this.encodeTime = timer(HASH_TIME_METRIC, "encode", meterRegistry);
+        this.matchesTime = timer(HASH_TIME_METRIC, "matches", meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Password hashes rejected because the worker queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a worker")
+                .register(meterRegistry);
+
+        log.info("Password hashing: BCrypt strength {}, {} workers, queue {}", strength, threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeQueueWait, encodeTime);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesQueueWait, matchesTime);
+    }
+
+    /**
+     * True when the stored hash was made with a lower cost than the tuned strength.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Supplier<T> hash, Timer queueWait, Timer hashTime) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return hash.get();
+                } finally {
+                    hashTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloadedException();
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Time one hash at the minimum cost and pick the largest strength within the target;
+     * each step up doubles the work.
+     */
+    private static int tuneStrength(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("warm-up");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double millisAtMin = (System.nanoTime() - start) / 1_000_000.0;
+        return strengthFor(millisAtMin, targetMillis);
+    }
+
+    static int strengthFor(double millisAtMinStrength, long targetMillis) {
+        int strength = MIN_STRENGTH;
+        double millis = millisAtMinStrength;
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    private static Timer timer(String name, String operation, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.microServiceTut.user_auth_service.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Signing key ring kept in Redis: auth:jwt:keyring holds the ring as JSON and
+ * auth:jwt:keyring:version its version. Both are read with one MGET and replaced
+ * together by scripts/keyring_cas.lua.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+public class RedisSigningKeyStore implements SigningKeyStore {
+
+    private static final String RING_KEY = "auth:jwt:keyring";
+    private static final String VERSION_KEY = "auth:jwt:keyring:version";
+
+    private static final RedisScript<Long> CAS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/keyring_cas.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisSigningKeyStore(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public VersionedKeyRing load() {
+        List<String> values = redisTemplate.opsForValue().multiGet(List.of(RING_KEY, VERSION_KEY));
+        if (values == null || values.get(0) == null || values.get(1) == null) {
+            return new VersionedKeyRing(0, null);
+        }
+        try {
+            return new VersionedKeyRing(Long.parseLong(values.get(1)),
+                    objectMapper.readValue(values.get(0), StoredKeyRing.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable signing key ring in Redis", e);
+        }
+    }
+
+    @Override
+    public boolean compareAndSet(long expectedVersion, StoredKeyRing ring) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(ring);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize signing key ring", e);
+        }
+        Long replaced = redisTemplate.execute(CAS_SCRIPT, List.of(RING_KEY, VERSION_KEY),
+                Long.toString(expectedVersion), json);
+        return replaced != null && replaced == 1L;
+    }
+}
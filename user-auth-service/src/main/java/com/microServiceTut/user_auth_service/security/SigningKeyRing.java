@@ -0,0 +1,361 @@
+package com.microServiceTut.user_auth_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asymmetric signing keys for issued JWTs, published as a JWKS so verifiers
+ * (API Gateway, other services) check signatures locally with only the public keys.
+ *
+ * Rotation keeps three kinds of key in the set:
+ * 1. current - signs new tokens
+ * 2. next - already published, so verifiers have it cached before it signs anything
+ * 3. retired - still published until every token it signed has expired
+ *
+ * The ring lives in a SigningKeyStore shared by all instances, so they sign with the same
+ * keys, publish the same JWKS and accept each other's tokens, also across restarts.
+ * Each instance reloads it every reload-interval (and on an unknown kid, at most once a
+ * second); whichever instance first finds a rotation due performs it, by compare-and-set.
+ *
+ * Private keys leave the instance only AES-GCM encrypted with jwt.keyring.encryption-key
+ * (bound to their kid), so read access to the store does not let anyone sign tokens.
+ */
+@Component
+@Slf4j
+public class SigningKeyRing {
+
+    public enum Algorithm {
+        HS256, ES256, EdDSA
+    }
+
+    private static final long MISS_RELOAD_INTERVAL_MILLIS = 1_000;
+
+    // Marks an encrypted private key; rings written before encryption hold plain PKCS#8
+    private static final String SEALED_PREFIX = "gcm:";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final Algorithm algorithm;
+    private final SigningKeyStore store;
+    private final long rotationIntervalMillis;
+    private final long retiredKeyTtlMillis;
+    private final Map<String, SigningKey> keys = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final SecretKey encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile SigningKey current;
+    private volatile SigningKey next;
+    private volatile Map<String, Object> jwks;
+    private volatile long lastMissReload;
+
+    public SigningKeyRing(@Value("${jwt.signing.algorithm:ES256}") Algorithm algorithm,
+                          @Value("${jwt.signing.rotation-interval:P1D}") Duration rotationInterval,
+                          @Value("${jwt.signing.reload-interval:PT30S}") Duration reloadInterval,
+                          @Value("${jwt.expiration}") long expiration,
+                          @Value("${jwt.keyring.encryption-key:${jwt.secret}}") String encryptionKey,
+                          SigningKeyStore store) {
+        this.algorithm = algorithm;
+        this.encryptionKey = deriveKey(encryptionKey);
+        this.store = store;
+        this.rotationIntervalMillis = rotationInterval.toMillis();
+        // Tokens live at most jwt.expiration past the rotation that retires their key
+        this.retiredKeyTtlMillis = expiration + TimeUnit.MINUTES.toMillis(1);
+
+        if (!isAsymmetric()) {
+            this.scheduler = null;
+            this.jwks = Map.of("keys", List.of());
+            log.info("JWT signing with shared HMAC secret, JWKS disabled");
+            return;
+        }
+
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Sign with keys of our own until the store is back; they stay valid here after that
+            log.warn("JWT signing key store unavailable, using local keys for now: {}", e.getMessage());
+            current = generate();
+            next = generate();
+            keys.put(current.kid(), current);
+            keys.put(next.kid(), next);
+            publish();
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        long intervalMillis = reloadInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("JWT signing with {} (kid={}, rotation every {})", algorithm, current.kid(), rotationInterval);
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != Algorithm.HS256;
+    }
+
+    public SigningKey current() {
+        return current;
+    }
+
+    /**
+     * Public key for a published kid, or null. An unknown kid reloads the shared ring first,
+     * in case another instance has rotated since the last reload.
+     */
+    public PublicKey find(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        SigningKey key = keys.get(kid);
+        long now = System.currentTimeMillis();
+        if (key == null && isAsymmetric() && now - lastMissReload >= MISS_RELOAD_INTERVAL_MILLIS) {
+            lastMissReload = now;
+            refreshQuietly();
+            key = keys.get(kid);
+        }
+        return key != null ? key.publicKey() : null;
+    }
+
+    /**
+     * The published key set as a JSON-ready map ({"keys": [...]}).
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    /**
+     * Promote next to current and retire the old current key, for every instance.
+     */
+    public synchronized void rotate() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        String retiring = current.kid();
+        update(true);
+        log.info("Rotated JWT signing key: {} -> {} ({} published)", retiring, current.kid(), keys.size());
+    }
+
+    /**
+     * Load the shared ring, creating it if there is none yet and rotating it if a rotation is due.
+     */
+    synchronized void refresh() {
+        update(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload JWT signing keys, keeping the current set: {}", e.getMessage());
+        }
+    }
+
+    private void update(boolean forceRotation) {
+        while (true) {
+            SigningKeyStore.VersionedKeyRing stored = store.load();
+            long now = System.currentTimeMillis();
+            SigningKeyStore.StoredKeyRing ring = stored.ring();
+            SigningKeyStore.StoredKeyRing replacement = null;
+            if (ring == null) {
+                SigningKey first = generate();
+                SigningKey second = generate();
+                replacement = new SigningKeyStore.StoredKeyRing(now, first.kid(), second.kid(),
+                        List.of(toStored(first), toStored(second)));
+            } else if (forceRotation || now - ring.rotatedAt() >= rotationIntervalMillis) {
+                replacement = rotated(ring, now);
+            }
+            if (replacement == null) {
+                apply(ring, now);
+                return;
+            }
+            if (store.compareAndSet(stored.version(), replacement)) {
+                apply(replacement, now);
+                return;
+            }
+            // Another instance created or rotated the ring first - start over from its version
+            forceRotation = false;
+        }
+    }
+
+    /**
+     * The ring after one rotation: next signs, current is retired, a new next is published.
+     */
+    private SigningKeyStore.StoredKeyRing rotated(SigningKeyStore.StoredKeyRing ring, long now) {
+        List<SigningKeyStore.StoredKey> kept = new ArrayList<>();
+        for (SigningKeyStore.StoredKey key : ring.keys()) {
+            if (key.retireAt() > 0 && key.retireAt() <= now) {
+                continue;
+            }
+            String privateKey = key.privateKey().startsWith(SEALED_PREFIX)
+                    ? key.privateKey()
+                    : seal(key.kid(), Base64.getDecoder().decode(key.privateKey()));
+            long retireAt = key.kid().equals(ring.currentKid()) ? now + retiredKeyTtlMillis : key.retireAt();
+            kept.add(new SigningKeyStore.StoredKey(key.kid(), key.publicKey(), privateKey, retireAt));
+        }
+        SigningKey newNext = generate();
+        kept.add(toStored(newNext));
+        return new SigningKeyStore.StoredKeyRing(now, ring.nextKid(), newNext.kid(), List.copyOf(kept));
+    }
+
+    private void apply(SigningKeyStore.StoredKeyRing ring, long now) {
+        Map<String, SigningKey> loaded = new LinkedHashMap<>();
+        for (SigningKeyStore.StoredKey stored : ring.keys()) {
+            SigningKey known = keys.get(stored.kid());
+            SigningKey key = known != null ? known : fromStored(stored);
+            loaded.put(key.kid(), key.retireAt(stored.retireAt()));
+        }
+        // Keys this instance used that are not in the shared ring (e.g. signed while the store was down)
+        // stay valid here until their tokens have expired
+        for (SigningKey local : keys.values()) {
+            if (!loaded.containsKey(local.kid())) {
+                long retireAt = local.retireAt() > 0 ? local.retireAt() : now + retiredKeyTtlMillis;
+                if (retireAt > now) {
+                    loaded.put(local.kid(), local.retireAt(retireAt));
+                }
+            }
+        }
+        current = loaded.get(ring.currentKid());
+        next = loaded.get(ring.nextKid());
+        keys.putAll(loaded);
+        keys.keySet().retainAll(loaded.keySet());
+        publish();
+    }
+
+    private SigningKey generate() {
+        KeyPair keyPair = algorithm == Algorithm.EdDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : Jwts.SIG.ES256.keyPair().build();
+        return toSigningKey(keyPair, 0);
+    }
+
+    private SigningKey toSigningKey(KeyPair keyPair, long retireAt) {
+        PublicJwk<PublicKey> jwk = Jwks.builder()
+                .key(keyPair.getPublic())
+                .algorithm(signatureAlgorithm().getId())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+        return new SigningKey(jwk.getId(), keyPair, jwk, retireAt);
+    }
+
+    private SigningKeyStore.StoredKey toStored(SigningKey key) {
+        return new SigningKeyStore.StoredKey(key.kid(),
+                Base64.getEncoder().encodeToString(key.publicKey().getEncoded()),
+                seal(key.kid(), key.privateKey().getEncoded()),
+                key.retireAt());
+    }
+
+    private SigningKey fromStored(SigningKeyStore.StoredKey stored) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm == Algorithm.EdDSA ? "Ed25519" : "EC");
+            Base64.Decoder decoder = Base64.getDecoder();
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decoder.decode(stored.publicKey())));
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(unseal(stored)));
+            return toSigningKey(new KeyPair(publicKey, privateKey), stored.retireAt());
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Unreadable signing key " + stored.kid() + " in the shared key ring", e);
+        }
+    }
+
+    /**
+     * The PKCS#8 encoding encrypted with AES-GCM, as "gcm:" + Base64(iv + ciphertext), with the kid
+     * as associated data so an entry cannot be moved to another kid.
+     */
+    private String seal(String kid, byte[] pkcs8) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(pkcs8);
+            return SEALED_PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key " + kid, e);
+        }
+    }
+
+    private byte[] unseal(SigningKeyStore.StoredKey stored) throws GeneralSecurityException {
+        if (!stored.privateKey().startsWith(SEALED_PREFIX)) {
+            return Base64.getDecoder().decode(stored.privateKey());
+        }
+        byte[] sealed = Base64.getDecoder().decode(stored.privateKey().substring(SEALED_PREFIX.length()));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+        cipher.updateAAD(stored.kid().getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES);
+    }
+
+    private static SecretKey deriveKey(String encryptionKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(encryptionKey.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public SignatureAlgorithm signatureAlgorithm() {
+        return algorithm == Algorithm.EdDSA ? Jwts.SIG.EdDSA : Jwts.SIG.ES256;
+    }
+
+    private void publish() {
+        List<Map<String, Object>> published = new ArrayList<>(keys.size());
+        for (SigningKey key : keys.values()) {
+            published.add(new LinkedHashMap<>(key.jwk()));
+        }
+        jwks = Map.of("keys", List.copyOf(published));
+    }
+
+    public record SigningKey(String kid, KeyPair keyPair, PublicJwk<PublicKey> jwk, long retireAt) {
+
+        public PrivateKey privateKey() {
+            return keyPair.getPrivate();
+        }
+
+        public PublicKey publicKey() {
+            return keyPair.getPublic();
+        }
+
+        SigningKey retireAt(long at) {
+            return new SigningKey(kid, keyPair, jwk, at);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.microServiceTut.user_auth_service.security;
+
+import java.util.List;
+
+/**
+ * Shared storage for the signing key ring, so every instance signs with the same current
+ * key and can verify tokens issued by any other (and by itself before a restart).
+ *
+ * The ring is replaced as a whole, and only by compare-and-set on its version, so
+ * concurrent rotations by several instances end with exactly one of them applied.
+ */
+public interface SigningKeyStore {
+
+    /**
+     * The stored ring with its version; version 0 and a null ring if none is stored yet.
+     */
+    VersionedKeyRing load();
+
+    /**
+     * Store the ring if the stored version is still expectedVersion.
+     * @return false if another instance replaced it first
+     */
+    boolean compareAndSet(long expectedVersion, StoredKeyRing ring);
+
+    record VersionedKeyRing(long version, StoredKeyRing ring) {}
+
+    record StoredKeyRing(long rotatedAt, String currentKid, String nextKid, List<StoredKey> keys) {}
+
+    /**
+     * One key pair: Base64 of its X.509 public encoding and its PKCS#8 private encoding,
+     * encrypted by SigningKeyRing. retireAt is 0 for keys still in use.
+     */
+    record StoredKey(String kid, String publicKey, String privateKey, long retireAt) {}
+}
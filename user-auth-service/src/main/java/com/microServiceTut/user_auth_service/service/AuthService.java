@@ -4,11 +4,15 @@ import com.microServiceTut.user_auth_service.dto.request.LoginRequest;
 import com.microServiceTut.user_auth_service.dto.request.RegisterRequest;
 import com.microServiceTut.user_auth_service.dto.request.UpdateProfileRequest;
 import com.microServiceTut.user_auth_service.dto.response.AuthResponse;
+import com.microServiceTut.user_auth_service.dto.response.RevokedTokenResponse;
 import com.microServiceTut.user_auth_service.dto.response.TokenValidationResponse;
+import com.microServiceTut.user_auth_service.dto.response.UserPageResponse;
 import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface AuthService {
 
@@ -31,6 +35,12 @@ public interface AuthService {
      */
     boolean isTokenBlacklisted(String token);
 
+    /**
+     * Snapshot of blacklisted tokens that have not expired yet.
+     * Used by the API Gateway to catch up its local revocation replica.
+     */
+    List<RevokedTokenResponse> getRevokedTokens();
+
     UserProfileResponse getProfile(UUID userId);
 
     UserProfileResponse updateProfile(UUID userId, UpdateProfileRequest request);
@@ -40,6 +50,23 @@ public interface AuthService {
 
     List<UserProfileResponse> getUsersByRole(String role);
 
+    /**
+     * Profiles for the given ids, in no particular order; unknown ids are left out.
+     */
+    List<UserProfileResponse> getUsersByIds(Collection<UUID> ids);
+
+    /**
+     * Keyset page of users ordered by id, optionally of one role.
+     * @param after id of the last user on the previous page, null for the first page
+     */
+    UserPageResponse getUsersPage(String role, UUID after, int limit);
+
+    /**
+     * Walk every user (optionally of one role) page by page, so the caller can stream
+     * them out without holding the whole list.
+     */
+    void forEachUserPage(String role, Consumer<List<UserProfileResponse>> pageConsumer);
+
     UserProfileResponse blockUser(UUID userId);
 
     UserProfileResponse unblockUser(UUID userId);
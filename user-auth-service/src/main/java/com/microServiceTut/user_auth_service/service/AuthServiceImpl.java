@@ -4,7 +4,9 @@ import com.microServiceTut.user_auth_service.dto.request.LoginRequest;
 import com.microServiceTut.user_auth_service.dto.request.RegisterRequest;
 import com.microServiceTut.user_auth_service.dto.request.UpdateProfileRequest;
 import com.microServiceTut.user_auth_service.dto.response.AuthResponse;
+import com.microServiceTut.user_auth_service.dto.response.RevokedTokenResponse;
 import com.microServiceTut.user_auth_service.dto.response.TokenValidationResponse;
+import com.microServiceTut.user_auth_service.dto.response.UserPageResponse;
 import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
 import com.microServiceTut.user_auth_service.exception.InvalidCredentialsException;
 import com.microServiceTut.user_auth_service.exception.UserAlreadyExistsException;
@@ -15,13 +17,22 @@ import com.microServiceTut.user_auth_service.model.Role;
 import com.microServiceTut.user_auth_service.model.User;
 import com.microServiceTut.user_auth_service.repository.UserRepository;
 import com.microServiceTut.user_auth_service.security.JwtUtil;
+import com.microServiceTut.user_auth_service.security.ParsedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -29,25 +40,53 @@ import java.util.UUID;
 @Slf4j
 public class AuthServiceImpl implements AuthService {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    // Lowest uuid in PostgreSQL ordering, the cursor before the first page
+    private static final UUID FIRST_CURSOR = new UUID(0L, 0L);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final TokenBlacklistServiceInterface tokenBlacklistService;
+    private final TokenRevocationFeed tokenRevocationFeed;
+    private final ProfileCache profileCache;
+    private final UserStatsCounter userStatsCounter;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * Runs outside a transaction: the lookup and the insert each hold a connection only for
+     * their own statement(s), never while the password is being hashed.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new UserAlreadyExistsException(request.getEmail());
+        // Check if email already exists; the filter rules out most new emails without a query
+        String email = UserMapper.normalizeEmail(request.getEmail());
+        if (registeredEmailFilter.mightBeRegistered(email)) {
+            if (userRepository.existsByEmail(email)) {
+                throw new UserAlreadyExistsException(request.getEmail());
+            }
+            registeredEmailFilter.recordFalsePositive();
         }
 
         // Hash password using BCrypt
         String encodedPassword = passwordEncoder.encode(request.getPassword());
 
-        // Create user entity
+        // Create user entity; the unique lower(email) index catches a concurrent registration
         User user = UserMapper.toEntity(request, encodedPassword);
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                User saved = userRepository.saveAndFlush(user);
+                userStatsCounter.recordRegistered(saved.getRole());
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new UserAlreadyExistsException(request.getEmail());
+        }
+        registeredEmailFilter.add(email);
 
         // Generate JWT token
         String token = jwtUtil.generateToken(savedUser);
@@ -55,11 +94,23 @@ public class AuthServiceImpl implements AuthService {
         return UserMapper.toAuthResponse(savedUser, token);
     }
 
+    /**
+     * Runs outside a transaction, like register: BCrypt verification and any rehash happen
+     * between the short read and the short write.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request) {
-        // Find user by email
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(InvalidCredentialsException::new);
+        // Find user by email; unknown emails are mostly turned away by the filter
+        String email = UserMapper.normalizeEmail(request.getEmail());
+        if (!registeredEmailFilter.mightBeRegistered(email)) {
+            throw new InvalidCredentialsException();
+        }
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> {
+                    registeredEmailFilter.recordFalsePositive();
+                    return new InvalidCredentialsException();
+                });
 
         // Verify password
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
@@ -71,6 +122,17 @@ public class AuthServiceImpl implements AuthService {
             throw new UserNotActiveException(user.getEmail());
         }
 
+        // Rehash at the current BCrypt cost while the plain password is at hand;
+        // skipped if the password was changed since it was read
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String rehashed = passwordEncoder.encode(request.getPassword());
+            Integer updated = transactionTemplate.execute(status -> userRepository.updatePasswordIfUnchanged(
+                    user.getId(), user.getPassword(), rehashed, LocalDateTime.now()));
+            if (updated != null && updated == 1) {
+                log.info("Rehashed password for user {} at the current cost", user.getId());
+            }
+        }
+
         // Generate JWT token
         String token = jwtUtil.generateToken(user);
 
@@ -79,30 +141,27 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public TokenValidationResponse validateToken(String token) {
-        // First check if token is blacklisted (user logged out)
-        if (isTokenBlacklisted(token)) {
-            log.warn("Token validation failed: token is blacklisted");
+        // Verify once; everything below reads the parsed claims
+        ParsedToken parsed = jwtUtil.parse(token);
+        if (parsed == null) {
             return TokenValidationResponse.builder()
                     .valid(false)
                     .build();
         }
 
-        // Validate token and extract claims
-        if (!jwtUtil.isTokenValid(token)) {
+        // Reject tokens that were logged out
+        if (tokenBlacklistService.isTokenBlacklisted(parsed.tokenId())) {
+            log.warn("Token validation failed: token is blacklisted");
             return TokenValidationResponse.builder()
                     .valid(false)
                     .build();
         }
 
-        UUID userId = jwtUtil.getUserIdFromToken(token);
-        String email = jwtUtil.getEmailFromToken(token);
-        Role role = jwtUtil.getRoleFromToken(token);
-
         return TokenValidationResponse.builder()
                 .valid(true)
-                .userId(userId)
-                .email(email)
-                .role(role)
+                .userId(parsed.userId())
+                .email(parsed.email())
+                .role(parsed.role())
                 .build();
     }
 
@@ -112,10 +171,13 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public void logout(String token) {
-        String tokenId = jwtUtil.getTokenId(token);
-        long remainingTime = jwtUtil.getRemainingExpirationTime(token);
+        ParsedToken parsed = jwtUtil.parse(token);
+        // Unparseable tokens are blacklisted by digest for the full token lifetime
+        String tokenId = parsed != null ? parsed.tokenId() : jwtUtil.hashToken(token);
+        long remainingTime = parsed != null ? parsed.remainingMillis() : jwtUtil.getExpirationTime();
         
         tokenBlacklistService.blacklistToken(tokenId, remainingTime);
+        tokenRevocationFeed.publish(tokenId, System.currentTimeMillis() + remainingTime);
         log.info("User logged out, token blacklisted: {}", tokenId);
     }
 
@@ -128,11 +190,21 @@ public class AuthServiceImpl implements AuthService {
         return tokenBlacklistService.isTokenBlacklisted(tokenId);
     }
 
+    @Override
+    public List<RevokedTokenResponse> getRevokedTokens() {
+        return tokenBlacklistService.getBlacklistedTokens().entrySet().stream()
+                .map(entry -> RevokedTokenResponse.builder()
+                        .tokenId(entry.getKey())
+                        .expiresAt(entry.getValue())
+                        .build())
+                .toList();
+    }
+
     @Override
     public UserProfileResponse getProfile(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId.toString()));
-        return UserMapper.toProfileResponse(user);
+        return profileCache.get(userId, () -> userRepository.findById(userId)
+                .map(UserMapper::toProfileResponse)
+                .orElseThrow(() -> new UserNotFoundException(userId.toString())));
     }
 
     @Override
@@ -152,6 +224,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         User updated = userRepository.save(user);
+        profileCache.invalidate(userId);
         return UserMapper.toProfileResponse(updated);
     }
 
@@ -166,36 +239,76 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public java.util.List<UserProfileResponse> getUsersByRole(String role) {
-        return userRepository.findByRole(Role.valueOf(role.toUpperCase())).stream()
+        return userRepository.findByRole(Role.fromName(role)).stream()
                 .map(UserMapper::toProfileResponse)
                 .toList();
     }
 
+    @Override
+    public List<UserProfileResponse> getUsersByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findProfilesByIdIn(ids);
+    }
+
+    @Override
+    public UserPageResponse getUsersPage(String role, UUID after, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        Role roleFilter = role != null ? Role.fromName(role) : null;
+        List<UserProfileResponse> users = findPage(roleFilter, after != null ? after : FIRST_CURSOR, pageSize);
+        UUID nextCursor = users.size() == pageSize ? users.get(users.size() - 1).getUserId() : null;
+        return new UserPageResponse(users, nextCursor);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachUserPage(String role, Consumer<List<UserProfileResponse>> pageConsumer) {
+        // One short read per page rather than a cursor held open for the whole walk
+        Role roleFilter = role != null ? Role.fromName(role) : null;
+        UUID after = FIRST_CURSOR;
+        List<UserProfileResponse> page;
+        do {
+            page = findPage(roleFilter, after, MAX_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            pageConsumer.accept(page);
+            after = page.get(page.size() - 1).getUserId();
+        } while (page.size() == MAX_PAGE_SIZE);
+    }
+
+    private List<UserProfileResponse> findPage(Role role, UUID after, int pageSize) {
+        return role != null
+                ? userRepository.findProfilesByRoleAfter(role, after, Limit.of(pageSize))
+                : userRepository.findProfilesAfter(after, Limit.of(pageSize));
+    }
+
     @Override
     @Transactional
     public UserProfileResponse blockUser(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId.toString()));
-        user.setActive(false);
-        return UserMapper.toProfileResponse(userRepository.save(user));
+        return setActive(userId, false);
     }
 
     @Override
     @Transactional
     public UserProfileResponse unblockUser(UUID userId) {
+        return setActive(userId, true);
+    }
+
+    private UserProfileResponse setActive(UUID userId, boolean active) {
+        boolean changed = userRepository.updateActive(userId, active, LocalDateTime.now()) == 1;
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId.toString()));
-        user.setActive(true);
-        return UserMapper.toProfileResponse(userRepository.save(user));
+        if (changed) {
+            userStatsCounter.recordActiveChanged(active);
+            profileCache.invalidate(userId);
+        }
+        return UserMapper.toProfileResponse(user);
     }
 
     @Override
     public UserStatsResponse getUserStats() {
-        long total = userRepository.count();
-        long active = userRepository.countByActiveTrue();
-        long blocked = userRepository.countByActiveFalse();
-        long admins = userRepository.countByRole(Role.ADMIN);
-        long riders = userRepository.countByRole(Role.RIDER);
-        return new UserStatsResponse(total, active, blocked, admins, riders);
+        return userStatsCounter.current();
     }
 }
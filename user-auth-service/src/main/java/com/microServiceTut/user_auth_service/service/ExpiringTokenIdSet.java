@@ -0,0 +1,285 @@
+package com.microServiceTut.user_auth_service.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Set of 128-bit token ids (UUID jtis) with per-entry expiry, stored in primitive arrays.
+ *
+ * 1. Open addressing with linear probing over parallel long[] hi / long[] lo / int[] expiry,
+ *    about 60 bytes per entry with its expiry bucket, instead of a prefixed String key,
+ *    a boxed Long and a map node (~150 bytes)
+ * 2. Expiry is bucketed by second: expire(now) pops only the buckets that are due, so a sweep
+ *    costs the number of tokens expiring, not the size of the set
+ * 3. Lookups are optimistic reads (StampedLock); writes and sweeps take the write lock,
+ *    one bucket at a time so a large sweep does not stall lookups for its whole length
+ */
+final class ExpiringTokenIdSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final float MAX_LOAD = 0.5f;
+
+    // Expiry is kept as seconds after this base so it fits an int; 0 marks an empty slot
+    private final long baseSecond;
+    private final StampedLock lock = new StampedLock();
+    private final TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+
+    private long[] hi;
+    private long[] lo;
+    private int[] expiry;
+    private int size;
+
+    ExpiringTokenIdSet(long nowMillis) {
+        this.baseSecond = nowMillis / 1000 - 1;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Add or extend an entry; an earlier expiry never shortens an existing one.
+     */
+    void add(long keyHi, long keyLo, long expiresAtMillis) {
+        int second = toSecond(expiresAtMillis);
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(keyHi, keyLo);
+            if (slot >= 0) {
+                if (expiry[slot] >= second) return;
+                expiry[slot] = second;
+            } else {
+                if (size + 1 > expiry.length * MAX_LOAD) {
+                    resize(expiry.length * 2);
+                }
+                insert(keyHi, keyLo, second);
+                size++;
+            }
+            buckets.computeIfAbsent(second, s -> new Bucket()).add(keyHi, keyLo);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean contains(long keyHi, long keyLo, long nowMillis) {
+        long stamp = lock.tryOptimisticRead();
+        int found = probe(keyHi, keyLo);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = probe(keyHi, keyLo);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        // Not yet swept, but already expired
+        return found > 0 && baseSecond + found > nowMillis / 1000;
+    }
+
+    void remove(long keyHi, long keyLo) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(keyHi, keyLo);
+            if (slot >= 0) {
+                delete(slot);
+            }
+            // The bucket entry goes stale and is skipped when it comes due
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop every entry whose expiry second has passed.
+     * @return number of entries removed
+     */
+    int expire(long nowMillis) {
+        int due = (int) (nowMillis / 1000 - baseSecond);
+        int removed = 0;
+        while (true) {
+            long stamp = lock.writeLock();
+            try {
+                Map.Entry<Integer, Bucket> first = buckets.firstEntry();
+                if (first == null || first.getKey() > due) {
+                    if (expiry.length > INITIAL_CAPACITY && size < expiry.length * MAX_LOAD / 8) {
+                        resize(expiry.length / 2);
+                    }
+                    return removed;
+                }
+                buckets.pollFirstEntry();
+                Bucket bucket = first.getValue();
+                for (int i = 0; i < bucket.size; i += 2) {
+                    int slot = find(bucket.keys[i], bucket.keys[i + 1]);
+                    // Skip entries that were removed or extended into a later bucket
+                    if (slot >= 0 && expiry[slot] <= due) {
+                        delete(slot);
+                        removed++;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Visit every entry that has not expired: (hi, lo, expiresAtMillis).
+     */
+    void forEach(long nowMillis, EntryConsumer consumer) {
+        long nowSecond = nowMillis / 1000;
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < expiry.length; i++) {
+                if (expiry[i] != 0 && baseSecond + expiry[i] > nowSecond) {
+                    consumer.accept(hi[i], lo[i], (baseSecond + expiry[i]) * 1000);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Bytes held by the table and pending expiry buckets, excluding object headers.
+     */
+    long footprintBytes() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = (long) expiry.length * (Long.BYTES * 2 + Integer.BYTES);
+            for (Bucket bucket : buckets.values()) {
+                bytes += (long) bucket.keys.length * Long.BYTES;
+            }
+            return bytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long keyHi, long keyLo, long expiresAtMillis);
+    }
+
+    private int toSecond(long expiresAtMillis) {
+        // Round up so an entry is never dropped before its expiry
+        long second = (expiresAtMillis + 999) / 1000 - baseSecond;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, second));
+    }
+
+    /**
+     * Expiry second of the key, 0 if absent. Safe under an optimistic read: the probe
+     * is bounded by the table length even if a concurrent write reshapes the arrays.
+     */
+    private int probe(long keyHi, long keyLo) {
+        long[] his = hi;
+        long[] los = lo;
+        int[] expiries = expiry;
+        int length = Math.min(expiries.length, Math.min(his.length, los.length));
+        int mask = length - 1;
+        int slot = home(keyHi, keyLo, mask);
+        for (int n = 0; n < length; n++) {
+            int e = expiries[slot];
+            if (e == 0) return 0;
+            if (his[slot] == keyHi && los[slot] == keyLo) return e;
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    private int find(long keyHi, long keyLo) {
+        int mask = expiry.length - 1;
+        int slot = home(keyHi, keyLo, mask);
+        while (expiry[slot] != 0) {
+            if (hi[slot] == keyHi && lo[slot] == keyLo) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long keyHi, long keyLo, int second) {
+        int mask = expiry.length - 1;
+        int slot = home(keyHi, keyLo, mask);
+        while (expiry[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hi[slot] = keyHi;
+        lo[slot] = keyLo;
+        expiry[slot] = second;
+    }
+
+    /**
+     * Backward-shift deletion, so probing never needs tombstones.
+     */
+    private void delete(int slot) {
+        int mask = expiry.length - 1;
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (expiry[next] == 0) break;
+            int home = home(hi[next], lo[next], mask);
+            boolean staysPut = gap <= next ? (gap < home && home <= next) : (gap < home || home <= next);
+            if (staysPut) continue;
+            hi[gap] = hi[next];
+            lo[gap] = lo[next];
+            expiry[gap] = expiry[next];
+            gap = next;
+        }
+        hi[gap] = 0;
+        lo[gap] = 0;
+        expiry[gap] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldHi = hi;
+        long[] oldLo = lo;
+        int[] oldExpiry = expiry;
+        allocate(capacity);
+        for (int i = 0; i < oldExpiry.length; i++) {
+            if (oldExpiry[i] != 0) {
+                insert(oldHi[i], oldLo[i], oldExpiry[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        hi = new long[capacity];
+        lo = new long[capacity];
+        expiry = new int[capacity];
+    }
+
+    private static int home(long keyHi, long keyLo, int mask) {
+        long h = keyHi * 0x9E3779B97F4A7C15L ^ keyLo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * Keys expiring in one second, as (hi, lo) pairs.
+     */
+    private static final class Bucket {
+
+        private long[] keys = new long[4];
+        private int size;
+
+        void add(long keyHi, long keyLo) {
+            if (size + 2 > keys.length) {
+                long[] grown = new long[keys.length * 2];
+                System.arraycopy(keys, 0, grown, 0, size);
+                keys = grown;
+            }
+            keys[size++] = keyHi;
+            keys[size++] = keyLo;
+        }
+    }
+}
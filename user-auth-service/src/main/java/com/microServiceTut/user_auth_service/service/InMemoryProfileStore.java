@@ -0,0 +1,47 @@
+package com.microServiceTut.user_auth_service.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Profile store for deployments without Redis (spring.cache.type=simple): no shared copy,
+ * just the version counter that orders loads against invalidations.
+ *
+ * One counter for all users is enough here - a version only has to be greater than
+ * every version handed out before it.
+ */
+@Service
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "simple")
+public class InMemoryProfileStore implements ProfileStore {
+
+    private final AtomicLong version = new AtomicLong();
+    private final List<BiConsumer<UUID, Long>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public VersionedProfile get(UUID userId) {
+        return new VersionedProfile(version.get(), null);
+    }
+
+    @Override
+    public void put(UUID userId, VersionedProfile profile) {
+        // Nothing shared to write to
+    }
+
+    @Override
+    public long invalidate(UUID userId) {
+        long next = version.incrementAndGet();
+        listeners.forEach(listener -> listener.accept(userId, next));
+        return next;
+    }
+
+    @Override
+    public void subscribe(BiConsumer<UUID, Long> listener) {
+        listeners.add(listener);
+    }
+}
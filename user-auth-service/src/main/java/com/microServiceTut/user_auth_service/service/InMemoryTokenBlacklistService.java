@@ -1,62 +1,123 @@
 package com.microServiceTut.user_auth_service.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Token blacklist for deployments without Redis (spring.cache.type=simple).
+ *
+ * Token ids issued by this service are UUID jtis and are kept as 128-bit keys in an
+ * ExpiringTokenIdSet, swept every second for just the entries that expired.
+ * Other ids (digests of tokens without a jti) go to a small side map.
+ */
 @Service
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "simple")
 @Slf4j
 public class InMemoryTokenBlacklistService implements TokenBlacklistServiceInterface {
 
-    private final Map<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    private final ExpiringTokenIdSet blacklistedJtis = new ExpiringTokenIdSet(System.currentTimeMillis());
+    private final Map<String, Long> blacklistedOtherIds = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private static final String BLACKLIST_PREFIX = "blacklist:jwt:";
 
     public InMemoryTokenBlacklistService() {
-        // Cleanup expired tokens every 5 minutes
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredTokens, 5, 5, TimeUnit.MINUTES);
+        // Expiry buckets are one second wide
+        scheduler.scheduleAtFixedRate(this::cleanupExpiredTokens, 1, 1, TimeUnit.SECONDS);
         log.info("InMemoryTokenBlacklistService initialized (Redis disabled)");
     }
 
     @Override
     public void blacklistToken(String tokenId, long expirationTimeInMs) {
-        String key = BLACKLIST_PREFIX + tokenId;
         long expiryTime = System.currentTimeMillis() + expirationTimeInMs;
-        blacklistedTokens.put(key, expiryTime);
+        UUID jti = asUuid(tokenId);
+        if (jti != null) {
+            blacklistedJtis.add(jti.getMostSignificantBits(), jti.getLeastSignificantBits(), expiryTime);
+        } else {
+            blacklistedOtherIds.merge(tokenId, expiryTime, Math::max);
+        }
         log.info("Token blacklisted (in-memory): {} (TTL: {} ms)", tokenId, expirationTimeInMs);
     }
 
     @Override
     public boolean isTokenBlacklisted(String tokenId) {
-        String key = BLACKLIST_PREFIX + tokenId;
-        Long expiryTime = blacklistedTokens.get(key);
-        if (expiryTime != null) {
-            if (System.currentTimeMillis() < expiryTime) {
-                log.debug("Token is blacklisted: {}", tokenId);
-                return true;
-            } else {
-                blacklistedTokens.remove(key);
-            }
+        long now = System.currentTimeMillis();
+        UUID jti = asUuid(tokenId);
+        boolean blacklisted;
+        if (jti != null) {
+            blacklisted = blacklistedJtis.contains(jti.getMostSignificantBits(), jti.getLeastSignificantBits(), now);
+        } else {
+            Long expiryTime = blacklistedOtherIds.get(tokenId);
+            blacklisted = expiryTime != null && now < expiryTime;
         }
-        return false;
+        if (blacklisted) {
+            log.debug("Token is blacklisted: {}", tokenId);
+        }
+        return blacklisted;
     }
 
     @Override
     public void removeFromBlacklist(String tokenId) {
-        String key = BLACKLIST_PREFIX + tokenId;
-        blacklistedTokens.remove(key);
+        UUID jti = asUuid(tokenId);
+        if (jti != null) {
+            blacklistedJtis.remove(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+        } else {
+            blacklistedOtherIds.remove(tokenId);
+        }
         log.info("Token removed from blacklist: {}", tokenId);
     }
 
+    @Override
+    public Map<String, Long> getBlacklistedTokens() {
+        long now = System.currentTimeMillis();
+        Map<String, Long> tokens = new HashMap<>();
+        blacklistedJtis.forEach(now, (hi, lo, expiryTime) -> tokens.put(new UUID(hi, lo).toString(), expiryTime));
+        blacklistedOtherIds.forEach((tokenId, expiryTime) -> {
+            if (expiryTime > now) {
+                tokens.put(tokenId, expiryTime);
+            }
+        });
+        return tokens;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
     private void cleanupExpiredTokens() {
         long now = System.currentTimeMillis();
-        blacklistedTokens.entrySet().removeIf(entry -> entry.getValue() < now);
+        blacklistedJtis.expire(now);
+        if (!blacklistedOtherIds.isEmpty()) {
+            blacklistedOtherIds.values().removeIf(expiryTime -> expiryTime <= now);
+        }
+    }
+
+    /**
+     * Canonical (lowercase, dashed) UUID form only, so the string round-trips
+     * through getBlacklistedTokens.
+     */
+    private static UUID asUuid(String tokenId) {
+        if (tokenId == null || tokenId.length() != 36) {
+            return null;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = tokenId.charAt(i);
+            boolean valid = (i == 8 || i == 13 || i == 18 || i == 23)
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return null;
+            }
+        }
+        return UUID.fromString(tokenId);
     }
 }
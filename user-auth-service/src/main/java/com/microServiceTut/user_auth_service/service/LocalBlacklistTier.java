@@ -0,0 +1,138 @@
+package com.microServiceTut.user_auth_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process replica of the Redis token blacklist, consulted before Redis.
+ *
+ * A Bloom filter answers the common "not blacklisted" case without touching the map;
+ * a possible hit is confirmed against a bounded map of token id -> expiry.
+ * The replica only answers once it has loaded a full snapshot, and gives up
+ * (every check goes to Redis) if it outgrows max-entries until a snapshot fits again.
+ *
+ * Every add and remove bumps a generation. A snapshot replaces the replica, except for the
+ * tokens changed after the generation read before the snapshot was taken: those keep their
+ * local state, since the snapshot may predate them.
+ */
+@Slf4j
+class LocalBlacklistTier {
+
+    enum Answer {
+        BLACKLISTED,
+        NOT_BLACKLISTED,
+        // Not loaded, over capacity, or a Bloom filter hit missing from the map - ask Redis
+        UNKNOWN
+    }
+
+    // token id -> generation of its last add or remove, for changes not yet covered by a snapshot
+    private final Map<String, Long> changedAt = new HashMap<>();
+    private final int maxEntries;
+    private final double falsePositiveRate;
+
+    private volatile Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private volatile StringBloomFilter bloomFilter;
+    private long generation;
+    private volatile boolean complete;
+
+    LocalBlacklistTier(int maxEntries, double falsePositiveRate) {
+        this.maxEntries = maxEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = newBloomFilter();
+    }
+
+    Answer check(String tokenId) {
+        if (!complete) {
+            return Answer.UNKNOWN;
+        }
+        if (!bloomFilter.mightContain(tokenId)) {
+            return Answer.NOT_BLACKLISTED;
+        }
+        Long expiresAt = tokens.get(tokenId);
+        if (expiresAt != null) {
+            return expiresAt > System.currentTimeMillis() ? Answer.BLACKLISTED : Answer.NOT_BLACKLISTED;
+        }
+        return Answer.UNKNOWN;
+    }
+
+    synchronized void add(String tokenId, long expiresAt) {
+        if (tokenId == null || expiresAt <= System.currentTimeMillis()) return;
+
+        if (!tokens.containsKey(tokenId) && tokens.size() >= maxEntries) {
+            // The filter must never miss a blacklisted token, so stop answering locally
+            if (complete) {
+                log.warn("Local blacklist over {} entries, falling back to Redis until the next reconcile", maxEntries);
+            }
+            complete = false;
+            return;
+        }
+        tokens.merge(tokenId, expiresAt, Math::max);
+        bloomFilter.put(tokenId);
+        changedAt.put(tokenId, ++generation);
+    }
+
+    synchronized void remove(String tokenId) {
+        // Stays in the Bloom filter until the next rebuild; the map miss sends that check to Redis
+        tokens.remove(tokenId);
+        changedAt.put(tokenId, ++generation);
+    }
+
+    /**
+     * The current generation; read it before taking the snapshot passed to reconcile.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Replace the replica with a full snapshot (token id -> expiry) taken after snapshotGeneration,
+     * keeping the local state of tokens changed since, and rebuild the Bloom filter.
+     */
+    synchronized void reconcile(Map<String, Long> snapshot, long snapshotGeneration) {
+        long now = System.currentTimeMillis();
+        Map<String, Long> replica = new ConcurrentHashMap<>();
+        snapshot.forEach((tokenId, expiresAt) -> {
+            if (expiresAt > now) {
+                replica.put(tokenId, expiresAt);
+            }
+        });
+        changedAt.forEach((tokenId, changed) -> {
+            if (changed > snapshotGeneration) {
+                Long expiresAt = tokens.get(tokenId);
+                if (expiresAt == null) {
+                    replica.remove(tokenId);
+                } else if (expiresAt > now) {
+                    replica.merge(tokenId, expiresAt, Math::max);
+                }
+            }
+        });
+        changedAt.values().removeIf(changed -> changed <= snapshotGeneration);
+        tokens = replica;
+
+        if (replica.size() > maxEntries) {
+            complete = false;
+            log.warn("Blacklist snapshot has {} tokens, over the local limit of {}", replica.size(), maxEntries);
+            return;
+        }
+
+        StringBloomFilter rebuilt = newBloomFilter();
+        replica.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        complete = true;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    private StringBloomFilter newBloomFilter() {
+        return new StringBloomFilter(maxEntries, falsePositiveRate);
+    }
+}
@@ -0,0 +1,186 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+import com.microServiceTut.user_auth_service.service.ProfileStore.VersionedProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Two-level read cache for user profiles: a bounded local Caffeine cache in front of
+ * the shared ProfileStore (Redis when configured), in front of the database.
+ *
+ * 1. Every entry carries the version it was loaded at. A write bumps the version after
+ *    its transaction commits and leaves a marker at that version locally, so a load that
+ *    started before the write cannot put the old profile back in either tier
+ * 2. Other instances drop their local copy when the store's invalidation event arrives;
+ *    local-ttl bounds how long a copy can live if an event is missed
+ * 3. Concurrent misses for one user share a single load (per instance), so a cold or
+ *    just-invalidated profile costs one store read and at most one query
+ */
+@Component
+@Slf4j
+public class ProfileCache {
+
+    public static final String LOOKUP_METRIC = "auth.profile.cache.lookups";
+
+    private final ProfileStore store;
+    private final boolean enabled;
+    // A null profile marks an invalidation at that version
+    private final Cache<UUID, VersionedProfile> local;
+    private final ConcurrentHashMap<UUID, CompletableFuture<UserProfileResponse>> loading = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter storeHits;
+    private final Counter databaseLoads;
+    private final Counter coalescedLoads;
+
+    public ProfileCache(ProfileStore store,
+                        MeterRegistry meterRegistry,
+                        @Value("${profile.cache.enabled:true}") boolean enabled,
+                        @Value("${profile.cache.local-max-entries:10000}") long localMaxEntries,
+                        @Value("${profile.cache.local-ttl:PT30S}") Duration localTtl) {
+        this.store = store;
+        this.enabled = enabled;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxEntries)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        this.localHits = lookupCounter("local", meterRegistry);
+        this.storeHits = lookupCounter("store", meterRegistry);
+        this.databaseLoads = lookupCounter("database", meterRegistry);
+        this.coalescedLoads = lookupCounter("coalesced", meterRegistry);
+        Gauge.builder("auth.profile.cache.local.size", local, Cache::estimatedSize)
+                .register(meterRegistry);
+
+        if (enabled) {
+            store.subscribe(this::evictLocal);
+            log.info("Profile cache enabled (local max {} entries, ttl {})", localMaxEntries, localTtl);
+        }
+    }
+
+    /**
+     * Cached profile, or the loader's result (which is then cached). Exceptions from the
+     * loader, such as UserNotFoundException, are passed on and nothing is cached.
+     */
+    public UserProfileResponse get(UUID userId, Supplier<UserProfileResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        VersionedProfile cached = local.getIfPresent(userId);
+        if (cached != null && cached.profile() != null) {
+            localHits.increment();
+            return cached.profile();
+        }
+
+        CompletableFuture<UserProfileResponse> load = new CompletableFuture<>();
+        CompletableFuture<UserProfileResponse> inFlight = loading.putIfAbsent(userId, load);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            return await(inFlight);
+        }
+        try {
+            UserProfileResponse profile = loadThrough(userId, loader);
+            load.complete(profile);
+            return profile;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(userId, load);
+        }
+    }
+
+    /**
+     * Invalidate the user's profile in both tiers once the current transaction commits
+     * (immediately if there is none), so no reader can cache the pre-commit row under
+     * the new version.
+     */
+    public void invalidate(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(userId);
+                }
+            });
+        } else {
+            invalidateNow(userId);
+        }
+    }
+
+    private UserProfileResponse loadThrough(UUID userId, Supplier<UserProfileResponse> loader) {
+        // Read the version before the database, so a write landing in between wins
+        VersionedProfile shared = store.get(userId);
+        if (shared.profile() != null) {
+            storeHits.increment();
+            putLocal(userId, shared);
+            return shared.profile();
+        }
+
+        databaseLoads.increment();
+        VersionedProfile loaded = new VersionedProfile(shared.version(), loader.get());
+        store.put(userId, loaded);
+        putLocal(userId, loaded);
+        return loaded.profile();
+    }
+
+    private void invalidateNow(UUID userId) {
+        // Readers from here on must not join a load that may have read the old row
+        loading.remove(userId);
+        try {
+            evictLocal(userId, store.invalidate(userId));
+        } catch (RuntimeException e) {
+            // The write is committed; the stale shared copy can live at most redis-ttl
+            local.invalidate(userId);
+            log.warn("Could not invalidate cached profile {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void evictLocal(UUID userId, long version) {
+        local.asMap().merge(userId, new VersionedProfile(version, null),
+                (current, marker) -> current.version() >= marker.version() ? current : marker);
+    }
+
+    private void putLocal(UUID userId, VersionedProfile profile) {
+        // Never replace an entry or marker at a newer version
+        local.asMap().merge(userId, profile,
+                (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+    }
+
+    private static UserProfileResponse await(CompletableFuture<UserProfileResponse> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter lookupCounter(String source, MeterRegistry meterRegistry) {
+        return Counter.builder(LOOKUP_METRIC)
+                .description("Profile reads by the tier that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
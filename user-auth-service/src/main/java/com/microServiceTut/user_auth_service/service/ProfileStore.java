@@ -0,0 +1,38 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared tier behind ProfileCache: a per-user version counter and, where available,
+ * a cached copy of the profile tagged with the version it was loaded at.
+ */
+public interface ProfileStore {
+
+    /**
+     * Current version of the user's profile, with the shared copy if it was stored at
+     * that version (profile is null otherwise).
+     */
+    VersionedProfile get(UUID userId);
+
+    /**
+     * Store a profile loaded at the given version; a copy whose version is already
+     * behind is never returned by get.
+     */
+    void put(UUID userId, VersionedProfile profile);
+
+    /**
+     * Bump the user's version, drop the shared copy and tell the other instances.
+     * @return the new version
+     */
+    long invalidate(UUID userId);
+
+    /**
+     * Receive (userId, version) for invalidations made by other instances.
+     */
+    void subscribe(BiConsumer<UUID, Long> listener);
+
+    record VersionedProfile(long version, UserProfileResponse profile) {}
+}
@@ -0,0 +1,102 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis tier of the profile cache.
+ *
+ * profile:version:{id} is a counter bumped on every write; profile:data:{id} holds the
+ * profile as JSON together with the version it was loaded at. Both are read with one MGET
+ * and the copy is used only if the versions match, so a load that raced a write can
+ * never bring back the old profile. Invalidations go out on profile:events as "id:version".
+ */
+@Service
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisProfileStore implements ProfileStore {
+
+    public static final String EVENTS_CHANNEL = "profile:events";
+    private static final String VERSION_PREFIX = "profile:version:";
+    private static final String DATA_PREFIX = "profile:data:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public RedisProfileStore(RedisTemplate<String, String> redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             ObjectMapper objectMapper,
+                             @Value("${profile.cache.redis-ttl:PT10M}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public VersionedProfile get(UUID userId) {
+        List<String> values = redisTemplate.opsForValue().multiGet(List.of(VERSION_PREFIX + userId, DATA_PREFIX + userId));
+        long version = values != null && values.get(0) != null ? Long.parseLong(values.get(0)) : 0L;
+        String json = values != null ? values.get(1) : null;
+        if (json == null) {
+            return new VersionedProfile(version, null);
+        }
+        try {
+            VersionedProfile stored = objectMapper.readValue(json, VersionedProfile.class);
+            return stored.version() == version ? stored : new VersionedProfile(version, null);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping unreadable cached profile {}: {}", userId, e.getMessage());
+            return new VersionedProfile(version, null);
+        }
+    }
+
+    @Override
+    public void put(UUID userId, VersionedProfile profile) {
+        try {
+            redisTemplate.opsForValue().set(DATA_PREFIX + userId, objectMapper.writeValueAsString(profile), ttl);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not cache profile {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public long invalidate(UUID userId) {
+        Long version = redisTemplate.opsForValue().increment(VERSION_PREFIX + userId);
+        redisTemplate.delete(DATA_PREFIX + userId);
+        long current = version != null ? version : 0L;
+        redisTemplate.convertAndSend(EVENTS_CHANNEL, userId + ":" + current);
+        return current;
+    }
+
+    @Override
+    public void subscribe(BiConsumer<UUID, Long> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.lastIndexOf(':');
+            if (separator <= 0) {
+                return;
+            }
+            try {
+                listener.accept(UUID.fromString(body.substring(0, separator)),
+                        Long.parseLong(body.substring(separator + 1)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed profile event: {}", body);
+            }
+        }, new ChannelTopic(EVENTS_CHANNEL));
+    }
+}
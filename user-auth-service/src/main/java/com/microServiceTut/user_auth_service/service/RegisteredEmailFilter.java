@@ -0,0 +1,266 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.mapper.UserMapper;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bloom filter of registered (normalised) emails, so login and register can tell an
+ * unknown email apart without a query - the bulk of credential-stuffing traffic.
+ *
+ * Built from a keyset scan of the users table at startup and every rebuild-interval
+ * (which also resizes it as the table grows); until the first build finishes every email
+ * is reported as possibly registered. Registrations are added immediately and published
+ * on users:registered for the other instances, so a new account is visible everywhere
+ * within the pub/sub delay.
+ *
+ * Pub/sub is fire-and-forget, so registrations are also kept in the users:registered:recent
+ * sorted set for two rebuild intervals, by which time every instance's scan has read them.
+ * An email the filter rules out is looked up there before being reported absent: a missed
+ * message costs a Redis lookup rather than a rejected login, and the database is still spared.
+ */
+@Component
+@Slf4j
+public class RegisteredEmailFilter {
+
+    public static final String EVENTS_CHANNEL = "users:registered";
+    public static final String RECENT_KEY = "users:registered:recent";
+    public static final String LOOKUP_METRIC = "auth.email.filter.lookups";
+    private static final int SCAN_PAGE_SIZE = 5_000;
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+    private final int minExpectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile StringBloomFilter filter;
+    // Filter being built; registrations during a rebuild go into both
+    private volatile StringBloomFilter building;
+    // Registrations since the last rebuild started, replayed into the next one in case the
+    // scan ran before their transaction committed
+    private volatile Set<String> recent = ConcurrentHashMap.newKeySet();
+
+    private final Counter absent;
+    private final Counter possiblyPresent;
+    private final Counter notReady;
+    private final Counter recentlyRegistered;
+    private final Counter falsePositives;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 ObjectProvider<RedisTemplate<String, String>> redisTemplate,
+                                 ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${email-filter.enabled:true}") boolean enabled,
+                                 @Value("${email-filter.min-expected-insertions:100000}") int minExpectedInsertions,
+                                 @Value("${email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${email-filter.rebuild-interval:PT6H}") Duration rebuildInterval) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.listenerContainer = listenerContainer.getIfAvailable();
+        this.enabled = enabled;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+
+        this.absent = lookupCounter("absent", meterRegistry);
+        this.possiblyPresent = lookupCounter("possibly-present", meterRegistry);
+        this.notReady = lookupCounter("not-ready", meterRegistry);
+        this.recentlyRegistered = lookupCounter("recently-registered", meterRegistry);
+        this.falsePositives = Counter.builder("auth.email.filter.false.positives")
+                .description("Emails the filter reported as possibly registered that the database did not have")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Registered-email filter disabled, every login and register queries the database");
+            return;
+        }
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener((message, pattern) ->
+                    addLocally(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(EVENTS_CHANNEL));
+        }
+        long intervalMillis = rebuildInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return false only if the email is definitely not registered
+     */
+    public boolean mightBeRegistered(String email) {
+        StringBloomFilter current = filter;
+        if (!enabled || current == null) {
+            notReady.increment();
+            return true;
+        }
+        String normalized = UserMapper.normalizeEmail(email);
+        if (current.mightContain(normalized)) {
+            possiblyPresent.increment();
+            return true;
+        }
+        if (registeredRecently(normalized)) {
+            recentlyRegistered.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    /**
+     * The database had no user for an email this filter let through.
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    public void add(String email) {
+        if (!enabled) {
+            return;
+        }
+        String normalized = UserMapper.normalizeEmail(email);
+        addLocally(normalized);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForZSet().add(RECENT_KEY, normalized, System.currentTimeMillis());
+                redisTemplate.convertAndSend(EVENTS_CHANNEL, normalized);
+            } catch (RuntimeException e) {
+                // The account exists either way; other instances see it after their next rebuild
+                log.warn("Could not share registration with other instances: {}", e.getMessage());
+            }
+        }
+    }
+
+    boolean isReady() {
+        return filter != null;
+    }
+
+    /**
+     * Rebuild from a keyset scan over users, sized for twice the current count.
+     */
+    void rebuild() {
+        long start = System.nanoTime();
+        long users = userRepository.count();
+        StringBloomFilter rebuilt = new StringBloomFilter(
+                (int) Math.min(Integer.MAX_VALUE, Math.max(minExpectedInsertions, users * 2)), falsePositiveRate);
+        building = rebuilt;
+        Set<String> carried = recent;
+        recent = ConcurrentHashMap.newKeySet();
+        try {
+            UUID after = new UUID(0L, 0L);
+            List<UserRepository.UserEmail> page;
+            long scanned = 0;
+            do {
+                page = userRepository.findEmailsAfter(after, Limit.of(SCAN_PAGE_SIZE));
+                for (UserRepository.UserEmail row : page) {
+                    rebuilt.put(UserMapper.normalizeEmail(row.getEmail()));
+                }
+                scanned += page.size();
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == SCAN_PAGE_SIZE);
+            carried.forEach(rebuilt::put);
+            filter = rebuilt;
+            trimRecent();
+            log.info("Registered-email filter rebuilt from {} users in {} ms", scanned,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Keep them for the next attempt
+            recent.addAll(carried);
+            throw e;
+        } finally {
+            building = null;
+        }
+    }
+
+    private void addLocally(String normalizedEmail) {
+        recent.add(normalizedEmail);
+        StringBloomFilter current = filter;
+        if (current != null) {
+            current.put(normalizedEmail);
+        }
+        StringBloomFilter next = building;
+        if (next != null) {
+            next.put(normalizedEmail);
+        }
+    }
+
+    /**
+     * Whether another instance recorded the registration, in case its message never arrived.
+     */
+    private boolean registeredRecently(String normalizedEmail) {
+        if (redisTemplate == null) {
+            return false;
+        }
+        try {
+            return redisTemplate.opsForZSet().score(RECENT_KEY, normalizedEmail) != null;
+        } catch (RuntimeException e) {
+            // Cannot rule it out - let the database answer
+            log.debug("Recent registrations unavailable: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Every instance rebuilds once per interval, so after two intervals an entry is in all their scans.
+     */
+    private void trimRecent() {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(RECENT_KEY, 0,
+                    System.currentTimeMillis() - 2 * rebuildInterval.toMillis());
+        } catch (RuntimeException e) {
+            log.debug("Could not trim recent registrations: {}", e.getMessage());
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Registered-email filter rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder(LOOKUP_METRIC)
+                .description("Email filter checks by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,40 +1,140 @@
 package com.microServiceTut.user_auth_service.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Redis-backed token blacklist with an in-process near-cache (LocalBlacklistTier).
+ *
+ * Redis stays the source of truth. Each instance loads the blacklist index into its local tier,
+ * applies revocations from every instance over the blacklist:jwt:events pub/sub channel, and
+ * re-reads the index every reconcile-interval to cover missed messages - so a logout reaches all
+ * instances within that interval at worst. Checks the local tier cannot answer go to Redis.
+ */
 @Service
 @Primary
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
-@RequiredArgsConstructor
 @Slf4j
-public class TokenBlacklistService implements TokenBlacklistServiceInterface {
+public class TokenBlacklistService implements TokenBlacklistServiceInterface, MessageListener {
+
+    public static final String EVENTS_CHANNEL = "blacklist:jwt:events";
+    public static final String LOOKUP_METRIC = "auth.blacklist.lookups";
 
     private final RedisTemplate<String, String> redisTemplate;
     private static final String BLACKLIST_PREFIX = "blacklist:jwt:";
     private static final String BLACKLISTED_VALUE = "true";
+    // Sorted set of blacklisted token ids scored by expiry, used for gateway catch-up snapshots
+    private static final String BLACKLIST_INDEX = "blacklist:jwt:index";
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final LocalBlacklistTier localTier;
+    private final boolean nearCacheEnabled;
+    private final Duration reconcileInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final Counter localLookups;
+    private final Counter redisLookups;
+    private final Counter bloomFalsePositives;
+
+    public TokenBlacklistService(RedisTemplate<String, String> redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${blacklist.near-cache.enabled:true}") boolean nearCacheEnabled,
+                                 @Value("${blacklist.near-cache.max-entries:100000}") int maxEntries,
+                                 @Value("${blacklist.near-cache.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${blacklist.near-cache.reconcile-interval:PT30S}") Duration reconcileInterval) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.localTier = new LocalBlacklistTier(maxEntries, falsePositiveRate);
+        this.nearCacheEnabled = nearCacheEnabled;
+        this.reconcileInterval = reconcileInterval;
+
+        this.localLookups = lookupCounter("local", meterRegistry);
+        this.redisLookups = lookupCounter("redis", meterRegistry);
+        this.bloomFalsePositives = Counter.builder("auth.blacklist.bloom.false.positives")
+                .description("Bloom filter hits that Redis reported as not blacklisted")
+                .register(meterRegistry);
+        Gauge.builder("auth.blacklist.bloom.false.positive.rate", this, TokenBlacklistService::falsePositiveRate)
+                .description("Share of blacklist lookups answered by Redis after a Bloom filter false positive")
+                .register(meterRegistry);
+        Gauge.builder("auth.blacklist.local.size", localTier, LocalBlacklistTier::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!nearCacheEnabled) {
+            log.info("Blacklist near-cache disabled, every check goes to Redis");
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVENTS_CHANNEL));
+        long intervalMillis = reconcileInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Blacklist near-cache started (reconcile every {})", reconcileInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
 
     @Override
     public void blacklistToken(String tokenId, long expirationTimeInMs) {
         String key = BLACKLIST_PREFIX + tokenId;
         redisTemplate.opsForValue().set(key, BLACKLISTED_VALUE, expirationTimeInMs, TimeUnit.MILLISECONDS);
+
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(BLACKLIST_INDEX, tokenId, now + expirationTimeInMs);
+        redisTemplate.opsForZSet().removeRangeByScore(BLACKLIST_INDEX, Double.NEGATIVE_INFINITY, now);
+        localTier.add(tokenId, now + expirationTimeInMs);
+        publish("+" + (now + expirationTimeInMs) + ":" + tokenId);
         log.info("Token blacklisted in Redis: {} (TTL: {} ms)", tokenId, expirationTimeInMs);
     }
 
     @Override
     public boolean isTokenBlacklisted(String tokenId) {
+        if (nearCacheEnabled) {
+            LocalBlacklistTier.Answer answer = localTier.check(tokenId);
+            if (answer != LocalBlacklistTier.Answer.UNKNOWN) {
+                localLookups.increment();
+                return answer == LocalBlacklistTier.Answer.BLACKLISTED;
+            }
+        }
+
+        redisLookups.increment();
         String key = BLACKLIST_PREFIX + tokenId;
         Boolean exists = redisTemplate.hasKey(key);
         if (Boolean.TRUE.equals(exists)) {
             log.debug("Token is blacklisted: {}", tokenId);
             return true;
         }
+        if (nearCacheEnabled && localTier.isComplete()) {
+            // Only a Bloom filter hit sends a complete replica to Redis
+            bloomFalsePositives.increment();
+        }
         return false;
     }
 
@@ -42,6 +142,77 @@ public class TokenBlacklistService implements TokenBlacklistServiceInterface {
     public void removeFromBlacklist(String tokenId) {
         String key = BLACKLIST_PREFIX + tokenId;
         redisTemplate.delete(key);
+        redisTemplate.opsForZSet().remove(BLACKLIST_INDEX, tokenId);
+        localTier.remove(tokenId);
+        publish("-" + tokenId);
         log.info("Token removed from blacklist: {}", tokenId);
     }
+
+    /**
+     * Blacklist changes from any instance: "+{expiresAt}:{tokenId}" or "-{tokenId}".
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String event = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (event.startsWith("-")) {
+            localTier.remove(event.substring(1));
+            return;
+        }
+        int separator = event.indexOf(':');
+        if (event.startsWith("+") && separator > 1) {
+            try {
+                localTier.add(event.substring(separator + 1), Long.parseLong(event.substring(1, separator)));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed blacklist event: {}", event);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> getBlacklistedTokens() {
+        Set<ZSetOperations.TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(BLACKLIST_INDEX, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+
+        Map<String, Long> tokens = new LinkedHashMap<>();
+        if (entries != null) {
+            for (ZSetOperations.TypedTuple<String> entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    tokens.put(entry.getValue(), entry.getScore().longValue());
+                }
+            }
+        }
+        return tokens;
+    }
+
+    void reconcile() {
+        try {
+            long generation = localTier.generation();
+            localTier.reconcile(getBlacklistedTokens(), generation);
+            log.debug("Blacklist near-cache reconciled ({} tokens)", localTier.size());
+        } catch (RuntimeException e) {
+            log.warn("Blacklist near-cache reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(String event) {
+        if (!nearCacheEnabled) return;
+        try {
+            redisTemplate.convertAndSend(EVENTS_CHANNEL, event);
+        } catch (RuntimeException e) {
+            // Other instances pick the change up at their next reconcile
+            log.warn("Failed to publish blacklist event: {}", e.getMessage());
+        }
+    }
+
+    private double falsePositiveRate() {
+        double lookups = localLookups.count() + redisLookups.count();
+        return lookups == 0 ? 0 : bloomFalsePositives.count() / lookups;
+    }
+
+    private static Counter lookupCounter(String source, MeterRegistry meterRegistry) {
+        return Counter.builder(LOOKUP_METRIC)
+                .description("Blacklist checks by the tier that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
 }
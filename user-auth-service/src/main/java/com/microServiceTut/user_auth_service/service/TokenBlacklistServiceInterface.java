@@ -1,7 +1,15 @@
 package com.microServiceTut.user_auth_service.service;
 
+import java.util.Map;
+
 public interface TokenBlacklistServiceInterface {
     void blacklistToken(String tokenId, long expirationTimeInMs);
     boolean isTokenBlacklisted(String tokenId);
     void removeFromBlacklist(String tokenId);
+
+    /**
+     * Snapshot of all blacklisted tokens that have not expired yet.
+     * @return token id -> expiry time in epoch millis
+     */
+    Map<String, Long> getBlacklistedTokens();
 }
@@ -0,0 +1,153 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.response.RevokedTokenResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes token revocations to subscribed API Gateway instances over SSE.
+ * Only revocations made on this instance are pushed; gateways pick up the rest
+ * through their periodic catch-up against the blacklist snapshot.
+ *
+ * Publishing only queues the event: each subscriber has a bounded queue drained on its own
+ * virtual thread, so a slow or half-open connection never holds up a logout. A subscriber whose
+ * queue overflows is dropped (the gateway reconnects and its catch-up covers the gap), and a
+ * periodic heartbeat comment surfaces dead connections so they are removed as well.
+ */
+@Component
+@Slf4j
+public class TokenRevocationFeed {
+
+    public static final String EVENT_NAME = "revoked";
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final Duration heartbeatInterval;
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public TokenRevocationFeed(@Value("${revocation-feed.queue-capacity:1000}") int queueCapacity,
+                               @Value("${revocation-feed.heartbeat-interval:PT15S}") Duration heartbeatInterval) {
+        this.queueCapacity = queueCapacity;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = heartbeatInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe() {
+        // No timeout - gateways hold the stream open and reconnect on their own; the heartbeat finds dead ones
+        return subscribe(new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("Revocation stream subscriber connected ({} active)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Queue the revocation for every subscriber. Never blocks on the connections.
+     */
+    public void publish(String tokenId, long expiresAt) {
+        RevokedTokenResponse event = RevokedTokenResponse.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, SseEmitter.event().name(EVENT_NAME).data(event));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // A comment line: ignored by the gateway's SSE decoder, but fails on a dead connection
+            enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEventBuilder event) {
+        if (!subscriber.queue.offer(event)) {
+            drop(subscriber, new IllegalStateException("Subscriber fell " + queueCapacity + " events behind"));
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEventBuilder event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    drop(subscriber, e);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared still needs a sender
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Dropping revocation stream subscriber: {}", cause.getMessage());
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<SseEventBuilder> queue, AtomicBoolean draining) {
+
+        Subscriber(SseEmitter emitter, BlockingQueue<SseEventBuilder> queue) {
+            this(emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.model.UserStats;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import com.microServiceTut.user_auth_service.repository.UserStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User counters for the admin stats, kept in the user_stats row.
+ *
+ * Writers apply a delta to the row inside their own transaction, so the counters commit or
+ * roll back with the user change. A consistency check recounts the users table on a schedule
+ * (and at startup, which also covers rows inserted by data.sql) and corrects any drift.
+ */
+@Component
+@Slf4j
+public class UserStatsCounter {
+
+    private final UserStatsRepository statsRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reconcileInterval;
+    private final Counter driftCorrections;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public UserStatsCounter(UserStatsRepository statsRepository,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${user-stats.reconcile-interval:PT15M}") Duration reconcileInterval) {
+        this.statsRepository = statsRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Its own transaction, also when called from a read-only one
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileInterval = reconcileInterval;
+        this.driftCorrections = Counter.builder("auth.user.stats.drift.corrections")
+                .description("Consistency checks that found the user counters out of line with the users table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = reconcileInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Count a new (active) user. Must run in the transaction that inserts it.
+     */
+    public void recordRegistered(Role role) {
+        apply(1, 1, 0, role, 1);
+    }
+
+    /**
+     * Count a block or unblock that changed the flag. Must run in the transaction that changes it.
+     */
+    public void recordActiveChanged(boolean active) {
+        int sign = active ? 1 : -1;
+        apply(0, sign, -sign, null, 0);
+    }
+
+    public AuthService.UserStatsResponse current() {
+        UserStats stats = statsRepository.findById(UserStats.SINGLETON_ID).orElse(null);
+        if (stats == null) {
+            // Not reconciled yet
+            stats = reconcile();
+        }
+        return new AuthService.UserStatsResponse(stats.getTotalUsers(), stats.getActiveUsers(),
+                stats.getBlockedUsers(), stats.getTotalAdmins(), stats.getTotalRiders());
+    }
+
+    /**
+     * Recount the users table and overwrite the counters if they drifted.
+     * The stats row stays locked meanwhile, so no writer's delta lands between the count and the fix.
+     */
+    UserStats reconcile() {
+        return transactionTemplate.execute(status -> {
+            UserStats stats = statsRepository.findForUpdate()
+                    .orElseGet(() -> UserStats.builder().id(UserStats.SINGLETON_ID).build());
+            UserRepository.UserCounts counts = userRepository.countAll();
+            boolean drifted = stats.getTotalUsers() != counts.getTotalUsers()
+                    || stats.getActiveUsers() != counts.getActiveUsers()
+                    || stats.getBlockedUsers() != counts.getBlockedUsers()
+                    || stats.getTotalAdmins() != counts.getTotalAdmins()
+                    || stats.getTotalRiders() != counts.getTotalRiders();
+            if (drifted && stats.getReconciledAt() != null) {
+                driftCorrections.increment();
+                log.warn("User stats drifted (total {} vs {}, active {} vs {}), correcting",
+                        stats.getTotalUsers(), counts.getTotalUsers(), stats.getActiveUsers(), counts.getActiveUsers());
+            }
+            stats.setTotalUsers(counts.getTotalUsers());
+            stats.setActiveUsers(counts.getActiveUsers());
+            stats.setBlockedUsers(counts.getBlockedUsers());
+            stats.setTotalAdmins(counts.getTotalAdmins());
+            stats.setTotalRiders(counts.getTotalRiders());
+            stats.setReconciledAt(LocalDateTime.now());
+            return statsRepository.save(stats);
+        });
+    }
+
+    private void apply(long total, long active, long blocked, Role role, long roleDelta) {
+        int updated = statsRepository.applyDelta(total, active, blocked,
+                role == Role.ADMIN ? roleDelta : 0, role == Role.RIDER ? roleDelta : 0);
+        if (updated == 0) {
+            // No row yet; the first reconcile counts this change from the users table
+            log.debug("User stats row missing, leaving the change to the next reconcile");
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the row first
+            log.debug("User stats row created concurrently: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("User stats consistency check failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Replace the signing key ring only if it is still at the version the caller read.
+-- KEYS[1]: key ring JSON, KEYS[2]: key ring version
+-- ARGV: expected version (0 = nothing stored yet), new key ring JSON
+-- Returns 1 if the ring was replaced, 0 if another instance got there first
+
+local current = tonumber(redis.call('GET', KEYS[2]) or '0')
+if current ~= tonumber(ARGV[1]) then
+    return 0
+end
+
+redis.call('SET', KEYS[1], ARGV[2])
+redis.call('SET', KEYS[2], current + 1)
+return 1
@@ -0,0 +1,178 @@
+package com.microServiceTut.user_auth_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microServiceTut.user_auth_service.dto.response.UserPageResponse;
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+import com.microServiceTut.user_auth_service.exception.GlobalExceptionHandler;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import com.microServiceTut.user_auth_service.security.JwtUtil;
+import com.microServiceTut.user_auth_service.security.SigningKeyRing;
+import com.microServiceTut.user_auth_service.service.AuthServiceImpl;
+import com.microServiceTut.user_auth_service.service.ProfileCache;
+import com.microServiceTut.user_auth_service.service.RegisteredEmailFilter;
+import com.microServiceTut.user_auth_service.service.TokenBlacklistServiceInterface;
+import com.microServiceTut.user_auth_service.service.TokenRevocationFeed;
+import com.microServiceTut.user_auth_service.service.UserStatsCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthControllerTest.class);
+
+    private static final int ONE_MILLION = 1_000_000;
+
+    private UserRepository userRepository;
+    private AuthServiceImpl authService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        authService = new AuthServiceImpl(userRepository, mock(PasswordEncoder.class), mock(JwtUtil.class),
+                mock(TokenBlacklistServiceInterface.class), mock(TokenRevocationFeed.class),
+                mock(ProfileCache.class), mock(UserStatsCounter.class), mock(RegisteredEmailFilter.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        controller = new AuthController(authService, mock(TokenRevocationFeed.class), mock(SigningKeyRing.class),
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void getUsersPage_FollowsCursorToLastPage() {
+        // Given
+        seedUsers(250);
+
+        // When
+        UserPageResponse first = controller.getUsersPage(null, null, 100);
+        UserPageResponse second = controller.getUsersPage(null, first.getNextCursor(), 100);
+        UserPageResponse last = controller.getUsersPage(null, second.getNextCursor(), 100);
+
+        // Then
+        assertThat(first.getUsers()).hasSize(100);
+        assertThat(first.getUsers().get(0).getUserId()).isEqualTo(userId(1));
+        assertThat(second.getUsers().get(0).getUserId()).isEqualTo(userId(101));
+        assertThat(last.getUsers()).hasSize(50);
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void writeUsersNdjson_OneLinePerUser() throws Exception {
+        seedUsers(2_345);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        controller.writeUsersNdjson(null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2_345);
+        assertThat(lines[0]).contains("\"userId\":\"" + userId(1) + "\"");
+        assertThat(lines[2_344]).contains("\"email\":\"user2345@example.com\"");
+    }
+
+    @Test
+    void unknownRole_AnsweredWithBadRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/admin/users/export");
+
+        assertThatThrownBy(() -> controller.exportUsers("superuser"))
+                .isInstanceOfSatisfying(IllegalArgumentException.class, ex ->
+                        assertThat(new GlobalExceptionHandler().handleIllegalArgument(ex, request).getStatusCode())
+                                .isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> controller.getUsersPage("superuser", null, 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown role: superuser");
+        assertThat(controller.exportUsers("rider")).isNotNull();
+    }
+
+    @Test
+    void benchmark_ExportOneMillionUsers_TimeToFirstByteAndHeap() throws Exception {
+        // Given - a million users served by keyset pages, as the projection query would return them
+        seedUsers(ONE_MILLION);
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long[] peakHeap = {heapBefore};
+        long[] firstByteNanos = {0};
+        long[] bytes = {0};
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (bytes[0] == 0) {
+                    firstByteNanos[0] = System.nanoTime();
+                }
+                bytes[0] += len;
+            }
+
+            @Override
+            public void flush() {
+                peakHeap[0] = Math.max(peakHeap[0], runtime.totalMemory() - runtime.freeMemory());
+            }
+        };
+
+        // When
+        long start = System.nanoTime();
+        controller.writeUsersNdjson(null, sink);
+        long totalNanos = System.nanoTime() - start;
+        long ttfbNanos = firstByteNanos[0] - start;
+
+        log.info("Export 1M users: {} MB in {} ms, first byte after {} ms, heap grew by at most {} MB",
+                bytes[0] >> 20, totalNanos / 1_000_000, ttfbNanos / 1_000_000,
+                (peakHeap[0] - heapBefore) >> 20);
+
+        // Then - the first page is on the wire long before the last is read; a materialised
+        // list of 1M profiles alone would be several hundred MB
+        assertThat(bytes[0]).isGreaterThan(ONE_MILLION * 100L);
+        assertThat(ttfbNanos * 5).isLessThan(totalNanos);
+    }
+
+    /**
+     * Users with ids 1..count in id order, answering the keyset queries like the database would.
+     */
+    private void seedUsers(int count) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(userRepository.findProfilesAfter(any(UUID.class), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0, UUID.class).getLeastSignificantBits();
+            int limit = invocation.getArgument(1, Limit.class).max();
+            List<UserProfileResponse> page = new ArrayList<>(limit);
+            for (long i = after + 1; i <= Math.min(count, after + limit); i++) {
+                page.add(new UserProfileResponse(userId(i), "User " + i, "user" + i + "@example.com",
+                        "555-0100", "1 Main Street", Role.USER, createdAt));
+            }
+            return page;
+        });
+        when(userRepository.findProfilesByRoleAfter(eq(Role.USER), any(UUID.class), any(Limit.class)))
+                .thenAnswer(invocation -> userRepository.findProfilesAfter(invocation.getArgument(1),
+                        invocation.getArgument(2)));
+    }
+
+    private static UUID userId(long n) {
+        return new UUID(0L, n);
+    }
+}
@@ -0,0 +1,203 @@
+package com.microServiceTut.user_auth_service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationWhichShouldBeAtLeast256BitsLong";
+    private static final long EXPIRATION = Duration.ofHours(1).toMillis();
+
+    private final SigningKeyStore store = new InMemorySigningKeyStore();
+    private SigningKeyRing keyRing;
+    private SigningKeyRing otherInstance;
+
+    @AfterEach
+    void tearDown() {
+        keyRing.shutdown();
+        if (otherInstance != null) {
+            otherInstance.shutdown();
+        }
+    }
+
+    @Test
+    void generateToken_Es256_SignedWithCurrentKid() {
+        // Given
+        JwtUtil jwtUtil = jwtUtil(SigningKeyRing.Algorithm.ES256);
+
+        // When
+        String token = jwtUtil.generateToken(user());
+
+        // Then
+        var jws = Jwts.parser().verifyWith(keyRing.current().publicKey()).build().parseSignedClaims(token);
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo("ES256");
+        assertThat(jws.getHeader().getKeyId()).isEqualTo(keyRing.current().kid());
+        assertThat(jwtUtil.isTokenValid(token)).isTrue();
+        assertThat(jwtUtil.getRoleFromToken(token)).isEqualTo(Role.USER);
+    }
+
+    @Test
+    void generateToken_EdDsa_Verifies() {
+        JwtUtil jwtUtil = jwtUtil(SigningKeyRing.Algorithm.EdDSA);
+
+        String token = jwtUtil.generateToken(user());
+
+        assertThat(jwtUtil.getEmailFromToken(token)).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void rotate_OldTokensStayValidAndNextKeyIsPrePublished() {
+        JwtUtil jwtUtil = jwtUtil(SigningKeyRing.Algorithm.ES256);
+        String beforeRotation = jwtUtil.generateToken(user());
+        String oldKid = keyRing.current().kid();
+        String prePublished = publishedKids().stream().filter(kid -> !kid.equals(oldKid)).findFirst().orElseThrow();
+
+        keyRing.rotate();
+        String afterRotation = jwtUtil.generateToken(user());
+
+        assertThat(keyRing.current().kid()).isEqualTo(prePublished);
+        assertThat(publishedKids()).hasSize(3).contains(oldKid, prePublished);
+        assertThat(jwtUtil.isTokenValid(beforeRotation)).isTrue();
+        assertThat(jwtUtil.isTokenValid(afterRotation)).isTrue();
+    }
+
+    @Test
+    void validateToken_HmacTokenWithoutKid_StillAccepted() {
+        JwtUtil jwtUtil = jwtUtil(SigningKeyRing.Algorithm.ES256);
+        String legacy = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        String unknownKid = Jwts.builder()
+                .header().keyId("unknown").and()
+                .subject(UUID.randomUUID().toString())
+                .signWith(Jwts.SIG.ES256.keyPair().build().getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        assertThat(jwtUtil.isTokenValid(legacy)).isTrue();
+        assertThat(jwtUtil.isTokenValid(unknownKid)).isFalse();
+    }
+
+    @Test
+    void jwks_RoundTripsThroughJsonWithPublicKeysOnly() throws Exception {
+        jwtUtil(SigningKeyRing.Algorithm.ES256);
+
+        String json = new ObjectMapper().writeValueAsString(keyRing.jwks());
+        JwkSet parsed = Jwks.setParser().build().parse(json);
+
+        assertThat(json).doesNotContain("\"d\"");
+        assertThat(parsed.getKeys()).hasSize(2);
+        assertThat(parsed.getKeys()).allSatisfy(jwk -> {
+            assertThat(jwk.getAlgorithm()).isEqualTo("ES256");
+            assertThat(jwk.toKey()).isEqualTo(keyRing.find(jwk.getId()));
+        });
+    }
+
+    @Test
+    void twoInstances_TokenIssuedByOneValidatedByOther() {
+        // Given - two instances sharing the key store
+        JwtUtil instanceA = jwtUtil(SigningKeyRing.Algorithm.ES256);
+        otherInstance = new SigningKeyRing(SigningKeyRing.Algorithm.ES256, Duration.ofDays(1), Duration.ofMinutes(1),
+                EXPIRATION, SECRET, store);
+        JwtUtil instanceB = new JwtUtil(SECRET, EXPIRATION, otherInstance);
+
+        // When
+        String issuedByA = instanceA.generateToken(user());
+        String issuedByB = instanceB.generateToken(user());
+
+        // Then
+        assertThat(otherInstance.current().kid()).isEqualTo(keyRing.current().kid());
+        assertThat(otherInstance.jwks()).isEqualTo(keyRing.jwks());
+        assertThat(instanceB.isTokenValid(issuedByA)).isTrue();
+        assertThat(instanceA.isTokenValid(issuedByB)).isTrue();
+    }
+
+    @Test
+    void twoInstances_KeyRotatedByOne_ValidatedByOtherWithoutWaitingForReload() {
+        JwtUtil instanceA = jwtUtil(SigningKeyRing.Algorithm.ES256);
+        otherInstance = new SigningKeyRing(SigningKeyRing.Algorithm.ES256, Duration.ofDays(1), Duration.ofDays(1),
+                EXPIRATION, SECRET, store);
+        JwtUtil instanceB = new JwtUtil(SECRET, EXPIRATION, otherInstance);
+
+        // Twice, so A signs with a key generated after B last loaded the ring
+        keyRing.rotate();
+        keyRing.rotate();
+        String issuedByA = instanceA.generateToken(user());
+
+        assertThat(instanceB.isTokenValid(issuedByA)).isTrue();
+        assertThat(otherInstance.current().kid()).isEqualTo(keyRing.current().kid());
+    }
+
+    @Test
+    void restart_TokensIssuedBeforeStayValid() {
+        JwtUtil beforeRestart = jwtUtil(SigningKeyRing.Algorithm.EdDSA);
+        String token = beforeRestart.generateToken(user());
+        keyRing.shutdown();
+
+        otherInstance = new SigningKeyRing(SigningKeyRing.Algorithm.EdDSA, Duration.ofDays(1), Duration.ofMinutes(1),
+                EXPIRATION, SECRET, store);
+
+        assertThat(new JwtUtil(SECRET, EXPIRATION, otherInstance).isTokenValid(token)).isTrue();
+    }
+
+    @Test
+    void sharedRing_PrivateKeysStoredEncrypted() {
+        jwtUtil(SigningKeyRing.Algorithm.ES256);
+
+        SigningKeyStore.StoredKey stored = store.load().ring().keys().stream()
+                .filter(key -> key.kid().equals(keyRing.current().kid()))
+                .findFirst().orElseThrow();
+
+        assertThat(stored.privateKey()).startsWith("gcm:");
+        assertThat(stored.privateKey())
+                .doesNotContain(Base64.getEncoder().encodeToString(keyRing.current().privateKey().getEncoded()));
+    }
+
+    @Test
+    void otherInstance_WrongEncryptionKey_CannotUseSharedKeys() {
+        JwtUtil instanceA = jwtUtil(SigningKeyRing.Algorithm.ES256);
+        otherInstance = new SigningKeyRing(SigningKeyRing.Algorithm.ES256, Duration.ofDays(1), Duration.ofMinutes(1),
+                EXPIRATION, "some-other-encryption-key", store);
+
+        // Falls back to keys of its own, so it neither signs as A nor accepts A's tokens
+        assertThat(otherInstance.current().kid()).isNotEqualTo(keyRing.current().kid());
+        assertThat(new JwtUtil(SECRET, EXPIRATION, otherInstance).isTokenValid(instanceA.generateToken(user()))).isFalse();
+    }
+
+    private JwtUtil jwtUtil(SigningKeyRing.Algorithm algorithm) {
+        keyRing = new SigningKeyRing(algorithm, Duration.ofDays(1), Duration.ofMinutes(1), EXPIRATION, SECRET, store);
+        return new JwtUtil(SECRET, EXPIRATION, keyRing);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> publishedKids() {
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) keyRing.jwks().get("keys");
+        return keys.stream().map(key -> (String) key.get("kid")).toList();
+    }
+
+    private static User user() {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .role(Role.USER)
+                .build();
+    }
+}
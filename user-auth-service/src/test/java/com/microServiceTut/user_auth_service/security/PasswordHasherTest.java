@@ -0,0 +1,104 @@
+package com.microServiceTut.user_auth_service.security;
+
+import com.microServiceTut.user_auth_service.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void encode_MatchesOnWorkerPoolAndRecordsMetrics() {
+        // Given
+        hasher = new PasswordHasher(4, 250, 2, 8, meterRegistry);
+
+        // When
+        String encoded = hasher.encode("password123");
+
+        // Then
+        assertThat(hasher.matches("password123", encoded)).isTrue();
+        assertThat(hasher.matches("wrong", encoded)).isFalse();
+        assertThat(meterRegistry.get(PasswordHasher.HASH_TIME_METRIC).tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(PasswordHasher.QUEUE_WAIT_METRIC).tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void upgradeEncoding_OnlyForLowerCostHashes() {
+        hasher = new PasswordHasher(5, 250, 1, 8, meterRegistry);
+
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123"))).isTrue();
+        assertThat(hasher.upgradeEncoding(hasher.encode("password123"))).isFalse();
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123"))).isFalse();
+    }
+
+    @Test
+    void strengthFor_LargestCostWithinTarget() {
+        hasher = new PasswordHasher(4, 250, 1, 8, meterRegistry);
+
+        assertThat(PasswordHasher.strengthFor(60, 250)).isEqualTo(12);
+        assertThat(PasswordHasher.strengthFor(300, 250)).isEqualTo(10);
+        assertThat(PasswordHasher.strengthFor(0.1, 10_000)).isEqualTo(16);
+    }
+
+    @Test
+    void loginStorm_QueueBoundedAndOverflowRejectedFast() throws Exception {
+        // Given - one worker, two queue slots, and each hash costing tens of milliseconds
+        hasher = new PasswordHasher(10, 250, 1, 2, meterRegistry);
+        String encoded = hasher.encode("password123");
+        int callers = 24;
+        ExecutorService storm = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLong slowestRejectionNanos = new AtomicLong();
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(storm.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                try {
+                    hasher.matches("password123", encoded);
+                } catch (PasswordHashingOverloadedException e) {
+                    rejected.incrementAndGet();
+                    slowestRejectionNanos.accumulateAndGet(System.nanoTime() - begin, Math::max);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        storm.shutdown();
+
+        // Then - at most worker + queue callers were admitted at once, the rest bounced immediately
+        assertThat(rejected.get()).isGreaterThan(callers / 2);
+        assertThat(Duration.ofNanos(slowestRejectionNanos.get())).isLessThan(Duration.ofMillis(50));
+        assertThat(meterRegistry.get(PasswordHasher.REJECTED_METRIC).counter().count()).isEqualTo(rejected.get());
+    }
+}
@@ -0,0 +1,169 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.request.LoginRequest;
+import com.microServiceTut.user_auth_service.dto.request.RegisterRequest;
+import com.microServiceTut.user_auth_service.dto.response.TokenValidationResponse;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.model.User;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import com.microServiceTut.user_auth_service.security.JwtUtil;
+import com.microServiceTut.user_auth_service.security.InMemorySigningKeyStore;
+import com.microServiceTut.user_auth_service.security.SigningKeyRing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceImplTest {
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationWhichShouldBeAtLeast256BitsLong";
+    private static final long EXPIRATION = Duration.ofHours(1).toMillis();
+
+    private SigningKeyRing keyRing;
+    private JwtUtil jwtUtil;
+    private TokenBlacklistServiceInterface blacklist;
+    private AuthServiceImpl authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new SigningKeyRing(SigningKeyRing.Algorithm.ES256, Duration.ofDays(1), Duration.ofMinutes(1), EXPIRATION, SECRET,
+                new InMemorySigningKeyStore());
+        jwtUtil = spy(new JwtUtil(SECRET, EXPIRATION, keyRing));
+        blacklist = mock(TokenBlacklistServiceInterface.class);
+        authService = new AuthServiceImpl(mock(UserRepository.class), mock(PasswordEncoder.class), jwtUtil,
+                blacklist, mock(TokenRevocationFeed.class), mock(ProfileCache.class),
+                mock(UserStatsCounter.class), mock(RegisteredEmailFilter.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .email("user@example.com")
+                .role(Role.RIDER)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyRing.shutdown();
+    }
+
+    @Test
+    void validateToken_VerifiesSignatureOnce() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+
+        // When
+        TokenValidationResponse response = authService.validateToken(token);
+
+        // Then
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getUserId()).isEqualTo(user.getId());
+        assertThat(response.getEmail()).isEqualTo("user@example.com");
+        assertThat(response.getRole()).isEqualTo(Role.RIDER);
+        verify(jwtUtil, times(1)).validateToken(token);
+        // Claims come from the one parse, not from a parse per getter
+        verify(jwtUtil, times(1)).parse(token);
+        verify(jwtUtil, never()).getTokenId(anyString());
+        verify(jwtUtil, never()).isTokenValid(anyString());
+        verify(jwtUtil, never()).getUserIdFromToken(anyString());
+        verify(jwtUtil, never()).getEmailFromToken(anyString());
+        verify(jwtUtil, never()).getRoleFromToken(anyString());
+    }
+
+    @Test
+    void validateToken_BlacklistedOrInvalid_Rejected() {
+        String token = jwtUtil.generateToken(user);
+        String tokenId = jwtUtil.parse(token).tokenId();
+        when(blacklist.isTokenBlacklisted(tokenId)).thenReturn(true);
+
+        assertThat(authService.validateToken(token).isValid()).isFalse();
+        assertThat(authService.validateToken(token + "x").isValid()).isFalse();
+    }
+
+    @Test
+    void logout_VerifiesSignatureOnceAndBlacklistsJti() {
+        String token = jwtUtil.generateToken(user);
+        String tokenId = jwtUtil.parse(token).tokenId();
+        clearInvocations(jwtUtil);
+
+        authService.logout(token);
+
+        verify(jwtUtil, times(1)).validateToken(anyString());
+        verify(blacklist).blacklistToken(eq(tokenId), anyLong());
+    }
+
+    @Test
+    void registerAndLogin_PasswordHashedOutsideTransaction() {
+        // Given - a transaction manager that tracks whether a transaction is open
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        List<String> hashedIn = new CopyOnWriteArrayList<>();
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            inTransaction.set(false);
+            return null;
+        }).when(transactionManager).commit(any());
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            hashedIn.add(inTransaction.get() ? "transaction" : "none");
+            return "$2a$12$new";
+        });
+        when(encoder.matches(anyString(), anyString())).thenReturn(true);
+        when(encoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            assertThat(inTransaction).isTrue();
+            User saved = invocation.getArgument(0);
+            saved.setId(UUID.randomUUID());
+            return saved;
+        });
+        when(repository.findByEmail("user@example.com")).thenReturn(Optional.of(User.builder()
+                .id(user.getId()).email("user@example.com").password("$2a$10$old").role(Role.USER).build()));
+        when(repository.updatePasswordIfUnchanged(eq(user.getId()), eq("$2a$10$old"), eq("$2a$12$new"), any()))
+                .thenAnswer(invocation -> {
+                    assertThat(inTransaction).isTrue();
+                    return 1;
+                });
+        RegisteredEmailFilter filter = mock(RegisteredEmailFilter.class);
+        when(filter.mightBeRegistered(anyString())).thenReturn(false, true);
+        AuthServiceImpl service = new AuthServiceImpl(repository, encoder, jwtUtil, blacklist,
+                mock(TokenRevocationFeed.class), mock(ProfileCache.class), mock(UserStatsCounter.class), filter,
+                new TransactionTemplate(transactionManager));
+
+        // When
+        service.register(RegisterRequest.builder().name("New").email("new@example.com").password("secret1").build());
+        service.login(LoginRequest.builder().email("user@example.com").password("secret1").build());
+
+        // Then - one hash at registration, one rehash at login, each followed by its own short write
+        assertThat(hashedIn).containsExactly("none", "none");
+        verify(transactionManager, times(2)).commit(any());
+        verify(repository).updatePasswordIfUnchanged(eq(user.getId()), eq("$2a$10$old"), eq("$2a$12$new"), any());
+    }
+}
@@ -0,0 +1,122 @@
+package com.microServiceTut.user_auth_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringTokenIdSetTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiringTokenIdSetTest.class);
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final int ONE_MILLION = 1_000_000;
+
+    @Test
+    void expire_RemovesOnlyDueEntries() {
+        // Given
+        ExpiringTokenIdSet set = new ExpiringTokenIdSet(NOW);
+        set.add(1, 1, NOW + 1_000);
+        set.add(2, 2, NOW + 5_000);
+        set.add(3, 3, NOW + 1_000);
+        set.add(3, 3, NOW + 9_000);
+
+        // When
+        int removed = set.expire(NOW + 2_000);
+
+        // Then
+        assertThat(removed).isEqualTo(1);
+        assertThat(set.contains(1, 1, NOW + 2_000)).isFalse();
+        assertThat(set.contains(2, 2, NOW + 2_000)).isTrue();
+        assertThat(set.contains(3, 3, NOW + 6_000)).isTrue();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void contains_ExpiredButNotYetSwept_ReturnsFalse() {
+        ExpiringTokenIdSet set = new ExpiringTokenIdSet(NOW);
+        set.add(7, 7, NOW + 1_500);
+
+        assertThat(set.contains(7, 7, NOW + 1_000)).isTrue();
+        assertThat(set.contains(7, 7, NOW + 2_000)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void randomOperations_MatchReferenceMap() {
+        ExpiringTokenIdSet set = new ExpiringTokenIdSet(NOW);
+        Map<UUID, Long> reference = new HashMap<>();
+        Random random = new Random(42);
+        UUID[] ids = new UUID[5_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        long now = NOW;
+        for (int op = 0; op < 200_000; op++) {
+            UUID id = ids[random.nextInt(ids.length)];
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    long expiresAt = now + 1_000 + random.nextInt(60_000);
+                    set.add(id.getMostSignificantBits(), id.getLeastSignificantBits(), expiresAt);
+                    reference.merge(id, ceilSecond(expiresAt), Math::max);
+                }
+                case 2 -> {
+                    set.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                    reference.remove(id);
+                }
+                default -> {
+                    now += random.nextInt(200);
+                    set.expire(now);
+                    long currentNow = now;
+                    reference.values().removeIf(expiresAt -> expiresAt <= currentNow);
+                }
+            }
+        }
+
+        for (UUID id : ids) {
+            assertThat(set.contains(id.getMostSignificantBits(), id.getLeastSignificantBits(), now))
+                    .isEqualTo(reference.containsKey(id));
+        }
+        assertThat(set.size()).isEqualTo(reference.size());
+    }
+
+    @Test
+    void benchmark_OneMillionTokens_FootprintAndSweepPause() {
+        // Given - expiries spread over one day, like 24h tokens logged out at a steady rate
+        ExpiringTokenIdSet set = new ExpiringTokenIdSet(NOW);
+        Random random = new Random(7);
+        for (int i = 0; i < ONE_MILLION; i++) {
+            set.add(random.nextLong(), random.nextLong(), NOW + 1_000 + random.nextInt(86_400_000));
+        }
+        long footprint = set.footprintBytes();
+
+        // When - a routine one-second sweep, then one that catches up on an hour
+        long start = System.nanoTime();
+        int perSecond = set.expire(NOW + 2_000);
+        long oneSecondSweepNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int perHour = set.expire(NOW + 3_600_000);
+        long oneHourSweepNanos = System.nanoTime() - start;
+
+        log.info("1M tokens: {} bytes/entry; 1s sweep removed {} in {} µs, 1h sweep removed {} in {} ms",
+                footprint / ONE_MILLION, perSecond, oneSecondSweepNanos / 1_000,
+                perHour, oneHourSweepNanos / 1_000_000);
+
+        // Then - the String-keyed ConcurrentHashMap this replaced held ~150 bytes/entry
+        assertThat(footprint / ONE_MILLION).isLessThan(80);
+        assertThat(oneSecondSweepNanos).isLessThan(oneHourSweepNanos);
+        assertThat(set.size()).isEqualTo(ONE_MILLION - perSecond - perHour);
+    }
+
+    private static long ceilSecond(long millis) {
+        return (millis + 999) / 1000 * 1000;
+    }
+}
@@ -0,0 +1,248 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+import com.microServiceTut.user_auth_service.exception.UserNotFoundException;
+import com.microServiceTut.user_auth_service.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfileCacheTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileCacheTest.class);
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private InMemoryProfileStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private ProfileCache cache;
+    private Map<UUID, Long> database;
+    private AtomicInteger queries;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryProfileStore();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = newCache(meterRegistry);
+        database = new ConcurrentHashMap<>(Map.of(USER_ID, 1L));
+        queries = new AtomicInteger();
+    }
+
+    @Test
+    void get_RepeatedReads_QueryDatabaseOnce() {
+        // When
+        UserProfileResponse first = cache.get(USER_ID, () -> load(USER_ID));
+        UserProfileResponse second = cache.get(USER_ID, () -> load(USER_ID));
+
+        // Then
+        assertThat(first.getName()).isEqualTo("v1");
+        assertThat(second).isSameAs(first);
+        assertThat(queries).hasValue(1);
+        assertThat(lookups("local")).isEqualTo(1);
+        assertThat(lookups("database")).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_NextReadSeesWrite() {
+        cache.get(USER_ID, () -> load(USER_ID));
+
+        write(USER_ID, 2L, cache);
+
+        assertThat(cache.get(USER_ID, () -> load(USER_ID)).getName()).isEqualTo("v2");
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void invalidate_OnOtherInstance_DropsLocalCopy() {
+        ProfileCache otherInstance = newCache(new SimpleMeterRegistry());
+        cache.get(USER_ID, () -> load(USER_ID));
+
+        write(USER_ID, 2L, otherInstance);
+
+        assertThat(cache.get(USER_ID, () -> load(USER_ID)).getName()).isEqualTo("v2");
+    }
+
+    @Test
+    void get_LoadRacingWrite_DoesNotCacheOldProfile() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A reader has loaded v1 from the database but not cached it yet when v2 commits
+            Future<UserProfileResponse> racing = executor.submit(() -> cache.get(USER_ID, () -> {
+                UserProfileResponse old = load(USER_ID);
+                loaded.countDown();
+                await(written);
+                return old;
+            }));
+            await(loaded);
+            write(USER_ID, 2L, cache);
+            written.countDown();
+
+            assertThat(racing.get(5, TimeUnit.SECONDS).getName()).isEqualTo("v1");
+            assertThat(cache.get(USER_ID, () -> load(USER_ID)).getName()).isEqualTo("v2");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_ColdKeyUnderConcurrentReads_LoadsOnce() throws Exception {
+        int readers = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            List<Future<UserProfileResponse>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    await(start);
+                    return cache.get(USER_ID, () -> {
+                        sleep(100);
+                        return load(USER_ID);
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<UserProfileResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getName()).isEqualTo("v1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(queries).hasValue(1);
+        assertThat(lookups("coalesced")).isEqualTo(readers - 1);
+    }
+
+    @Test
+    void get_UnknownUser_NotCached() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThatThrownBy(() -> cache.get(unknown, () -> load(unknown))).isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> cache.get(unknown, () -> load(unknown))).isInstanceOf(UserNotFoundException.class);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void benchmark_TwoInstancesReadHeavy_HitRatioAndStaleness() throws Exception {
+        // Given - 1,000 users, two instances sharing the store, 8 readers and a writer (~1% writes)
+        int users = 1_000;
+        UUID[] ids = new UUID[users];
+        AtomicLongArray committed = new AtomicLongArray(users);
+        for (int i = 0; i < users; i++) {
+            ids[i] = UUID.randomUUID();
+            database.put(ids[i], 1L);
+            committed.set(i, 1L);
+        }
+        ProfileCache[] instances = {cache, newCache(meterRegistry)};
+        AtomicLong reads = new AtomicLong();
+        AtomicLong staleReads = new AtomicLong();
+        AtomicInteger writes = new AtomicInteger();
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int i = random.nextInt(users);
+                    long committedBefore = committed.get(i);
+                    UserProfileResponse profile = instances[random.nextInt(2)].get(ids[i], () -> load(ids[i]));
+                    if (Long.parseLong(profile.getName().substring(1)) < committedBefore) {
+                        staleReads.incrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        workers.add(executor.submit(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                int i = random.nextInt(users);
+                long version = committed.get(i) + 1;
+                write(ids[i], version, instances[random.nextInt(2)]);
+                committed.set(i, version);
+                writes.incrementAndGet();
+                sleep(1);
+            }
+        }));
+        for (Future<?> worker : workers) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdownNow();
+
+        double hitRatio = 1.0 - (double) queries.get() / reads.get();
+        log.info("{} reads, {} writes: hit ratio {}, {} database queries, {} stale reads",
+                reads.get(), writes.get(), String.format("%.4f", hitRatio), queries.get(), staleReads.get());
+
+        // Then
+        assertThat(staleReads).hasValue(0);
+        assertThat(hitRatio).isGreaterThan(0.9);
+    }
+
+    private ProfileCache newCache(SimpleMeterRegistry registry) {
+        return new ProfileCache(store, registry, true, 10_000, Duration.ofMinutes(1));
+    }
+
+    private UserProfileResponse load(UUID userId) {
+        queries.incrementAndGet();
+        Long version = database.get(userId);
+        if (version == null) {
+            throw new UserNotFoundException(userId.toString());
+        }
+        return UserProfileResponse.builder()
+                .userId(userId)
+                .name("v" + version)
+                .email("user@example.com")
+                .role(Role.USER)
+                .build();
+    }
+
+    private void write(UUID userId, long version, ProfileCache instance) {
+        database.put(userId, version);
+        instance.invalidate(userId);
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.get(ProfileCache.LOOKUP_METRIC).tag("source", source).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microServiceTut.user_auth_service.dto.response.UserProfileResponse;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.service.ProfileStore.VersionedProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisProfileStoreTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> values;
+    private RedisProfileStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        store = new RedisProfileStore(redisTemplate, mock(RedisMessageListenerContainer.class), objectMapper,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_CopyAtCurrentVersion_Returned() throws Exception {
+        // Given
+        VersionedProfile stored = new VersionedProfile(3, profile());
+        when(values.multiGet(anyList())).thenReturn(List.of("3", objectMapper.writeValueAsString(stored)));
+
+        // When
+        VersionedProfile result = store.get(USER_ID);
+
+        // Then
+        assertThat(result.version()).isEqualTo(3);
+        assertThat(result.profile().getName()).isEqualTo("Jane");
+        assertThat(result.profile().getCreatedAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 0));
+    }
+
+    @Test
+    void get_CopyFromOlderVersion_Ignored() throws Exception {
+        VersionedProfile stored = new VersionedProfile(3, profile());
+        when(values.multiGet(anyList())).thenReturn(List.of("4", objectMapper.writeValueAsString(stored)));
+
+        VersionedProfile result = store.get(USER_ID);
+
+        assertThat(result.version()).isEqualTo(4);
+        assertThat(result.profile()).isNull();
+    }
+
+    @Test
+    void invalidate_BumpsVersionDropsCopyAndPublishes() {
+        when(values.increment("profile:version:" + USER_ID)).thenReturn(5L);
+
+        long version = store.invalidate(USER_ID);
+
+        assertThat(version).isEqualTo(5);
+        verify(redisTemplate).delete("profile:data:" + USER_ID);
+        verify(redisTemplate).convertAndSend(RedisProfileStore.EVENTS_CHANNEL, USER_ID + ":5");
+    }
+
+    private static UserProfileResponse profile() {
+        return UserProfileResponse.builder()
+                .userId(USER_ID)
+                .name("Jane")
+                .email("jane@example.com")
+                .role(Role.USER)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.request.LoginRequest;
+import com.microServiceTut.user_auth_service.exception.InvalidCredentialsException;
+import com.microServiceTut.user_auth_service.model.User;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import com.microServiceTut.user_auth_service.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegisteredEmailFilterTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RegisteredEmailFilterTest.class);
+
+    private UserRepository userRepository;
+    private List<String> emails;
+    private Set<String> registered;
+    private AtomicInteger emailQueries;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        emails = new ArrayList<>();
+        registered = new HashSet<>();
+        emailQueries = new AtomicInteger();
+        when(userRepository.count()).thenAnswer(invocation -> (long) emails.size());
+        when(userRepository.findEmailsAfter(any(UUID.class), any(Limit.class))).thenAnswer(invocation -> {
+            int from = (int) invocation.getArgument(0, UUID.class).getLeastSignificantBits();
+            int to = Math.min(emails.size(), from + invocation.getArgument(1, Limit.class).max());
+            List<UserRepository.UserEmail> page = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                UUID id = new UUID(0L, i + 1);
+                String email = emails.get(i);
+                page.add(new UserRepository.UserEmail() {
+                    public UUID getId() { return id; }
+                    public String getEmail() { return email; }
+                });
+            }
+            return page;
+        });
+        when(userRepository.findByEmail(anyString())).thenAnswer(invocation -> {
+            emailQueries.incrementAndGet();
+            String email = invocation.getArgument(0);
+            return registered.contains(email)
+                    ? Optional.of(User.builder().id(UUID.randomUUID()).email(email).password("hash").active(true).build())
+                    : Optional.empty();
+        });
+    }
+
+    @Test
+    void mightBeRegistered_AfterRebuild_KnownEmailsOnly() {
+        // Given
+        register("jane@example.com");
+        RegisteredEmailFilter filter = newFilter(true);
+
+        // When
+        boolean beforeBuild = filter.mightBeRegistered("nobody@example.com");
+        filter.rebuild();
+
+        // Then
+        assertThat(beforeBuild).isTrue();
+        assertThat(filter.mightBeRegistered("jane@example.com")).isTrue();
+        assertThat(filter.mightBeRegistered("  Jane@Example.COM ")).isTrue();
+        assertThat(filter.mightBeRegistered("nobody@example.com")).isFalse();
+    }
+
+    @Test
+    void rebuild_RegistrationNotYetVisibleToScan_Kept() {
+        RegisteredEmailFilter filter = newFilter(true);
+        filter.rebuild();
+
+        // Registered, but its transaction commits after the next scan has read the table
+        filter.add("new@example.com");
+        filter.rebuild();
+
+        assertThat(filter.mightBeRegistered("new@example.com")).isTrue();
+    }
+
+    @Test
+    void login_RegisteredOnOtherInstance_PublishLost_StillReachesDatabase() {
+        Map<String, Double> recent = new ConcurrentHashMap<>();
+        RedisTemplate<String, String> sharedRedis = sharedRedis(recent);
+        RegisteredEmailFilter registeringInstance = newFilter(sharedRedis);
+        RegisteredEmailFilter otherInstance = newFilter(sharedRedis);
+        registeringInstance.rebuild();
+        otherInstance.rebuild();
+
+        // Registered on one instance; the users:registered message never reaches the other
+        register("late@example.com");
+        registeringInstance.add("late@example.com");
+
+        assertThat(otherInstance.mightBeRegistered("late@example.com")).isTrue();
+        assertThat(otherInstance.mightBeRegistered("nobody@example.com")).isFalse();
+        assertThat(queriesFor(List.of("late@example.com"), otherInstance)).isEqualTo(1);
+
+        // Kept until every instance has rebuilt past it
+        otherInstance.rebuild();
+        assertThat(recent).containsKey("late@example.com");
+        recent.put("late@example.com", 0.0);
+        otherInstance.rebuild();
+        assertThat(recent).isEmpty();
+        assertThat(otherInstance.mightBeRegistered("late@example.com")).isTrue();
+    }
+
+    @Test
+    void benchmark_CredentialStuffing_QueriesAvoided() {
+        // Given - 100k accounts; 10k logins, 95% with random emails
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            register("user" + i + "@example.com");
+        }
+        List<String> attempts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            attempts.add(random.nextInt(100) < 95
+                    ? Long.toHexString(random.nextLong()) + "@example.net"
+                    : emails.get(random.nextInt(emails.size())));
+        }
+
+        // When
+        int withoutFilter = queriesFor(attempts, newFilter(false));
+        RegisteredEmailFilter filter = newFilter(true);
+        filter.rebuild();
+        int withFilter = queriesFor(attempts, filter);
+
+        log.info("{} logins (95% unknown emails): {} email queries without the filter, {} with it ({}% avoided)",
+                attempts.size(), withoutFilter, withFilter, 100 - withFilter * 100 / withoutFilter);
+
+        // Then - only known emails and ~1% false positives still reach the database
+        assertThat(withoutFilter).isEqualTo(attempts.size());
+        assertThat(withFilter).isLessThan(attempts.size() / 10);
+    }
+
+    private int queriesFor(List<String> attempts, RegisteredEmailFilter filter) {
+        AuthServiceImpl authService = new AuthServiceImpl(userRepository, mock(PasswordEncoder.class),
+                mock(JwtUtil.class), mock(TokenBlacklistServiceInterface.class), mock(TokenRevocationFeed.class),
+                mock(ProfileCache.class), mock(UserStatsCounter.class), filter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        emailQueries.set(0);
+        for (String email : attempts) {
+            assertThatThrownBy(() -> authService.login(new LoginRequest(email, "guess")))
+                    .isInstanceOf(InvalidCredentialsException.class);
+        }
+        return emailQueries.get();
+    }
+
+    private void register(String email) {
+        emails.add(email);
+        registered.add(email);
+    }
+
+    /**
+     * A Redis whose sorted sets work but whose pub/sub messages are all lost.
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisTemplate<String, String> sharedRedis(Map<String, Double> recent) {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(zSet.add(eq(RegisteredEmailFilter.RECENT_KEY), anyString(), anyDouble())).thenAnswer(invocation ->
+                recent.put(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        when(zSet.score(eq(RegisteredEmailFilter.RECENT_KEY), anyString())).thenAnswer(invocation ->
+                recent.get(invocation.getArgument(1, String.class)));
+        when(zSet.removeRangeByScore(eq(RegisteredEmailFilter.RECENT_KEY), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double max = invocation.getArgument(2);
+            long before = recent.size();
+            recent.values().removeIf(score -> score <= max);
+            return before - recent.size();
+        });
+        return redisTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RegisteredEmailFilter newFilter(RedisTemplate<String, String> redis) {
+        ObjectProvider<RedisTemplate<String, String>> redisTemplate = mock(ObjectProvider.class);
+        when(redisTemplate.getIfAvailable()).thenReturn(redis);
+        ObjectProvider<RedisMessageListenerContainer> listenerContainer = mock(ObjectProvider.class);
+        return new RegisteredEmailFilter(userRepository, redisTemplate, listenerContainer, new SimpleMeterRegistry(),
+                true, 1_000, 0.01, Duration.ofHours(6));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RegisteredEmailFilter newFilter(boolean enabled) {
+        ObjectProvider<RedisTemplate<String, String>> redisTemplate = mock(ObjectProvider.class);
+        ObjectProvider<RedisMessageListenerContainer> listenerContainer = mock(ObjectProvider.class);
+        return new RegisteredEmailFilter(userRepository, redisTemplate, listenerContainer, new SimpleMeterRegistry(),
+                enabled, 1_000, 0.01, Duration.ofHours(6));
+    }
+}
@@ -0,0 +1,173 @@
+package com.microServiceTut.user_auth_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenBlacklistServiceTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ZSetOperations<String, String> zSet;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenBlacklistService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TokenBlacklistService(redisTemplate, mock(RedisMessageListenerContainer.class), meterRegistry,
+                true, 1_000, 0.01, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void isTokenBlacklisted_BeforeSnapshot_AsksRedis() {
+        // Given
+        when(redisTemplate.hasKey("blacklist:jwt:revoked")).thenReturn(true);
+
+        // When
+        boolean blacklisted = service.isTokenBlacklisted("revoked");
+
+        // Then
+        assertThat(blacklisted).isTrue();
+        assertThat(lookups("redis")).isEqualTo(1);
+        assertThat(lookups("local")).isZero();
+    }
+
+    @Test
+    void isTokenBlacklisted_AfterSnapshot_AnsweredLocally() {
+        snapshot("revoked");
+
+        assertThat(service.isTokenBlacklisted("revoked")).isTrue();
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.isTokenBlacklisted(UUID.randomUUID().toString())).isFalse();
+        }
+
+        verify(redisTemplate, never()).hasKey(anyString());
+        assertThat(lookups("local")).isEqualTo(101);
+    }
+
+    @Test
+    void onMessage_RevocationFromOtherInstance_AppliedLocally() {
+        snapshot();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        service.onMessage(event("+" + expiresAt + ":other-instance"), null);
+        boolean afterRevoke = service.isTokenBlacklisted("other-instance");
+        service.onMessage(event("-other-instance"), null);
+        boolean afterRemove = service.isTokenBlacklisted("other-instance");
+
+        assertThat(afterRevoke).isTrue();
+        assertThat(afterRemove).isFalse();
+        // The removed id is still in the Bloom filter, so that last check went to Redis
+        assertThat(lookups("redis")).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.blacklist.bloom.false.positives").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void blacklistToken_WritesRedisAndPublishesEvent() {
+        snapshot();
+
+        service.blacklistToken("logged-out", 60_000);
+
+        assertThat(service.isTokenBlacklisted("logged-out")).isTrue();
+        verify(zSet).add(eq("blacklist:jwt:index"), eq("logged-out"), anyDouble());
+        verify(redisTemplate).convertAndSend(eq(TokenBlacklistService.EVENTS_CHANNEL), startsWith("+"));
+    }
+
+    @Test
+    void blacklistToken_OverCapacity_FallsBackToRedis() {
+        service = new TokenBlacklistService(redisTemplate, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), true, 2, 0.01, Duration.ofHours(1));
+        snapshot();
+
+        service.blacklistToken("a", 60_000);
+        service.blacklistToken("b", 60_000);
+        service.blacklistToken("c", 60_000);
+        when(redisTemplate.hasKey("blacklist:jwt:c")).thenReturn(true);
+
+        assertThat(service.isTokenBlacklisted("c")).isTrue();
+        verify(redisTemplate).hasKey("blacklist:jwt:c");
+    }
+
+    @Test
+    void reconcile_TokenGoneFromSnapshot_DroppedLocally() {
+        snapshot("expired-early", "kept");
+
+        snapshot("kept");
+
+        assertThat(service.isTokenBlacklisted("kept")).isTrue();
+        assertThat(service.isTokenBlacklisted("expired-early")).isFalse();
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void reconcile_ChangesWhileSnapshotRead_KeepLocalState() {
+        snapshot("unblocked");
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        // Events that arrive while the index is being read, after the snapshot saw it
+        when(zSet.rangeByScoreWithScores(eq("blacklist:jwt:index"), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            Set<ZSetOperations.TypedTuple<String>> entries =
+                    new LinkedHashSet<>(Set.of(new DefaultTypedTuple<>("unblocked", (double) expiresAt)));
+            service.onMessage(event("+" + expiresAt + ":logged-out"), null);
+            service.onMessage(event("-unblocked"), null);
+            return entries;
+        });
+
+        service.reconcile();
+
+        assertThat(service.isTokenBlacklisted("logged-out")).isTrue();
+        when(redisTemplate.hasKey("blacklist:jwt:unblocked")).thenReturn(false);
+        assertThat(service.isTokenBlacklisted("unblocked")).isFalse();
+    }
+
+    private void snapshot(String... tokenIds) {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        Set<ZSetOperations.TypedTuple<String>> entries = new LinkedHashSet<>();
+        for (String tokenId : tokenIds) {
+            entries.add(new DefaultTypedTuple<>(tokenId, (double) expiresAt));
+        }
+        when(zSet.rangeByScoreWithScores(eq("blacklist:jwt:index"), anyDouble(), anyDouble())).thenReturn(entries);
+        service.reconcile();
+    }
+
+    private double lookups(String source) {
+        return meterRegistry.get(TokenBlacklistService.LOOKUP_METRIC).tag("source", source).counter().count();
+    }
+
+    private static DefaultMessage event(String body) {
+        return new DefaultMessage(TokenBlacklistService.EVENTS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
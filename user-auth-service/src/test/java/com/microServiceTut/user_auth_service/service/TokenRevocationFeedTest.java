@@ -0,0 +1,116 @@
+package com.microServiceTut.user_auth_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationFeedTest {
+
+    private final TokenRevocationFeed feed = new TokenRevocationFeed(4, Duration.ofMinutes(1));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        feed.stop();
+    }
+
+    @Test
+    void publish_StalledSubscriber_DoesNotBlockOthers() throws Exception {
+        // Given
+        RecordingEmitter stalled = new RecordingEmitter(release, false);
+        RecordingEmitter healthy = new RecordingEmitter(null, false);
+        feed.subscribe(stalled);
+        feed.subscribe(healthy);
+
+        // When
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            feed.publish("token-" + i, 0L);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(elapsedMillis).isLessThan(1_000);
+        assertThat(healthy.awaitSends(3)).isTrue();
+        assertThat(stalled.sends).hasSizeLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void publish_SubscriberFallsBehindQueue_IsDropped() {
+        RecordingEmitter stalled = new RecordingEmitter(release, false);
+        feed.subscribe(stalled);
+
+        for (int i = 0; i < 10; i++) {
+            feed.publish("token-" + i, 0L);
+        }
+
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void heartbeat_DeadConnection_RemovesSubscriber() throws Exception {
+        RecordingEmitter dead = new RecordingEmitter(null, true);
+        RecordingEmitter healthy = new RecordingEmitter(null, false);
+        feed.subscribe(dead);
+        feed.subscribe(healthy);
+
+        feed.heartbeat();
+
+        assertThat(healthy.awaitSends(1)).isTrue();
+        assertThat(dead.awaitSends(1)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (feed.getSubscriberCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    /**
+     * Stands in for a connection: records sends, and can block on a latch or fail like a closed socket.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch blockUntil;
+        private final boolean broken;
+        private final List<SseEventBuilder> sends = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter(CountDownLatch blockUntil, boolean broken) {
+            super(0L);
+            this.blockUntil = blockUntil;
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sends.add(builder);
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        boolean awaitSends(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sends.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return sends.size() >= count;
+        }
+    }
+}
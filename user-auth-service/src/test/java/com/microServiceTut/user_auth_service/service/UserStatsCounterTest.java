@@ -0,0 +1,225 @@
+package com.microServiceTut.user_auth_service.service;
+
+import com.microServiceTut.user_auth_service.dto.request.RegisterRequest;
+import com.microServiceTut.user_auth_service.model.Role;
+import com.microServiceTut.user_auth_service.model.User;
+import com.microServiceTut.user_auth_service.model.UserStats;
+import com.microServiceTut.user_auth_service.repository.UserRepository;
+import com.microServiceTut.user_auth_service.repository.UserStatsRepository;
+import com.microServiceTut.user_auth_service.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the counters against an in-memory stand-in for the users and user_stats tables:
+ * a conditional update per user row and an atomic delta on the stats row, as in Postgres.
+ */
+class UserStatsCounterTest {
+
+    private final Map<UUID, User> users = new ConcurrentHashMap<>();
+    private final Object statsRowLock = new Object();
+    private UserStats statsRow;
+
+    private UserRepository userRepository;
+    private UserStatsRepository statsRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserStatsCounter counter;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        statsRepository = mock(UserStatsRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        stubUsersTable();
+        stubStatsTable();
+        counter = new UserStatsCounter(statsRepository, userRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, Duration.ofMinutes(15));
+        authService = new AuthServiceImpl(userRepository, mock(PasswordEncoder.class), mock(JwtUtil.class),
+                mock(TokenBlacklistServiceInterface.class), mock(TokenRevocationFeed.class),
+                mock(ProfileCache.class), counter, mock(RegisteredEmailFilter.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void current_AfterWrites_MatchesTable() {
+        // Given
+        counter.reconcile();
+        authService.register(registration(Role.ADMIN));
+        authService.register(registration(Role.RIDER));
+        UUID user = authService.register(registration(null)).getUserId();
+
+        // When
+        authService.blockUser(user);
+        authService.blockUser(user);
+        AuthService.UserStatsResponse stats = authService.getUserStats();
+
+        // Then
+        assertThat(stats).isEqualTo(new AuthService.UserStatsResponse(3, 2, 1, 1, 1));
+    }
+
+    @Test
+    void current_ConcurrentRegisterBlockUnblock_MatchesGroundTruth() throws Exception {
+        counter.reconcile();
+        List<UUID> seeded = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            seeded.add(authService.register(registration(Role.USER)).getUserId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int op = 0; op < 2_000; op++) {
+                    UUID target = seeded.get(random.nextInt(seeded.size()));
+                    switch (random.nextInt(4)) {
+                        case 0 -> authService.register(registration(Role.values()[random.nextInt(3)]));
+                        case 1, 2 -> authService.blockUser(target);
+                        default -> authService.unblockUser(target);
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdownNow();
+
+        assertThat(counter.current()).isEqualTo(groundTruth());
+        counter.reconcile();
+        assertThat(meterRegistry.get("auth.user.stats.drift.corrections").counter().count()).isZero();
+    }
+
+    @Test
+    void reconcile_CountersDrifted_Corrected() {
+        counter.reconcile();
+        authService.register(registration(Role.USER));
+        synchronized (statsRowLock) {
+            statsRow.setTotalUsers(42);
+        }
+
+        counter.reconcile();
+
+        assertThat(counter.current()).isEqualTo(groundTruth());
+        assertThat(meterRegistry.get("auth.user.stats.drift.corrections").counter().count()).isEqualTo(1);
+    }
+
+    private AuthService.UserStatsResponse groundTruth() {
+        UserRepository.UserCounts counts = userRepository.countAll();
+        return new AuthService.UserStatsResponse(counts.getTotalUsers(), counts.getActiveUsers(),
+                counts.getBlockedUsers(), counts.getTotalAdmins(), counts.getTotalRiders());
+    }
+
+    private static RegisterRequest registration(Role role) {
+        return RegisterRequest.builder()
+                .name("User")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password123")
+                .role(role)
+                .build();
+    }
+
+    private void stubUsersTable() {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getId() == null) {
+                user.setId(UUID.randomUUID());
+            }
+            users.put(user.getId(), user);
+            return user;
+        });
+        when(userRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(users.get(invocation.<UUID>getArgument(0))));
+        when(userRepository.updateActive(any(UUID.class), anyBoolean(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            boolean active = invocation.getArgument(1);
+            // Row-level: only one of two racing updates sees the old value
+            User user = users.get(invocation.<UUID>getArgument(0));
+            synchronized (user) {
+                if (user.isActive() == active) {
+                    return 0;
+                }
+                user.setActive(active);
+                return 1;
+            }
+        });
+        when(userRepository.countAll()).thenAnswer(invocation -> {
+            long[] counts = new long[5];
+            for (User user : users.values()) {
+                counts[0]++;
+                counts[user.isActive() ? 1 : 2]++;
+                if (user.getRole() == Role.ADMIN) counts[3]++;
+                if (user.getRole() == Role.RIDER) counts[4]++;
+            }
+            return new UserRepository.UserCounts() {
+                public long getTotalUsers() { return counts[0]; }
+                public long getActiveUsers() { return counts[1]; }
+                public long getBlockedUsers() { return counts[2]; }
+                public long getTotalAdmins() { return counts[3]; }
+                public long getTotalRiders() { return counts[4]; }
+            };
+        });
+    }
+
+    private void stubStatsTable() {
+        when(statsRepository.applyDelta(anyLong(), anyLong(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            synchronized (statsRowLock) {
+                if (statsRow == null) {
+                    return 0;
+                }
+                statsRow.setTotalUsers(statsRow.getTotalUsers() + invocation.<Long>getArgument(0));
+                statsRow.setActiveUsers(statsRow.getActiveUsers() + invocation.<Long>getArgument(1));
+                statsRow.setBlockedUsers(statsRow.getBlockedUsers() + invocation.<Long>getArgument(2));
+                statsRow.setTotalAdmins(statsRow.getTotalAdmins() + invocation.<Long>getArgument(3));
+                statsRow.setTotalRiders(statsRow.getTotalRiders() + invocation.<Long>getArgument(4));
+                return 1;
+            }
+        });
+        when(statsRepository.findById(UserStats.SINGLETON_ID)).thenAnswer(invocation -> {
+            synchronized (statsRowLock) {
+                return Optional.ofNullable(statsRow == null ? null : copy(statsRow));
+            }
+        });
+        when(statsRepository.findForUpdate()).thenAnswer(invocation -> {
+            synchronized (statsRowLock) {
+                return Optional.ofNullable(statsRow == null ? null : copy(statsRow));
+            }
+        });
+        when(statsRepository.save(any(UserStats.class))).thenAnswer(invocation -> {
+            synchronized (statsRowLock) {
+                statsRow = copy(invocation.getArgument(0));
+                return copy(statsRow);
+            }
+        });
+    }
+
+    private static UserStats copy(UserStats stats) {
+        return new UserStats(stats.getId(), stats.getTotalUsers(), stats.getActiveUsers(), stats.getBlockedUsers(),
+                stats.getTotalAdmins(), stats.getTotalRiders(), stats.getReconciledAt());
+    }
+}